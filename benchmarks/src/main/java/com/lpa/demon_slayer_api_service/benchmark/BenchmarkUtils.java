@@ -0,0 +1,60 @@
+package com.lpa.demon_slayer_api_service.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Map;
+
+public class BenchmarkUtils {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /**
+      * @param path the classpath resource (characters-mock.json...)
+      * @return the raw bytes of the resource
+      */
+    public static byte[] loadBytes(String path) {
+        try (InputStream in = BenchmarkUtils.class.getClassLoader().getResourceAsStream(path)) {
+            if (in == null)
+                throw new IllegalStateException(path + " not found on the classpath");
+            return in.readAllBytes();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+      * @param path the classpath resource (characters-mock.json...)
+      * @return the parsed JSON document
+      */
+    public static JsonNode readJson(String path) {
+        try {
+            return MAPPER.readTree(loadBytes(path));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+      * Bind a {@code @ConfigurationProperties} record the same way Spring Boot does, so that the benchmarks get the declared defaults
+      *
+      * @param prefix    the properties prefix (api.demonslayer.cache...)
+      * @param type      the properties record class
+      * @param overrides the properties to override, relative to the prefix (ttl=1s...)
+      * @return the bound properties
+      */
+    public static <T> T bindProperties(String prefix, Class<T> type, Map<String, String> overrides) {
+        MapConfigurationPropertySource source = new MapConfigurationPropertySource();
+        overrides.forEach((key, value) -> source.put(prefix + "." + key, value));
+        return new Binder(source).bindOrCreate(prefix, type);
+    }
+
+    public static <T> T bindProperties(String prefix, Class<T> type) {
+        return bindProperties(prefix, type, Map.of());
+    }
+}
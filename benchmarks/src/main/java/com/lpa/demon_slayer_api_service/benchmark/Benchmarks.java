@@ -0,0 +1,46 @@
+package com.lpa.demon_slayer_api_service.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+  * Entry point of benchmarks.jar. It accepts the usual JMH command line options (a benchmark regexp, {@code -p pages=10},
+  * {@code -f}, {@code -prof gc}...), but the results are written as JSON to {@code target/jmh-result.json} unless
+  * {@code -rf}/{@code -rff} say otherwise, so that successive runs can be compared.
+  *
+  * <pre>{@code
+  * java -jar target/benchmarks.jar                                    # every suite
+  * java -jar target/benchmarks.jar DemonSlayerApiServiceBenchmark -p pages=100 -p latencyMillis=20
+  * java -jar target/benchmarks.jar -rff results/2026-10-16.json        # keep a run for later comparison
+  * }</pre>
+  */
+public class Benchmarks {
+
+    static final Path DEFAULT_RESULT = Path.of("target", "jmh-result.json");
+
+    static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        if (commandLine.shouldHelp()) {
+            commandLine.showHelp();
+            return;
+        }
+        if (commandLine.shouldList()) {
+            new Runner(commandLine).list();
+            return;
+        }
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+        if (!commandLine.getResultFormat().hasValue())
+            options.resultFormat(ResultFormatType.JSON);
+        if (!commandLine.getResult().hasValue()) {
+            Files.createDirectories(DEFAULT_RESULT.getParent());
+            options.result(DEFAULT_RESULT.toString());
+        }
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,122 @@
+package com.lpa.demon_slayer_api_service.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import okhttp3.HttpUrl;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+  * Stand-in for the Demon Slayer public API, serving any number of pages built from the mock JSON documents of the service tests
+  * <ul>
+  *     <li>{@code /characters?page=N&limit=L}: page N of {@code totalPages}, L characters per page, with consecutive IDs</li>
+  *     <li>{@code /characters?id=I} or {@code ?name=...}: the character of character-mock.json, with the requested ID</li>
+  * </ul>
+  * Every answer is delayed by {@code latencyMillis} before its headers are sent. The page bodies are built once and reused.
+  */
+public class SyntheticUpstream extends Dispatcher {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final int totalPages;
+    private final int latencyMillis;
+    private final List<JsonNode> characterTemplates;
+    private final ObjectNode lookupTemplate;
+    private final Map<Long, String> pages = new ConcurrentHashMap<>();
+
+    /**
+      * @param totalPages    the number of pages of every collection
+      * @param latencyMillis the delay of every answer
+      */
+    public SyntheticUpstream(int totalPages, int latencyMillis) {
+        this.totalPages = totalPages;
+        this.latencyMillis = latencyMillis;
+        this.characterTemplates = new ArrayList<>();
+        BenchmarkUtils.readJson("characters-mock.json").path("content").forEach(characterTemplates::add);
+        this.lookupTemplate = (ObjectNode) BenchmarkUtils.readJson("character-mock.json");
+    }
+
+    @Override
+    public MockResponse dispatch(RecordedRequest request) {
+        HttpUrl url = request.getRequestUrl();
+        if (url == null)
+            return new MockResponse().setResponseCode(HttpStatus.BAD_REQUEST.value());
+        return respond(url).setHeadersDelay(latencyMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+      * @param url the requested URL
+      * @return the answer, before its latency is applied
+      */
+    protected MockResponse respond(HttpUrl url) {
+        String id = url.queryParameter("id");
+        if (id != null || url.queryParameter("name") != null)
+            return json(character(id == null ? 1 : Long.parseLong(id)));
+        int pageNumber = intParameter(url, "page", 1);
+        int limit = intParameter(url, "limit", 10);
+        return json(page(pageNumber, limit));
+    }
+
+    /**
+      * @param pageNumber the page number, from 1
+      * @param limit      the number of characters per page
+      * @return the JSON body of the page, shaped like characters-mock.json
+      */
+    public String page(int pageNumber, int limit) {
+        return pages.computeIfAbsent((long) pageNumber << 32 | limit, _ -> {
+            ObjectNode page = MAPPER.createObjectNode();
+            page.putObject("pagination")
+                    .put("totalElements", (long) totalPages * limit)
+                    .put("elementsOnPage", pageNumber <= totalPages ? limit : 0)
+                    .put("currentPage", pageNumber)
+                    .put("totalPages", totalPages);
+            ArrayNode content = page.putArray("content");
+            if (pageNumber <= totalPages)
+                for (int i = 0; i < limit; i++)
+                    content.add(characterSummary((long) (pageNumber - 1) * limit + i + 1));
+            return page.toString();
+        });
+    }
+
+    /**
+      * @param id the character ID
+      * @return the JSON body of a lookup, shaped like character-mock.json
+      */
+    public String character(long id) {
+        ObjectNode body = lookupTemplate.deepCopy();
+        JsonNode first = body.path("content").path(0);
+        if (first instanceof ObjectNode character)
+            character.put("id", id);
+        return body.toString();
+    }
+
+    private ObjectNode characterSummary(long id) {
+        ObjectNode character = characterTemplates.get((int) ((id - 1) % characterTemplates.size())).deepCopy();
+        character.put("id", id);
+        character.put("name", character.path("name").asText() + " " + id); //distinct names, as in the real collection
+        return character;
+    }
+
+    protected static MockResponse json(String body) {
+        return new MockResponse()
+                .setResponseCode(HttpStatus.OK.value())
+                .addHeader("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                .setBody(body);
+    }
+
+    private static int intParameter(HttpUrl url, String name, int defaultValue) {
+        String value = url.queryParameter(name);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+}
@@ -0,0 +1,87 @@
+package com.lpa.demon_slayer_api_service.loadtest;
+
+import com.lpa.demon_slayer_api_service.benchmark.SyntheticUpstream;
+import okhttp3.HttpUrl;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+  * {@link SyntheticUpstream} with injected faults: every answer is delayed by the base latency plus a uniform jitter,
+  * a fraction of the requests is answered with 429 Too Many Requests (with a Retry-After header) and another fraction
+  * with 503 Service Unavailable, both with the error body of the real API.
+  */
+public class FaultInjectingUpstream extends SyntheticUpstream {
+
+    private final int latencyMillis;
+    private final int jitterMillis;
+    private final double errorRate;
+    private final double throttleRate;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder injectedErrors = new LongAdder();
+    private final LongAdder injectedThrottles = new LongAdder();
+
+    /**
+      * @param totalPages    the number of pages of every collection
+      * @param latencyMillis the minimum delay of every answer
+      * @param jitterMillis  the maximum random delay added to the minimum one
+      * @param errorRate     the fraction of requests answered with 503
+      * @param throttleRate  the fraction of requests answered with 429
+      */
+    public FaultInjectingUpstream(int totalPages, int latencyMillis, int jitterMillis, double errorRate, double throttleRate) {
+        super(totalPages, latencyMillis);
+        this.latencyMillis = latencyMillis;
+        this.jitterMillis = jitterMillis;
+        this.errorRate = errorRate;
+        this.throttleRate = throttleRate;
+    }
+
+    @Override
+    public MockResponse dispatch(RecordedRequest request) {
+        requests.increment();
+        HttpUrl url = request.getRequestUrl();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double draw = random.nextDouble();
+        MockResponse response;
+        if (url == null) {
+            response = new MockResponse().setResponseCode(HttpStatus.BAD_REQUEST.value());
+        } else if (draw < throttleRate) {
+            injectedThrottles.increment();
+            response = error(HttpStatus.TOO_MANY_REQUESTS, "Too many requests, please slow down.")
+                    .addHeader(HttpHeaders.RETRY_AFTER, "1");
+        } else if (draw < throttleRate + errorRate) {
+            injectedErrors.increment();
+            response = error(HttpStatus.SERVICE_UNAVAILABLE, "Service unavailable");
+        } else {
+            response = respond(url);
+        }
+        int delay = latencyMillis + (jitterMillis > 0 ? random.nextInt(jitterMillis + 1) : 0);
+        return response.setHeadersDelay(delay, TimeUnit.MILLISECONDS);
+    }
+
+    public long requests() {
+        return requests.sum();
+    }
+
+    public long injectedErrors() {
+        return injectedErrors.sum();
+    }
+
+    public long injectedThrottles() {
+        return injectedThrottles.sum();
+    }
+
+    private static MockResponse error(HttpStatus status, String message) {
+        return new MockResponse()
+                .setResponseCode(status.value())
+                .addHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .setBody("{\"error\":{\"status\":" + status.value() + ",\"message\":\"" + message + "\"}}");
+    }
+}
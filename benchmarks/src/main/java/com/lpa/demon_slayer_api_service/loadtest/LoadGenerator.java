@@ -0,0 +1,160 @@
+package com.lpa.demon_slayer_api_service.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+  * Open-model load: requests are sent at a fixed arrival rate whatever the response times, as real clients do. Each latency
+  * is measured from the instant the request was due rather than from the instant it was sent, so a stalled service is
+  * not hidden by the generator waiting for it (coordinated omission). Arrivals beyond {@code maxInFlight} concurrent
+  * requests are not sent and counted as such.
+  */
+public class LoadGenerator {
+
+    static final String COLLECTION = "GET /api/characters";
+    static final String LOOKUP = "GET /api/characters/{id}";
+    static final int NO_RESPONSE = 0; //status recorded for a timeout or a connection error
+
+    private final WebClient client;
+    private final long maxCharacterId;
+    private final double lookupRatio;
+    private final int maxInFlight;
+    private final Duration timeout;
+
+    /**
+      * @param client         the client of the service under test
+      * @param maxCharacterId the lookups pick an ID between 1 and this one
+      * @param lookupRatio    the fraction of lookups, the other requests get the whole collection
+      * @param maxInFlight    the maximum number of requests in flight
+      * @param timeout        the timeout of a single request
+      */
+    public LoadGenerator(WebClient client, long maxCharacterId, double lookupRatio, int maxInFlight, Duration timeout) {
+        this.client = client;
+        this.maxCharacterId = maxCharacterId;
+        this.lookupRatio = lookupRatio;
+        this.maxInFlight = maxInFlight;
+        this.timeout = timeout;
+    }
+
+    /**
+      * Send requests at the given rate for the given duration, then wait for the requests still in flight
+      *
+      * @param rate     the arrival rate, in requests per second
+      * @param duration the duration of the step
+      * @return the latencies and statuses of the step
+      */
+    public StepResult run(int rate, Duration duration) {
+        long periodNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long arrivals = duration.toNanos() / periodNanos;
+        StepResult result = new StepResult(rate, duration);
+        long start = System.nanoTime();
+        Flux.interval(Duration.ofNanos(periodNanos))
+                .take(arrivals)
+                .onBackpressureDrop(_ -> result.notSent.increment())
+                .flatMap(tick -> send(result, start + (tick + 1) * periodNanos), maxInFlight)
+                .blockLast(duration.plus(timeout).plus(timeout));
+        result.elapsedNanos = System.nanoTime() - start;
+        return result;
+    }
+
+    private Mono<Integer> send(StepResult result, long dueAt) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        boolean lookup = random.nextDouble() < lookupRatio;
+        String uri = lookup ? "/api/characters/" + random.nextLong(1, maxCharacterId + 1) : "/api/characters";
+        Scenario scenario = result.scenario(lookup ? LOOKUP : COLLECTION);
+        return client.get()
+                .uri(uri)
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .exchangeToMono(response -> response.releaseBody().thenReturn(response.statusCode().value())) //the body is read, not decoded
+                .timeout(timeout)
+                .onErrorReturn(NO_RESPONSE)
+                .doOnNext(status -> scenario.record(status, System.nanoTime() - dueAt));
+    }
+
+    /**
+      * Latencies (microseconds) and statuses of one kind of request
+      */
+    public static final class Scenario {
+
+        final Histogram latencies = new ConcurrentHistogram(3);
+        final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+        void record(int status, long latencyNanos) {
+            latencies.recordValue(Math.max(1, TimeUnit.NANOSECONDS.toMicros(latencyNanos)));
+            statuses.computeIfAbsent(status, _ -> new LongAdder()).increment();
+        }
+
+        long count() {
+            return latencies.getTotalCount();
+        }
+
+        /**
+          * @return the number of answers which are not 2xx or 304, including the requests without answer
+          */
+        long errors() {
+            return statuses.entrySet().stream()
+                    .filter(entry -> !(entry.getKey() >= 200 && entry.getKey() < 300) && entry.getKey() != 304)
+                    .mapToLong(entry -> entry.getValue().sum())
+                    .sum();
+        }
+
+        Map<Integer, Long> statusCounts() {
+            Map<Integer, Long> counts = new TreeMap<>();
+            statuses.forEach((status, count) -> counts.put(status, count.sum()));
+            return counts;
+        }
+    }
+
+    /**
+      * Outcome of a step of the load test
+      */
+    public static final class StepResult {
+
+        final int rate;
+        final Duration duration;
+        final Map<String, Scenario> scenarios = new ConcurrentHashMap<>();
+        final LongAdder notSent = new LongAdder();
+        volatile long elapsedNanos;
+
+        StepResult(int rate, Duration duration) {
+            this.rate = rate;
+            this.duration = duration;
+        }
+
+        Scenario scenario(String name) {
+            return scenarios.computeIfAbsent(name, _ -> new Scenario());
+        }
+
+        /**
+          * @return every request of the step, whatever the scenario
+          */
+        Scenario overall() {
+            Scenario overall = new Scenario();
+            scenarios.values().forEach(scenario -> {
+                overall.latencies.add(scenario.latencies);
+                scenario.statuses.forEach((status, count) ->
+                        overall.statuses.computeIfAbsent(status, _ -> new LongAdder()).add(count.sum()));
+            });
+            return overall;
+        }
+
+        /**
+          * @return the answered requests per second
+          */
+        double throughput() {
+            return overall().count() * 1e9 / Math.max(1, elapsedNanos);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.lpa.demon_slayer_api_service.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+  * Plain text report of a load test run. Latencies are in milliseconds, measured from the instant each request was due.
+  */
+final class LoadReport {
+
+    private static final String ROW = "  %-28s %9s %9s %9s %9s %9s %9s %9s  %s%n";
+
+    private LoadReport() {}
+
+    static String render(LoadTestOptions options, FaultInjectingUpstream upstream, List<LoadGenerator.StepResult> steps) {
+        StringBuilder report = new StringBuilder();
+        report.append("Load test of ").append(Instant.now()).append('\n')
+                .append(String.format(Locale.ROOT, "Upstream: %d pages of %d, latency %s + up to %s, 503 rate %.3f, 429 rate %.3f%n",
+                        options.pages(), options.pageSize(), options.latency(), options.jitter(), options.errorRate(), options.throttleRate()))
+                .append(String.format(Locale.ROOT, "Upstream requests: %d (%d injected 503, %d injected 429)%n",
+                        upstream.requests(), upstream.injectedErrors(), upstream.injectedThrottles()))
+                .append(String.format(Locale.ROOT, "Load: %.0f%% lookups, at most %d requests in flight, warm-up %s%n%n",
+                        options.lookupRatio() * 100, options.maxInFlight(), options.warmup()));
+        steps.forEach(step -> report.append(summary(step)).append('\n'));
+        report.append(verdict(options, steps)).append("\n\n");
+        steps.forEach(step -> new TreeMap<>(step.scenarios).forEach((name, scenario) -> report
+                .append(String.format(Locale.ROOT, "Percentile distribution of %s at %d req/s (ms)%n", name, step.rate))
+                .append(distribution(scenario.latencies))
+                .append('\n')));
+        return report.toString();
+    }
+
+    /**
+      * @return the latency percentiles and statuses of each scenario of the step
+      */
+    static String summary(LoadGenerator.StepResult step) {
+        StringBuilder summary = new StringBuilder(String.format(Locale.ROOT,
+                "Step %d req/s for %s: %.1f req/s answered, %d not sent (more than max in flight)%n",
+                step.rate, step.duration, step.throughput(), step.notSent.sum()));
+        summary.append(String.format(Locale.ROOT, ROW, "", "count", "errors", "p50", "p90", "p99", "p99.9", "max", "statuses"));
+        Map<String, LoadGenerator.Scenario> rows = new TreeMap<>(step.scenarios);
+        rows.put("all", step.overall());
+        rows.forEach((name, scenario) -> summary.append(String.format(Locale.ROOT, ROW, name,
+                scenario.count(),
+                scenario.errors(),
+                millis(scenario.latencies, 50),
+                millis(scenario.latencies, 90),
+                millis(scenario.latencies, 99),
+                millis(scenario.latencies, 99.9),
+                String.format(Locale.ROOT, "%.1f", scenario.latencies.getMaxValue() / 1000.0),
+                scenario.statusCounts())));
+        return summary.toString();
+    }
+
+    /**
+      * @return the highest rate whose p99 and error rate are within SLO, over every request of the step
+      */
+    static String verdict(LoadTestOptions options, List<LoadGenerator.StepResult> steps) {
+        Integer maxRate = null;
+        for (LoadGenerator.StepResult step : steps) {
+            LoadGenerator.Scenario overall = step.overall();
+            double p99Millis = overall.latencies.getValueAtPercentile(99) / 1000.0;
+            double errorRate = overall.count() == 0 ? 1 : (double) (overall.errors() + step.notSent.sum()) / (overall.count() + step.notSent.sum());
+            if (overall.count() > 0 && p99Millis <= options.sloP99().toMillis() && errorRate <= options.sloErrorRate())
+                maxRate = step.rate;
+        }
+        String slo = String.format(Locale.ROOT, "p99 <= %d ms, error rate <= %.2f%%", options.sloP99().toMillis(), options.sloErrorRate() * 100);
+        return maxRate == null
+                ? "No step within SLO (" + slo + ")"
+                : "Highest rate within SLO (" + slo + "): " + maxRate + " req/s";
+    }
+
+    private static String millis(Histogram latencies, double percentile) {
+        return String.format(Locale.ROOT, "%.1f", latencies.getValueAtPercentile(percentile) / 1000.0);
+    }
+
+    /**
+      * @return the HdrHistogram percentile distribution, which can be plotted with the HdrHistogram plotter
+      */
+    private static String distribution(Histogram latencies) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (PrintStream out = new PrintStream(bytes, true, StandardCharsets.UTF_8)) {
+            latencies.outputPercentileDistribution(out, 1000.0); //microseconds to milliseconds
+        }
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,97 @@
+package com.lpa.demon_slayer_api_service.loadtest;
+
+import com.lpa.demon_slayer_api_service.DemonSlayerApiServiceApplication;
+import okhttp3.mockwebserver.MockWebServer;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.reactive.context.ReactiveWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+  * Local load test of {@code /api/characters} and {@code /api/characters/{id}}. It starts a synthetic upstream injecting
+  * latency, 503 and 429 answers ({@link FaultInjectingUpstream}), starts the service against it on a random port, then sends
+  * open-model load at increasing rates ({@link LoadGenerator}). The report gives the p50/p90/p99/max latencies and the
+  * statuses of each step, the highest rate within SLO, and the HdrHistogram percentile distributions.
+  * Nothing leaves the machine.
+  *
+  * <pre>{@code
+  * java -cp target/benchmarks.jar com.lpa.demon_slayer_api_service.loadtest.LoadTest
+  * java -cp target/benchmarks.jar com.lpa.demon_slayer_api_service.loadtest.LoadTest rates=100,500,1000 duration=1m errorRate=0.05 \
+  *     --api.demonslayer.catalog.enabled=false
+  * }</pre>
+  *
+  * @see LoadTestOptions
+  */
+public class LoadTest {
+
+    static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        FaultInjectingUpstream upstream = new FaultInjectingUpstream(options.pages(), (int) options.latency().toMillis(),
+                (int) options.jitter().toMillis(), options.errorRate(), options.throttleRate());
+        MockWebServer upstreamServer = new MockWebServer();
+        upstreamServer.setDispatcher(upstream);
+        upstreamServer.start();
+        try {
+            try (ConfigurableApplicationContext service = startService(options, upstreamServer.getPort())) {
+                int port = ((ReactiveWebServerApplicationContext) service).getWebServer().getPort();
+                LoadGenerator generator = new LoadGenerator(client(port, options.maxInFlight()),
+                        (long) options.pages() * options.pageSize(), options.lookupRatio(), options.maxInFlight(), options.timeout());
+
+                System.out.printf("Warm-up at %d req/s for %s%n", options.rates().getFirst(), options.warmup());
+                generator.run(options.rates().getFirst(), options.warmup()); //first crawl, JIT, connection pools
+                List<LoadGenerator.StepResult> steps = new ArrayList<>();
+                for (int rate : options.rates()) {
+                    System.out.printf("Step at %d req/s for %s%n", rate, options.duration());
+                    LoadGenerator.StepResult step = generator.run(rate, options.duration());
+                    steps.add(step);
+                    System.out.print(LoadReport.summary(step));
+                }
+
+                String report = LoadReport.render(options, upstream, steps);
+                if (options.report().getParent() != null)
+                    Files.createDirectories(options.report().getParent());
+                Files.writeString(options.report(), report);
+                System.out.printf("%s%nReport written to %s%n", LoadReport.verdict(options, steps), options.report().toAbsolutePath());
+            }
+        } finally {
+            upstreamServer.shutdown();
+        }
+    }
+
+    private static ConfigurableApplicationContext startService(LoadTestOptions options, int upstreamPort) {
+        return new SpringApplicationBuilder(DemonSlayerApiServiceApplication.class)
+                .properties(Map.of(
+                        "server.port", "0",
+                        "api.demonslayer.base.url", "http://localhost:" + upstreamPort,
+                        "api.demonslayer.character.endpoint", "/characters",
+                        "api.demonslayer.combat.style.endpoint", "/combat-styles",
+                        "api.demonslayer.crawl.page-size.size", String.valueOf(options.pageSize()),
+                        "api.demonslayer.snapshot.enabled", "false", //no warm start from a previous run
+                        "spring.main.banner-mode", "off"))
+                .run(options.serviceArgs().toArray(String[]::new)); //--key=value arguments override the properties above
+    }
+
+    /**
+      * The load generator gets its own connection pool, large enough not to queue the requests it is asked to send
+      */
+    private static WebClient client(int port, int maxConnections) {
+        ConnectionProvider connectionProvider = ConnectionProvider.builder("load-test")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        return WebClient.builder()
+                .baseUrl("http://localhost:" + port)
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connectionProvider)
+                        .responseTimeout(Duration.ofMinutes(1))))
+                .build();
+    }
+}
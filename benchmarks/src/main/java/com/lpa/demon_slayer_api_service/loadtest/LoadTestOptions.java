@@ -0,0 +1,99 @@
+package com.lpa.demon_slayer_api_service.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+
+/**
+  * Options of a load test run, given as {@code key=value} arguments. Arguments starting with {@code --} are Spring Boot
+  * properties passed to the service as is (e.g. {@code --api.demonslayer.catalog.enabled=false}).
+  *
+  * @param pages         the number of pages served by the synthetic upstream
+  * @param pageSize      the page size requested by the service
+  * @param latency       the minimum latency of every upstream answer
+  * @param jitter        the maximum random latency added to the minimum one
+  * @param errorRate     the fraction of upstream requests answered with 503
+  * @param throttleRate  the fraction of upstream requests answered with 429
+  * @param rates         the arrival rates (requests per second) of the successive steps
+  * @param warmup        the duration of the warm-up step, run at the first rate and not reported
+  * @param duration      the duration of each measured step
+  * @param lookupRatio   the fraction of requests for {@code /api/characters/{id}}, the others request {@code /api/characters}
+  * @param maxInFlight   the maximum number of requests in flight, arrivals beyond it are counted as not sent
+  * @param timeout       the timeout of a single request
+  * @param sloP99        the p99 latency a step must not exceed to be within SLO
+  * @param sloErrorRate  the error rate a step must not exceed to be within SLO
+  * @param report        the report file
+  * @param serviceArgs   the Spring Boot properties passed to the service
+  */
+public record LoadTestOptions(
+        int pages,
+        int pageSize,
+        Duration latency,
+        Duration jitter,
+        double errorRate,
+        double throttleRate,
+        List<Integer> rates,
+        Duration warmup,
+        Duration duration,
+        double lookupRatio,
+        int maxInFlight,
+        Duration timeout,
+        Duration sloP99,
+        double sloErrorRate,
+        Path report,
+        List<String> serviceArgs
+) {
+
+    private static final Map<String, String> DEFAULTS = Map.ofEntries(
+            Map.entry("pages", "2000"),
+            Map.entry("pageSize", "10"),
+            Map.entry("latency", "20ms"),
+            Map.entry("jitter", "30ms"),
+            Map.entry("errorRate", "0.01"),
+            Map.entry("throttleRate", "0.01"),
+            Map.entry("rates", "50,100,200,400,800"),
+            Map.entry("warmup", "20s"),
+            Map.entry("duration", "30s"),
+            Map.entry("lookupRatio", "0.5"),
+            Map.entry("maxInFlight", "2000"),
+            Map.entry("timeout", "10s"),
+            Map.entry("sloP99", "250ms"),
+            Map.entry("sloErrorRate", "0.01"),
+            Map.entry("report", "target/load-report.txt")
+    );
+
+    public static LoadTestOptions parse(String... args) {
+        Map<String, String> values = new HashMap<>(DEFAULTS);
+        List<String> serviceArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                serviceArgs.add(arg);
+                continue;
+            }
+            int separator = arg.indexOf('=');
+            if (separator < 0 || !DEFAULTS.containsKey(arg.substring(0, separator)))
+                throw new IllegalArgumentException("Unknown option '" + arg + "', expected one of " + new TreeSet<>(DEFAULTS.keySet()));
+            values.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        return new LoadTestOptions(
+                Integer.parseInt(values.get("pages")),
+                Integer.parseInt(values.get("pageSize")),
+                DurationStyle.detectAndParse(values.get("latency")),
+                DurationStyle.detectAndParse(values.get("jitter")),
+                Double.parseDouble(values.get("errorRate")),
+                Double.parseDouble(values.get("throttleRate")),
+                Arrays.stream(values.get("rates").split(",")).map(String::trim).map(Integer::valueOf).toList(),
+                DurationStyle.detectAndParse(values.get("warmup")),
+                DurationStyle.detectAndParse(values.get("duration")),
+                Double.parseDouble(values.get("lookupRatio")),
+                Integer.parseInt(values.get("maxInFlight")),
+                DurationStyle.detectAndParse(values.get("timeout")),
+                DurationStyle.detectAndParse(values.get("sloP99")),
+                Double.parseDouble(values.get("sloErrorRate")),
+                Path.of(values.get("report")),
+                List.copyOf(serviceArgs)
+        );
+    }
+}
@@ -0,0 +1,49 @@
+package com.lpa.demon_slayer_api_service.model.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lpa.demon_slayer_api_service.benchmark.BenchmarkUtils;
+import com.lpa.demon_slayer_api_service.benchmark.SyntheticUpstream;
+import com.lpa.demon_slayer_api_service.model.dto.character.CharacterResponseDto;
+import com.lpa.demon_slayer_api_service.model.dto.pagination.PageResponseCharacterSummaryDto;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+  * Jackson decoding of the upstream answers, with an ObjectMapper configured like the Spring Boot one
+  */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DtoDecodingBenchmark {
+
+    @Param({"10", "100"})
+    int pageSize;
+
+    private ObjectMapper mapper;
+    private byte[] page;
+    private byte[] character;
+
+    @Setup
+    public void prepare() {
+        mapper = Jackson2ObjectMapperBuilder.json().build();
+        page = new SyntheticUpstream(1, 0).page(1, pageSize).getBytes(StandardCharsets.UTF_8);
+        character = BenchmarkUtils.loadBytes("character-mock.json");
+    }
+
+    @Benchmark
+    public PageResponseCharacterSummaryDto decodeCharacterSummaryPage() throws IOException {
+        return mapper.readValue(page, PageResponseCharacterSummaryDto.class);
+    }
+
+    @Benchmark
+    public CharacterResponseDto decodeCharacterResponse() throws IOException {
+        return mapper.readValue(character, CharacterResponseDto.class);
+    }
+}
@@ -0,0 +1,77 @@
+package com.lpa.demon_slayer_api_service.service;
+
+import com.lpa.demon_slayer_api_service.benchmark.BenchmarkUtils;
+import com.lpa.demon_slayer_api_service.benchmark.SyntheticUpstream;
+import com.lpa.demon_slayer_api_service.config.CacheProperties;
+import com.lpa.demon_slayer_api_service.config.CrawlProperties;
+import com.lpa.demon_slayer_api_service.config.RateLimitProperties;
+import com.lpa.demon_slayer_api_service.config.ResilienceProperties;
+import com.lpa.demon_slayer_api_service.config.SnapshotProperties;
+import com.lpa.demon_slayer_api_service.config.UpstreamClientProperties;
+import com.lpa.demon_slayer_api_service.model.dto.character.CharacterSummaryDto;
+import com.lpa.demon_slayer_api_service.service.cache.SnapshotStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.mockwebserver.MockWebServer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+  * Whole {@link DemonSlayerApiService#getAllCharacters()} crawl against a local synthetic upstream: page requests through the
+  * limiter, bulkhead and circuit breaker, JSON decoding, ordered merge of the pages. The snapshot cache TTL is zero,
+  * so every invocation crawls every page.
+  */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DemonSlayerApiServiceBenchmark {
+
+    @Param({"1", "10", "100"})
+    int pages;
+
+    @Param({"0", "20"})
+    int latencyMillis;
+
+    @Param({"10"})
+    int pageSize;
+
+    private MockWebServer upstream;
+    private DemonSlayerApiService service;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        upstream = new MockWebServer();
+        upstream.setDispatcher(new SyntheticUpstream(pages, latencyMillis));
+        upstream.start();
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        service = new DemonSlayerApiService(WebClient.builder(), String.format("http://localhost:%s", upstream.getPort()),
+                "/characters",
+                "/combat-styles",
+                BenchmarkUtils.bindProperties("api.demonslayer.cache", CacheProperties.class, Map.of("ttl", "0s", "max-staleness", "0s")),
+                BenchmarkUtils.bindProperties("api.demonslayer.crawl", CrawlProperties.class, Map.of("page-size.size", String.valueOf(pageSize))),
+                BenchmarkUtils.bindProperties("api.demonslayer.resilience", ResilienceProperties.class),
+                BenchmarkUtils.bindProperties("api.demonslayer.upstream-client", UpstreamClientProperties.class),
+                BenchmarkUtils.bindProperties("api.demonslayer.rate-limit", RateLimitProperties.class, Map.of("enabled", "false")), //the crawl itself is measured
+                new SnapshotStore(BenchmarkUtils.bindProperties("api.demonslayer.snapshot", SnapshotProperties.class, Map.of("enabled", "false")),
+                        meterRegistry),
+                meterRegistry);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws IOException {
+        upstream.shutdown();
+    }
+
+    @Benchmark
+    public List<CharacterSummaryDto> getAllCharacters() {
+        return service.getAllCharacters().collectList().block();
+    }
+}
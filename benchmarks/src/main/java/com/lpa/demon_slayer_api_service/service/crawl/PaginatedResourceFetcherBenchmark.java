@@ -0,0 +1,75 @@
+package com.lpa.demon_slayer_api_service.service.crawl;
+
+import com.lpa.demon_slayer_api_service.benchmark.BenchmarkUtils;
+import com.lpa.demon_slayer_api_service.config.CrawlProperties;
+import com.lpa.demon_slayer_api_service.model.dto.CombatStyleDto;
+import com.lpa.demon_slayer_api_service.model.dto.pagination.PageResponseCombatStyleDto;
+import com.lpa.demon_slayer_api_service.model.dto.pagination.PaginationDto;
+import com.lpa.demon_slayer_api_service.service.concurrency.AdaptiveConcurrencyLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+/**
+  * Whole crawl of a paginated resource by {@link PaginatedResourceFetcher}, one strategy against the other, over in-memory pages
+  * answered after a fixed latency: the cost of the strategy itself, without HTTP nor JSON decoding.
+  */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PaginatedResourceFetcherBenchmark {
+
+    private static final int PAGE_SIZE = 10;
+
+    @Param({"EAGER", "SEQUENTIAL", "PREFETCH"})
+    CrawlProperties.Strategy strategy;
+
+    @Param({"10", "100"})
+    int pages;
+
+    @Param({"0", "5"})
+    int latencyMillis;
+
+    private PaginatedResourceFetcher<CombatStyleDto, PageResponseCombatStyleDto> fetcher;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        List<PageResponseCombatStyleDto> upstreamPages = IntStream.rangeClosed(1, pages)
+                .mapToObj(pageNumber -> new PageResponseCombatStyleDto(new PaginationDto(pageNumber, pages, (long) pages * PAGE_SIZE, PAGE_SIZE),
+                        LongStream.rangeClosed(1, PAGE_SIZE)
+                                .mapToObj(i -> CombatStyleDto.builder().id((pageNumber - 1L) * PAGE_SIZE + i).name("Style " + i).build())
+                                .toList()))
+                .toList();
+        Duration latency = Duration.ofMillis(latencyMillis);
+        PaginatedResourceFetcher.PageSource<PageResponseCombatStyleDto> pageSource = (pageNumber, _) -> latencyMillis == 0
+                ? Mono.just(upstreamPages.get(pageNumber - 1))
+                : Mono.delay(latency).map(_ -> upstreamPages.get(pageNumber - 1));
+        CrawlProperties crawlProperties = BenchmarkUtils.bindProperties("api.demonslayer.crawl", CrawlProperties.class,
+                Map.of("page-size.size", String.valueOf(PAGE_SIZE), "combat-styles.strategy", strategy.name()));
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        fetcher = new PaginatedResourceFetcher<>("/combat-styles", "No combat styles found", pageSource,
+                crawlProperties, crawlProperties.combatStyles(),
+                new AdaptiveConcurrencyLimiter("page", crawlProperties.concurrency(), meterRegistry),
+                new PageSizeNegotiator(crawlProperties.pageSize()),
+                new RetryBudget(crawlProperties.retry().budgetRatio(), crawlProperties.retry().budgetMax()), Retry.max(0),
+                meterRegistry);
+    }
+
+    @Benchmark
+    public List<CrawledPage<CombatStyleDto>> fetch() {
+        return fetcher.fetch(true, new HashSet<>()).collectList().block();
+    }
+}
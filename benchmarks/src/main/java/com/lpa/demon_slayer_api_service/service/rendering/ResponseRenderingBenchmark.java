@@ -0,0 +1,84 @@
+package com.lpa.demon_slayer_api_service.service.rendering;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lpa.demon_slayer_api_service.benchmark.BenchmarkUtils;
+import com.lpa.demon_slayer_api_service.benchmark.SyntheticUpstream;
+import com.lpa.demon_slayer_api_service.exception.DemonSlayerApiException;
+import com.lpa.demon_slayer_api_service.model.dto.character.CharacterDto;
+import com.lpa.demon_slayer_api_service.model.dto.character.CharacterResponseDto;
+import com.lpa.demon_slayer_api_service.model.dto.character.CharacterSummaryDto;
+import com.lpa.demon_slayer_api_service.model.dto.pagination.PageResponseCharacterSummaryDto;
+import com.lpa.demon_slayer_api_service.service.cache.SnapshotCodec;
+import com.lpa.demon_slayer_api_service.service.crawl.CrawlResult;
+import com.lpa.demon_slayer_api_service.utils.DemonSlayerApiUtils;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+  * What the controller writes for each response
+  * <ul>
+  *     <li>the characters list: pre-rendered body of the current snapshot (every request), rendering of a new snapshot
+  *     (once per refresh), Jackson serialization then gzip on every response (the former response path), sparse fieldset</li>
+  *     <li>a single character: strong ETag from the binary encoding, then Jackson serialization</li>
+  * </ul>
+  */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResponseRenderingBenchmark {
+
+    @Param({"100", "1000"})
+    int characters;
+
+    private ObjectMapper mapper;
+    private FieldProjections projections;
+    private CollectionRenderer renderer;
+    private CrawlResult<CharacterSummaryDto> snapshot;
+    private FieldSet fields;
+    private CharacterDto character;
+
+    @Setup
+    public void prepare() throws IOException, DemonSlayerApiException {
+        mapper = Jackson2ObjectMapperBuilder.json().build();
+        projections = new FieldProjections(mapper);
+        renderer = new CollectionRenderer(mapper, projections);
+        List<CharacterSummaryDto> items = mapper.readValue(new SyntheticUpstream(1, 0).page(1, characters),
+                PageResponseCharacterSummaryDto.class).content();
+        snapshot = new CrawlResult<>(items, List.of(), "\"v1\"");
+        fields = FieldSet.parse("id,name,img");
+        character = mapper.readValue(BenchmarkUtils.loadBytes("character-mock.json"), CharacterResponseDto.class).content().getFirst();
+    }
+
+    @Benchmark
+    public int collectionPreRendered() {
+        return renderer.render("characters", snapshot).body(ContentCoding.GZIP).readableByteCount();
+    }
+
+    @Benchmark
+    public int collectionNewSnapshot() {
+        return renderer.render("characters", new CrawlResult<>(snapshot.items(), List.of(), "\"v2\"")).gzip().length;
+    }
+
+    @Benchmark
+    public int collectionPerResponse() throws IOException {
+        return CollectionRenderer.gzip(mapper.writeValueAsBytes(snapshot.items())).length;
+    }
+
+    @Benchmark
+    public int collectionProjected() {
+        return projections.writeValueAsBytes(snapshot.items(), fields).length;
+    }
+
+    @Benchmark
+    public int characterWithEtag() throws IOException {
+        String etag = DemonSlayerApiUtils.strongEtag(SnapshotCodec.CHARACTERS.encode(character));
+        return etag.length() + mapper.writeValueAsBytes(character).length;
+    }
+}
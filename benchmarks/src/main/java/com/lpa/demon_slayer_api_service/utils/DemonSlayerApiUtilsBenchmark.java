@@ -0,0 +1,49 @@
+package com.lpa.demon_slayer_api_service.utils;
+
+import com.lpa.demon_slayer_api_service.model.dto.character.CharacterSummaryDto;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+  * {@link DemonSlayerApiUtils#sortById(List)}, applied to every page of an ordered crawl. Upstream pages are usually already sorted.
+  */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DemonSlayerApiUtilsBenchmark {
+
+    @Param({"10", "100", "1000"})
+    int size;
+
+    private List<CharacterSummaryDto> sorted;
+    private List<CharacterSummaryDto> shuffled;
+
+    @Setup
+    public void prepare() {
+        sorted = LongStream.rangeClosed(1, size)
+                .mapToObj(id -> new CharacterSummaryDto(id, "Character " + id, "Male", "Human", "", ""))
+                .toList();
+        List<CharacterSummaryDto> copy = new ArrayList<>(sorted);
+        Collections.shuffle(copy, new Random(42)); //same order on every run
+        shuffled = List.copyOf(copy);
+    }
+
+    @Benchmark
+    public List<CharacterSummaryDto> sortByIdAlreadySorted() {
+        return DemonSlayerApiUtils.sortById(sorted);
+    }
+
+    @Benchmark
+    public List<CharacterSummaryDto> sortByIdShuffled() {
+        return DemonSlayerApiUtils.sortById(shuffled);
+    }
+}
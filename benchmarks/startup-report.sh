@@ -0,0 +1,75 @@
+#!/usr/bin/env bash
+# Startup time and memory of each Docker variant of the service: plain JVM (runtime), Spring AOT + AOT cache (cds), GraalVM native image (native).
+# Each variant is started RUNS times, the report gives the median time until /actuator/health answers UP (measured from docker run),
+# the startup time logged by Spring Boot, and the resident set size of the process once started.
+# The upstream is unreachable, so the warm-up crawls fail fast: the figures cover the startup of the service alone.
+#
+# Usage, from the repository root: benchmarks/startup-report.sh [variant...]
+#   RUNS=5 PORT=18081 BUILD=false benchmarks/startup-report.sh runtime cds
+# BUILD=false reuses the demon-slayer-api:<variant> images already built. The report is also written to benchmarks/target/startup-report.txt
+set -euo pipefail
+
+if (( $# > 0 )); then
+    VARIANTS=("$@")
+else
+    VARIANTS=(runtime cds native)
+fi
+RUNS="${RUNS:-5}"
+PORT="${PORT:-18081}"
+BUILD="${BUILD:-true}"
+TIMEOUT_SECONDS="${TIMEOUT_SECONDS:-120}"
+REPORT="benchmarks/target/startup-report.txt"
+
+now_millis() {
+    date +%s%3N
+}
+
+median() {
+    sort -n | awk '{ values[NR] = $1 } END { if (NR == 0) print "n/a"; else if (NR % 2) print values[(NR + 1) / 2]; else print (values[NR / 2] + values[NR / 2 + 1]) / 2 }'
+}
+
+# one start of a variant: prints "<millis until healthy> <spring startup seconds> <rss KiB>"
+measure() {
+    local image="$1" container start healthy spring rss
+    start=$(now_millis)
+    #unreachable upstream, as the training run of the Dockerfile: the report never sends traffic to the public API
+    container=$(docker run -d -p "${PORT}:8081" \
+        -e API_DEMONSLAYER_BASE_URL=http://localhost:9 \
+        -e API_DEMONSLAYER_CHARACTER_ENDPOINT=/characters \
+        -e API_DEMONSLAYER_COMBAT_STYLE_ENDPOINT=/combat-styles \
+        -e API_DEMONSLAYER_SNAPSHOT_ENABLED=false \
+        "$image")
+    trap 'docker rm -f "$container" > /dev/null 2>&1 || true' RETURN
+    until curl -sf "http://localhost:${PORT}/actuator/health" | grep -q '"UP"'; do
+        if (( $(now_millis) - start > TIMEOUT_SECONDS * 1000 )); then
+            echo "$image did not start within ${TIMEOUT_SECONDS}s" >&2
+            docker logs "$container" >&2
+            return 1
+        fi
+        sleep 0.02
+    done
+    healthy=$(( $(now_millis) - start ))
+    sleep 2 #let the startup work settle before reading the memory
+    spring=$(docker logs "$container" 2>&1 | sed -n 's/.*Started .* in \([0-9.]*\) seconds.*/\1/p' | head -1)
+    rss=$(docker top "$container" -o rss | tail -n +2 | awk '{ total += $1 } END { print total }')
+    echo "$healthy ${spring:-n/a} ${rss:-n/a}"
+}
+
+mkdir -p "$(dirname "$REPORT")"
+{
+    printf '%-10s %18s %20s %14s\n' "variant" "healthy (ms, p50)" "spring started (s)" "RSS (MiB)"
+    for variant in "${VARIANTS[@]}"; do
+        image="demon-slayer-api:${variant}"
+        if [[ "$BUILD" == "true" ]]; then
+            docker build -q --target "$variant" -t "$image" . > /dev/null
+        fi
+        results=()
+        for (( run = 1; run <= RUNS; run++ )); do
+            results+=("$(measure "$image")")
+        done
+        healthy=$(printf '%s\n' "${results[@]}" | awk '{ print $1 }' | median)
+        spring=$(printf '%s\n' "${results[@]}" | awk '$2 != "n/a" { print $2 }' | median)
+        rss=$(printf '%s\n' "${results[@]}" | awk '$3 != "n/a" { printf "%.1f\n", $3 / 1024 }' | median)
+        printf '%-10s %18s %20s %14s\n' "$variant" "$healthy" "$spring" "$rss"
+    done
+} | tee "$REPORT"
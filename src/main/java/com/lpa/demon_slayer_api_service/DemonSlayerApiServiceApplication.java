@@ -1,9 +1,16 @@
 package com.lpa.demon_slayer_api_service;
 
+import com.lpa.demon_slayer_api_service.config.JsonRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
+@EnableScheduling
+@ImportRuntimeHints(JsonRuntimeHints.class)
 public class DemonSlayerApiServiceApplication {
 
 	static void main(String[] args) {
@@ -0,0 +1,29 @@
+package com.lpa.demon_slayer_api_service.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+  * Settings of the in-process snapshot caches holding the full characters and combat styles collections
+  *
+  * @param ttl              how long a snapshot is considered fresh and served without any upstream call
+  * @param maxStaleness     how long a snapshot may still be served (while a single background refresh runs) once its TTL has expired,
+  *                         after that it is only served if the reload fails
+  * @param evictAfterIdle   a snapshot that has not been read for this duration is dropped to release memory
+  * @param poll             poll upstream for changes of the snapshots in memory every {@code api.demonslayer.cache.poll-interval},
+  *                         whether they are read or not
+  */
+@ConfigurationProperties(prefix = "api.demonslayer.cache")
+public record CacheProperties(
+        @DefaultValue("5m") Duration ttl,
+        @DefaultValue("1h") Duration maxStaleness,
+        @DefaultValue("6h") Duration evictAfterIdle,
+        @DefaultValue("true") boolean poll
+) {
+    public CacheProperties {
+        if (maxStaleness.compareTo(ttl) < 0)
+            throw new IllegalArgumentException("api.demonslayer.cache.max-staleness must be greater than or equal to the TTL");
+    }
+}
@@ -0,0 +1,21 @@
+package com.lpa.demon_slayer_api_service.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+  * Settings of the local character catalog answering {@code /characters/{id}} and {@code /characters/search} from memory
+  *
+  * @param enabled          when false, every lookup goes to the upstream API
+  * @param loadConcurrency  the maximum number of character details fetched simultaneously while (re)loading the catalog
+  * @param batchConcurrency the maximum number of IDs of a batch lookup resolved simultaneously, less than half of the lookup bulkhead
+  *                         ({@code api.demonslayer.resilience.bulkhead.lookup-max-concurrent}) so that two batches and a single lookup fit in it
+  * @param batchMaxSize     the maximum number of distinct IDs of a batch lookup
+  */
+@ConfigurationProperties(prefix = "api.demonslayer.catalog")
+public record CatalogProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("4") int loadConcurrency,
+        @DefaultValue("4") int batchConcurrency,
+        @DefaultValue("100") int batchMaxSize
+) {}
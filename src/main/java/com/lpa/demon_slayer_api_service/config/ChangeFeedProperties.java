@@ -0,0 +1,26 @@
+package com.lpa.demon_slayer_api_service.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+  * Settings of the Server-Sent Events change feeds ({@code /characters/changes}, {@code /combat-styles/changes})
+  *
+  * @param bufferSize the number of last changes kept per collection: a client can resume from any of them, and a client
+  *                   lagging further behind is disconnected
+  * @param heartbeat  the interval of the keep-alive comments sent to idle clients
+  */
+@ConfigurationProperties(prefix = "api.demonslayer.change-feed")
+public record ChangeFeedProperties(
+        @DefaultValue("1024") int bufferSize,
+        @DefaultValue("15s") Duration heartbeat
+) {
+    public ChangeFeedProperties {
+        if (bufferSize < 1)
+            throw new IllegalArgumentException("api.demonslayer.change-feed.buffer-size must be at least 1");
+        if (heartbeat.isNegative() || heartbeat.isZero())
+            throw new IllegalArgumentException("api.demonslayer.change-feed.heartbeat must be positive");
+    }
+}
@@ -0,0 +1,152 @@
+package com.lpa.demon_slayer_api_service.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+  * Settings of the crawl of the paginated endpoints (characters, combat styles) of the Demon Slayer API
+  *
+  * @param pageTimeout  the maximum time to wait for a single page
+  * @param concurrency  the bounds of the adaptive limit of pages requested simultaneously
+  * @param pageSize     the number of elements requested per page and the page size probing settings
+  * @param retry        the retry settings of a failed page
+  * @param hedge        the hedging settings of a slow page
+  * @param characters   the crawl settings of the characters list
+  * @param combatStyles the crawl settings of the combat styles list
+  */
+@ConfigurationProperties(prefix = "api.demonslayer.crawl")
+public record CrawlProperties(
+        @DefaultValue("5s") Duration pageTimeout,
+        @DefaultValue Concurrency concurrency,
+        @DefaultValue PageSize pageSize,
+        @DefaultValue Retry retry,
+        @DefaultValue Hedge hedge,
+        @DefaultValue Resource characters,
+        @DefaultValue Resource combatStyles
+) {
+
+    /**
+      * How the pages of a paginated resource are requested, once the first page gave the total number of pages
+      */
+    public enum Strategy {
+        /**
+          * Every page at once, within {@code max-concurrency} and the adaptive limit: the fastest full crawl
+          */
+        EAGER,
+        /**
+          * One page after the other, following the pagination ({@link reactor.core.publisher.Mono#expand}): the gentlest on upstream
+          */
+        SEQUENTIAL,
+        /**
+          * In page order, at most {@code prefetch} pages ahead of what the consumer has taken: a slow consumer slows the crawl down
+          */
+        PREFETCH
+    }
+
+    /**
+      * Crawl settings of one paginated resource, the unset ones inherit the global settings
+      *
+      * @param strategy        how the pages are requested
+      * @param maxConcurrency  the maximum number of pages of this resource in flight, within the adaptive limit, concurrency.max-limit if unset
+      * @param pageTimeout     the maximum time to wait for a single page of this resource, page-timeout if unset
+      * @param maxPages        the maximum number of pages crawled, 0 for every page
+      * @param prefetch        the number of pages requested ahead of the consumer by the PREFETCH strategy
+      */
+    public record Resource(
+            @DefaultValue("EAGER") Strategy strategy,
+            Integer maxConcurrency,
+            Duration pageTimeout,
+            @DefaultValue("0") int maxPages,
+            @DefaultValue("2") int prefetch
+    ) {
+        public Resource {
+            if (maxConcurrency != null && maxConcurrency < 1)
+                throw new IllegalArgumentException("api.demonslayer.crawl.<resource>.max-concurrency must be at least 1");
+            if (maxPages < 0)
+                throw new IllegalArgumentException("api.demonslayer.crawl.<resource>.max-pages must not be negative");
+            if (prefetch < 1)
+                throw new IllegalArgumentException("api.demonslayer.crawl.<resource>.prefetch must be at least 1");
+        }
+    }
+
+    /**
+      * AIMD (additive increase, multiplicative decrease) settings of the upstream page concurrency limit
+      *
+      * @param initialLimit      the limit used at startup
+      * @param minLimit          the limit never goes below this value, even when the upstream API keeps failing
+      * @param maxLimit          the limit never goes above this value, even when the upstream API is healthy
+      * @param latencyThreshold  a page slower than this is considered a sign of saturation and decreases the limit
+      * @param backoffRatio      the multiplier applied to the limit on a failed or slow page (between 0 and 1)
+      */
+    public record Concurrency(
+            @DefaultValue("5") int initialLimit,
+            @DefaultValue("1") int minLimit,
+            @DefaultValue("20") int maxLimit,
+            @DefaultValue("1s") Duration latencyThreshold,
+            @DefaultValue("0.7") double backoffRatio
+    ) {
+        public Concurrency {
+            if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit)
+                throw new IllegalArgumentException("api.demonslayer.crawl.concurrency limits must satisfy 1 <= min-limit <= initial-limit <= max-limit");
+            if (backoffRatio <= 0 || backoffRatio >= 1)
+                throw new IllegalArgumentException("api.demonslayer.crawl.concurrency.backoff-ratio must be between 0 and 1");
+        }
+    }
+
+    /**
+      * @param size            the "limit" query parameter sent to the upstream API when probing is disabled or not possible
+      * @param probe           when true, the first crawl requests {@code max-probe} elements per page and remembers the largest
+      *                        page size accepted by the upstream API, the next crawls pick the page size minimising the wall time
+      * @param maxProbe        the largest page size ever requested
+      * @param perElementCost  the estimated upstream cost of one more element in a page (transfer, decoding), weighed against a round trip
+      */
+    public record PageSize(
+            @DefaultValue("10") int size,
+            @DefaultValue("false") boolean probe,
+            @DefaultValue("100") int maxProbe,
+            @DefaultValue("200us") Duration perElementCost
+    ) {
+        public PageSize {
+            if (size < 1 || maxProbe < size)
+                throw new IllegalArgumentException("api.demonslayer.crawl.page-size must satisfy 1 <= size <= max-probe");
+        }
+    }
+
+    /**
+      * A failed page (timeout, 429, 5xx, connection error) is retried with an exponential and jittered backoff,
+      * as long as the retry budget allows it. The budget is shared by retries and hedged requests.
+      *
+      * @param maxAttempts   the maximum number of retries of a page
+      * @param minBackoff    the delay before the first retry
+      * @param maxBackoff    the maximum delay between two retries
+      * @param jitter        the jitter factor applied to each backoff delay (between 0 and 1)
+      * @param budgetRatio   each page request earns this fraction of a retry, e.g. 0.1 allows 1 retry every 10 requests
+      * @param budgetMax     the maximum number of retries that can be saved up, the budget starts full
+      */
+    public record Retry(
+            @DefaultValue("2") int maxAttempts,
+            @DefaultValue("100ms") Duration minBackoff,
+            @DefaultValue("1s") Duration maxBackoff,
+            @DefaultValue("0.5") double jitter,
+            @DefaultValue("0.1") double budgetRatio,
+            @DefaultValue("10") int budgetMax
+    ) {}
+
+    /**
+      * A duplicate request is sent for a page which has not answered after the given percentile of the recent page latencies,
+      * the first answer wins.
+      *
+      * @param enabled       when false, pages are never hedged
+      * @param percentile    the latency percentile after which a page is hedged (0.95 -> p95)
+      * @param minDelay      a page is never hedged before this delay
+      * @param minSamples    the number of recent latencies required before hedging
+      */
+    public record Hedge(
+            @DefaultValue("true") boolean enabled,
+            @DefaultValue("0.95") double percentile,
+            @DefaultValue("50ms") Duration minDelay,
+            @DefaultValue("20") int minSamples
+    ) {}
+}
@@ -0,0 +1,59 @@
+package com.lpa.demon_slayer_api_service.config;
+
+import com.lpa.demon_slayer_api_service.model.dto.AffiliationDto;
+import com.lpa.demon_slayer_api_service.model.dto.CombatStyleDto;
+import com.lpa.demon_slayer_api_service.model.dto.character.CharacterBatchRequestDto;
+import com.lpa.demon_slayer_api_service.model.dto.character.CharacterBatchResponseDto;
+import com.lpa.demon_slayer_api_service.model.dto.character.CharacterDto;
+import com.lpa.demon_slayer_api_service.model.dto.character.CharacterLookupErrorDto;
+import com.lpa.demon_slayer_api_service.model.dto.character.CharacterResponseDto;
+import com.lpa.demon_slayer_api_service.model.dto.character.CharacterSearchHitDto;
+import com.lpa.demon_slayer_api_service.model.dto.character.CharacterSummaryDto;
+import com.lpa.demon_slayer_api_service.model.dto.pagination.PageResponseCharacterSummaryDto;
+import com.lpa.demon_slayer_api_service.model.dto.pagination.PageResponseCombatStyleDto;
+import com.lpa.demon_slayer_api_service.model.dto.pagination.PaginationDto;
+import com.lpa.demon_slayer_api_service.model.exceptionhandler.ErrorResponse;
+import com.lpa.demon_slayer_api_service.service.delta.ChangeEvent;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.annotation.BindingReflectionHintsRegistrar;
+
+/**
+  * Reflection hints of the types read and written by Jackson, for the GraalVM native image ({@code mvn -Pnative native:compile}).
+  * Spring AOT only infers the bodies of the controller methods: the upstream pages are decoded by our own {@code ObjectMapper},
+  * and the collections, projections and change events are serialized to bytes before reaching WebFlux, so these types are
+  * invisible to it. The records are registered with their components, accessors and canonical constructor, nested types included.
+  * Ignored on the JVM.
+  */
+public class JsonRuntimeHints implements RuntimeHintsRegistrar {
+
+    private static final Class<?>[] JSON_TYPES = {
+            PageResponseCharacterSummaryDto.class,
+            PageResponseCombatStyleDto.class,
+            PaginationDto.class,
+            CharacterSummaryDto.class,
+            CharacterResponseDto.class,
+            CharacterDto.class,
+            CharacterBatchRequestDto.class,
+            CharacterBatchResponseDto.class,
+            CharacterLookupErrorDto.class,
+            CharacterSearchHitDto.class,
+            CombatStyleDto.class,
+            AffiliationDto.class,
+            ErrorResponse.class,
+            ChangeEvent.class
+    };
+
+    /**
+      * The mix-in carrying the {@code @JsonFilter} of the sparse fieldsets, private to its class
+      */
+    private static final String FIELD_PROJECTION_MIXIN = "com.lpa.demon_slayer_api_service.service.rendering.FieldProjections$FilteredBean";
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(), JSON_TYPES);
+        hints.reflection().registerType(TypeReference.of(FIELD_PROJECTION_MIXIN), MemberCategory.INTROSPECT_DECLARED_METHODS);
+    }
+}
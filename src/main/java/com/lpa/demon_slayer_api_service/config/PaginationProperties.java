@@ -0,0 +1,16 @@
+package com.lpa.demon_slayer_api_service.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+  * Settings of the paginated character list ({@code /characters?page=&size=})
+  *
+  * @param defaultSize the page size when {@code size} is not given
+  * @param maxSize     the largest page size a client may ask for, so that a page payload stays bounded whatever the dataset size
+  */
+@ConfigurationProperties(prefix = "api.demonslayer.pagination")
+public record PaginationProperties(
+        @DefaultValue("20") int defaultSize,
+        @DefaultValue("100") int maxSize
+) {}
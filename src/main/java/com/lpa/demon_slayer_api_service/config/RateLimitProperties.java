@@ -0,0 +1,42 @@
+package com.lpa.demon_slayer_api_service.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+  * Settings of the token bucket shared by every request sent to the Demon Slayer API. Single character lookups and crawls
+  * draw from the same bucket, lookups are served first and the last tokens are kept for them.
+  *
+  * @param enabled             false to send the requests as soon as they are made
+  * @param permitsPerSecond    the sustained upstream request rate
+  * @param burst               the bucket capacity, the number of requests which can be sent at once after an idle period
+  * @param interactiveReserve  the tokens that crawls cannot take, kept for single character lookups
+  * @param maxQueueSize        the maximum number of requests waiting for a token, the next ones fail fast with 503
+  * @param throttleRetries     the number of times a request answered with 429 is queued again before the answer is propagated
+  * @param throttleBackoff     how long requests are held after a 429 answer without Retry-After header
+  * @param maxPause            the maximum time requests are held after a Retry-After or rate limit reset header
+  */
+@ConfigurationProperties(prefix = "api.demonslayer.rate-limit")
+public record RateLimitProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("20") double permitsPerSecond,
+        @DefaultValue("20") int burst,
+        @DefaultValue("2") int interactiveReserve,
+        @DefaultValue("1000") int maxQueueSize,
+        @DefaultValue("2") int throttleRetries,
+        @DefaultValue("1s") Duration throttleBackoff,
+        @DefaultValue("1m") Duration maxPause
+) {
+    public RateLimitProperties {
+        if (permitsPerSecond <= 0)
+            throw new IllegalArgumentException("api.demonslayer.rate-limit.permits-per-second must be positive");
+        if (interactiveReserve < 0 || burst <= interactiveReserve)
+            throw new IllegalArgumentException("api.demonslayer.rate-limit must satisfy 0 <= interactive-reserve < burst");
+        if (maxQueueSize < 1)
+            throw new IllegalArgumentException("api.demonslayer.rate-limit.max-queue-size must be at least 1");
+        if (throttleRetries < 0)
+            throw new IllegalArgumentException("api.demonslayer.rate-limit.throttle-retries must not be negative");
+    }
+}
@@ -0,0 +1,64 @@
+package com.lpa.demon_slayer_api_service.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+  * Settings of the circuit breakers and bulkheads protecting the service from a degraded Demon Slayer API.
+  * Single character lookups and crawls of the paginated endpoints have their own circuit breaker and bulkhead,
+  * so that one kind of traffic cannot starve the other. The lookups of the catalog refresh, which nobody is waiting for,
+  * have a bulkhead of their own as well: a refresh never takes the slots of the lookups of the clients.
+  *
+  * @param lookupTimeout   the maximum time to wait for a single character lookup
+  * @param circuitBreaker  the circuit breaker settings, shared by both pools
+  * @param bulkhead        the maximum number of upstream calls in flight, per pool
+  */
+@ConfigurationProperties(prefix = "api.demonslayer.resilience")
+public record ResilienceProperties(
+        @DefaultValue("5s") Duration lookupTimeout,
+        @DefaultValue CircuitBreaker circuitBreaker,
+        @DefaultValue Bulkhead bulkhead
+) {
+
+    /**
+      * @param failureRateThreshold  the circuit opens once this fraction of the recorded calls failed (between 0 and 1)
+      * @param slidingWindowSize     the number of most recent calls whose outcome is recorded
+      * @param minimumCalls          the number of recorded calls required before the failure rate is evaluated
+      * @param openDuration          how long calls are rejected before trial calls are let through
+      * @param halfOpenCalls         the number of trial calls which must all succeed to close the circuit again
+      */
+    public record CircuitBreaker(
+            @DefaultValue("0.5") double failureRateThreshold,
+            @DefaultValue("20") int slidingWindowSize,
+            @DefaultValue("10") int minimumCalls,
+            @DefaultValue("30s") Duration openDuration,
+            @DefaultValue("3") int halfOpenCalls
+    ) {
+        public CircuitBreaker {
+            if (failureRateThreshold <= 0 || failureRateThreshold > 1)
+                throw new IllegalArgumentException("api.demonslayer.resilience.circuit-breaker.failure-rate-threshold must be in ]0, 1]");
+            if (minimumCalls < 1 || minimumCalls > slidingWindowSize)
+                throw new IllegalArgumentException("api.demonslayer.resilience.circuit-breaker must satisfy 1 <= minimum-calls <= sliding-window-size");
+            if (halfOpenCalls < 1)
+                throw new IllegalArgumentException("api.demonslayer.resilience.circuit-breaker.half-open-calls must be at least 1");
+        }
+    }
+
+    /**
+      * @param lookupMaxConcurrent  the maximum number of single character lookups of the clients in flight, batches included
+      * @param refreshMaxConcurrent the maximum number of single character lookups of the catalog refresh in flight
+      * @param crawlMaxConcurrent   the maximum number of page requests in flight, hedged requests included
+      */
+    public record Bulkhead(
+            @DefaultValue("10") int lookupMaxConcurrent,
+            @DefaultValue("4") int refreshMaxConcurrent,
+            @DefaultValue("40") int crawlMaxConcurrent
+    ) {
+        public Bulkhead {
+            if (lookupMaxConcurrent < 1 || refreshMaxConcurrent < 1 || crawlMaxConcurrent < 1)
+                throw new IllegalArgumentException("api.demonslayer.resilience.bulkhead limits must be at least 1");
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.lpa.demon_slayer_api_service.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+
+/**
+  * Settings of the snapshot files saved on local disk, used to serve the characters and combat styles lists right after a restart
+  *
+  * @param enabled    when false, snapshots are neither saved nor restored
+  * @param directory  the directory holding one snapshot file per collection, created if needed
+  */
+@ConfigurationProperties(prefix = "api.demonslayer.snapshot")
+public record SnapshotProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("snapshots") Path directory
+) {}
@@ -0,0 +1,64 @@
+package com.lpa.demon_slayer_api_service.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+  * Settings of the Reactor Netty HTTP client dedicated to the Demon Slayer API
+  *
+  * @param preferNative    use the native transport (epoll, or io_uring when built with the io-uring profile) when available, NIO otherwise
+  * @param http2           negotiate HTTP/2 over TLS (ALPN) when upstream supports it, HTTP/1.1 otherwise
+  * @param connectTimeout  the maximum time to establish a connection
+  * @param pool            the connection pool settings
+  * @param dns             the DNS resolution cache settings
+  */
+@ConfigurationProperties(prefix = "api.demonslayer.upstream-client")
+public record UpstreamClientProperties(
+        @DefaultValue("true") boolean preferNative,
+        @DefaultValue("true") boolean http2,
+        @DefaultValue("2s") Duration connectTimeout,
+        @DefaultValue Pool pool,
+        @DefaultValue Dns dns
+) {
+
+    /**
+      * @param maxConnections          the maximum number of connections, the default covers both bulkheads (10 lookups + 40 pages)
+      * @param pendingAcquireMaxCount  the maximum number of requests waiting for a connection, -1 for no limit
+      * @param pendingAcquireTimeout   the maximum time a request waits for a connection
+      * @param maxIdleTime             an idle connection is closed after this time
+      * @param maxLifeTime             a connection is closed after this time, so that DNS changes and upstream rebalancing are followed
+      * @param evictionInterval        how often idle and expired connections are closed in the background
+      * @param lifo                    lease the most recently used connection first, the idle ones can then expire instead of being kept warm
+      */
+    public record Pool(
+            @DefaultValue("50") int maxConnections,
+            @DefaultValue("500") int pendingAcquireMaxCount,
+            @DefaultValue("5s") Duration pendingAcquireTimeout,
+            @DefaultValue("30s") Duration maxIdleTime,
+            @DefaultValue("5m") Duration maxLifeTime,
+            @DefaultValue("30s") Duration evictionInterval,
+            @DefaultValue("true") boolean lifo
+    ) {
+        public Pool {
+            if (maxConnections < 1)
+                throw new IllegalArgumentException("api.demonslayer.upstream-client.pool.max-connections must be at least 1");
+            if (pendingAcquireMaxCount < -1 || pendingAcquireMaxCount == 0)
+                throw new IllegalArgumentException("api.demonslayer.upstream-client.pool.pending-acquire-max-count must be -1 or at least 1");
+        }
+    }
+
+    /**
+      * @param cacheMaxTimeToLive       the maximum time a resolved address is cached, whatever its DNS TTL
+      * @param cacheMinTimeToLive       the minimum time a resolved address is cached, whatever its DNS TTL
+      * @param cacheNegativeTimeToLive  how long a failed resolution is cached
+      * @param queryTimeout             the timeout of a DNS query
+      */
+    public record Dns(
+            @DefaultValue("5m") Duration cacheMaxTimeToLive,
+            @DefaultValue("0s") Duration cacheMinTimeToLive,
+            @DefaultValue("10s") Duration cacheNegativeTimeToLive,
+            @DefaultValue("2s") Duration queryTimeout
+    ) {}
+}
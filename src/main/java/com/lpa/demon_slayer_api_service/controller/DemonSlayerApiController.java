@@ -1,13 +1,45 @@
 package com.lpa.demon_slayer_api_service.controller;
 
-import com.lpa.demon_slayer_api_service.model.dto.CombatStyleDto;
+import com.fasterxml.jackson.databind.util.RawValue;
+import com.lpa.demon_slayer_api_service.config.ChangeFeedProperties;
+import com.lpa.demon_slayer_api_service.config.PaginationProperties;
+import com.lpa.demon_slayer_api_service.exception.DemonSlayerApiException;
+import com.lpa.demon_slayer_api_service.model.dto.character.CharacterBatchRequestDto;
+import com.lpa.demon_slayer_api_service.model.dto.character.CharacterBatchResponseDto;
 import com.lpa.demon_slayer_api_service.model.dto.character.CharacterDto;
 import com.lpa.demon_slayer_api_service.model.dto.character.CharacterSummaryDto;
 import com.lpa.demon_slayer_api_service.service.DemonSlayerApiService;
+import com.lpa.demon_slayer_api_service.service.catalog.CharacterCatalog;
+import com.lpa.demon_slayer_api_service.service.catalog.CharacterListIndex;
+import com.lpa.demon_slayer_api_service.service.catalog.CharacterListQueries;
+import com.lpa.demon_slayer_api_service.service.catalog.CharacterListQuery;
+import com.lpa.demon_slayer_api_service.service.crawl.CrawlResult;
+import com.lpa.demon_slayer_api_service.service.delta.ChangeFeed;
+import com.lpa.demon_slayer_api_service.service.delta.ChangeFeeds;
+import com.lpa.demon_slayer_api_service.service.delta.SequencedChange;
+import com.lpa.demon_slayer_api_service.service.rendering.CollectionRenderer;
+import com.lpa.demon_slayer_api_service.service.rendering.ContentCoding;
+import com.lpa.demon_slayer_api_service.service.rendering.FieldProjections;
+import com.lpa.demon_slayer_api_service.service.rendering.FieldSet;
+import com.lpa.demon_slayer_api_service.service.rendering.RenderedCollection;
+import com.lpa.demon_slayer_api_service.utils.DemonSlayerApiUtils;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api")
@@ -15,27 +47,341 @@ import reactor.core.publisher.Mono;
 public class DemonSlayerApiController {
 
     private final DemonSlayerApiService demonSlayerApiService;
+    private final CharacterCatalog characterCatalog;
+    private final CollectionRenderer collectionRenderer;
+    private final FieldProjections fieldProjections;
+    private final CharacterListQueries characterListQueries;
+    private final PaginationProperties paginationProperties;
+    private final ChangeFeeds changeFeeds;
+    private final ChangeFeedProperties changeFeedProperties;
+
+    /**
+      * Header listing the upstream pages missing from a partial collection, e.g. "X-Partial-Pages: 3,7"
+      */
+    static final String PARTIAL_PAGES_HEADER = "X-Partial-Pages";
+
+    /**
+      * Header giving the number of characters matching the filters of a paginated request, over every page
+      */
+    static final String TOTAL_COUNT_HEADER = "X-Total-Count";
 
+    /**
+      * Header sent back by an SSE client when it reconnects, carrying the ID of the last event it received
+      */
+    static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+
+    /**
+      * @param headers the request headers, "Accept: application/x-ndjson" or "Accept: text/event-stream" selects the streaming mode
+      * @param ordered in streaming mode, false emits each upstream page as soon as it arrives instead of keeping the ID order
+      * @param fields  the properties to return, e.g. "id,name,img", every property if absent
+      * @param page    the zero-based page number, giving any of page, size, race, gender or sort returns a single page
+      * @param size    the page size, {@code api.demonslayer.pagination.default-size} if absent
+      * @param race    keeps the characters of this race only (case-insensitive)
+      * @param gender  keeps the characters of this gender only (case-insensitive)
+      * @param sort    "id" (default) or "name"
+      */
     @GetMapping("/characters")
-    Flux<CharacterSummaryDto> getAllCharacters() {
-        return demonSlayerApiService.getAllCharacters();
+    Mono<ResponseEntity<?>> getAllCharacters(
+            @RequestHeader HttpHeaders headers,
+            @RequestParam(defaultValue = "true") boolean ordered,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String race,
+            @RequestParam(required = false) String gender,
+            @RequestParam(required = false) String sort
+    ) throws DemonSlayerApiException {
+        FieldSet fieldSet = FieldSet.parse(fields);
+        CharacterListQuery query = CharacterListQuery.of(page, size, race, gender, sort, paginationProperties);
+        if (query != null)
+            return demonSlayerApiService.getCharactersSnapshot()
+                    .map(result -> toPageResponse(result, query, fieldSet, isStreamingRequest(headers)));
+        if (isStreamingRequest(headers))
+            return Mono.just(ResponseEntity.ok(project(demonSlayerApiService.streamAllCharacters(ordered), fieldSet)));
+        return demonSlayerApiService.getCharactersSnapshot().map(result -> toResponse("characters", result, fieldSet, headers));
+    }
+
+    /**
+      * Retrieve several characters in one round trip, e.g. {@code /characters/batch?ids=1,2,3}
+      *
+      * @param fields the properties to return for each character, e.g. "id,name,affiliation.name", every property if absent
+      */
+    @GetMapping("/characters/batch")
+    Mono<ResponseEntity<?>> getCharactersByIds(
+            @RequestParam List<Long> ids,
+            @RequestParam(required = false) String fields
+    ) throws DemonSlayerApiException {
+        FieldSet fieldSet = FieldSet.parse(fields);
+        return characterCatalog.findCharacters(ids).map(batch -> toBatchResponse(batch, fieldSet));
+    }
+
+    /**
+      * Same as {@code GET /characters/batch}, for ID lists too long for a query string
+      */
+    @PostMapping("/characters/batch")
+    Mono<ResponseEntity<?>> postCharactersByIds(
+            @RequestBody CharacterBatchRequestDto request,
+            @RequestParam(required = false) String fields
+    ) throws DemonSlayerApiException {
+        FieldSet fieldSet = FieldSet.parse(fields);
+        return characterCatalog.findCharacters(request.ids()).map(batch -> toBatchResponse(batch, fieldSet));
+    }
+
+    /**
+      * Server-Sent Events feed of the changes of the characters list, detected by the periodic refreshes of the snapshot.
+      * Each event is named after the change ("added", "changed", "removed") and carries the character; its ID resumes the feed.
+      * A "resync" event means that changes were missed, the whole list has to be reloaded.
+      *
+      * @param lastEventId the ID of the last event received, sent back by the SSE client when it reconnects
+      */
+    @GetMapping(value = "/characters/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    Flux<ServerSentEvent<Object>> getCharacterChanges(
+            @RequestHeader(value = LAST_EVENT_ID_HEADER, required = false) String lastEventId
+    ) {
+        return toEventStream(changeFeeds.characters(), lastEventId);
     }
 
+    /**
+      * @param fields the properties to return, e.g. "id,name,affiliation.name", every property if absent
+      */
     @GetMapping("/characters/{id}")
-    Mono<CharacterDto> getCharacterById(@PathVariable Long id) {
-        return demonSlayerApiService.fetchCharacter(id, null);
+    Mono<ResponseEntity<?>> getCharacterById(
+            @PathVariable Long id,
+            @RequestParam(required = false) String fields
+    ) throws DemonSlayerApiException {
+        FieldSet fieldSet = FieldSet.parse(fields);
+        return characterCatalog.findCharacter(id, null).map(character -> toCharacterResponse(character, fieldSet));
     }
 
+    /**
+      * @param fields the properties to return, e.g. "id,name,affiliation.name", every property if absent
+      */
     @GetMapping("/characters/search")
-    Mono<CharacterDto> getCharacterByParam(
+    Mono<ResponseEntity<?>> getCharacterByParam(
             @RequestParam(required = false) Long id,
-            @RequestParam(required = false) String name
-    ) {
-        return demonSlayerApiService.fetchCharacter(id, name);
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) String fields
+    ) throws DemonSlayerApiException {
+        FieldSet fieldSet = FieldSet.parse(fields);
+        return characterCatalog.findCharacter(id, name).map(character -> toCharacterResponse(character, fieldSet));
+    }
+
+    /**
+      * Full-text and typeahead search answered from the local catalog, e.g. {@code /characters/search?q=tanj}:
+      * prefixes, whole words and typos ("nezuco") match the names, descriptions, affiliations and combat styles
+      *
+      * @param q      the words to look for
+      * @param limit  the maximum number of results
+      * @param fields the properties to return for each result, every property if absent
+      */
+    @GetMapping(value = "/characters/search", params = "q")
+    ResponseEntity<?> searchCharacters(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) String fields
+    ) throws DemonSlayerApiException {
+        FieldSet fieldSet = FieldSet.parse(fields);
+        if (q.isBlank())
+            throw new DemonSlayerApiException("The search query must not be blank", HttpStatus.BAD_REQUEST);
+        if (limit < 1 || limit > paginationProperties.maxSize())
+            throw new DemonSlayerApiException("The limit must be between 1 and " + paginationProperties.maxSize(), HttpStatus.BAD_REQUEST);
+        return toListResponse(characterCatalog.search(q, limit), fieldSet);
     }
 
+    /**
+      * @param headers the request headers, "Accept: application/x-ndjson" or "Accept: text/event-stream" selects the streaming mode
+      * @param ordered in streaming mode, false emits each upstream page as soon as it arrives instead of keeping the ID order
+      * @param fields  the properties to return, e.g. "id,name", every property if absent
+      */
     @GetMapping("/combat-styles")
-    Flux<CombatStyleDto> getAllCombatStyles() {
-        return demonSlayerApiService.getAllCombatStyles();
+    Mono<ResponseEntity<?>> getAllCombatStyles(
+            @RequestHeader HttpHeaders headers,
+            @RequestParam(defaultValue = "true") boolean ordered,
+            @RequestParam(required = false) String fields
+    ) throws DemonSlayerApiException {
+        FieldSet fieldSet = FieldSet.parse(fields);
+        if (isStreamingRequest(headers))
+            return Mono.just(ResponseEntity.ok(project(demonSlayerApiService.streamAllCombatStyles(ordered), fieldSet)));
+        return demonSlayerApiService.getCombatStylesSnapshot().map(result -> toResponse("combat-styles", result, fieldSet, headers));
+    }
+
+    /**
+      * Server-Sent Events feed of the changes of the combat styles list
+      *
+      * @param lastEventId the ID of the last event received, sent back by the SSE client when it reconnects
+      * @see #getCharacterChanges(String)
+      */
+    @GetMapping(value = "/combat-styles/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    Flux<ServerSentEvent<Object>> getCombatStyleChanges(
+            @RequestHeader(value = LAST_EVENT_ID_HEADER, required = false) String lastEventId
+    ) {
+        return toEventStream(changeFeeds.combatStyles(), lastEventId);
+    }
+
+    /**
+      * The characters using a combat style, answered from the reverse index of the local catalog without any upstream call.
+      * The list is empty until the catalog has been loaded.
+      *
+      * @param fields the properties to return for each character, every property if absent
+      */
+    @GetMapping("/combat-styles/{id}/characters")
+    ResponseEntity<?> getCharactersByCombatStyle(
+            @PathVariable long id,
+            @RequestParam(required = false) String fields
+    ) throws DemonSlayerApiException {
+        return toListResponse(characterCatalog.findCharactersByCombatStyle(id), FieldSet.parse(fields));
+    }
+
+    /**
+      * The characters of an affiliation (case-insensitive, e.g. "demon slayer corps"), answered from the reverse index
+      * of the local catalog without any upstream call. The list is empty until the catalog has been loaded.
+      *
+      * @param fields the properties to return for each character, every property if absent
+      */
+    @GetMapping("/affiliations/{name}/characters")
+    ResponseEntity<?> getCharactersByAffiliation(
+            @PathVariable String name,
+            @RequestParam(required = false) String fields
+    ) throws DemonSlayerApiException {
+        return toListResponse(characterCatalog.findCharactersByAffiliation(name), FieldSet.parse(fields));
+    }
+
+    /**
+      * A partial collection (some upstream pages failed despite the retries) is still returned with 200 OK,
+      * the missing page numbers are listed in the {@value #PARTIAL_PAGES_HEADER} header.
+      * A streamed response has its headers sent before the crawl ends, it cannot report the missing pages.
+      * <p>The body is the JSON array pre-rendered once per snapshot, gzipped if the client accepts it, and written
+      * without serialization nor copy. Server compression leaves it alone since the Content-Encoding is already set.
+      * The ETag of the representation is sent along, Spring WebFlux answers 304 Not Modified to a matching If-None-Match.</p>
+      */
+    private ResponseEntity<DataBuffer> toResponse(String name, CrawlResult<?> result, FieldSet fields, HttpHeaders headers) {
+        RenderedCollection rendered = collectionRenderer.render(name, result, fields);
+        ContentCoding coding = ContentCoding.negotiate(headers.getFirst(HttpHeaders.ACCEPT_ENCODING));
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (coding != ContentCoding.IDENTITY)
+            response.header(HttpHeaders.CONTENT_ENCODING, coding.token());
+        String etag = rendered.etag(coding);
+        if (etag != null)
+            response.eTag(etag);
+        reportMissingPages(response, result);
+        return response.body(rendered.body(coding));
+    }
+
+    /**
+      * A page is served from the index of the cached snapshot: it costs the page itself, whatever the size of the list.
+      * Its ETag is derived from the snapshot ETag, the query and the field set, since the same three always give the same page.
+      */
+    private ResponseEntity<?> toPageResponse(CrawlResult<CharacterSummaryDto> result, CharacterListQuery query,
+                                             FieldSet fields, boolean streaming) {
+        CharacterListIndex.Page page = characterListQueries.query(result, query);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header(TOTAL_COUNT_HEADER, String.valueOf(page.total()));
+        reportMissingPages(response, result);
+        if (streaming)
+            return response.body(project(Flux.fromIterable(page.items()), fields));
+        if (result.etag() != null)
+            response.eTag(DemonSlayerApiUtils.strongEtag(
+                    (result.etag() + "?" + query.key() + "&fields=" + fields).getBytes(StandardCharsets.UTF_8)));
+        if (fields == null)
+            return response.body(page.items());
+        return response.contentType(MediaType.APPLICATION_JSON)
+                .body(DefaultDataBufferFactory.sharedInstance.wrap(fieldProjections.writeValueAsBytes(page.items(), fields)));
+    }
+
+    private ResponseEntity<?> toListResponse(List<?> items, FieldSet fields) {
+        if (fields == null)
+            return ResponseEntity.ok(items);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(DefaultDataBufferFactory.sharedInstance.wrap(fieldProjections.writeValueAsBytes(items, fields)));
+    }
+
+    private static void reportMissingPages(ResponseEntity.BodyBuilder response, CrawlResult<?> result) {
+        if (result.isPartial())
+            response.header(PARTIAL_PAGES_HEADER, result.missingPages().stream()
+                    .map(String::valueOf)
+                    .collect(Collectors.joining(",")));
+    }
+
+    /**
+      * The strong ETag of a character is hashed from its content once per catalog load, a matching If-None-Match is answered with 304 Not Modified.
+      * A projected character is hashed from its projected JSON, so that each field set has its own ETag.
+      */
+    private ResponseEntity<?> toCharacterResponse(CharacterDto character, FieldSet fields) {
+        if (fields == null)
+            return ResponseEntity.ok()
+                    .eTag(characterCatalog.etagOf(character))
+                    .body(character);
+        byte[] json = fieldProjections.writeValueAsBytes(character, fields);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(DemonSlayerApiUtils.strongEtag(json))
+                .body(DefaultDataBufferFactory.sharedInstance.wrap(json));
+    }
+
+    /**
+      * The field set applies to each character of the batch, the lookup errors are always returned whole
+      */
+    private ResponseEntity<?> toBatchResponse(CharacterBatchResponseDto batch, FieldSet fields) {
+        if (fields == null)
+            return ResponseEntity.ok(batch);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(DefaultDataBufferFactory.sharedInstance.wrap(
+                        fieldProjections.writeValueAsBytes(batch, fields.under("characters", "errors"))));
+    }
+
+    /**
+      * The feed is interleaved with keep-alive comments, so that proxies keep idle connections open and dead clients are
+      * detected. The stream ends when the feed disconnects a client which did not keep up, the SSE client then reconnects
+      * with its last event ID.
+      */
+    private Flux<ServerSentEvent<Object>> toEventStream(ChangeFeed<?> feed, String lastEventId) {
+        return Flux.defer(() -> {
+            Sinks.One<Boolean> closed = Sinks.one();
+            Flux<ServerSentEvent<Object>> changes = feed.subscribe(lastEventId)
+                    .map(DemonSlayerApiController::toServerSentEvent)
+                    .doFinally(_ -> closed.tryEmitValue(true));
+            Flux<ServerSentEvent<Object>> heartbeats = Flux.interval(changeFeedProperties.heartbeat())
+                    .onBackpressureDrop() //a client which is not reading does not need them
+                    .map(_ -> ServerSentEvent.builder().comment("keep-alive").build())
+                    .takeUntilOther(closed.asMono());
+            return Flux.merge(changes, heartbeats);
+        });
+    }
+
+    private static ServerSentEvent<Object> toServerSentEvent(SequencedChange<?> entry) {
+        if (entry.isResync())
+            return ServerSentEvent.builder()
+                    .id(String.valueOf(entry.sequence()))
+                    .event("resync")
+                    .data(Map.of("type", "resync"))
+                    .build();
+        return ServerSentEvent.builder()
+                .id(String.valueOf(entry.sequence()))
+                .event(entry.change().type().label())
+                .data(entry.change())
+                .build();
+    }
+
+    /**
+      * Each streamed element is serialized with the projection writer and handed over to the NDJSON/SSE encoder as raw JSON
+      */
+    private Flux<?> project(Flux<?> elements, FieldSet fields) {
+        if (fields == null)
+            return elements;
+        return elements.map(element -> new RawValue(fieldProjections.writeValueAsString(element, fields)));
+    }
+
+    /**
+      * The streaming encoding (NDJSON, SSE) is negotiated by Spring WebFlux, we only select the data source here.
+      * Wildcards are not considered as a streaming request, so "Accept: *&#47;*" keeps the JSON array.
+      */
+    private static boolean isStreamingRequest(HttpHeaders headers) {
+        return headers.getAccept().stream()
+                .anyMatch(mediaType -> mediaType.equalsTypeAndSubtype(MediaType.APPLICATION_NDJSON)
+                        || mediaType.equalsTypeAndSubtype(MediaType.TEXT_EVENT_STREAM));
     }
 }
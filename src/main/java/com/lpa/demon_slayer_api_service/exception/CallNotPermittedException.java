@@ -0,0 +1,14 @@
+package com.lpa.demon_slayer_api_service.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+  * A call to the Demon Slayer API refused locally, without reaching upstream: the circuit breaker is open
+  * or the bulkhead is full. It is answered with 503 Service Unavailable and is never retried.
+  */
+public class CallNotPermittedException extends DemonSlayerApiException {
+
+    public CallNotPermittedException(String message) {
+        super(message, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+}
@@ -0,0 +1,15 @@
+package com.lpa.demon_slayer_api_service.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+  * A 429 Too Many Requests answer of the Demon Slayer API: our quota, not the client's, so it is answered with 503 Service Unavailable.
+  * It says nothing about the health of upstream: it is not a failure for the circuit breakers and concurrency limits, and the call
+  * is queued again behind the pause of the rate limiter, outside of its limits.
+  */
+public class UpstreamThrottledException extends DemonSlayerApiException {
+
+    public UpstreamThrottledException(String message) {
+        super(message, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+}
@@ -0,0 +1,12 @@
+package com.lpa.demon_slayer_api_service.model.dto.character;
+
+import java.util.List;
+
+/**
+  * Body of {@code POST /api/characters/batch}
+  *
+  * @param ids the API IDs of the characters to retrieve, duplicates are ignored
+  */
+public record CharacterBatchRequestDto(
+        List<Long> ids
+) {}
@@ -0,0 +1,14 @@
+package com.lpa.demon_slayer_api_service.model.dto.character;
+
+import java.util.List;
+
+/**
+  * Response of a batch character lookup: a failed ID does not fail the whole batch
+  *
+  * @param characters the characters found, in the order of their first occurrence in the request
+  * @param errors     one error per ID which could not be retrieved
+  */
+public record CharacterBatchResponseDto(
+        List<CharacterDto> characters,
+        List<CharacterLookupErrorDto> errors
+) {}
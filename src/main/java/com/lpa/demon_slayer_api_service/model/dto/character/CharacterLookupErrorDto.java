@@ -0,0 +1,12 @@
+package com.lpa.demon_slayer_api_service.model.dto.character;
+
+/**
+  * @param id       the character ID which could not be retrieved
+  * @param status   the HTTP status code the single lookup of this ID would have returned
+  * @param message  the error message
+  */
+public record CharacterLookupErrorDto(
+        Long id,
+        int status,
+        String message
+) {}
@@ -0,0 +1,16 @@
+package com.lpa.demon_slayer_api_service.model.dto.character;
+
+/**
+  * A character matching a full-text search, as returned by {@code /characters/search?q=}
+  *
+  * @param id       the character ID on the API side
+  * @param name     the character's first and last name
+  * @param img      the URL of the character image
+  * @param score    the relevance of the character, results are sorted by decreasing score
+  */
+public record CharacterSearchHitDto(
+        Long id,
+        String name,
+        String img,
+        double score
+) {}
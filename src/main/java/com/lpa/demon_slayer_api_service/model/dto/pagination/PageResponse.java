@@ -0,0 +1,15 @@
+package com.lpa.demon_slayer_api_service.model.dto.pagination;
+
+import java.util.List;
+
+/**
+  * Represents a page returned by a paginated endpoint of the Demon Slayer API, to allow a generic crawl of every page.
+  * It is implemented by {@link PageResponseCharacterSummaryDto} and {@link PageResponseCombatStyleDto}
+  *
+  * @param <T> the type of the page elements
+  */
+public interface PageResponse<T> {
+    PaginationDto pagination();
+
+    List<T> content();
+}
@@ -15,5 +15,5 @@ import java.util.List;
 public record PageResponseCharacterSummaryDto(
         PaginationDto pagination,
         List<CharacterSummaryDto> content
-) {}
+) implements PageResponse<CharacterSummaryDto> {}
 
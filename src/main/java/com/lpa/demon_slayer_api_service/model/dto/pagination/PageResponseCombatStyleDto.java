@@ -15,4 +15,4 @@ import java.util.List;
 public record PageResponseCombatStyleDto(
         PaginationDto pagination,
         List<CombatStyleDto> content
-) {}
+) implements PageResponse<CombatStyleDto> {}
@@ -6,11 +6,15 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
   *
   * @param currentPage  is the current page number
   * @param totalPages   is the total number of pages
+  * @param totalElements    is the total number of elements over all pages (0 if not provided)
+  * @param elementsOnPage   is the number of elements on the current page (0 if not provided)
   */
 @JsonIgnoreProperties(ignoreUnknown = true) //Jackson will ignore any additional fields present in the JSON
 public record PaginationDto(
         int currentPage,
-        int totalPages
+        int totalPages,
+        long totalElements,
+        int elementsOnPage
 ) {
     public boolean hasNext() {
         return (currentPage + 1) <= totalPages;
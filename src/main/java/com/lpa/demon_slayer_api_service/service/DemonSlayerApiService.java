@@ -2,7 +2,15 @@ package com.lpa.demon_slayer_api_service.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lpa.demon_slayer_api_service.config.CacheProperties;
+import com.lpa.demon_slayer_api_service.config.CrawlProperties;
+import com.lpa.demon_slayer_api_service.config.RateLimitProperties;
+import com.lpa.demon_slayer_api_service.config.ResilienceProperties;
+import com.lpa.demon_slayer_api_service.config.UpstreamClientProperties;
+import com.lpa.demon_slayer_api_service.exception.CallNotPermittedException;
 import com.lpa.demon_slayer_api_service.exception.DemonSlayerApiException;
+import com.lpa.demon_slayer_api_service.exception.UpstreamThrottledException;
+import com.lpa.demon_slayer_api_service.model.Identifiable;
 import com.lpa.demon_slayer_api_service.model.dto.character.CharacterDto;
 import com.lpa.demon_slayer_api_service.model.dto.character.CharacterResponseDto;
 import com.lpa.demon_slayer_api_service.model.dto.CombatStyleDto;
@@ -10,8 +18,33 @@ import com.lpa.demon_slayer_api_service.model.dto.character.CharacterSummaryDto;
 import com.lpa.demon_slayer_api_service.model.dto.pagination.PageResponseCharacterSummaryDto;
 import com.lpa.demon_slayer_api_service.model.dto.pagination.PageResponseCombatStyleDto;
 import com.lpa.demon_slayer_api_service.model.dto.pagination.PaginationDto;
+import com.lpa.demon_slayer_api_service.service.cache.SnapshotCache;
+import com.lpa.demon_slayer_api_service.service.cache.SnapshotCodec;
+import com.lpa.demon_slayer_api_service.service.cache.SnapshotStore;
+import com.lpa.demon_slayer_api_service.service.client.UpstreamHttpClientFactory;
+import com.lpa.demon_slayer_api_service.service.coalescing.RequestCoalescer;
+import com.lpa.demon_slayer_api_service.service.concurrency.AdaptiveConcurrencyLimiter;
+import com.lpa.demon_slayer_api_service.service.crawl.CrawlResult;
+import com.lpa.demon_slayer_api_service.service.crawl.CrawledPage;
+import com.lpa.demon_slayer_api_service.service.crawl.LatencyTracker;
+import com.lpa.demon_slayer_api_service.service.crawl.PageSizeNegotiator;
+import com.lpa.demon_slayer_api_service.service.crawl.PaginatedResourceFetcher;
+import com.lpa.demon_slayer_api_service.service.crawl.RetryBudget;
+import com.lpa.demon_slayer_api_service.service.delta.ChangeEvent;
+import com.lpa.demon_slayer_api_service.service.delta.DeltaTracker;
+import com.lpa.demon_slayer_api_service.service.metrics.UpstreamMetrics;
+import com.lpa.demon_slayer_api_service.service.ratelimit.UpstreamRateLimiter;
+import com.lpa.demon_slayer_api_service.service.resilience.Bulkhead;
+import com.lpa.demon_slayer_api_service.service.resilience.CircuitBreaker;
+import com.lpa.demon_slayer_api_service.utils.DemonSlayerApiUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.WebClient;
@@ -19,10 +52,18 @@ import org.springframework.web.util.UriBuilder;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
+import reactor.util.function.Tuple2;
+import reactor.util.retry.Retry;
 
 import java.net.URI;
+import java.time.Clock;
 import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
   * The DemonSlayerApiService class contains methods for querying the public Demon Slayer API.
@@ -36,125 +77,445 @@ import java.util.*;
   * @version 2.0
   * @see <a href="https://www.demonslayer-api.com/documentation" target="_blank"> Demon Slayer API Documentation</a>
   */
+@Slf4j
 @Service
 public class DemonSlayerApiService {
 
     private final WebClient webClient;
     private final String characterEndpoint;
     private final String combatStyleEndpoint;
+    private final SnapshotCache<CrawlResult<CharacterSummaryDto>> characterCache;
+    private final SnapshotCache<CrawlResult<CombatStyleDto>> combatStyleCache;
+    private final DeltaTracker<CharacterSummaryDto> characterDelta;
+    private final DeltaTracker<CombatStyleDto> combatStyleDelta;
+    private final CacheProperties cacheProperties;
+    private final RequestCoalescer characterCoalescer;
+    private final RequestCoalescer pageCoalescer;
+    private final CrawlProperties crawlProperties;
+    private final PaginatedResourceFetcher<CharacterSummaryDto, PageResponseCharacterSummaryDto> characterFetcher;
+    private final PaginatedResourceFetcher<CombatStyleDto, PageResponseCombatStyleDto> combatStyleFetcher;
+    private final RetryBudget retryBudget;
+    private final LatencyTracker pageLatencies;
+    private final Counter pageRetries;
+    private final Counter pageHedges;
+    private final ResilienceProperties resilienceProperties;
+    private final CircuitBreaker lookupBreaker;
+    private final CircuitBreaker crawlBreaker;
+    private final Bulkhead lookupBulkhead;
+    private final Bulkhead refreshBulkhead;
+    private final Bulkhead crawlBulkhead;
+    private final Map<CharacterKey, CharacterDto> lastKnownCharacters = new ConcurrentHashMap<>();
+    private final Counter lookupFallbacks;
+    private final Map<PageKey, ValidatedPage> validatedPages = new ConcurrentHashMap<>();
+    private final Counter notModifiedPages;
+    private final Counter unchangedPages;
+    private final ObjectMapper pageMapper = new ObjectMapper();
+    private final UpstreamMetrics upstreamMetrics;
+    private final UpstreamRateLimiter rateLimiter;
 
     public DemonSlayerApiService(WebClient.Builder webClientBuilder,
                                  @Value("${api.demonslayer.base.url}") String baseUrl,
                                  @Value("${api.demonslayer.character.endpoint}") String characterEndpoint,
-                                 @Value("${api.demonslayer.combat.style.endpoint}") String combatStyleEndpoint) {
-        this.webClient = webClientBuilder.baseUrl(baseUrl).build();
+                                 @Value("${api.demonslayer.combat.style.endpoint}") String combatStyleEndpoint,
+                                 CacheProperties cacheProperties,
+                                 CrawlProperties crawlProperties,
+                                 ResilienceProperties resilienceProperties,
+                                 UpstreamClientProperties upstreamClientProperties,
+                                 RateLimitProperties rateLimitProperties,
+                                 SnapshotStore snapshotStore,
+                                 MeterRegistry meterRegistry) {
+        this.upstreamMetrics = new UpstreamMetrics(meterRegistry);
+        this.rateLimiter = new UpstreamRateLimiter(rateLimitProperties, Schedulers.parallel(), meterRegistry);
+        this.webClient = webClientBuilder.baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(UpstreamHttpClientFactory.create(upstreamClientProperties)))
+                .filter(rateLimiter) //outermost: the time spent waiting for a token is not counted as upstream latency
+                .filter(upstreamMetrics)
+                .build();
         this.characterEndpoint = characterEndpoint;
         this.combatStyleEndpoint = combatStyleEndpoint;
+        this.characterDelta = new DeltaTracker<>("characters", SnapshotCodec.CHARACTER_SUMMARIES, meterRegistry);
+        this.combatStyleDelta = new DeltaTracker<>("combat-styles", SnapshotCodec.COMBAT_STYLES, meterRegistry);
+        this.cacheProperties = cacheProperties;
+        this.characterCache = persistentCache("characters", characterEndpoint, missingPages -> crawlCharacterPages(false, missingPages),
+                SnapshotCodec.CHARACTER_SUMMARIES, characterDelta, snapshotStore, cacheProperties, meterRegistry);
+        this.combatStyleCache = persistentCache("combat-styles", combatStyleEndpoint, missingPages -> crawlCombatStylePages(false, missingPages),
+                SnapshotCodec.COMBAT_STYLES, combatStyleDelta, snapshotStore, cacheProperties, meterRegistry);
+        this.characterCoalescer = new RequestCoalescer("character", meterRegistry);
+        this.pageCoalescer = new RequestCoalescer("page", meterRegistry);
+        this.crawlProperties = crawlProperties;
+        this.pageLatencies = new LatencyTracker();
+        this.pageRetries = Counter.builder("demonslayer.crawl.page.retries").register(meterRegistry);
+        this.pageHedges = Counter.builder("demonslayer.crawl.page.hedges").register(meterRegistry);
+        this.retryBudget = new RetryBudget(crawlProperties.retry().budgetRatio(), crawlProperties.retry().budgetMax());
+        Retry pageRetry = Retry.backoff(crawlProperties.retry().maxAttempts(), crawlProperties.retry().minBackoff())
+                .maxBackoff(crawlProperties.retry().maxBackoff())
+                .jitter(crawlProperties.retry().jitter())
+                .filter(error -> DemonSlayerApiUtils.isTransientError(error) && retryBudget.tryWithdraw()) //the budget is only consumed by retryable errors
+                .doBeforeRetry(_ -> pageRetries.increment())
+                .onRetryExhaustedThrow((_, signal) -> signal.failure()); //keep the original error rather than a RetryExhaustedException
+        AdaptiveConcurrencyLimiter pageLimiter = new AdaptiveConcurrencyLimiter("page", crawlProperties.concurrency(), meterRegistry);
+        PageSizeNegotiator pageSizeNegotiator = new PageSizeNegotiator(crawlProperties.pageSize());
+        this.characterFetcher = new PaginatedResourceFetcher<>(characterEndpoint, "No characters found",
+                pageSource(characterEndpoint, PageResponseCharacterSummaryDto.class),
+                crawlProperties, crawlProperties.characters(), pageLimiter, pageSizeNegotiator, retryBudget, pageRetry, meterRegistry);
+        this.combatStyleFetcher = new PaginatedResourceFetcher<>(combatStyleEndpoint, "No combat styles found",
+                pageSource(combatStyleEndpoint, PageResponseCombatStyleDto.class),
+                crawlProperties, crawlProperties.combatStyles(), pageLimiter, pageSizeNegotiator, retryBudget, pageRetry, meterRegistry);
+        this.resilienceProperties = resilienceProperties;
+        this.lookupBreaker = new CircuitBreaker("lookup", resilienceProperties.circuitBreaker(), Clock.systemUTC(), meterRegistry);
+        this.crawlBreaker = new CircuitBreaker("crawl", resilienceProperties.circuitBreaker(), Clock.systemUTC(), meterRegistry);
+        this.lookupBulkhead = new Bulkhead("lookup", resilienceProperties.bulkhead().lookupMaxConcurrent(), meterRegistry);
+        this.refreshBulkhead = new Bulkhead("refresh", resilienceProperties.bulkhead().refreshMaxConcurrent(), meterRegistry);
+        this.crawlBulkhead = new Bulkhead("crawl", resilienceProperties.bulkhead().crawlMaxConcurrent(), meterRegistry);
+        this.lookupFallbacks = Counter.builder("demonslayer.upstream.fallbacks")
+                .tag("pool", "lookup")
+                .register(meterRegistry);
+        this.notModifiedPages = Counter.builder("demonslayer.crawl.pages.not.modified").register(meterRegistry);
+        this.unchangedPages = Counter.builder("demonslayer.crawl.pages.unchanged").register(meterRegistry);
     }
 
     /**
-      * Retrieve the list of Demon Slayer characters from the Demon Slayer public API
-      * <strong>Alternative approach without ParallelFlux and synchronous:</strong>
-      * <pre>{@code
-      * public List<CharacterSummaryDto> getAllCharacters() {
-      *     return fetchPage(1)
-      *         .expand(pageResponseDto -> pageResponseDto.pagination().hasNext() ?
-      *                 fetchPage(pageResponseDto.pagination().getNextPageNumber())
-      *                     .delayElement(Duration.ofMillis(500))
-      *                 : Mono.empty()) //expand is used to generate a series of elements from an initial element, recursively, until there is nothing left to generate.
-      *         .flatMap(page -> Flux.fromIterable(page.content())) // flatten each page's content
-      *         .collectList() // aggregate all elements into a single list
-      *         .block(); // block to get the result synchronously
-      * }
-      * }</pre>
+      * Build a snapshot cache whose snapshots are saved to disk after every load that changed them, and seeded with the snapshot
+      * saved by the previous run. The restored snapshot is served right away, the first read starts a background refresh from upstream.
+      * Each load is applied to the current snapshot as a delta ({@link DeltaTracker}): when nothing changed upstream, the same
+      * snapshot instance is kept. Each snapshot carries its strong ETag, computed from the binary encoding of its content.
+      *
+      * @param name     the cache name, which is also the snapshot file name
+      * @param endpoint the Demon Slayer API endpoint of the collection
+      * @param crawl    the crawl of the collection pages, given the set collecting the missing page numbers
+      * @param codec    the binary encoding of the elements
+      * @param delta    applies each crawl to the current snapshot
+      * @return the snapshot cache
+      */
+    private <T extends Identifiable> SnapshotCache<CrawlResult<T>> persistentCache(String name, String endpoint,
+                                                                                   Function<Set<Integer>, Flux<CrawledPage<T>>> crawl,
+                                                                                   SnapshotCodec<T> codec, DeltaTracker<T> delta,
+                                                                                   SnapshotStore snapshotStore, CacheProperties cacheProperties,
+                                                                                   MeterRegistry meterRegistry) {
+        SnapshotCache<CrawlResult<T>> cache = new SnapshotCache<>(name,
+                () -> {
+                    CrawlResult<T> previous = delta.current();
+                    return collect(endpoint, crawl, delta)
+                            .doOnNext(result -> {
+                                if (result != previous)
+                                    snapshotStore.saveInBackground(name, result, Instant.now(), codec);
+                            });
+                },
+                cacheProperties, Clock.systemUTC(), CrawlResult::size, meterRegistry);
+        snapshotStore.restore(name, codec).ifPresent(restored -> {
+            CrawlResult<T> sorted = DemonSlayerApiUtils.isSortedById(restored.result().items())
+                    ? restored.result()
+                    : new CrawlResult<>(DemonSlayerApiUtils.sortById(restored.result().items()), restored.result().missingPages()); //the delta merge needs the ID order
+            CrawlResult<T> result = sorted.withEtag(DemonSlayerApiUtils.strongEtag(codec.encode(sorted)));
+            delta.seed(result);
+            cache.restore(result, restored.loadedAt());
+        });
+        return cache;
+    }
+
+    /**
+      * Retrieve the list of Demon Slayer characters, served from the in-process snapshot cache.
+      * The upstream pages are only crawled on a cache miss or, in the background, once the snapshot TTL has expired.
       *
       * @return the list of characters sorted by ID
       */
     public Flux<CharacterSummaryDto> getAllCharacters() {
-        return fetchPage(characterEndpoint, 1, PageResponseCharacterSummaryDto.class) //get the first page
-                .switchIfEmpty(
-                        Mono.error(new DemonSlayerApiException(
-                                "No characters found",
-                                HttpStatus.NOT_FOUND
-                        ))
-                )
-                .flatMapMany(firstPage -> { //converts a Mono into a Flux
-                    int totalPages = firstPage.pagination().totalPages();
-                    return Flux.range(2, totalPages - 1) //get the total number of pages
-                            .parallel(5) //converts the Flux into ParallelFlux, a maximum of 5 pages will be retrieved simultaneously to speed up page retrieval
-                            .runOn(Schedulers.boundedElastic()) //boundedElastic Scheduler is used for blocking I/O or waiting on a long running calculation operation (network I/O, JDBC database calls...)
-                            .flatMap(pageNumber ->
-                                    fetchPage(characterEndpoint, pageNumber, PageResponseCharacterSummaryDto.class)
-                                            .timeout(Duration.ofSeconds(5L))
-                                            .onErrorResume(_ -> Mono.empty()) //ignore if a page failed
-                            )
-                            .sequential() //converts the ParallelFlux into a Flux
-                            .startWith(firstPage) //include characters from the first page
-                            .flatMap(page -> Flux.fromIterable(page.content()));
-                })
-                .sort(Comparator.comparing(CharacterSummaryDto::id)); //sort by ID
+        return getCharactersSnapshot().flatMapIterable(CrawlResult::items);
     }
 
     /**
-      * Retrieve the list of combat styles from the Demon Slayer public API
+      * Retrieve the list of combat styles, served from the in-process snapshot cache
       *
-      * @return the list of combat styles
+      * @return the list of combat styles sorted by ID
       */
     public Flux<CombatStyleDto> getAllCombatStyles() {
-        return fetchPage(combatStyleEndpoint, 1, PageResponseCombatStyleDto.class)
-                .switchIfEmpty(
-                        Mono.error(new DemonSlayerApiException(
-                                "No combat styles found",
-                                HttpStatus.NOT_FOUND
-                        ))
-                )
-                .flatMapMany(firstPage -> { //converts a Mono into a Flux
-                    int totalPages = firstPage.pagination().totalPages();
-                    return Flux.range(2, totalPages - 1)
-                            .parallel(5)
-                            .runOn(Schedulers.boundedElastic()) //boundedElastic Scheduler is used for blocking I/O or waiting on a long running calculation operation (network I/O, JDBC database calls...)
-                            .flatMap(pageNumber ->
-                                    fetchPage(characterEndpoint, pageNumber, PageResponseCombatStyleDto.class)
-                                            .timeout(Duration.ofSeconds(5L))
-                                            .onErrorResume(_ -> Mono.empty()) //ignore if a page failed
-                            )
-                            .sequential() //converts the ParallelFlux into a Flux
-                            .startWith(firstPage)
-                            .flatMap(page -> Flux.fromIterable(page.content()));
-                })
-                .sort(Comparator.comparing(CombatStyleDto::id)); //sort by ID
+        return getCombatStylesSnapshot().flatMapIterable(CrawlResult::items);
+    }
+
+    /**
+      * Retrieve the snapshot of the Demon Slayer characters along with the pages that could not be retrieved
+      *
+      * @return the characters sorted by ID and the missing page numbers
+      */
+    public Mono<CrawlResult<CharacterSummaryDto>> getCharactersSnapshot() {
+        return withCompletion(characterCache);
+    }
+
+    /**
+      * Retrieve the snapshot of the combat styles along with the pages that could not be retrieved
+      *
+      * @return the combat styles sorted by ID and the missing page numbers
+      */
+    public Mono<CrawlResult<CombatStyleDto>> getCombatStylesSnapshot() {
+        return withCompletion(combatStyleCache);
+    }
+
+    /**
+      * A partial snapshot is still served, but a background refresh is started to complete it
+      */
+    private <T> Mono<CrawlResult<T>> withCompletion(SnapshotCache<CrawlResult<T>> cache) {
+        return cache.get().doOnNext(result -> {
+            if (result.isPartial())
+                cache.refreshInBackground();
+        });
     }
 
+    /**
+      * Hot stream of the changes of the characters list, detected by the refreshes of the snapshot
+      *
+      * @return the added, changed and removed characters
+      */
+    public Flux<ChangeEvent<CharacterSummaryDto>> characterChanges() {
+        return characterDelta.changes();
+    }
+
+    /**
+      * Hot stream of the changes of the combat styles list, detected by the refreshes of the snapshot
+      *
+      * @return the added, changed and removed combat styles
+      */
+    public Flux<ChangeEvent<CombatStyleDto>> combatStyleChanges() {
+        return combatStyleDelta.changes();
+    }
 
     /**
-      * Retrieve a character using their API ID or name
+      * Stream the list of Demon Slayer characters element by element (NDJSON, Server-Sent Events...).
+      * A usable snapshot is streamed from memory, otherwise the upstream pages are streamed while they arrive
+      * and the snapshot cache is loaded in the background (overlapping page requests are coalesced).
+      *
+      * @param ordered true to emit the pages in page order, each one sorted by ID, false to emit each page as soon as it arrives.
+      *                A snapshot is always streamed sorted by ID as a whole: the order across pages is upstream's.
+      * @return the characters
+      */
+    public Flux<CharacterSummaryDto> streamAllCharacters(boolean ordered) {
+        return streamFromSnapshotOrCrawl(characterCache, () -> itemsOf(crawlCharacterPages(ordered, new ConcurrentSkipListSet<>()), ordered));
+    }
+
+    /**
+      * Stream the list of combat styles element by element (NDJSON, Server-Sent Events...)
+      *
+      * @param ordered true to emit the pages in page order, each one sorted by ID, false to emit each page as soon as it arrives
+      * @return the combat styles
+      * @see #streamAllCharacters(boolean)
+      */
+    public Flux<CombatStyleDto> streamAllCombatStyles(boolean ordered) {
+        return streamFromSnapshotOrCrawl(combatStyleCache, () -> itemsOf(crawlCombatStylePages(ordered, new ConcurrentSkipListSet<>()), ordered));
+    }
+
+    private <T> Flux<T> streamFromSnapshotOrCrawl(SnapshotCache<CrawlResult<T>> cache, Supplier<Flux<T>> crawl) {
+        return Flux.defer(() -> {
+            CrawlResult<T> snapshot = cache.getIfPresent();
+            if (snapshot != null)
+                return Flux.fromIterable(snapshot.items());
+            cache.refreshInBackground();
+            return crawl.get();
+        });
+    }
+
+    /**
+      * The pages are taken one at a time, so that the demand of a slow client reaches the crawl (PREFETCH strategy)
+      *
+      * @param pages   the crawled pages
+      * @param ordered true to sort each page by ID, the pages being released in page order
+      * @return the elements of the pages
+      */
+    private static <T extends Identifiable> Flux<T> itemsOf(Flux<CrawledPage<T>> pages, boolean ordered) {
+        return pages.concatMapIterable(page -> ordered
+                ? DemonSlayerApiUtils.sortById(page.content())
+                : page.content(), 1);
+    }
+
+    /**
+      * Periodically poll upstream for changes of the snapshots in memory, whether they are read or not. An unchanged
+      * page costs a conditional request or a hash of its bytes, an unchanged collection keeps its snapshot instance.
+      */
+    @Scheduled(fixedDelayString = "${api.demonslayer.cache.poll-interval:PT1M}", initialDelayString = "${api.demonslayer.cache.poll-interval:PT1M}")
+    void pollUpstream() {
+        if (!cacheProperties.poll())
+            return;
+        characterCache.refreshIfPresent();
+        combatStyleCache.refreshIfPresent();
+    }
+
+    /**
+      * Periodically drop the snapshots that have not been read for longer than {@code api.demonslayer.cache.evict-after-idle}
+      */
+    @Scheduled(fixedDelayString = "${api.demonslayer.cache.eviction-interval:PT1M}")
+    void evictIdleSnapshots() {
+        characterCache.evictIfIdle();
+        combatStyleCache.evictIfIdle();
+    }
+
+    /**
+      * Crawl the pages of the list of Demon Slayer characters from the Demon Slayer public API
+      *
+      * @param ordered      true to emit the pages in page order, false to emit each page as soon as it arrives
+      * @param missingPages collects the page numbers that could not be retrieved
+      * @return the pages of characters
+      */
+    private Flux<CrawledPage<CharacterSummaryDto>> crawlCharacterPages(boolean ordered, Set<Integer> missingPages) {
+        return characterFetcher.fetch(ordered, missingPages);
+    }
+
+    /**
+      * Crawl the pages of the list of combat styles from the Demon Slayer public API
+      *
+      * @param ordered      true to emit the pages in page order, false to emit each page as soon as it arrives
+      * @param missingPages collects the page numbers that could not be retrieved
+      * @return the pages of combat styles
+      */
+    private Flux<CrawledPage<CombatStyleDto>> crawlCombatStylePages(boolean ordered, Set<Integer> missingPages) {
+        return combatStyleFetcher.fetch(ordered, missingPages);
+    }
+
+    /**
+      * Run a whole crawl and apply its pages, along with the pages that could not be retrieved, to the current snapshot.
+      * The validated pages of the endpoint that the crawl did not request anymore are then dropped.
+      *
+      * @param endpoint the Demon Slayer API endpoint of the collection
+      * @param crawl    the crawl, given the set collecting the missing page numbers
+      * @param delta    applies the crawl to the current snapshot
+      * @return the new snapshot, or the current one if nothing changed
+      */
+    private <T extends Identifiable> Mono<CrawlResult<T>> collect(String endpoint, Function<Set<Integer>, Flux<CrawledPage<T>>> crawl,
+                                                                  DeltaTracker<T> delta) {
+        return Mono.defer(() -> {
+            long crawlStart = System.nanoTime();
+            Set<Integer> missingPages = new ConcurrentSkipListSet<>(); //sorted, and filled concurrently by the page requests
+            return crawl.apply(missingPages)
+                    .collectList()
+                    .map(pages -> delta.apply(pages, List.copyOf(missingPages)))
+                    .doOnNext(_ -> pruneValidatedPages(endpoint, crawlStart, missingPages));
+        });
+    }
+
+    /**
+      * Drop the validated pages of an endpoint that were not validated since a whole crawl started: the pages of a previous
+      * page size, or past the last page. The pages that could not be retrieved keep their copy for the next crawl.
+      *
+      * @param endpoint     the Demon Slayer API endpoint of the collection
+      * @param crawlStart   the {@link System#nanoTime()} at the start of the crawl
+      * @param missingPages the page numbers that could not be retrieved by the crawl
+      */
+    private void pruneValidatedPages(String endpoint, long crawlStart, Set<Integer> missingPages) {
+        validatedPages.entrySet().removeIf(entry -> entry.getKey().endpoint().equals(endpoint)
+                && entry.getValue().validatedAt() - crawlStart < 0
+                && !missingPages.contains(entry.getKey().pageNumber()));
+    }
+
+    /**
+      * Retrieve a character using their API ID or name, for a client waiting for it ({@link UpstreamRateLimiter.Priority#INTERACTIVE})
       *
       * @param id the character ID from API side
       * @return the characterD DTO found
+      * @see #fetchCharacter(Long, String, UpstreamRateLimiter.Priority)
       */
     public Mono<CharacterDto> fetchCharacter(Long id, String name) {
+        return fetchCharacter(id, name, UpstreamRateLimiter.Priority.INTERACTIVE);
+    }
+
+    /**
+      * Retrieve a character using their API ID or name.
+      * Concurrent lookups of the same ID (or of the same name, as sent upstream) and of the same priority share a single upstream call.
+      * The upstream call first waits for its turn in the shared {@link UpstreamRateLimiter} with the given priority, then goes through
+      * the "lookup" bulkhead ("refresh" for a {@link UpstreamRateLimiter.Priority#BACKGROUND} lookup), circuit breaker and timeout,
+      * which do not count the wait. A 429 answer leaves them, and the call waits for its turn again behind the pause
+      * ({@link UpstreamRateLimiter#admit}). When the call is refused, throttled or fails with a transient error, the last successful
+      * response for the same ID or name is served if there is one.
+      *
+      * @param id       the character ID from API side
+      * @param name     the character name
+      * @param priority the priority of the upstream call in the rate limiter
+      * @return the characterD DTO found
+      */
+    public Mono<CharacterDto> fetchCharacter(Long id, String name, UpstreamRateLimiter.Priority priority) {
         if (id == null && (name == null || name.isEmpty()))
             return Mono.error(new DemonSlayerApiException(
                     "Provide exactly one of 'id' or 'name'",
                     HttpStatus.BAD_REQUEST));
+        CharacterKey key = id != null
+                ? new CharacterKey(id, null)
+                : new CharacterKey(null, name); //the exact name: upstream may answer two spellings differently
+        //keyed on the priority as well: an interactive lookup must not wait behind the background call of a catalog refresh
+        Bulkhead bulkhead = priority == UpstreamRateLimiter.Priority.BACKGROUND ? refreshBulkhead : lookupBulkhead;
+        return characterCoalescer.execute(new LookupKey(key, priority), () -> rateLimiter.admit(priority,
+                        () -> bulkhead.run(() -> lookupBreaker.run(() -> requestCharacter(id, name, priority)
+                                .timeout(resilienceProperties.lookupTimeout())))))
+                .doOnNext(character -> lastKnownCharacters.put(key, character))
+                .onErrorResume(error -> error instanceof CallNotPermittedException || error instanceof UpstreamThrottledException
+                                || DemonSlayerApiUtils.isTransientError(error),
+                        error -> lastKnownCharacter(key, error));
+    }
+
+    /**
+      * @param key   the coalescing key of the failed lookup
+      * @param error the error of the lookup, propagated if there is no previous response
+      * @return the last successful response of the same lookup
+      */
+    private Mono<CharacterDto> lastKnownCharacter(CharacterKey key, Throwable error) {
+        CharacterDto lastKnown = lastKnownCharacters.get(key);
+        if (lastKnown == null)
+            return Mono.error(error);
+        lookupFallbacks.increment();
+        log.debug("Serving the last known good response of {}: {}", key, error.getMessage());
+        return Mono.just(lastKnown);
+    }
+
+    /**
+      * Send the upstream request retrieving a character using their API ID or name
+      *
+      * @param id       the character ID from API side
+      * @param name     the character name
+      * @param priority the priority of the request in the rate limiter
+      * @return the character DTO found
+      */
+    private Mono<CharacterDto> requestCharacter(Long id, String name, UpstreamRateLimiter.Priority priority) {
         return webClient.get()
                 .uri(uriBuilder -> buildCharacterUri(uriBuilder, id, name))
+                .attributes(UpstreamMetrics.lookup(characterEndpoint))
+                .attributes(UpstreamRateLimiter.priority(priority))
+                .attributes(UpstreamRateLimiter.admitted()) //the token has been taken by fetchCharacter, which also queues a 429 again
                 .retrieve()
-                .onStatus(status -> status.is4xxClientError() || status.is5xxServerError(), this::handleApiError)
+                .onStatus(status -> status.is4xxClientError() || status.is5xxServerError(),
+                        response -> handleApiError(response, characterEndpoint))
                 .bodyToMono(CharacterResponseDto.class)
                 .flatMap(response -> {
                     if (response == null || response.content() == null || response.content().isEmpty())
                         return Mono.error(new DemonSlayerApiException(
-                                "Character with id " + id + " not found.",
+                                (id != null ? "Character with id " + id : "Character with name " + name) + " not found.",
                                 HttpStatus.NOT_FOUND
                         ));
                     return Mono.just(response.content().getFirst());
                 });
     }
 
+    /**
+      * The page requests of a crawl take their rate limiter token before entering the adaptive concurrency limit and the page timeout,
+      * and a page request answered with 429 leaves them to wait for its turn again ({@link UpstreamRateLimiter#admit}).
+      * A page request joining an identical request in flight has taken a token it does not use.
+      *
+      * @param endpoint the Demon Slayer API endpoint
+      * @param dtoClass the DTO class of the pages
+      * @return the page source of the crawls of the endpoint
+      */
+    private <P> PaginatedResourceFetcher.PageSource<P> pageSource(String endpoint, Class<P> dtoClass) {
+        return new PaginatedResourceFetcher.PageSource<>() {
+            @Override
+            public Mono<P> fetch(int pageNumber, int pageSize) {
+                return fetchPage(endpoint, pageNumber, pageSize, dtoClass);
+            }
+
+            @Override
+            public <V> Mono<V> admit(Supplier<Mono<V>> attempt) {
+                return rateLimiter.admit(UpstreamRateLimiter.Priority.BACKGROUND, attempt);
+            }
+        };
+    }
+
     /**
       * @param endpoint   the Demon Slayer API endpoint
       * @param pageNumber the page number of the characters or combat styles to retrieve from the Demon Slayer public API
+      * @param pageSize   the number of elements per page ("limit" query parameter)
       * @param dtoClass   the DTO class
       * @return a {@link Mono} that emits a {@link PageResponseCharacterSummaryDto} or {@link PageResponseCombatStyleDto} containing:
       *                  <ul>
@@ -162,17 +523,107 @@ public class DemonSlayerApiService {
       *                      <li>a {@link PaginationDto} which contains the current page number, and the total number of pages(</li>
       *                  </ul>
       * The Mono completes successfully when the API responds with a valid page, or error with {@link DemonSlayerApiException} if a client or server error occurs.
+      * Overlapping crawls requesting the same page share a single upstream call, which is hedged when it is slow.
+      * Every upstream page request goes through the "crawl" bulkhead and circuit breaker. It has already waited behind the single lookups
+      * in the shared {@link UpstreamRateLimiter} ({@link #pageSource(String, Class)}).
       */
-    private <T> Mono<T> fetchPage(String endpoint, int pageNumber, Class<T> dtoClass) {
+    private <T> Mono<T> fetchPage(String endpoint, int pageNumber, int pageSize, Class<T> dtoClass) {
+        PageKey key = new PageKey(endpoint, pageNumber, pageSize, dtoClass);
+        return pageCoalescer.execute(key,
+                () -> hedged(endpoint, () -> crawlBulkhead.run(() -> crawlBreaker.run(() -> requestPage(key, dtoClass)))));
+    }
+
+    /**
+      * Send the upstream page request. When upstream returned validators (ETag, Last-Modified) for the previous copy of the page,
+      * they are sent back (If-None-Match, If-Modified-Since) and a 304 Not Modified answer reuses the previous copy without decoding anything.
+      * Without validators, the bytes of the page are hashed: when they are the same as the previous copy, it is reused as well,
+      * so an unchanged page is never decoded again and keeps its decoded instance ({@link DeltaTracker}).
+      *
+      * @param key      the page to request
+      * @param dtoClass the DTO class
+      * @return the page
+      */
+    private <T> Mono<T> requestPage(PageKey key, Class<T> dtoClass) {
+        ValidatedPage previous = validatedPages.get(key);
         return webClient.get()
                 .uri(uriBuilder -> uriBuilder
-                        .path(endpoint)
-                        .queryParam("page", pageNumber)
-                        .queryParam("limit", 10)
+                        .path(key.endpoint())
+                        .queryParam("page", key.pageNumber())
+                        .queryParam("limit", key.limit())
                         .build())
-                .retrieve()
-                .onStatus(status -> status.is4xxClientError() || status.is5xxServerError(), this::handleApiError)
-                .bodyToMono(dtoClass);
+                .attributes(UpstreamMetrics.page(key.endpoint(), key.pageNumber()))
+                .attributes(UpstreamRateLimiter.priority(UpstreamRateLimiter.Priority.BACKGROUND))
+                .attributes(UpstreamRateLimiter.admitted()) //the token has been taken by the crawl (pageSource) or the hedge
+                .headers(headers -> {
+                    if (previous == null)
+                        return;
+                    if (previous.etag() != null)
+                        headers.setIfNoneMatch(previous.etag());
+                    if (previous.lastModified() != null)
+                        headers.set(HttpHeaders.IF_MODIFIED_SINCE, previous.lastModified());
+                })
+                .exchangeToMono(response -> {
+                    if (response.statusCode().value() == HttpStatus.NOT_MODIFIED.value() && previous != null) {
+                        notModifiedPages.increment();
+                        validatedPages.put(key, previous.revalidated());
+                        return response.releaseBody().thenReturn(dtoClass.cast(previous.page()));
+                    }
+                    if (response.statusCode().is4xxClientError() || response.statusCode().is5xxServerError())
+                        return handleApiError(response, key.endpoint())
+                                .cast(Throwable.class)
+                                .switchIfEmpty(Mono.fromSupplier(() -> new DemonSlayerApiException("Unknown error (empty response)",
+                                        HttpStatus.valueOf(response.statusCode().value()))))
+                                .flatMap(Mono::<T>error);
+                    HttpHeaders headers = response.headers().asHttpHeaders();
+                    return response.bodyToMono(byte[].class)
+                            .flatMap(body -> {
+                                String contentHash = DemonSlayerApiUtils.contentHash(body);
+                                if (previous != null && previous.contentHash().equals(contentHash)) { //same bytes: no decoding
+                                    unchangedPages.increment();
+                                    validatedPages.put(key, previous.revalidated());
+                                    return Mono.just(dtoClass.cast(previous.page()));
+                                }
+                                return Mono.fromCallable(() -> pageMapper.readValue(body, dtoClass))
+                                        .doOnNext(page -> validatedPages.put(key, new ValidatedPage(page, headers.getETag(),
+                                                headers.getFirst(HttpHeaders.LAST_MODIFIED), contentHash, System.nanoTime())));
+                            });
+                });
+    }
+
+    /**
+      * Hedge a request: if it has not answered after the configured percentile of the recent latencies of the endpoint,
+      * a duplicate request is sent (within the retry budget) and the first answer wins, the other request is cancelled.
+      * An error of the original request is propagated as is, an error of the duplicate request is ignored.
+      *
+      * @param endpoint the Demon Slayer API endpoint
+      * @param request  supplies the upstream request
+      * @return the first answer
+      */
+    private <T> Mono<T> hedged(String endpoint, Supplier<Mono<T>> request) {
+        Mono<T> primary = timed(endpoint, request.get());
+        CrawlProperties.Hedge hedge = crawlProperties.hedge();
+        if (!hedge.enabled())
+            return primary;
+        Duration percentile = pageLatencies.percentile(endpoint, hedge.percentile(), hedge.minSamples());
+        if (percentile == null) //not enough latencies known yet
+            return primary;
+        Duration delay = percentile.compareTo(hedge.minDelay()) > 0 ? percentile : hedge.minDelay();
+        Mono<T> backup = Mono.delay(delay)
+                .flatMap(_ -> {
+                    if (!retryBudget.tryWithdraw())
+                        return Mono.<T>never(); //no budget left: keep waiting for the original request
+                    pageHedges.increment();
+                    return rateLimiter.acquire(UpstreamRateLimiter.Priority.BACKGROUND) //a request of its own, which needs its own token
+                            .then(timed(endpoint, request.get()));
+                })
+                .onErrorResume(_ -> Mono.never());
+        return Mono.firstWithSignal(primary, backup);
+    }
+
+    private <T> Mono<T> timed(String endpoint, Mono<T> request) {
+        return request.elapsed()
+                .doOnNext(timed -> pageLatencies.record(endpoint, Duration.ofMillis(timed.getT1())))
+                .map(Tuple2::getT2);
     }
 
     /**
@@ -194,7 +645,9 @@ public class DemonSlayerApiService {
       * Handle the Demon Slayer public API errors
       *
       * <p>This method intercepts HTTP 4xx and 5xx responses and emits a {@link DemonSlayerApiException}
-      * containing the error message returned by the API.</p>
+      * containing the error message returned by the API. Every error answer is counted in {@code demonslayer.upstream.errors}.
+      * A 429 is our quota, not the client's: it is turned into an {@link UpstreamThrottledException} (503 Service Unavailable),
+      * which the {@link UpstreamRateLimiter} queues again until it gives up.</p>
       *
       * <strong>Example of an error returned by the Demon Slayer API</strong>
       * <pre>{@code
@@ -207,9 +660,14 @@ public class DemonSlayerApiService {
       * }</pre>
       *
       * @param response Spring WebFlux Object representing the raw HTTP response received
+      * @param endpoint the Demon Slayer API endpoint, used as the "endpoint" tag of the error counter
       * @return a {@link Mono} that will emit a {@link DemonSlayerApiException} if the server returned 4xx or 5xx HTTP status code
       */
-    private Mono<? extends Throwable> handleApiError(ClientResponse response) {
+    private Mono<? extends Throwable> handleApiError(ClientResponse response, String endpoint) {
+        upstreamMetrics.recordError(endpoint, response.statusCode());
+        if (response.statusCode().value() == HttpStatus.TOO_MANY_REQUESTS.value())
+            return response.releaseBody().then(Mono.<Throwable>error(new UpstreamThrottledException(
+                    "The Demon Slayer API rate limit has been reached, please try again later.")));
         return response.bodyToMono(String.class).flatMap(body -> {
             ObjectMapper mapper = new ObjectMapper();
             try {
@@ -229,4 +687,46 @@ public class DemonSlayerApiService {
             }
         });
     }
+
+    /**
+      * Coalescing key of a character lookup, exactly one of the two components is set
+      *
+      * @param id   the character ID from API side
+      * @param name the character name, as sent upstream
+      */
+    private record CharacterKey(Long id, String name) {}
+
+    /**
+      * Coalescing key of a character lookup
+      *
+      * @param character the looked up character
+      * @param priority  the priority of the upstream call
+      */
+    private record LookupKey(CharacterKey character, UpstreamRateLimiter.Priority priority) {}
+
+    /**
+      * Coalescing key of a page request
+      *
+      * @param endpoint   the Demon Slayer API endpoint
+      * @param pageNumber the requested page number
+      * @param limit      the requested page size
+      * @param dtoClass   the DTO class the page is decoded into
+      */
+    private record PageKey(String endpoint, int pageNumber, int limit, Class<?> dtoClass) {}
+
+    /**
+      * The last decoded copy of a page along with the validators returned by upstream and the hash of its bytes
+      *
+      * @param page         the decoded page
+      * @param etag         the ETag response header, if any
+      * @param lastModified the Last-Modified response header, if any
+      * @param contentHash  the SHA-256 of the raw bytes of the page
+      * @param validatedAt  the {@link System#nanoTime()} of the last upstream answer confirming this copy
+      */
+    private record ValidatedPage(Object page, String etag, String lastModified, String contentHash, long validatedAt) {
+
+        private ValidatedPage revalidated() {
+            return new ValidatedPage(page, etag, lastModified, contentHash, System.nanoTime());
+        }
+    }
 }
@@ -0,0 +1,234 @@
+package com.lpa.demon_slayer_api_service.service.cache;
+
+import com.lpa.demon_slayer_api_service.config.CacheProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+  * In-process stale-while-revalidate cache holding the latest snapshot of a whole collection (all characters, all combat styles...)
+  * <ul>
+  *     <li>younger than the TTL -> the snapshot is served as is (hit)</li>
+  *     <li>older than the TTL but younger than the max staleness -> the snapshot is served and a single background refresh is started (stale)</li>
+  *     <li>no snapshot or older than the max staleness -> the caller waits for a load, concurrent callers share the same load (miss)</li>
+  * </ul>
+  * If that load fails (upstream down, circuit open...), the last known good snapshot, however old, is served rather than an error.
+  * A snapshot restored from disk at startup ({@link #restore(Object, Instant)}) is served as stale whatever its age, until the first load replaces it.
+  *
+  * @param <V> the type of the cached snapshot, it must be immutable since it is shared by every reader
+  */
+@Slf4j
+public class SnapshotCache<V> {
+
+    private final String name;
+    private final Supplier<Mono<V>> loader;
+    private final CacheProperties properties;
+    private final Clock clock;
+
+    private final AtomicReference<Snapshot<V>> snapshot = new AtomicReference<>();
+    private final AtomicReference<Sinks.One<V>> pendingLoad = new AtomicReference<>();
+    private final AtomicBoolean refreshing = new AtomicBoolean(false);
+    private volatile Instant lastAccess;
+
+    private final Counter hits;
+    private final Counter staleHits;
+    private final Counter misses;
+    private final Counter refreshSuccesses;
+    private final Counter refreshFailures;
+    private final Counter evictions;
+    private final Counter fallbacks;
+
+    /**
+      * @param name          the cache name, used as the "cache" tag of the metrics
+      * @param loader        supplies the {@link Mono} loading the snapshot of the whole collection from upstream
+      * @param properties    the TTL, max staleness and eviction settings
+      * @param clock         the clock used to compute the snapshot age
+      * @param sizer         gives the number of elements of a snapshot, published as the cache size
+      * @param meterRegistry the registry in which hit/miss/refresh counters are published
+      */
+    public SnapshotCache(String name, Supplier<Mono<V>> loader, CacheProperties properties,
+                         Clock clock, ToIntFunction<V> sizer, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.loader = loader;
+        this.properties = properties;
+        this.clock = clock;
+        this.hits = requestCounter(meterRegistry, "hit");
+        this.staleHits = requestCounter(meterRegistry, "stale");
+        this.misses = requestCounter(meterRegistry, "miss");
+        this.refreshSuccesses = refreshCounter(meterRegistry, "success");
+        this.refreshFailures = refreshCounter(meterRegistry, "failure");
+        this.evictions = Counter.builder("demonslayer.cache.evictions")
+                .tag("cache", name)
+                .register(meterRegistry);
+        this.fallbacks = Counter.builder("demonslayer.cache.fallbacks")
+                .tag("cache", name)
+                .register(meterRegistry);
+        Gauge.builder("demonslayer.cache.size", snapshot, ref -> ref.get() == null ? 0 : sizer.applyAsInt(ref.get().value()))
+                .tag("cache", name)
+                .register(meterRegistry);
+    }
+
+    /**
+      * Return the cached snapshot, loading it from upstream only when there is no usable snapshot
+      *
+      * @return a {@link Mono} that emits the snapshot
+      */
+    public Mono<V> get() {
+        return Mono.defer(() -> {
+            V value = getIfPresent();
+            if (value != null)
+                return Mono.just(value);
+            Snapshot<V> lastKnownGood = snapshot.get(); //older than the max staleness, but not evicted yet
+            if (lastKnownGood == null)
+                return load();
+            return load().onErrorResume(error -> {
+                fallbacks.increment();
+                log.warn("Reload of cache '{}' failed, serving the snapshot loaded at {}: {}", name, lastKnownGood.loadedAt(), error.getMessage());
+                return Mono.just(lastKnownGood.value());
+            });
+        });
+    }
+
+    /**
+      * Return the cached snapshot without ever waiting for a load. A stale snapshot still triggers a background refresh.
+      *
+      * @return the snapshot, or null if there is no usable snapshot (miss)
+      */
+    public V getIfPresent() {
+        Instant now = clock.instant();
+        lastAccess = now;
+        Snapshot<V> current = snapshot.get();
+        if (current != null) {
+            Duration age = Duration.between(current.loadedAt(), now);
+            if (age.compareTo(properties.ttl()) < 0) {
+                hits.increment();
+                return current.value();
+            }
+            if (age.compareTo(properties.maxStaleness()) < 0 || current.restored()) {
+                staleHits.increment();
+                refreshInBackground();
+                return current.value();
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+      * Seed the cache with a snapshot saved by a previous run. It never replaces a snapshot loaded from upstream.
+      *
+      * @param value    the restored snapshot
+      * @param loadedAt the instant the restored snapshot had been loaded from upstream
+      */
+    public void restore(V value, Instant loadedAt) {
+        snapshot.compareAndSet(null, new Snapshot<>(value, loadedAt, true));
+    }
+
+    /**
+      * Start a background refresh unless one is already running. The current snapshot keeps being served meanwhile.
+      */
+    public void refreshInBackground() {
+        if (!refreshing.compareAndSet(false, true))
+            return;
+        load().doFinally(_ -> refreshing.set(false))
+                .subscribe(
+                        _ -> log.debug("Cache '{}' refreshed in background", name),
+                        error -> log.warn("Background refresh of cache '{}' failed: {}", name, error.getMessage())
+                );
+    }
+
+    /**
+      * Start a background refresh if there is a snapshot, without counting as a read: a snapshot nobody reads can still be evicted
+      */
+    public void refreshIfPresent() {
+        if (snapshot.get() != null)
+            refreshInBackground();
+    }
+
+    /**
+      * Drop the snapshot if it has not been read for longer than the configured idle duration
+      *
+      * @return true if the snapshot has been evicted
+      */
+    public boolean evictIfIdle() {
+        Snapshot<V> current = snapshot.get();
+        Instant last = lastAccess;
+        if (current == null || last == null)
+            return false;
+        if (Duration.between(last, clock.instant()).compareTo(properties.evictAfterIdle()) < 0)
+            return false;
+        if (!snapshot.compareAndSet(current, null))
+            return false;
+        evictions.increment();
+        log.info("Cache '{}' evicted after being idle since {}", name, last);
+        return true;
+    }
+
+    /**
+      * Drop the current snapshot, the next read will load the collection again
+      */
+    public void invalidate() {
+        snapshot.set(null);
+    }
+
+    /**
+      * Load the collection from upstream. Only one load runs at a time: concurrent callers (misses and background refresh)
+      * subscribe to the same {@link Sinks.One}, so cancelling one of them never cancels the load for the others.
+      */
+    private Mono<V> load() {
+        Sinks.One<V> sink = Sinks.one();
+        Sinks.One<V> existing = pendingLoad.compareAndExchange(null, sink);
+        if (existing != null)
+            return existing.asMono();
+        Mono.defer(loader).subscribe(
+                value -> {
+                    snapshot.set(new Snapshot<>(value, clock.instant(), false));
+                    refreshSuccesses.increment();
+                    pendingLoad.compareAndSet(sink, null);
+                    sink.tryEmitValue(value);
+                },
+                error -> {
+                    refreshFailures.increment();
+                    pendingLoad.compareAndSet(sink, null);
+                    sink.tryEmitError(error);
+                },
+                () -> { //no-op if a value has already been emitted
+                    pendingLoad.compareAndSet(sink, null);
+                    sink.tryEmitEmpty();
+                }
+        );
+        return sink.asMono();
+    }
+
+    private Counter requestCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("demonslayer.cache.requests")
+                .tag("cache", name)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private Counter refreshCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("demonslayer.cache.refreshes")
+                .tag("cache", name)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+      * @param value    the immutable cached snapshot
+      * @param loadedAt the instant the snapshot has been loaded from upstream
+      * @param restored true if the snapshot has been restored from disk rather than loaded by this instance
+      */
+    private record Snapshot<V>(V value, Instant loadedAt, boolean restored) {}
+}
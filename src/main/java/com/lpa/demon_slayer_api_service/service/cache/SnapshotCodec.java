@@ -0,0 +1,178 @@
+package com.lpa.demon_slayer_api_service.service.cache;
+
+import com.lpa.demon_slayer_api_service.model.dto.AffiliationDto;
+import com.lpa.demon_slayer_api_service.model.dto.CombatStyleDto;
+import com.lpa.demon_slayer_api_service.model.dto.character.CharacterDto;
+import com.lpa.demon_slayer_api_service.model.dto.character.CharacterSummaryDto;
+import com.lpa.demon_slayer_api_service.service.crawl.CrawlResult;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+  * Compact binary encoding of the elements of a snapshot file: the fields are written one after the other, in declaration order,
+  * without any field name. Changing the fields of an element requires a new {@link SnapshotStore#FORMAT_VERSION}.
+  * The encoding is deterministic (equal values give equal bytes), so it is also what the content ETags are hashed from.
+  *
+  * @param writer writes one element
+  * @param reader reads one element, the buffer being positioned at its first byte
+  * @param <T>    the type of the elements
+  */
+public record SnapshotCodec<T>(Writer<T> writer, Function<ByteBuffer, T> reader) {
+
+    public static final SnapshotCodec<CharacterSummaryDto> CHARACTER_SUMMARIES = new SnapshotCodec<>(
+            (out, character) -> {
+                writeLong(out, character.id());
+                writeString(out, character.name());
+                writeString(out, character.gender());
+                writeString(out, character.race());
+                writeString(out, character.description());
+                writeString(out, character.img());
+            },
+            in -> new CharacterSummaryDto(readLong(in), readString(in), readString(in), readString(in), readString(in), readString(in))
+    );
+
+    public static final SnapshotCodec<CombatStyleDto> COMBAT_STYLES = new SnapshotCodec<>(
+            (out, combatStyle) -> {
+                writeLong(out, combatStyle.id());
+                writeString(out, combatStyle.name());
+                writeString(out, combatStyle.description());
+            },
+            in -> new CombatStyleDto(readLong(in), readString(in), readString(in))
+    );
+
+    public static final SnapshotCodec<CharacterDto> CHARACTERS = new SnapshotCodec<>(
+            (out, character) -> {
+                writeLong(out, character.id());
+                writeString(out, character.name());
+                writeString(out, character.gender());
+                writeString(out, character.race());
+                writeString(out, character.description());
+                writeString(out, character.img());
+                out.writeBoolean(character.affiliation() != null);
+                if (character.affiliation() != null) {
+                    writeString(out, character.affiliation().name());
+                    writeString(out, character.affiliation().description());
+                }
+                if (character.combatStyles() == null) {
+                    out.writeInt(-1);
+                    return;
+                }
+                List<CombatStyleDto> combatStyles = character.combatStyles().stream()
+                        .sorted(Comparator.comparing(CombatStyleDto::id, Comparator.nullsFirst(Comparator.naturalOrder()))) //a set has no stable order
+                        .toList();
+                out.writeInt(combatStyles.size());
+                for (CombatStyleDto combatStyle : combatStyles)
+                    COMBAT_STYLES.writer().write(out, combatStyle);
+            },
+            in -> {
+                CharacterDto.CharacterDtoBuilder character = CharacterDto.builder()
+                        .id(readLong(in))
+                        .name(readString(in))
+                        .gender(readString(in))
+                        .race(readString(in))
+                        .description(readString(in))
+                        .img(readString(in));
+                if (in.get() != 0)
+                    character.affiliation(new AffiliationDto(readString(in), readString(in)));
+                int combatStyleCount = in.getInt();
+                if (combatStyleCount >= 0) {
+                    Set<CombatStyleDto> combatStyles = new LinkedHashSet<>();
+                    for (int i = 0; i < combatStyleCount; i++)
+                        combatStyles.add(COMBAT_STYLES.reader().apply(in));
+                    character.combatStyles(combatStyles);
+                }
+                return character.build();
+            }
+    );
+
+    /**
+      * @param value the element to encode
+      * @return the encoded element
+      */
+    public byte[] encode(T value) {
+        return toBytes(out -> writer.write(out, value));
+    }
+
+    /**
+      * Encode a whole collection: the element count, the elements, the missing page count and the missing page numbers
+      *
+      * @param result the collection to encode
+      * @return the encoded collection
+      */
+    public byte[] encode(CrawlResult<T> result) {
+        return toBytes(out -> {
+            out.writeInt(result.items().size());
+            for (T item : result.items())
+                writer.write(out, item);
+            out.writeInt(result.missingPages().size());
+            for (int page : result.missingPages())
+                out.writeInt(page);
+        });
+    }
+
+    private static byte[] toBytes(Content content) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            content.write(out);
+        } catch (IOException ex) { //never thrown by an in-memory stream
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    @FunctionalInterface
+    public interface Writer<T> {
+        void write(DataOutput out, T value) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface Content {
+        void write(DataOutput out) throws IOException;
+    }
+
+    /**
+      * A nullable string: its UTF-8 length (-1 for null) followed by its UTF-8 bytes
+      */
+    static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0)
+            return null;
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+      * A nullable long: a presence byte followed by the value when present
+      */
+    static void writeLong(DataOutput out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null)
+            out.writeLong(value);
+    }
+
+    static Long readLong(ByteBuffer in) {
+        return in.get() != 0 ? in.getLong() : null;
+    }
+}
@@ -0,0 +1,184 @@
+package com.lpa.demon_slayer_api_service.service.cache;
+
+import com.lpa.demon_slayer_api_service.config.SnapshotProperties;
+import com.lpa.demon_slayer_api_service.service.crawl.CrawlResult;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.observability.micrometer.Micrometer;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.CRC32;
+
+/**
+  * Saves the latest snapshot of each collection to a binary file on local disk and restores it at startup, so that
+  * the service answers right after a restart, even when the upstream API cannot be reached.
+  *
+  * <strong>File layout</strong> (big-endian)
+  * <pre>{@code
+  * int    magic           "DSSN"
+  * short  format version  FORMAT_VERSION, a file written with another version is ignored
+  * long   loaded at       epoch milliseconds of the upstream load
+  * int    payload length  in bytes
+  * long   checksum        CRC-32 of the payload, a corrupted or truncated file is ignored
+  * payload                SnapshotCodec#encode(CrawlResult)
+  * }</pre>
+  * Files are restored through a read-only memory mapping, and written to a temporary file atomically moved over the previous one,
+  * so a crash while saving never leaves a half-written snapshot behind.
+  * Saves run on the bounded elastic scheduler, timed as demonslayer.scheduler.*{scheduler=snapshot-io} (submitted, pending, active and completed tasks).
+  */
+@Slf4j
+@Component
+public class SnapshotStore {
+
+    static final int MAGIC = 0x4453534E; //"DSSN"
+    static final short FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = Integer.BYTES + Short.BYTES + Long.BYTES + Integer.BYTES + Long.BYTES;
+
+    private final SnapshotProperties properties;
+    private final Scheduler ioScheduler;
+
+    public SnapshotStore(SnapshotProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.ioScheduler = Micrometer.timedScheduler(Schedulers.boundedElastic(), meterRegistry,
+                "demonslayer.scheduler", Tags.of("scheduler", "snapshot-io"));
+    }
+
+    /**
+      * A snapshot read from disk
+      *
+      * @param result   the restored collection
+      * @param loadedAt the instant the collection had been loaded from upstream
+      */
+    public record Restored<T>(CrawlResult<T> result, Instant loadedAt) {}
+
+    /**
+      * @param name  the collection name, which is also the file name
+      * @param codec the element encoding
+      * @return the snapshot saved by a previous run, empty if snapshots are disabled or if there is no valid file
+      */
+    public <T> Optional<Restored<T>> restore(String name, SnapshotCodec<T> codec) {
+        if (!properties.enabled())
+            return Optional.empty();
+        Path file = file(name);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            Restored<T> restored = decode(buffer, codec);
+            if (restored != null)
+                log.info("Snapshot '{}' restored from {} ({} elements loaded at {})", name, file, restored.result().size(), restored.loadedAt());
+            return Optional.ofNullable(restored);
+        } catch (NoSuchFileException _) {
+            return Optional.empty();
+        } catch (IOException | RuntimeException ex) { //a snapshot is only an optimisation, never prevent the startup
+            log.warn("Snapshot '{}' could not be restored from {}: {}", name, file, ex.toString());
+            return Optional.empty();
+        }
+    }
+
+    /**
+      * Save the snapshot in the background, on a thread allowed to block
+      *
+      * @param name     the collection name, which is also the file name
+      * @param result   the collection to save
+      * @param loadedAt the instant the collection has been loaded from upstream
+      * @param codec    the element encoding
+      */
+    public <T> void saveInBackground(String name, CrawlResult<T> result, Instant loadedAt, SnapshotCodec<T> codec) {
+        if (!properties.enabled())
+            return;
+        Mono.fromCallable(() -> save(name, result, loadedAt, codec))
+                .subscribeOn(ioScheduler)
+                .subscribe(
+                        file -> log.debug("Snapshot '{}' saved to {}", name, file),
+                        error -> log.warn("Snapshot '{}' could not be saved: {}", name, error.toString())
+                );
+    }
+
+    /**
+      * @return the written file
+      */
+    <T> Path save(String name, CrawlResult<T> result, Instant loadedAt, SnapshotCodec<T> codec) throws IOException {
+        byte[] payload = codec.encode(result);
+        CRC32 checksum = new CRC32();
+        checksum.update(payload);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(HEADER_SIZE + payload.length);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeShort(FORMAT_VERSION);
+            out.writeLong(loadedAt.toEpochMilli());
+            out.writeInt(payload.length);
+            out.writeLong(checksum.getValue());
+            out.write(payload);
+        }
+        Files.createDirectories(properties.directory());
+        Path file = file(name);
+        Path temporary = Files.createTempFile(properties.directory(), name, ".tmp");
+        try {
+            Files.write(temporary, bytes.toByteArray());
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+        return file;
+    }
+
+    /**
+      * @return the decoded snapshot, or null if the file is not a valid snapshot of the current format version
+      */
+    private <T> Restored<T> decode(ByteBuffer buffer, SnapshotCodec<T> codec) {
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+            log.warn("Ignoring a snapshot file which is not a snapshot");
+            return null;
+        }
+        short version = buffer.getShort();
+        if (version != FORMAT_VERSION) {
+            log.info("Ignoring a snapshot file of format version {} (current version is {})", version, FORMAT_VERSION);
+            return null;
+        }
+        Instant loadedAt = Instant.ofEpochMilli(buffer.getLong());
+        int payloadLength = buffer.getInt();
+        long expectedChecksum = buffer.getLong();
+        if (payloadLength < 0 || payloadLength != buffer.remaining()) {
+            log.warn("Ignoring a truncated snapshot file");
+            return null;
+        }
+        ByteBuffer payload = buffer.slice();
+        CRC32 checksum = new CRC32();
+        checksum.update(payload.duplicate());
+        if (checksum.getValue() != expectedChecksum) {
+            log.warn("Ignoring a corrupted snapshot file (checksum mismatch)");
+            return null;
+        }
+        int itemCount = payload.getInt();
+        List<T> items = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++)
+            items.add(codec.reader().apply(payload));
+        int missingCount = payload.getInt();
+        List<Integer> missingPages = new ArrayList<>(missingCount);
+        for (int i = 0; i < missingCount; i++)
+            missingPages.add(payload.getInt());
+        return new Restored<>(new CrawlResult<>(items, missingPages), loadedAt);
+    }
+
+    private Path file(String name) {
+        return properties.directory().resolve(name + ".snapshot");
+    }
+}
@@ -0,0 +1,308 @@
+package com.lpa.demon_slayer_api_service.service.catalog;
+
+import com.lpa.demon_slayer_api_service.config.CatalogProperties;
+import com.lpa.demon_slayer_api_service.config.ResilienceProperties;
+import com.lpa.demon_slayer_api_service.exception.DemonSlayerApiException;
+import com.lpa.demon_slayer_api_service.model.dto.CombatStyleDto;
+import com.lpa.demon_slayer_api_service.model.dto.character.CharacterBatchResponseDto;
+import com.lpa.demon_slayer_api_service.model.dto.character.CharacterDto;
+import com.lpa.demon_slayer_api_service.model.dto.character.CharacterLookupErrorDto;
+import com.lpa.demon_slayer_api_service.model.dto.character.CharacterSearchHitDto;
+import com.lpa.demon_slayer_api_service.service.DemonSlayerApiService;
+import com.lpa.demon_slayer_api_service.service.cache.SnapshotCodec;
+import com.lpa.demon_slayer_api_service.service.ratelimit.UpstreamRateLimiter;
+import com.lpa.demon_slayer_api_service.utils.DemonSlayerApiUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+  * Local catalog of every character detail ({@link CharacterDto}), used to answer single character lookups from memory.
+  * <p>The whole dataset is small and rarely changes: it is loaded in the background and indexed by ID in a {@link LongObjectIndex}
+  * and by normalized name, plus a full-text {@link CharacterSearchIndex}. A refresh builds a brand-new {@link Index} which is
+  * swapped in atomically, so readers never see a partially loaded catalog, and the previous copy keeps being served when the upstream API is slow or down.</p>
+  * Lookups that are not in the catalog (not loaded yet, new character, partial name...) fall back to {@link DemonSlayerApiService#fetchCharacter(Long, String)}.
+  */
+@Slf4j
+@Service
+public class CharacterCatalog {
+
+    private final DemonSlayerApiService demonSlayerApiService;
+    private final CatalogProperties properties;
+    private final AtomicReference<Index> index = new AtomicReference<>(Index.EMPTY);
+    private final AtomicBoolean loading = new AtomicBoolean(false);
+    private final Counter hits;
+    private final Counter misses;
+
+    /**
+      * @param resilienceProperties the bulkheads the lookups of the catalog go through, checked against the catalog concurrency
+      */
+    public CharacterCatalog(DemonSlayerApiService demonSlayerApiService,
+                            CatalogProperties properties,
+                            ResilienceProperties resilienceProperties,
+                            MeterRegistry meterRegistry) {
+        if (properties.loadConcurrency() > resilienceProperties.bulkhead().refreshMaxConcurrent())
+            throw new IllegalArgumentException("api.demonslayer.catalog.load-concurrency must not exceed "
+                    + "api.demonslayer.resilience.bulkhead.refresh-max-concurrent, the refresh lookups would be refused");
+        if (2 * properties.batchConcurrency() >= resilienceProperties.bulkhead().lookupMaxConcurrent())
+            throw new IllegalArgumentException("api.demonslayer.catalog.batch-concurrency must be less than half of "
+                    + "api.demonslayer.resilience.bulkhead.lookup-max-concurrent, concurrent batches would be refused");
+        this.demonSlayerApiService = demonSlayerApiService;
+        this.properties = properties;
+        this.hits = Counter.builder("demonslayer.catalog.lookups")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("demonslayer.catalog.lookups")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("demonslayer.catalog.size", index, ref -> ref.get().size())
+                .register(meterRegistry);
+    }
+
+    /**
+      * Retrieve a character using their API ID or name, from the catalog if possible
+      *
+      * @param id   the character ID from API side
+      * @param name the character name
+      * @return the character DTO found
+      */
+    public Mono<CharacterDto> findCharacter(Long id, String name) {
+        if (properties.enabled()) {
+            Index current = index.get();
+            CharacterDto found = id != null ? current.byId().get(id) : current.byName(name);
+            if (found != null) {
+                hits.increment();
+                return Mono.just(found);
+            }
+            misses.increment();
+        }
+        return demonSlayerApiService.fetchCharacter(id, name);
+    }
+
+    /**
+      * Strong ETag of a character, hashed from its content. The ETags of the catalog characters are computed once per load,
+      * any other character (upstream fallback) is hashed on the spot.
+      *
+      * @param character a character returned by {@link #findCharacter(Long, String)}
+      * @return the quoted strong ETag of the character
+      */
+    public String etagOf(CharacterDto character) {
+        if (character.id() != null) {
+            Index current = index.get();
+            if (current.byId().get(character.id()) == character)
+                return current.etags().get(character.id());
+        }
+        return etag(character);
+    }
+
+    private static String etag(CharacterDto character) {
+        return DemonSlayerApiUtils.strongEtag(SnapshotCodec.CHARACTERS.encode(character));
+    }
+
+    /**
+      * Retrieve several characters at once. Duplicate IDs are resolved once, the IDs are resolved with bounded concurrency
+      * through {@link #findCharacter(Long, String)} and a failed ID is reported in the response instead of failing the whole batch.
+      * The concurrency is less than half of the lookup bulkhead: two batches and a single lookup are never refused by it.
+      *
+      * @param ids the character IDs from API side
+      * @return the characters found, in the order of their first occurrence in {@code ids}, and the per-ID errors
+      */
+    public Mono<CharacterBatchResponseDto> findCharacters(List<Long> ids) {
+        List<Long> distinctIds = ids == null ? List.of() : ids.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        if (distinctIds.isEmpty())
+            return Mono.error(new DemonSlayerApiException("Provide at least one character id", HttpStatus.BAD_REQUEST));
+        if (distinctIds.size() > properties.batchMaxSize())
+            return Mono.error(new DemonSlayerApiException(
+                    "A batch is limited to " + properties.batchMaxSize() + " distinct ids", HttpStatus.BAD_REQUEST));
+        return Flux.fromIterable(distinctIds)
+                .flatMapSequential(id -> findCharacter(id, null)
+                                .map(character -> new Lookup(character, null))
+                                .onErrorResume(error -> Mono.just(new Lookup(null, toLookupError(id, error)))),
+                        properties.batchConcurrency())
+                .collectList()
+                .map(lookups -> new CharacterBatchResponseDto(
+                        lookups.stream().map(Lookup::character).filter(Objects::nonNull).toList(),
+                        lookups.stream().map(Lookup::error).filter(Objects::nonNull).toList()
+                ));
+    }
+
+    private static CharacterLookupErrorDto toLookupError(Long id, Throwable error) {
+        if (error instanceof DemonSlayerApiException dsEx)
+            return new CharacterLookupErrorDto(id, dsEx.getStatusCode(), dsEx.getMessage());
+        log.warn("Batch lookup of character {} failed: {}", id, error.toString());
+        return new CharacterLookupErrorDto(id, HttpStatus.BAD_GATEWAY.value(), "The Demon Slayer API could not be reached");
+    }
+
+    /**
+      * Full-text search over the names, descriptions, affiliations and combat styles of the catalog characters,
+      * answered from memory only: nothing is found until the first load has completed.
+      *
+      * @param query the words to look for, the last one may be incomplete (typeahead)
+      * @param limit the maximum number of results
+      * @return the matching characters, most relevant first
+      */
+    public List<CharacterSearchHitDto> search(String query, int limit) {
+        return index.get().search().search(query, limit).stream()
+                .map(hit -> new CharacterSearchHitDto(hit.character().id(), hit.character().name(), hit.character().img(), hit.score()))
+                .toList();
+    }
+
+    /**
+      * Characters using a combat style, answered from memory only: nothing is found until the first load has completed
+      *
+      * @param combatStyleId the combat style ID from API side
+      * @return the characters using this combat style, sorted by ID
+      */
+    public List<CharacterDto> findCharactersByCombatStyle(long combatStyleId) {
+        return index.get().byCombatStyle().get(combatStyleId);
+    }
+
+    /**
+      * Characters of an affiliation, answered from memory only: nothing is found until the first load has completed
+      *
+      * @param affiliation the affiliation name, compared like character names ("demon slayer corps" matches "Demon Slayer Corps")
+      * @return the characters of this affiliation, sorted by ID
+      */
+    public List<CharacterDto> findCharactersByAffiliation(String affiliation) {
+        return index.get().byAffiliation().get(DemonSlayerApiUtils.normalizeName(affiliation));
+    }
+
+    /**
+      * @return every character currently held by the catalog, empty until the first load has completed
+      */
+    public List<CharacterDto> characters() {
+        return index.get().byId().values();
+    }
+
+    /**
+      * Periodically (and once at startup) reload the catalog in the background
+      */
+    @Scheduled(fixedDelayString = "${api.demonslayer.catalog.refresh-interval:PT30M}")
+    void scheduledRefresh() {
+        if (!properties.enabled())
+            return;
+        refresh().subscribe(
+                size -> log.info("Character catalog loaded with {} characters", size),
+                error -> log.warn("Character catalog refresh failed, keeping the previous copy: {}", error.getMessage())
+        );
+    }
+
+    /**
+      * Load every character detail and atomically swap in the new index. Only one refresh runs at a time.
+      * A character whose detail cannot be fetched keeps its previous copy, if any. The lookups are {@link UpstreamRateLimiter.Priority#BACKGROUND}:
+      * they go through the "refresh" bulkhead, never through the one of the client lookups.
+      *
+      * @return a {@link Mono} that emits the number of indexed characters, or completes empty if a refresh is already running
+      */
+    public Mono<Integer> refresh() {
+        return Mono.defer(() -> {
+            if (!loading.compareAndSet(false, true))
+                return Mono.empty();
+            Index previous = index.get();
+            return demonSlayerApiService.getAllCharacters()
+                    .flatMap(summary -> demonSlayerApiService.fetchCharacter(summary.id(), null, UpstreamRateLimiter.Priority.BACKGROUND) //nobody is waiting for these lookups
+                                    .onErrorResume(error -> {
+                                        log.debug("Character {} could not be refreshed: {}", summary.id(), error.getMessage());
+                                        return Mono.justOrEmpty(previous.byId().get(summary.id()));
+                                    }),
+                            properties.loadConcurrency())
+                    .collectList()
+                    .map(characters -> Index.of(characters, previous))
+                    .doOnNext(index::set)
+                    .map(Index::size)
+                    .doFinally(_ -> loading.set(false));
+        });
+    }
+
+    /**
+      * Outcome of one ID of a batch lookup, exactly one of the two components is set
+      */
+    private record Lookup(CharacterDto character, CharacterLookupErrorDto error) {}
+
+    /**
+      * Immutable catalog copy
+      *
+      * @param byId          the characters indexed by their API ID
+      * @param byName        the characters indexed by their normalized name
+      * @param search        the full-text index of the characters
+      * @param byCombatStyle the characters indexed by the IDs of their combat styles
+      * @param byAffiliation the characters indexed by the normalized name of their affiliation
+      * @param etags         the strong ETags of the characters indexed by their API ID
+      */
+    private record Index(LongObjectIndex<CharacterDto> byId, Map<String, CharacterDto> byName, CharacterSearchIndex search,
+                         ReverseIndex<Long> byCombatStyle, ReverseIndex<String> byAffiliation, Map<Long, String> etags) {
+
+        private static final Index EMPTY = of(List.of(), null);
+
+        /**
+          * @param previous the index being replaced, the full-text analysis, the reverse index entries and the ETags of its
+          *                 unchanged characters are reused
+          */
+        private static Index of(List<CharacterDto> characters, Index previous) {
+            List<CharacterDto> identified = characters.stream()
+                    .filter(character -> character.id() != null)
+                    .toList();
+            Map<String, CharacterDto> byName = new HashMap<>();
+            Map<Long, CharacterDto> after = new HashMap<>();
+            for (CharacterDto character : identified) {
+                if (character.name() != null)
+                    byName.put(DemonSlayerApiUtils.normalizeName(character.name()), character);
+                after.put(character.id(), character);
+            }
+            Map<Long, CharacterDto> before = new HashMap<>();
+            if (previous != null)
+                for (CharacterDto character : previous.byId().values())
+                    before.put(character.id(), character);
+            Map<Long, String> etags = new HashMap<>();
+            after.forEach((id, character) -> etags.put(id, character.equals(before.get(id))
+                    ? previous.etags().get(id)
+                    : etag(character)));
+            return new Index(LongObjectIndex.of(identified, CharacterDto::id), Map.copyOf(byName),
+                    CharacterSearchIndex.of(identified, previous == null ? null : previous.search()),
+                    (previous == null ? ReverseIndex.empty(Index::combatStyleIds) : previous.byCombatStyle()).update(before, after),
+                    (previous == null ? ReverseIndex.empty(Index::affiliationName) : previous.byAffiliation()).update(before, after),
+                    Map.copyOf(etags));
+        }
+
+        private CharacterDto byName(String name) {
+            return name == null ? null : byName.get(DemonSlayerApiUtils.normalizeName(name));
+        }
+
+        private int size() {
+            return byId.size();
+        }
+
+        private static Set<Long> combatStyleIds(CharacterDto character) {
+            if (character.combatStyles() == null)
+                return Set.of();
+            return character.combatStyles().stream()
+                    .map(CombatStyleDto::id)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toSet());
+        }
+
+        private static Set<String> affiliationName(CharacterDto character) {
+            if (character.affiliation() == null || character.affiliation().name() == null)
+                return Set.of();
+            return Set.of(DemonSlayerApiUtils.normalizeName(character.affiliation().name()));
+        }
+    }
+}
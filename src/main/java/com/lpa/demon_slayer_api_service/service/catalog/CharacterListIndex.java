@@ -0,0 +1,193 @@
+package com.lpa.demon_slayer_api_service.service.catalog;
+
+import com.lpa.demon_slayer_api_service.model.dto.character.CharacterSummaryDto;
+import com.lpa.demon_slayer_api_service.service.crawl.CrawlResult;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+  * Immutable query index over one snapshot of the character list, built once per snapshot and then only read.
+  * <ul>
+  *     <li>each sort order is a permutation array (rank -> position in the snapshot). The name order is computed once
+  *     from {@link CollationKey}s, case-insensitive and accent-aware</li>
+  *     <li>each race and gender value is a bitset over the ranks of each sort order, so a filter is a word-wise AND
+  *     and the selected characters come out already sorted</li>
+  * </ul>
+  * A page costs a word-wise AND of the filter bitsets plus the page itself: no sorting, no copy of the list.
+  */
+public final class CharacterListIndex {
+
+    /**
+      * A page of the character list
+      *
+      * @param items the characters of the page
+      * @param total the number of characters matching the filters, over every page
+      */
+    public record Page(List<CharacterSummaryDto> items, int total) {}
+
+    private final CrawlResult<CharacterSummaryDto> source;
+    private final List<CharacterSummaryDto> items;
+    private final int[][] orders; //per sort order: rank -> position in items
+    private final Map<String, long[][]> races; //normalized race -> per sort order: bitset over ranks
+    private final Map<String, long[][]> genders; //normalized gender -> per sort order: bitset over ranks
+
+    private CharacterListIndex(CrawlResult<CharacterSummaryDto> source, int[][] orders,
+                               Map<String, long[][]> races, Map<String, long[][]> genders) {
+        this.source = source;
+        this.items = source.items();
+        this.orders = orders;
+        this.races = races;
+        this.genders = genders;
+    }
+
+    /**
+      * @param snapshot the character list to index
+      * @return a new index over the snapshot
+      */
+    public static CharacterListIndex of(CrawlResult<CharacterSummaryDto> snapshot) {
+        List<CharacterSummaryDto> items = snapshot.items();
+        int[][] orders = new int[CharacterListQuery.Sort.values().length][];
+        orders[CharacterListQuery.Sort.ID.ordinal()] = order(items.size(),
+                i -> items.get(i).id() == null ? Long.MAX_VALUE : items.get(i).id());
+        Collator collator = Collator.getInstance(Locale.ROOT);
+        collator.setStrength(Collator.SECONDARY); //"tanjiro" == "Tanjiro", but "e" != "é"
+        CollationKey[] names = new CollationKey[items.size()];
+        for (int i = 0; i < names.length; i++)
+            names[i] = collator.getCollationKey(items.get(i).name() == null ? "" : items.get(i).name());
+        orders[CharacterListQuery.Sort.NAME.ordinal()] = order(items.size(), i -> names[i]);
+        return new CharacterListIndex(snapshot, orders,
+                bitsets(items, orders, CharacterSummaryDto::race),
+                bitsets(items, orders, CharacterSummaryDto::gender));
+    }
+
+    /**
+      * @return the snapshot this index has been built from
+      */
+    public CrawlResult<CharacterSummaryDto> source() {
+        return source;
+    }
+
+    /**
+      * @param query the page, filters and sort order
+      * @return the page, empty if it is past the last matching character
+      */
+    public Page page(CharacterListQuery query) {
+        int sort = query.sort().ordinal();
+        int[] order = orders[sort];
+        long[] selected = null;
+        if (query.race() != null) {
+            long[][] race = races.get(normalize(query.race()));
+            if (race == null)
+                return new Page(List.of(), 0);
+            selected = race[sort];
+        }
+        if (query.gender() != null) {
+            long[][] gender = genders.get(normalize(query.gender()));
+            if (gender == null)
+                return new Page(List.of(), 0);
+            selected = selected == null ? gender[sort] : and(selected, gender[sort]);
+        }
+        long first = (long) query.page() * query.size();
+        List<CharacterSummaryDto> page = new ArrayList<>(query.size());
+        if (selected == null) { //no filter, the page is a slice of the permutation
+            for (long rank = first; rank < order.length && page.size() < query.size(); rank++)
+                page.add(items.get(order[(int) rank]));
+            return new Page(page, order.length);
+        }
+        int total = 0;
+        for (long word : selected)
+            total += Long.bitCount(word);
+        int rank = skip(selected, first);
+        while (rank >= 0 && page.size() < query.size()) {
+            page.add(items.get(order[rank]));
+            rank = nextSetBit(selected, rank + 1);
+        }
+        return new Page(page, total);
+    }
+
+    /**
+      * @return the lower-cased, trimmed filter value, filters are case-insensitive
+      */
+    static String normalize(String value) {
+        return value.strip().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+      * @return the positions of the items sorted by key, ties broken by position so that the order is stable
+      */
+    private static <K extends Comparable<? super K>> int[] order(int size, Function<Integer, K> key) {
+        return IntStream.range(0, size)
+                .boxed()
+                .sorted(Comparator.comparing(key).thenComparingInt(Integer::intValue))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    private static Map<String, long[][]> bitsets(List<CharacterSummaryDto> items, int[][] orders,
+                                                 Function<CharacterSummaryDto, String> field) {
+        Map<String, long[][]> bitsets = new HashMap<>();
+        int words = (items.size() + 63) >>> 6;
+        for (int sort = 0; sort < orders.length; sort++) {
+            int[] order = orders[sort];
+            for (int rank = 0; rank < order.length; rank++) {
+                String value = field.apply(items.get(order[rank]));
+                if (value == null || value.isBlank())
+                    continue;
+                long[] bits = bitsets.computeIfAbsent(normalize(value), _ -> new long[orders.length][words])[sort];
+                bits[rank >>> 6] |= 1L << rank;
+            }
+        }
+        return Map.copyOf(bitsets);
+    }
+
+    private static long[] and(long[] left, long[] right) {
+        long[] result = Arrays.copyOf(left, left.length);
+        for (int i = 0; i < result.length; i++)
+            result[i] &= right[i];
+        return result;
+    }
+
+    /**
+      * @return the rank of the set bit numbered {@code count} (zero-based), or -1 if there are not that many set bits.
+      * Whole words are skipped with a bit count, the scan is linear in words, not in characters.
+      */
+    private static int skip(long[] bits, long count) {
+        long remaining = count;
+        for (int i = 0; i < bits.length; i++) {
+            int inWord = Long.bitCount(bits[i]);
+            if (remaining >= inWord) {
+                remaining -= inWord;
+                continue;
+            }
+            long word = bits[i];
+            for (long j = 0; j < remaining; j++)
+                word &= word - 1; //clear the lowest set bit
+            return (i << 6) + Long.numberOfTrailingZeros(word);
+        }
+        return -1;
+    }
+
+    private static int nextSetBit(long[] bits, int from) {
+        int i = from >>> 6;
+        if (i >= bits.length)
+            return -1;
+        long word = bits[i] & (-1L << from);
+        while (true) {
+            if (word != 0)
+                return (i << 6) + Long.numberOfTrailingZeros(word);
+            if (++i == bits.length)
+                return -1;
+            word = bits[i];
+        }
+    }
+}
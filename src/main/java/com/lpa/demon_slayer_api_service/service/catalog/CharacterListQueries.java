@@ -0,0 +1,34 @@
+package com.lpa.demon_slayer_api_service.service.catalog;
+
+import com.lpa.demon_slayer_api_service.model.dto.character.CharacterSummaryDto;
+import com.lpa.demon_slayer_api_service.service.crawl.CrawlResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+  * Answers the paginated, filtered and sorted character list from the cached snapshot.
+  * The {@link CharacterListIndex} of the latest snapshot is kept, a new snapshot (reload, refresh) is indexed on its first query.
+  */
+@Slf4j
+@Component
+public class CharacterListQueries {
+
+    private final AtomicReference<CharacterListIndex> index = new AtomicReference<>();
+
+    /**
+      * @param snapshot the current snapshot of the character list
+      * @param query    the page, filters and sort order
+      * @return the requested page of that snapshot
+      */
+    public CharacterListIndex.Page query(CrawlResult<CharacterSummaryDto> snapshot, CharacterListQuery query) {
+        CharacterListIndex current = index.get();
+        if (current == null || current.source() != snapshot) { //two concurrent indexings of the same snapshot are equal, the last one wins
+            current = CharacterListIndex.of(snapshot);
+            index.set(current);
+            log.debug("Character list indexed: {} characters", snapshot.size());
+        }
+        return current.page(query);
+    }
+}
@@ -0,0 +1,64 @@
+package com.lpa.demon_slayer_api_service.service.catalog;
+
+import com.lpa.demon_slayer_api_service.config.PaginationProperties;
+import com.lpa.demon_slayer_api_service.exception.DemonSlayerApiException;
+import org.springframework.http.HttpStatus;
+
+import java.util.Locale;
+
+/**
+  * A page of the character list, optionally filtered by race and gender
+  *
+  * @param page   the zero-based page number
+  * @param size   the number of characters per page
+  * @param race   the race to keep (case-insensitive), null for every race
+  * @param gender the gender to keep (case-insensitive), null for every gender
+  * @param sort   the order of the characters
+  */
+public record CharacterListQuery(
+        int page,
+        int size,
+        String race,
+        String gender,
+        Sort sort
+) {
+
+    public enum Sort { ID, NAME }
+
+    /**
+      * @return the query, or null if no parameter is given (the whole list is returned)
+      * @throws DemonSlayerApiException (400) for a negative page, a size out of [1, max-size] or an unknown sort
+      */
+    public static CharacterListQuery of(Integer page, Integer size, String race, String gender, String sort,
+                                        PaginationProperties properties) throws DemonSlayerApiException {
+        if (page == null && size == null && race == null && gender == null && sort == null)
+            return null;
+        int pageNumber = page == null ? 0 : page;
+        int pageSize = size == null ? properties.defaultSize() : size;
+        if (pageNumber < 0)
+            throw new DemonSlayerApiException("The page number must be positive", HttpStatus.BAD_REQUEST);
+        if (pageSize < 1 || pageSize > properties.maxSize())
+            throw new DemonSlayerApiException("The page size must be between 1 and " + properties.maxSize(), HttpStatus.BAD_REQUEST);
+        Sort order;
+        try {
+            order = sort == null ? Sort.ID : Sort.valueOf(sort.strip().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException _) {
+            throw new DemonSlayerApiException("Unknown sort '" + sort + "', use 'id' or 'name'", HttpStatus.BAD_REQUEST);
+        }
+        return new CharacterListQuery(pageNumber, pageSize, blankToNull(race), blankToNull(gender), order);
+    }
+
+    /**
+      * The canonical form of the query, e.g. "page=0&size=20&race=human&gender=&sort=name"
+      */
+    public String key() {
+        return "page=" + page + "&size=" + size
+                + "&race=" + (race == null ? "" : CharacterListIndex.normalize(race))
+                + "&gender=" + (gender == null ? "" : CharacterListIndex.normalize(gender))
+                + "&sort=" + sort.name().toLowerCase(Locale.ROOT);
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+}
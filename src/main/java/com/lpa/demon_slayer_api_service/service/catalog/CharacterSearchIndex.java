@@ -0,0 +1,250 @@
+package com.lpa.demon_slayer_api_service.service.catalog;
+
+import com.lpa.demon_slayer_api_service.model.dto.CombatStyleDto;
+import com.lpa.demon_slayer_api_service.model.dto.character.CharacterDto;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+  * Immutable inverted index over the names, descriptions, affiliation names and combat style names of the catalog characters.
+  * <ul>
+  *     <li>the text is lower-cased, stripped of its accents and split on anything but letters and digits</li>
+  *     <li>each term of a character is weighted by the fields it appears in: name > affiliation, combat style > description</li>
+  *     <li>each query term matches the index terms exactly, as a prefix ("tanj" -> "tanjiro") or within an edit distance
+  *     (1 from 4 characters, 2 from 8 characters, "nezuco" -> "nezuko"), exact matches scoring higher</li>
+  *     <li>every query term must match, a character scores the sum of its best match per query term</li>
+  * </ul>
+  * The dictionary is a sorted array, so a prefix is a binary search followed by a scan of the matching range.
+  * A rebuild ({@link #of(List, CharacterSearchIndex)}) reuses the analysis of every character that did not change.
+  */
+public final class CharacterSearchIndex {
+
+    private static final float NAME_WEIGHT = 8;
+    private static final float TAG_WEIGHT = 3; //affiliation and combat style names
+    private static final float DESCRIPTION_WEIGHT = 1;
+    private static final float PREFIX_FACTOR = 0.6f;
+    private static final float FUZZY_FACTOR = 0.4f;
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final Set<String> STOP_WORDS = Set.of("a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "has",
+            "he", "her", "his", "in", "is", "it", "its", "of", "on", "or", "she", "that", "the", "to", "was", "who", "with");
+
+    public static final CharacterSearchIndex EMPTY = of(List.of(), null);
+
+    /**
+      * A character matching a query
+      *
+      * @param character the matching character
+      * @param score     the relevance of the match
+      */
+    public record Hit(CharacterDto character, double score) {}
+
+    /**
+      * The analysis of one character, reused by the next rebuild if the character did not change
+      *
+      * @param character the analysed character
+      * @param terms     each term of the character and its weight
+      */
+    record Document(CharacterDto character, Map<String, Float> terms) {}
+
+    private final Document[] documents;
+    private final LongObjectIndex<Document> byId;
+    private final String[] terms; //sorted dictionary
+    private final int[][] postingDocuments; //per term: the documents containing it
+    private final float[][] postingWeights; //per term: the weight of the term in each of these documents
+
+    private CharacterSearchIndex(Document[] documents, String[] terms, int[][] postingDocuments, float[][] postingWeights) {
+        this.documents = documents;
+        this.byId = LongObjectIndex.of(Arrays.asList(documents), document -> document.character().id());
+        this.terms = terms;
+        this.postingDocuments = postingDocuments;
+        this.postingWeights = postingWeights;
+    }
+
+    /**
+      * @param characters the characters to index, those without ID are ignored
+      * @param previous   the index being replaced, whose analysis of the unchanged characters is reused, may be null
+      * @return a new index over the characters
+      */
+    public static CharacterSearchIndex of(List<CharacterDto> characters, CharacterSearchIndex previous) {
+        List<Document> documents = new ArrayList<>(characters.size());
+        for (CharacterDto character : characters) {
+            if (character.id() == null)
+                continue;
+            Document known = previous == null ? null : previous.byId.get(character.id());
+            documents.add(known != null && known.character().equals(character) ? known : analyse(character));
+        }
+        TreeMap<String, List<Integer>> postings = new TreeMap<>();
+        for (int document = 0; document < documents.size(); document++)
+            for (String term : documents.get(document).terms().keySet())
+                postings.computeIfAbsent(term, _ -> new ArrayList<>()).add(document);
+        String[] terms = postings.keySet().toArray(String[]::new);
+        int[][] postingDocuments = new int[terms.length][];
+        float[][] postingWeights = new float[terms.length][];
+        for (int t = 0; t < terms.length; t++) {
+            List<Integer> containing = postings.get(terms[t]);
+            postingDocuments[t] = new int[containing.size()];
+            postingWeights[t] = new float[containing.size()];
+            for (int i = 0; i < containing.size(); i++) {
+                postingDocuments[t][i] = containing.get(i);
+                postingWeights[t][i] = documents.get(containing.get(i)).terms().get(terms[t]);
+            }
+        }
+        return new CharacterSearchIndex(documents.toArray(Document[]::new), terms, postingDocuments, postingWeights);
+    }
+
+    /**
+      * @param query the words to look for, the last one may be incomplete (typeahead)
+      * @param limit the maximum number of hits
+      * @return the matching characters, by decreasing score then increasing ID
+      */
+    public List<Hit> search(String query, int limit) {
+        List<String> queryTerms = tokenize(query, false);
+        if (queryTerms.isEmpty() || documents.length == 0)
+            return List.of();
+        float[] scores = null;
+        for (String queryTerm : queryTerms) {
+            float[] termScores = match(queryTerm);
+            if (STOP_WORDS.contains(queryTerm) && isZero(termScores))
+                continue; //stop words are not indexed, they do not restrict the results
+            if (scores == null) {
+                scores = termScores;
+            } else {
+                for (int document = 0; document < scores.length; document++)
+                    scores[document] = termScores[document] == 0 ? 0 : scores[document] + termScores[document]; //every term must match
+            }
+        }
+        if (scores == null)
+            return List.of();
+        List<Hit> hits = new ArrayList<>();
+        for (int document = 0; document < scores.length; document++)
+            if (scores[document] > 0)
+                hits.add(new Hit(documents[document].character(), scores[document]));
+        hits.sort(Comparator.comparingDouble(Hit::score).reversed().thenComparing(hit -> hit.character().id()));
+        return hits.size() > limit ? List.copyOf(hits.subList(0, limit)) : hits;
+    }
+
+    /**
+      * @return the character indexed under this ID, for tests
+      */
+    Document document(long id) {
+        return byId.get(id);
+    }
+
+    public int size() {
+        return documents.length;
+    }
+
+    /**
+      * @return per document, the best score of the query term among its exact, prefix and fuzzy matches
+      */
+    private float[] match(String queryTerm) {
+        float[] scores = new float[documents.length];
+        int from = Arrays.binarySearch(terms, queryTerm);
+        if (from >= 0) {
+            accumulate(scores, from, 1);
+            from++;
+        } else {
+            from = -from - 1;
+        }
+        for (int t = from; t < terms.length && t < from + MAX_PREFIX_EXPANSIONS && terms[t].startsWith(queryTerm); t++)
+            accumulate(scores, t, PREFIX_FACTOR);
+        int maxDistance = queryTerm.length() >= 8 ? 2 : queryTerm.length() >= 4 ? 1 : 0;
+        if (maxDistance > 0) {
+            for (int t = 0; t < terms.length; t++) {
+                if (Math.abs(terms[t].length() - queryTerm.length()) > maxDistance || terms[t].equals(queryTerm))
+                    continue;
+                int distance = boundedDistance(queryTerm, terms[t], maxDistance);
+                if (distance <= maxDistance)
+                    accumulate(scores, t, FUZZY_FACTOR / distance);
+            }
+        }
+        return scores;
+    }
+
+    private static boolean isZero(float[] scores) {
+        for (float score : scores)
+            if (score != 0)
+                return false;
+        return true;
+    }
+
+    private void accumulate(float[] scores, int term, float factor) {
+        int[] containing = postingDocuments[term];
+        float[] weights = postingWeights[term];
+        for (int i = 0; i < containing.length; i++)
+            scores[containing[i]] = Math.max(scores[containing[i]], weights[i] * factor);
+    }
+
+    /**
+      * Levenshtein distance, abandoned as soon as every cell of a row exceeds the bound
+      *
+      * @return the distance, or maxDistance + 1 if it is greater than maxDistance
+      */
+    static int boundedDistance(String left, String right, int maxDistance) {
+        int[] previous = new int[right.length() + 1];
+        int[] current = new int[right.length() + 1];
+        for (int j = 0; j <= right.length(); j++)
+            previous[j] = j;
+        for (int i = 1; i <= left.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= right.length(); j++) {
+                int cost = left.charAt(i - 1) == right.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > maxDistance)
+                return maxDistance + 1;
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[right.length()], maxDistance + 1);
+    }
+
+    private static Document analyse(CharacterDto character) {
+        Map<String, Float> terms = new HashMap<>();
+        addTerms(terms, character.name(), NAME_WEIGHT);
+        if (character.affiliation() != null)
+            addTerms(terms, character.affiliation().name(), TAG_WEIGHT);
+        if (character.combatStyles() != null)
+            for (CombatStyleDto combatStyle : character.combatStyles())
+                addTerms(terms, combatStyle.name(), TAG_WEIGHT);
+        addTerms(terms, character.description(), DESCRIPTION_WEIGHT);
+        return new Document(character, Map.copyOf(terms));
+    }
+
+    /**
+      * A term found in several fields weighs the sum of the weights of these fields, a repeated term counts once per field
+      */
+    private static void addTerms(Map<String, Float> terms, String text, float weight) {
+        for (String term : Set.copyOf(tokenize(text, true)))
+            terms.merge(term, weight, Float::sum);
+    }
+
+    /**
+      * @param dropStopWords true for indexed text, query terms are kept as typed so that "the" can still prefix "theo"
+      */
+    private static List<String> tokenize(String text, boolean dropStopWords) {
+        if (text == null || text.isBlank())
+            return List.of();
+        String folded = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(folded))
+            if (!token.isEmpty() && !(dropStopWords && STOP_WORDS.contains(token)))
+                tokens.add(token);
+        return tokens;
+    }
+}
@@ -0,0 +1,92 @@
+package com.lpa.demon_slayer_api_service.service.catalog;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+  * Immutable open-addressing hash index keyed by a primitive {@code long}, built once and then only read.
+  * <p>Keys are stored in a {@code long[]} and looked up with linear probing, so a lookup never boxes the key
+  * nor allocates, contrary to a {@code Map<Long, V>}. The table is kept at most half full to keep probe sequences short.</p>
+  *
+  * @param <V> the type of the indexed values, null values are not allowed
+  */
+public final class LongObjectIndex<V> {
+
+    private final long[] keys;
+    private final Object[] slots;
+    private final int mask;
+    private final List<V> values;
+
+    private LongObjectIndex(long[] keys, Object[] slots, List<V> values) {
+        this.keys = keys;
+        this.slots = slots;
+        this.mask = slots.length - 1;
+        this.values = values;
+    }
+
+    /**
+      * @param values       the values to index, when two values share a key the last one wins, in the place of the first one
+      * @param keyExtractor extracts the key of a value
+      * @return a new index over the given values
+      */
+    public static <V> LongObjectIndex<V> of(Collection<V> values, ToLongFunction<V> keyExtractor) {
+        int capacity = Integer.highestOneBit(Math.max(2, values.size() * 2 - 1)) << 1;
+        long[] keys = new long[capacity];
+        Object[] slots = new Object[capacity];
+        int[] positions = new int[capacity]; //position of the value of each slot in the distinct values
+        List<V> distinct = new ArrayList<>(values.size());
+        int mask = capacity - 1;
+        for (V value : values) {
+            long key = keyExtractor.applyAsLong(value);
+            int slot = mix(key) & mask;
+            while (slots[slot] != null && keys[slot] != key)
+                slot = (slot + 1) & mask;
+            if (slots[slot] == null) {
+                positions[slot] = distinct.size();
+                distinct.add(value);
+            } else { //duplicate key: values() and size() agree with get()
+                distinct.set(positions[slot], value);
+            }
+            keys[slot] = key;
+            slots[slot] = value;
+        }
+        return new LongObjectIndex<>(keys, slots, List.copyOf(distinct));
+    }
+
+    /**
+      * @param key the key to look up
+      * @return the value indexed under this key, or null if there is none
+      */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int slot = mix(key) & mask;
+        Object value;
+        while ((value = slots[slot]) != null) { //an empty slot ends the probe sequence
+            if (keys[slot] == key)
+                return (V) value;
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+      * @return the indexed values, one per key, in the order they were given
+      */
+    public List<V> values() {
+        return values;
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+    /**
+      * Spread the key bits (Fibonacci hashing) so that sequential IDs do not cluster in the table
+      */
+    private static int mix(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+}
@@ -0,0 +1,94 @@
+package com.lpa.demon_slayer_api_service.service.catalog;
+
+import com.lpa.demon_slayer_api_service.model.dto.character.CharacterDto;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+  * Immutable index from a property of the characters (combat style, affiliation...) back to the characters having it.
+  * <p>An update only touches the keys of the characters that changed: the character lists of every other key are shared
+  * with the previous index, so a refresh where few characters changed costs little more than the changed characters.</p>
+  *
+  * @param <K> the type of the key
+  */
+final class ReverseIndex<K> {
+
+    private static final Comparator<CharacterDto> BY_ID = Comparator.comparing(CharacterDto::id);
+
+    private final Function<CharacterDto, Set<K>> keys;
+    private final Map<K, List<CharacterDto>> characters;
+
+    private ReverseIndex(Function<CharacterDto, Set<K>> keys, Map<K, List<CharacterDto>> characters) {
+        this.keys = keys;
+        this.characters = characters;
+    }
+
+    /**
+      * @param keys extracts the keys of a character, e.g. the IDs of its combat styles
+      * @return an index without any character
+      */
+    static <K> ReverseIndex<K> empty(Function<CharacterDto, Set<K>> keys) {
+        return new ReverseIndex<>(keys, Map.of());
+    }
+
+    /**
+      * @param key the key to look up
+      * @return the characters having this key sorted by ID, empty if there is none
+      */
+    List<CharacterDto> get(K key) {
+        return characters.getOrDefault(key, List.of());
+    }
+
+    /**
+      * @param before the characters indexed by this index, by ID
+      * @param after  the refreshed characters, by ID
+      * @return a new index over the refreshed characters
+      */
+    ReverseIndex<K> update(Map<Long, CharacterDto> before, Map<Long, CharacterDto> after) {
+        Set<Long> changed = new HashSet<>();
+        Set<K> touchedKeys = new HashSet<>();
+        for (Map.Entry<Long, CharacterDto> entry : before.entrySet())
+            if (!Objects.equals(entry.getValue(), after.get(entry.getKey()))) {
+                changed.add(entry.getKey());
+                touchedKeys.addAll(keys.apply(entry.getValue()));
+            }
+        for (Map.Entry<Long, CharacterDto> entry : after.entrySet())
+            if (!Objects.equals(entry.getValue(), before.get(entry.getKey()))) {
+                changed.add(entry.getKey());
+                touchedKeys.addAll(keys.apply(entry.getValue()));
+            }
+        if (changed.isEmpty())
+            return this;
+        Map<K, List<CharacterDto>> updated = new HashMap<>(characters);
+        for (K key : touchedKeys) {
+            List<CharacterDto> list = new ArrayList<>();
+            for (CharacterDto character : get(key)) //the unchanged characters keep the key
+                if (!changed.contains(character.id()))
+                    list.add(character);
+            for (Long id : changed) { //the new versions of the changed characters are added back if they have the key
+                CharacterDto character = after.get(id);
+                if (character != null && keys.apply(character).contains(key))
+                    list.add(character);
+            }
+            if (list.isEmpty()) {
+                updated.remove(key);
+            } else {
+                list.sort(BY_ID);
+                updated.put(key, List.copyOf(list));
+            }
+        }
+        return new ReverseIndex<>(keys, Map.copyOf(updated));
+    }
+
+    int keyCount() {
+        return characters.size();
+    }
+}
@@ -0,0 +1,88 @@
+package com.lpa.demon_slayer_api_service.service.coalescing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+  * Single-flight layer: concurrent callers asking for the same key share one in-flight upstream call.
+  * <p>The first caller (the leader) subscribes to the upstream call, the result is published in a {@link Sinks.One}
+  * to which every caller subscribes. Cancelling one caller therefore never cancels the upstream call for the others.
+  * The key is released as soon as the upstream call terminates, so results are never cached here.</p>
+  *
+  * <strong>Metrics</strong>
+  * <ul>
+  *     <li>demonslayer.coalescing.requests{operation, result=leader|joined}: the coalescing ratio is joined / (leader + joined)</li>
+  *     <li>demonslayer.coalescing.in.flight{operation}: the number of distinct upstream calls currently in flight</li>
+  * </ul>
+  */
+public class RequestCoalescer {
+
+    private final Map<Object, Sinks.One<?>> inFlight = new ConcurrentHashMap<>();
+    private final Counter leaders;
+    private final Counter joined;
+
+    /**
+      * @param operation     the coalesced operation name (character, page...), used as the "operation" tag of the metrics
+      * @param meterRegistry the registry in which the coalescing metrics are published
+      */
+    public RequestCoalescer(String operation, MeterRegistry meterRegistry) {
+        this.leaders = Counter.builder("demonslayer.coalescing.requests")
+                .tag("operation", operation)
+                .tag("result", "leader")
+                .register(meterRegistry);
+        this.joined = Counter.builder("demonslayer.coalescing.requests")
+                .tag("operation", operation)
+                .tag("result", "joined")
+                .register(meterRegistry);
+        Gauge.builder("demonslayer.coalescing.in.flight", inFlight, Map::size)
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    /**
+      * @param key  identifies the upstream call, it must implement equals/hashCode and carry the type of the result (records are a good fit)
+      * @param call supplies the upstream call, only invoked by the leader
+      * @return a {@link Mono} sharing the result of the in-flight call for this key
+      */
+    @SuppressWarnings("unchecked")
+    public <V> Mono<V> execute(Object key, Supplier<Mono<V>> call) {
+        return Mono.defer(() -> {
+            Sinks.One<V> sink = Sinks.one();
+            Sinks.One<V> existing = (Sinks.One<V>) inFlight.putIfAbsent(key, sink);
+            if (existing != null) {
+                joined.increment();
+                return existing.asMono();
+            }
+            leaders.increment();
+            Mono.defer(call).subscribe(
+                    value -> {
+                        inFlight.remove(key, sink);
+                        sink.tryEmitValue(value);
+                    },
+                    error -> {
+                        inFlight.remove(key, sink);
+                        sink.tryEmitError(error);
+                    },
+                    () -> { //no-op if a value has already been emitted
+                        inFlight.remove(key, sink);
+                        sink.tryEmitEmpty();
+                    }
+            );
+            return sink.asMono();
+        });
+    }
+
+    /**
+      * @return the number of distinct upstream calls currently in flight
+      */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+}
@@ -0,0 +1,221 @@
+package com.lpa.demon_slayer_api_service.service.concurrency;
+
+import com.lpa.demon_slayer_api_service.config.CrawlProperties;
+import com.lpa.demon_slayer_api_service.utils.DemonSlayerApiUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+  * Limits the number of upstream calls in flight with an AIMD (additive increase, multiplicative decrease) algorithm.
+  * <ul>
+  *     <li>a call faster than the latency threshold increases the limit by 1/limit, so roughly +1 per window of calls</li>
+  *     <li>a failed call (transient error: timeout, connection error, 429, 5xx) or a call slower than the latency threshold multiplies
+  *     the limit by the backoff ratio. Other errors (a call refused by a local breaker or bulkhead, a 404, a rejected page size...)
+  *     say nothing about the upstream load and leave the limit as is</li>
+  * </ul>
+  * The limit always stays within the configured bounds. Calls above the limit wait in a FIFO queue, no thread is blocked:
+  * they are started by the calls that complete.
+  *
+  * <strong>Metrics</strong>
+  * <ul>
+  *     <li>demonslayer.upstream.concurrency.limit / in.flight / queued {limiter}: the current limit, running calls and waiting calls</li>
+  *     <li>demonslayer.upstream.concurrency.limit.changes{limiter, direction=increase|decrease}: the number of times the integer limit changed</li>
+  * </ul>
+  */
+public class AdaptiveConcurrencyLimiter {
+
+    private final CrawlProperties.Concurrency properties;
+    private final long latencyThresholdNanos;
+    private final Object lock = new Object();
+    private final Queue<Task<?>> queue = new ArrayDeque<>(); //guarded by lock
+    private double limit; //guarded by lock
+    private int inFlight; //guarded by lock
+    private final Counter increases;
+    private final Counter decreases;
+
+    /**
+      * @param name          the limiter name, used as the "limiter" tag of the metrics
+      * @param properties    the limit bounds and AIMD settings
+      * @param meterRegistry the registry in which the limiter metrics are published
+      */
+    public AdaptiveConcurrencyLimiter(String name, CrawlProperties.Concurrency properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.latencyThresholdNanos = properties.latencyThreshold().toNanos();
+        this.limit = properties.initialLimit();
+        this.increases = Counter.builder("demonslayer.upstream.concurrency.limit.changes")
+                .tag("limiter", name)
+                .tag("direction", "increase")
+                .register(meterRegistry);
+        this.decreases = Counter.builder("demonslayer.upstream.concurrency.limit.changes")
+                .tag("limiter", name)
+                .tag("direction", "decrease")
+                .register(meterRegistry);
+        Gauge.builder("demonslayer.upstream.concurrency.limit", this, AdaptiveConcurrencyLimiter::currentLimit)
+                .tag("limiter", name)
+                .register(meterRegistry);
+        Gauge.builder("demonslayer.upstream.concurrency.in.flight", this, AdaptiveConcurrencyLimiter::inFlight)
+                .tag("limiter", name)
+                .register(meterRegistry);
+        Gauge.builder("demonslayer.upstream.concurrency.queued", this, AdaptiveConcurrencyLimiter::queued)
+                .tag("limiter", name)
+                .register(meterRegistry);
+    }
+
+    /**
+      * @param call supplies the upstream call, invoked once a slot is available
+      * @return a {@link Mono} relaying the result of the call. Cancelling it releases its slot or its place in the queue.
+      */
+    public <T> Mono<T> run(Supplier<Mono<T>> call) {
+        return Mono.create(sink -> {
+            Task<T> task = new Task<>(call, sink);
+            sink.onCancel(task::cancel);
+            submit(task);
+        });
+    }
+
+    /**
+      * @return the current integer limit of calls in flight
+      */
+    public int currentLimit() {
+        synchronized (lock) {
+            return (int) limit;
+        }
+    }
+
+    public int inFlight() {
+        synchronized (lock) {
+            return inFlight;
+        }
+    }
+
+    public int queued() {
+        synchronized (lock) {
+            return queue.size();
+        }
+    }
+
+    private void submit(Task<?> task) {
+        boolean start;
+        synchronized (lock) {
+            start = inFlight < (int) limit;
+            if (start)
+                inFlight++;
+            else
+                queue.add(task);
+        }
+        if (start)
+            task.start();
+    }
+
+    /**
+      * Release the slot of a completed call, adjust the limit with its outcome and start the queued calls that now fit
+      */
+    private void release(long latencyNanos, Outcome outcome) {
+        List<Task<?>> toStart = new ArrayList<>();
+        synchronized (lock) {
+            adjust(latencyNanos, outcome);
+            inFlight--;
+            while (inFlight < (int) limit && !queue.isEmpty()) {
+                toStart.add(queue.poll());
+                inFlight++;
+            }
+        }
+        toStart.forEach(Task::start);
+    }
+
+    private void adjust(long latencyNanos, Outcome outcome) { //called under lock
+        int before = (int) limit;
+        switch (outcome) {
+            case SUCCESS -> {
+                if (latencyNanos > latencyThresholdNanos)
+                    limit = Math.max(properties.minLimit(), limit * properties.backoffRatio());
+                else if (inFlight * 2 >= limit) //only grow when the limit is actually used
+                    limit = Math.min(properties.maxLimit(), limit + 1 / limit);
+            }
+            case FAILURE -> limit = Math.max(properties.minLimit(), limit * properties.backoffRatio());
+            case IGNORED -> { } //cancelled calls say nothing about the upstream health
+        }
+        int after = (int) limit;
+        if (after > before)
+            increases.increment();
+        else if (after < before)
+            decreases.increment();
+    }
+
+    private void dequeue(Task<?> task) {
+        synchronized (lock) {
+            queue.remove(task);
+        }
+    }
+
+    private enum Outcome { SUCCESS, FAILURE, IGNORED }
+
+    /**
+      * A call waiting for, or holding, a slot
+      */
+    private final class Task<T> {
+        private static final int QUEUED = 0;
+        private static final int RUNNING = 1;
+        private static final int DONE = 2;
+        private static final int CANCELLED = 3;
+
+        private final Supplier<Mono<T>> call;
+        private final MonoSink<T> sink;
+        private final AtomicInteger state = new AtomicInteger(QUEUED);
+        private volatile Disposable subscription;
+
+        private Task(Supplier<Mono<T>> call, MonoSink<T> sink) {
+            this.call = call;
+            this.sink = sink;
+        }
+
+        /**
+          * Called once a slot has been reserved for this task
+          */
+        private void start() {
+            if (!state.compareAndSet(QUEUED, RUNNING)) { //cancelled meanwhile, give the slot back
+                release(0, Outcome.IGNORED);
+                return;
+            }
+            long startNanos = System.nanoTime();
+            subscription = Mono.defer(call).subscribe(
+                    value -> finish(startNanos, Outcome.SUCCESS, () -> sink.success(value)),
+                    error -> finish(startNanos, DemonSlayerApiUtils.isTransientError(error) ? Outcome.FAILURE : Outcome.IGNORED,
+                            () -> sink.error(error)),
+                    () -> finish(startNanos, Outcome.SUCCESS, sink::success) //no-op if a value has already been emitted
+            );
+            if (state.get() == CANCELLED) //cancelled before the subscription was assigned: cancel() could not dispose it
+                subscription.dispose();
+        }
+
+        private void finish(long startNanos, Outcome outcome, Runnable signal) {
+            if (!state.compareAndSet(RUNNING, DONE))
+                return;
+            release(System.nanoTime() - startNanos, outcome);
+            signal.run();
+        }
+
+        private void cancel() {
+            int previous = state.getAndSet(CANCELLED);
+            if (previous == QUEUED) {
+                dequeue(this);
+            } else if (previous == RUNNING) {
+                Disposable current = subscription;
+                if (current != null)
+                    current.dispose();
+                release(0, Outcome.IGNORED);
+            }
+        }
+    }
+}
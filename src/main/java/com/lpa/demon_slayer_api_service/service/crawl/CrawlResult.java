@@ -0,0 +1,45 @@
+package com.lpa.demon_slayer_api_service.service.crawl;
+
+import java.util.List;
+
+/**
+  * The outcome of a whole crawl of a paginated endpoint
+  *
+  * @param items        the elements of every retrieved page, in ID order
+  * @param missingPages the page numbers that could not be retrieved despite the retries, in ascending order
+  * @param etag         the strong entity tag hashed from the content, null if it has not been computed
+  * @param <T>          the type of the elements
+  */
+public record CrawlResult<T>(
+        List<T> items,
+        List<Integer> missingPages,
+        String etag
+) {
+    public CrawlResult {
+        items = List.copyOf(items);
+        missingPages = List.copyOf(missingPages);
+    }
+
+    public CrawlResult(List<T> items, List<Integer> missingPages) {
+        this(items, missingPages, null);
+    }
+
+    /**
+      * @param etag the strong entity tag hashed from the content
+      * @return the same result carrying the given entity tag
+      */
+    public CrawlResult<T> withEtag(String etag) {
+        return new CrawlResult<>(items, missingPages, etag);
+    }
+
+    /**
+      * @return true if some pages are missing, i.e. the items are not the whole collection
+      */
+    public boolean isPartial() {
+        return !missingPages.isEmpty();
+    }
+
+    public int size() {
+        return items.size();
+    }
+}
@@ -0,0 +1,16 @@
+package com.lpa.demon_slayer_api_service.service.crawl;
+
+import java.util.List;
+
+/**
+  * One page retrieved by a crawl. The content is the list decoded from upstream, as is: a page whose bytes did not change
+  * since the previous crawl is not decoded again, so its content is the very same list instance.
+  *
+  * @param number  the page number
+  * @param content the elements of the page, in upstream order
+  * @param <T>     the type of the elements
+  */
+public record CrawledPage<T>(
+        int number,
+        List<T> content
+) {}
@@ -0,0 +1,62 @@
+package com.lpa.demon_slayer_api_service.service.crawl;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+  * Keeps the most recent latencies of the upstream requests, per endpoint, to compute latency percentiles
+  * (used as the hedging delay of a page request).
+  */
+public class LatencyTracker {
+
+    private static final int WINDOW_SIZE = 256;
+
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+    /**
+      * @param endpoint the Demon Slayer API endpoint
+      * @param latency  the latency of a successful request
+      */
+    public void record(String endpoint, Duration latency) {
+        windows.computeIfAbsent(endpoint, _ -> new Window()).add(latency.toNanos());
+    }
+
+    /**
+      * @param endpoint   the Demon Slayer API endpoint
+      * @param percentile the percentile to compute, between 0 and 1 (0.95 -> p95)
+      * @param minSamples the minimum number of recorded latencies for the percentile to be meaningful
+      * @return the latency percentile over the recent requests, or null if fewer than {@code minSamples} latencies are known
+      */
+    public Duration percentile(String endpoint, double percentile, int minSamples) {
+        Window window = windows.get(endpoint);
+        if (window == null)
+            return null;
+        long[] samples = window.snapshot();
+        if (samples.length < minSamples || samples.length == 0)
+            return null;
+        Arrays.sort(samples);
+        int index = (int) Math.min(samples.length - 1, Math.ceil(percentile * samples.length) - 1);
+        return Duration.ofNanos(samples[Math.max(0, index)]);
+    }
+
+    /**
+      * Ring buffer of the last {@value #WINDOW_SIZE} latencies, in nanoseconds
+      */
+    private static final class Window {
+        private final long[] samples = new long[WINDOW_SIZE];
+        private int next;
+        private int count;
+
+        private synchronized void add(long latencyNanos) {
+            samples[next] = latencyNanos;
+            next = (next + 1) % WINDOW_SIZE;
+            count = Math.min(WINDOW_SIZE, count + 1);
+        }
+
+        private synchronized long[] snapshot() {
+            return Arrays.copyOf(samples, count); //the first "count" slots are filled, whatever the position of "next"
+        }
+    }
+}
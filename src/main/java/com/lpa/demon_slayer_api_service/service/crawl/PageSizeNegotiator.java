@@ -0,0 +1,122 @@
+package com.lpa.demon_slayer_api_service.service.crawl;
+
+import com.lpa.demon_slayer_api_service.config.CrawlProperties;
+import com.lpa.demon_slayer_api_service.model.dto.pagination.PaginationDto;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+  * Chooses the page size ("limit" query parameter) of each crawl, per endpoint, to minimise the number of round trips.
+  * <ul>
+  *     <li>probing disabled: the configured page size is always used</li>
+  *     <li>probing enabled, nothing known yet: the first page is requested with {@code max-probe} elements, the returned
+  *     {@link PaginationDto} tells how many elements the upstream API really accepted and how many elements there are in total</li>
+  *     <li>probing enabled, accepted size and dataset size known: the crawl planner picks, between the configured size and the
+  *     accepted size, the page size minimising the estimated wall time {@code rounds * (round trip + size * per element cost)},
+  *     where a round is one wave of concurrent requests</li>
+  * </ul>
+  */
+@Slf4j
+public class PageSizeNegotiator {
+
+    private static final double LATENCY_SMOOTHING = 0.2;
+
+    private final CrawlProperties.PageSize properties;
+    private final Map<String, EndpointState> states = new ConcurrentHashMap<>();
+
+    public PageSizeNegotiator(CrawlProperties.PageSize properties) {
+        this.properties = properties;
+    }
+
+    /**
+      * @param endpoint    the Demon Slayer API endpoint
+      * @param concurrency the number of pages that can currently be requested simultaneously
+      * @return the page size to request for every page of the next crawl of this endpoint
+      */
+    public int pageSizeFor(String endpoint, int concurrency) {
+        if (!properties.probe())
+            return properties.size();
+        EndpointState state = states.get(endpoint);
+        if (state == null)
+            return properties.maxProbe(); //the first page of the crawl is the probe
+        if (state.totalElements() <= 0)
+            return state.acceptedSize();
+        return plan(state, concurrency).pageSize();
+    }
+
+    /**
+      * Learn from the first page of a crawl
+      *
+      * @param endpoint      the Demon Slayer API endpoint
+      * @param requestedSize the page size which has been requested
+      * @param pagination    the pagination returned by the upstream API
+      * @param latency       the time taken by the upstream API to return the page
+      */
+    public void record(String endpoint, int requestedSize, PaginationDto pagination, Duration latency) {
+        if (!properties.probe())
+            return;
+        states.compute(endpoint, (_, previous) -> {
+            boolean capped = pagination.totalPages() > 1
+                    && pagination.elementsOnPage() > 0
+                    && pagination.elementsOnPage() < requestedSize; //a full page smaller than requested: upstream applied its own maximum
+            int acceptedSize = capped
+                    ? pagination.elementsOnPage()
+                    : Math.max(requestedSize, previous == null ? 0 : previous.acceptedSize());
+            double roundTripNanos = previous == null || previous.roundTripNanos() == 0
+                    ? latency.toNanos()
+                    : (1 - LATENCY_SMOOTHING) * previous.roundTripNanos() + LATENCY_SMOOTHING * latency.toNanos();
+            if (previous == null)
+                log.info("Endpoint {} accepts pages of {} elements ({} elements in total)", endpoint, acceptedSize, pagination.totalElements());
+            return new EndpointState(Math.min(acceptedSize, properties.maxProbe()), pagination.totalElements(), roundTripNanos);
+        });
+    }
+
+    /**
+      * The upstream API rejected the requested page size: stop probing this endpoint and use the configured page size
+      *
+      * @param endpoint the Demon Slayer API endpoint
+      */
+    public void reject(String endpoint) {
+        log.warn("Endpoint {} rejected the probed page size, falling back to {} elements per page", endpoint, properties.size());
+        states.put(endpoint, new EndpointState(properties.size(), 0, 0));
+    }
+
+    /**
+      * Pick the page size minimising the estimated wall time of a whole crawl. The first page is always alone in its round
+      * since it gives the total number of pages.
+      *
+      * @param state       what is known about the endpoint
+      * @param concurrency the number of pages that can be requested simultaneously
+      * @return the chosen plan
+      */
+    CrawlPlan plan(EndpointState state, int concurrency) {
+        long perElementNanos = properties.perElementCost().toNanos();
+        CrawlPlan best = null;
+        for (int size = Math.min(properties.size(), state.acceptedSize()); size <= state.acceptedSize(); size++) {
+            long pages = Math.max(1, (state.totalElements() + size - 1) / size);
+            long rounds = 1 + (pages - 1 + concurrency - 1) / concurrency;
+            double wallTimeNanos = rounds * (state.roundTripNanos() + (double) size * perElementNanos);
+            if (best == null || wallTimeNanos < best.estimatedWallTimeNanos())
+                best = new CrawlPlan(size, pages, rounds, wallTimeNanos);
+        }
+        return best;
+    }
+
+    /**
+      * @param acceptedSize   the largest page size accepted by the upstream API
+      * @param totalElements  the number of elements of the dataset, 0 if unknown
+      * @param roundTripNanos the smoothed latency of a page request, in nanoseconds
+      */
+    record EndpointState(int acceptedSize, long totalElements, double roundTripNanos) {}
+
+    /**
+      * @param pageSize               the page size to request
+      * @param requests               the number of page requests of the crawl
+      * @param rounds                 the number of waves of concurrent requests
+      * @param estimatedWallTimeNanos the estimated wall time of the crawl, in nanoseconds
+      */
+    record CrawlPlan(int pageSize, long requests, long rounds, double estimatedWallTimeNanos) {}
+}
@@ -0,0 +1,222 @@
+package com.lpa.demon_slayer_api_service.service.crawl;
+
+import com.lpa.demon_slayer_api_service.config.CrawlProperties;
+import com.lpa.demon_slayer_api_service.exception.DemonSlayerApiException;
+import com.lpa.demon_slayer_api_service.model.Identifiable;
+import com.lpa.demon_slayer_api_service.model.dto.pagination.PageResponse;
+import com.lpa.demon_slayer_api_service.service.concurrency.AdaptiveConcurrencyLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+  * Crawls every page of one paginated resource of the Demon Slayer API (characters, combat styles...).
+  * The first page gives the total number of pages, then the next pages are requested according to the {@link CrawlProperties.Strategy}
+  * of the resource. A failed page is retried with a jittered backoff while the retry budget allows it, a page still failing is
+  * reported in {@code missingPages}. The number of pages in flight is driven by an {@link AdaptiveConcurrencyLimiter} shared by every
+  * crawl: it grows while upstream answers quickly and shrinks on slow or failed pages, within the {@code api.demonslayer.crawl.concurrency}
+  * bounds and the {@code max-concurrency} of the resource.
+  * <ul>
+  *     <li>ordered: pages are released in sequence ({@link Flux#flatMapSequential}), so sorting each page by ID gives the elements
+  *     in ID order without buffering the whole collection for a final sort</li>
+  *     <li>unordered: each page is emitted as soon as it arrives (EAGER only, the other strategies are always ordered)</li>
+  * </ul>
+  * The page requests themselves (rate limit, coalescing, hedging, bulkhead, circuit breaker, conditional requests) are left to the {@link PageSource}.
+  *
+  * @param <T> the type of the elements
+  * @param <P> the page DTO type
+  */
+@Slf4j
+public class PaginatedResourceFetcher<T extends Identifiable, P extends PageResponse<T>> {
+
+    /**
+      * Sends one page request of the resource
+      *
+      * @param <P> the page DTO type
+      */
+    @FunctionalInterface
+    public interface PageSource<P> {
+        /**
+          * @param pageNumber the page number, starting from 1
+          * @param pageSize   the number of elements per page ("limit" query parameter)
+          * @return the page, empty if upstream returned no body
+          */
+        Mono<P> fetch(int pageNumber, int pageSize);
+
+        /**
+          * Run an attempt of a page request once it may be sent (upstream rate limit). The wait happens before the attempt enters
+          * the concurrency limit, so that it counts neither against the page timeout nor in the latencies driving the limit,
+          * and so does the wait of an attempt run again after a throttled answer.
+          *
+          * @param attempt supplies the attempt, within the concurrency limit and the page timeout
+          * @return the result of the attempt, run right away by default
+          */
+        default <V> Mono<V> admit(Supplier<Mono<V>> attempt) {
+            return Mono.defer(attempt);
+        }
+    }
+
+    private final String endpoint;
+    private final String notFoundMessage;
+    private final PageSource<P> pageSource;
+    private final CrawlProperties.Resource resource;
+    private final int defaultPageSize;
+    private final int maxConcurrency;
+    private final Duration pageTimeout;
+    private final AdaptiveConcurrencyLimiter pageLimiter;
+    private final PageSizeNegotiator pageSizeNegotiator;
+    private final RetryBudget retryBudget;
+    private final Retry pageRetry;
+    private final Counter droppedPages;
+
+    /**
+      * @param endpoint           the Demon Slayer API endpoint, used as key of the page size negotiation and as metric tag
+      * @param notFoundMessage    the error message if the first page is empty
+      * @param pageSource         sends the page requests
+      * @param crawlProperties    the global crawl settings
+      * @param resource           the crawl settings of this resource
+      * @param pageLimiter        the adaptive limit of pages in flight, shared by every crawl
+      * @param pageSizeNegotiator chooses the page size of each crawl
+      * @param retryBudget        the retry budget, shared by every crawl
+      * @param pageRetry          the retry policy of a failed page, which withdraws from the budget
+      * @param meterRegistry      the registry in which the dropped pages are counted
+      */
+    public PaginatedResourceFetcher(String endpoint, String notFoundMessage, PageSource<P> pageSource,
+                                    CrawlProperties crawlProperties, CrawlProperties.Resource resource,
+                                    AdaptiveConcurrencyLimiter pageLimiter, PageSizeNegotiator pageSizeNegotiator,
+                                    RetryBudget retryBudget, Retry pageRetry, MeterRegistry meterRegistry) {
+        this.endpoint = endpoint;
+        this.notFoundMessage = notFoundMessage;
+        this.pageSource = pageSource;
+        this.resource = resource;
+        this.defaultPageSize = crawlProperties.pageSize().size();
+        this.maxConcurrency = resource.maxConcurrency() != null ? resource.maxConcurrency() : crawlProperties.concurrency().maxLimit();
+        this.pageTimeout = resource.pageTimeout() != null ? resource.pageTimeout() : crawlProperties.pageTimeout();
+        this.pageLimiter = pageLimiter;
+        this.pageSizeNegotiator = pageSizeNegotiator;
+        this.retryBudget = retryBudget;
+        this.pageRetry = pageRetry;
+        this.droppedPages = Counter.builder("demonslayer.crawl.pages.dropped")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry);
+    }
+
+    /**
+      * Crawl every page with the strategy of the resource
+      *
+      * @param ordered      true to emit the pages in page order
+      * @param missingPages collects the page numbers that could not be retrieved
+      * @return every page, its content as decoded
+      */
+    public Flux<CrawledPage<T>> fetch(boolean ordered, Set<Integer> missingPages) {
+        return fetch(resource.strategy(), ordered, missingPages);
+    }
+
+    /**
+      * Crawl every page
+      *
+      * @param strategy     how the pages after the first one are requested
+      * @param ordered      true to emit the pages in page order
+      * @param missingPages collects the page numbers that could not be retrieved
+      * @return every page, its content as decoded
+      */
+    public Flux<CrawledPage<T>> fetch(CrawlProperties.Strategy strategy, boolean ordered, Set<Integer> missingPages) {
+        return Flux.defer(() -> {
+            int pageSize = pageSizeNegotiator.pageSizeFor(endpoint, pageLimiter.currentLimit()); //every page of a crawl uses the same size
+            return withRetries(() -> admitted(() -> pageSource.fetch(1, pageSize) //get the first page
+                            .timeout(pageTimeout)
+                            .elapsed()))
+                    .doOnNext(timedPage -> pageSizeNegotiator.record(endpoint, pageSize,
+                            timedPage.getT2().pagination(), Duration.ofMillis(timedPage.getT1())))
+                    .map(Tuple2::getT2)
+                    .switchIfEmpty(Mono.error(new DemonSlayerApiException(notFoundMessage, HttpStatus.NOT_FOUND)))
+                    .flatMapMany(firstPage -> {
+                        int lastPage = lastPage(firstPage);
+                        Function<Integer, Mono<CrawledPage<T>>> fetchNextPage = pageNumber -> fetchPage(pageNumber, pageSize, missingPages);
+                        Flux<CrawledPage<T>> nextPages = switch (strategy) {
+                            case EAGER -> ordered
+                                    ? Flux.range(2, lastPage - 1).flatMapSequential(fetchNextPage, maxConcurrency) //fetched concurrently, released in page order
+                                    : Flux.range(2, lastPage - 1).flatMap(fetchNextPage, maxConcurrency); //released as soon as they arrive
+                            case PREFETCH -> Flux.range(2, lastPage - 1) //a page is only requested once one of the window has been consumed
+                                    .flatMapSequential(fetchNextPage, Math.min(resource.prefetch(), maxConcurrency), 1);
+                            case SEQUENTIAL -> fetchNextOrSkip(2, lastPage, fetchNextPage) //each page is requested once the previous one arrived
+                                    .expand(page -> fetchNextOrSkip(page.number() + 1, lastPage, fetchNextPage));
+                        };
+                        return nextPages.startWith(new CrawledPage<>(1, firstPage.content())); //include the first page
+                    })
+                    .onErrorResume(error -> isRejectedPageSize(error, pageSize), _ -> { //the probed page size is too large for upstream
+                        pageSizeNegotiator.reject(endpoint);
+                        return fetch(strategy, ordered, missingPages);
+                    });
+        });
+    }
+
+    /**
+      * @return the number of the last page to crawl, at least 1
+      */
+    private int lastPage(P firstPage) {
+        int totalPages = Math.max(1, firstPage.pagination().totalPages());
+        return resource.maxPages() > 0 ? Math.min(totalPages, resource.maxPages()) : totalPages;
+    }
+
+    /**
+      * A dropped page does not end a sequential crawl: the crawl goes on with the next page number
+      */
+    private Mono<CrawledPage<T>> fetchNextOrSkip(int pageNumber, int lastPage, Function<Integer, Mono<CrawledPage<T>>> fetchPage) {
+        return Mono.defer(() -> pageNumber > lastPage ? Mono.<CrawledPage<T>>empty() : fetchPage.apply(pageNumber)
+                .switchIfEmpty(Mono.defer(() -> fetchNextOrSkip(pageNumber + 1, lastPage, fetchPage))));
+    }
+
+    private Mono<CrawledPage<T>> fetchPage(int pageNumber, int pageSize, Set<Integer> missingPages) {
+        return withRetries(() -> admitted(() -> pageSource.fetch(pageNumber, pageSize)
+                        .timeout(pageTimeout))) //a timeout inside the limiter counts as a failure
+                .map(page -> new CrawledPage<>(pageNumber, page.content()))
+                .onErrorResume(error -> { //the page is skipped but reported
+                    log.warn("Page {} of {} dropped: {}", pageNumber, endpoint, error.toString());
+                    missingPages.add(pageNumber);
+                    droppedPages.increment();
+                    return Mono.empty();
+                });
+    }
+
+    /**
+      * @param call one attempt of a page request, admitted by the page source first, then run within the concurrency limit
+      */
+    private <V> Mono<V> admitted(Supplier<Mono<V>> call) {
+        return pageSource.admit(() -> pageLimiter.run(call));
+    }
+
+    /**
+      * Retry a page request on transient errors with an exponential and jittered backoff, within the retry budget
+      *
+      * @param attempt supplies one attempt of the page request
+      * @return the page
+      */
+    private <V> Mono<V> withRetries(Supplier<Mono<V>> attempt) {
+        return Mono.defer(() -> {
+            retryBudget.deposit(); //each page earns a fraction of a retry
+            return Mono.defer(attempt).retryWhen(pageRetry);
+        });
+    }
+
+    /**
+      * @param error    the error of the first page request
+      * @param pageSize the requested page size
+      * @return true if the upstream API rejected a probed page size (HTTP 400), the crawl can then be retried with the configured page size
+      */
+    private boolean isRejectedPageSize(Throwable error, int pageSize) {
+        return pageSize != defaultPageSize
+                && error instanceof DemonSlayerApiException dsEx
+                && dsEx.getStatus() == HttpStatus.BAD_REQUEST;
+    }
+}
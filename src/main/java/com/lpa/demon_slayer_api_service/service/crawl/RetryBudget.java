@@ -0,0 +1,45 @@
+package com.lpa.demon_slayer_api_service.service.crawl;
+
+/**
+  * Caps the extra load sent to the upstream API by retries and hedged requests to a fraction of the regular requests,
+  * so that a degraded upstream API is not overwhelmed by retry storms.
+  * <p>Each regular request deposits {@code ratio} token, each retry or hedged request withdraws a whole token.
+  * The budget starts full and never holds more than {@code maxTokens} tokens.</p>
+  */
+public class RetryBudget {
+
+    private final double ratio;
+    private final double maxTokens;
+    private double tokens; //guarded by this
+
+    /**
+      * @param ratio     the fraction of a token earned by each regular request
+      * @param maxTokens the maximum number of tokens that can be saved up
+      */
+    public RetryBudget(double ratio, int maxTokens) {
+        this.ratio = ratio;
+        this.maxTokens = maxTokens;
+        this.tokens = maxTokens;
+    }
+
+    /**
+      * Record a regular request
+      */
+    public synchronized void deposit() {
+        tokens = Math.min(maxTokens, tokens + ratio);
+    }
+
+    /**
+      * @return true if a retry or hedged request is allowed, its token is then consumed
+      */
+    public synchronized boolean tryWithdraw() {
+        if (tokens < 1)
+            return false;
+        tokens--;
+        return true;
+    }
+
+    public synchronized double available() {
+        return tokens;
+    }
+}
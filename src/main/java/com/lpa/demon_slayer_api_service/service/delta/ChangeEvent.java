@@ -0,0 +1,34 @@
+package com.lpa.demon_slayer_api_service.service.delta;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.Locale;
+
+/**
+  * A change of one element of a collection, detected by a refresh
+  *
+  * @param type the kind of change
+  * @param id   the element ID from API side
+  * @param item the new copy of the element, or its last known copy if it has been removed
+  * @param <T>  the type of the elements
+  */
+public record ChangeEvent<T>(
+        Type type,
+        Long id,
+        T item
+) {
+
+    public enum Type {
+        ADDED,
+        CHANGED,
+        REMOVED;
+
+        /**
+          * @return the lower case name, used as metric tag, event name and JSON value
+          */
+        @JsonValue
+        public String label() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.lpa.demon_slayer_api_service.service.delta;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+  * Replayable feed of the changes of a collection, served to any number of subscribers (Server-Sent Events clients).
+  * <p>Each change detected by a refresh is given the next sequence number and written to a bounded ring buffer shared by
+  * every subscriber. A subscriber is a mere cursor in the buffer, moved forward as its demand allows: it never holds a queue of
+  * its own, so a slow client costs nothing but its cursor. When the buffer wraps around past the cursor of a client which did
+  * not keep up, that client is disconnected.</p>
+  * A client resumes from the sequence of the last change it received (SSE {@code Last-Event-ID}). When that change is no longer
+  * in the buffer (lagged too far behind, unknown or previous run sequence), the feed starts with a resync entry instead:
+  * changes were missed and the client has to reload the whole collection. Sequences start from the creation time in
+  * milliseconds, so that the sequences of a previous run are not mistaken for the current ones.
+  *
+  * <strong>Metrics</strong>
+  * <ul>
+  *     <li>demonslayer.changefeed.subscribers{collection}: the connected subscribers</li>
+  *     <li>demonslayer.changefeed.dropped{collection}: the subscribers disconnected because they did not keep up</li>
+  *     <li>demonslayer.changefeed.resyncs{collection}: the subscribers which could not resume from their last event</li>
+  * </ul>
+  *
+  * @param <T> the type of the elements
+  */
+@Slf4j
+public class ChangeFeed<T> {
+
+    private final String name;
+    private final SequencedChange<T>[] ring; //guarded by this
+    private final long firstSequence;
+    private long nextSequence; //guarded by this
+    private final Set<Cursor> cursors = ConcurrentHashMap.newKeySet();
+    private final Counter dropped;
+    private final Counter resyncs;
+
+    /**
+      * @param name          the collection name, used as the "collection" tag of the metrics
+      * @param changes       the hot stream of the changes of the collection
+      * @param bufferSize    the number of last changes kept
+      * @param firstSequence the sequence of the first change
+      * @param meterRegistry the registry in which the feed metrics are published
+      */
+    @SuppressWarnings("unchecked")
+    public ChangeFeed(String name, Flux<ChangeEvent<T>> changes, int bufferSize, long firstSequence, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.ring = new SequencedChange[bufferSize];
+        this.firstSequence = firstSequence;
+        this.nextSequence = firstSequence;
+        Gauge.builder("demonslayer.changefeed.subscribers", cursors, Set::size)
+                .tag("collection", name)
+                .register(meterRegistry);
+        this.dropped = Counter.builder("demonslayer.changefeed.dropped")
+                .tag("collection", name)
+                .register(meterRegistry);
+        this.resyncs = Counter.builder("demonslayer.changefeed.resyncs")
+                .tag("collection", name)
+                .register(meterRegistry);
+        changes.subscribe(this::publish);
+    }
+
+    /**
+      * Subscribe to the feed
+      *
+      * @param lastEventId the sequence of the last change received by the client, null to only receive the next changes
+      * @return the missed changes still in the buffer (or a resync entry), then the next changes. The stream completes
+      *         when the client does not keep up.
+      */
+    public Flux<SequencedChange<T>> subscribe(String lastEventId) {
+        return Flux.create(sink -> {
+            Cursor cursor = start(sink, lastEventId);
+            cursors.add(cursor);
+            sink.onRequest(_ -> cursor.drain());
+            sink.onDispose(() -> cursors.remove(cursor));
+        });
+    }
+
+    /**
+      * @return the sequence of the last published change, firstSequence - 1 if none has been published yet
+      */
+    public synchronized long lastSequence() {
+        return nextSequence - 1;
+    }
+
+    private synchronized Cursor start(FluxSink<SequencedChange<T>> sink, String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank())
+            return new Cursor(sink, nextSequence, null);
+        long oldest = Math.max(firstSequence, nextSequence - ring.length);
+        try {
+            long last = Long.parseLong(lastEventId.trim());
+            if (last >= oldest - 1 && last < nextSequence)
+                return new Cursor(sink, last + 1, null);
+        } catch (NumberFormatException _) {
+            //not one of our sequences: resync
+        }
+        resyncs.increment();
+        return new Cursor(sink, nextSequence, SequencedChange.resync(nextSequence - 1));
+    }
+
+    private void publish(ChangeEvent<T> change) {
+        synchronized (this) {
+            ring[slot(nextSequence)] = new SequencedChange<>(nextSequence, change);
+            nextSequence++;
+        }
+        cursors.forEach(Cursor::drain);
+    }
+
+    /**
+      * @return the entry at this sequence, null if it has not been published yet, or a later entry if it has been overwritten
+      */
+    private synchronized SequencedChange<T> read(long sequence) {
+        return sequence < nextSequence ? ring[slot(sequence)] : null;
+    }
+
+    private synchronized boolean isOverwritten(long sequence) {
+        return sequence < nextSequence - ring.length;
+    }
+
+    private int slot(long sequence) {
+        return (int) Math.floorMod(sequence, (long) ring.length);
+    }
+
+    /**
+      * The position of a subscriber in the feed. Draining is serialized (work-in-progress counter): it is triggered
+      * by both the publications and the requests of the subscriber, from any thread.
+      */
+    private final class Cursor {
+
+        private final FluxSink<SequencedChange<T>> sink;
+        private final AtomicInteger wip = new AtomicInteger();
+        private long position; //only accessed while draining
+        private SequencedChange<T> pending; //only accessed while draining
+
+        private Cursor(FluxSink<SequencedChange<T>> sink, long position, SequencedChange<T> pending) {
+            this.sink = sink;
+            this.position = position;
+            this.pending = pending;
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() != 0)
+                return;
+            int missed = 1;
+            do {
+                while (sink.requestedFromDownstream() > 0 && !sink.isCancelled()) {
+                    if (pending != null) {
+                        sink.next(pending);
+                        pending = null;
+                        continue;
+                    }
+                    SequencedChange<T> next = read(position);
+                    if (next == null) //caught up
+                        break;
+                    if (next.sequence() != position) {
+                        drop();
+                        return;
+                    }
+                    sink.next(next);
+                    position++;
+                }
+                if (isOverwritten(position)) { //no demand while the buffer wrapped around
+                    drop();
+                    return;
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        /**
+          * Disconnect the subscriber, wip is left non-zero so that nothing is drained anymore
+          */
+        private void drop() {
+            dropped.increment();
+            log.info("Slow subscriber of the '{}' change feed disconnected at sequence {}", name, position);
+            sink.complete();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.lpa.demon_slayer_api_service.service.delta;
+
+import com.lpa.demon_slayer_api_service.config.ChangeFeedProperties;
+import com.lpa.demon_slayer_api_service.model.dto.CombatStyleDto;
+import com.lpa.demon_slayer_api_service.model.dto.character.CharacterSummaryDto;
+import com.lpa.demon_slayer_api_service.service.DemonSlayerApiService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Service;
+
+/**
+  * The change feeds of the collections, fed by the refreshes of their snapshots ({@link DeltaTracker})
+  */
+@Service
+public class ChangeFeeds {
+
+    private final ChangeFeed<CharacterSummaryDto> characters;
+    private final ChangeFeed<CombatStyleDto> combatStyles;
+
+    public ChangeFeeds(DemonSlayerApiService demonSlayerApiService,
+                       ChangeFeedProperties properties,
+                       MeterRegistry meterRegistry) {
+        long firstSequence = System.currentTimeMillis();
+        this.characters = new ChangeFeed<>("characters", demonSlayerApiService.characterChanges(),
+                properties.bufferSize(), firstSequence, meterRegistry);
+        this.combatStyles = new ChangeFeed<>("combat-styles", demonSlayerApiService.combatStyleChanges(),
+                properties.bufferSize(), firstSequence, meterRegistry);
+    }
+
+    public ChangeFeed<CharacterSummaryDto> characters() {
+        return characters;
+    }
+
+    public ChangeFeed<CombatStyleDto> combatStyles() {
+        return combatStyles;
+    }
+}
@@ -0,0 +1,262 @@
+package com.lpa.demon_slayer_api_service.service.delta;
+
+import com.lpa.demon_slayer_api_service.model.Identifiable;
+import com.lpa.demon_slayer_api_service.service.cache.SnapshotCodec;
+import com.lpa.demon_slayer_api_service.service.crawl.CrawlResult;
+import com.lpa.demon_slayer_api_service.service.crawl.CrawledPage;
+import com.lpa.demon_slayer_api_service.utils.DemonSlayerApiUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+  * Applies the result of each crawl of a collection to its current snapshot as a delta, rather than rebuilding the snapshot.
+  * <p>The content of each page of the previous crawl is kept. A page whose upstream bytes did not change is not decoded again
+  * by the crawl ({@link CrawledPage}), so it is recognized by identity and skipped without looking at its elements. Only the
+  * elements of the changed pages, and of the pages which disappeared, are compared by value with their previous copy:</p>
+  * <ul>
+  *     <li>nothing changed -> the current snapshot instance is kept, with its ETag, so nothing downstream is rebuilt
+  *     (rendered JSON, indexes, snapshot file)</li>
+  *     <li>some elements changed -> they are merged into the current snapshot, sorted by ID, and an {@link ChangeEvent} is emitted
+  *     for each of them on {@link #changes()}</li>
+  * </ul>
+  * The elements of a page that could not be retrieved keep their previous copy. The first crawl is the baseline, it emits no event;
+  * after a restart, the first complete crawl is compared with the snapshot restored from disk as a whole ({@link #seed(CrawlResult)}):
+  * until then, the restored elements which disappeared upstream cannot be told apart from those of the missing pages.
+  *
+  * <strong>Metrics</strong>
+  * <ul>
+  *     <li>demonslayer.delta.pages{collection, result}: the crawled pages, result is "unchanged" or "changed"</li>
+  *     <li>demonslayer.delta.changes{collection, type}: the elements added, changed or removed</li>
+  * </ul>
+  *
+  * @param <T> the type of the elements
+  */
+@Slf4j
+public class DeltaTracker<T extends Identifiable> {
+
+    private final String name;
+    private final SnapshotCodec<T> codec;
+    private final Sinks.Many<ChangeEvent<T>> changes = Sinks.many().multicast().directBestEffort();
+    private final Map<Integer, List<T>> pages = new HashMap<>(); //guarded by this
+    private final Map<Long, T> known = new HashMap<>(); //guarded by this
+    private CrawlResult<T> current; //guarded by this
+    private boolean reconcilePending; //guarded by this, true from the seed until the first complete crawl
+    private final Counter unchangedPages;
+    private final Counter changedPages;
+    private final Map<ChangeEvent.Type, Counter> changeCounters = new EnumMap<>(ChangeEvent.Type.class);
+
+    /**
+      * @param name          the collection name, used as the "collection" tag of the metrics
+      * @param codec         the binary encoding of the elements, the ETag of a new snapshot is hashed from it
+      * @param meterRegistry the registry in which the delta metrics are published
+      */
+    public DeltaTracker(String name, SnapshotCodec<T> codec, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.codec = codec;
+        this.unchangedPages = pageCounter(meterRegistry, "unchanged");
+        this.changedPages = pageCounter(meterRegistry, "changed");
+        for (ChangeEvent.Type type : ChangeEvent.Type.values())
+            changeCounters.put(type, Counter.builder("demonslayer.delta.changes")
+                    .tag("collection", name)
+                    .tag("type", type.label())
+                    .register(meterRegistry));
+    }
+
+    /**
+      * Start from a snapshot restored from disk: the next crawl is compared with it
+      *
+      * @param restored the restored snapshot, sorted by ID and carrying its ETag
+      */
+    public synchronized void seed(CrawlResult<T> restored) {
+        if (current != null)
+            return;
+        current = restored;
+        reconcilePending = true;
+        restored.items().forEach(item -> known.put(item.id(), item));
+    }
+
+    /**
+      * @return the snapshot produced by the last crawl, or the seeded one, null before the first crawl
+      */
+    public synchronized CrawlResult<T> current() {
+        return current;
+    }
+
+    /**
+      * Hot stream of the changes detected by the next crawls. A subscriber which does not keep up misses the changes
+      * emitted meanwhile, it never slows the refresh down.
+      *
+      * @return the changes, in ID order within a crawl
+      */
+    public Flux<ChangeEvent<T>> changes() {
+        return changes.asFlux();
+    }
+
+    /**
+      * Apply a crawl to the current snapshot
+      *
+      * @param crawled      the pages retrieved by the crawl, in any order
+      * @param missingPages the page numbers that could not be retrieved
+      * @return the new snapshot, or the current instance if nothing changed
+      */
+    public CrawlResult<T> apply(List<CrawledPage<T>> crawled, List<Integer> missingPages) {
+        List<ChangeEvent<T>> events = new ArrayList<>();
+        CrawlResult<T> result = update(crawled, missingPages, events);
+        if (!events.isEmpty())
+            synchronized (changes) { //emitted outside the monitor of the snapshot: a slow subscriber never blocks current() nor seed()
+                events.forEach(changes::tryEmitNext);
+            }
+        return result;
+    }
+
+    /**
+      * Update the snapshot with a crawl, under the monitor
+      *
+      * @param events receives the changes to emit once the monitor is released
+      */
+    private synchronized CrawlResult<T> update(List<CrawledPage<T>> crawled, List<Integer> missingPages, List<ChangeEvent<T>> events) {
+        boolean reconcile = reconcilePending && missingPages.isEmpty(); //first complete crawl after a restart: every element may have changed
+        Map<Long, T> before = new TreeMap<>(); //previous copies of the elements of the changed and disappeared pages
+        Map<Long, T> after = new TreeMap<>(); //elements of the changed pages
+        Set<Integer> crawledNumbers = new HashSet<>();
+        int unchanged = 0;
+        for (CrawledPage<T> page : crawled) {
+            crawledNumbers.add(page.number());
+            List<T> previous = pages.put(page.number(), page.content());
+            if (previous == page.content()) { //same decoded instance: the bytes did not change
+                unchanged++;
+                if (reconcile) //still compared with the restored copies, which it may have never been
+                    page.content().forEach(item -> after.put(item.id(), item));
+                continue;
+            }
+            if (previous != null)
+                previous.forEach(item -> before.put(item.id(), item));
+            page.content().forEach(item -> after.put(item.id(), item));
+        }
+        Iterator<Map.Entry<Integer, List<T>>> kept = pages.entrySet().iterator();
+        while (kept.hasNext()) {
+            Map.Entry<Integer, List<T>> page = kept.next();
+            if (crawledNumbers.contains(page.getKey()) || missingPages.contains(page.getKey()))
+                continue;
+            page.getValue().forEach(item -> before.put(item.id(), item)); //the collection shrank
+            kept.remove();
+        }
+        if (reconcile) {
+            before.putAll(known);
+            reconcilePending = false;
+        }
+        unchangedPages.increment(unchanged);
+        changedPages.increment(crawled.size() - unchanged);
+
+        if (current == null) { //baseline
+            current = baseline(missingPages);
+            log.info("Collection '{}' loaded: {} elements in {} pages", name, current.size(), pages.size());
+            return current;
+        }
+        Map<Long, ChangeEvent<T>> delta = diff(before, after);
+        if (delta.isEmpty()) {
+            if (!current.missingPages().equals(missingPages)) //same elements, but the ETag also covers the missing pages
+                current = withEtag(new CrawlResult<>(current.items(), missingPages));
+            log.debug("Collection '{}' unchanged: {} of {} pages unchanged", name, unchanged, crawled.size());
+            return current;
+        }
+        current = withEtag(new CrawlResult<>(merge(current.items(), delta), missingPages));
+        log.info("Collection '{}' refreshed: {} of {} pages changed, {} elements changed", name, crawled.size() - unchanged, crawled.size(), delta.size());
+        delta.values().forEach(event -> {
+            changeCounters.get(event.type()).increment();
+            events.add(event);
+        });
+        return current;
+    }
+
+    /**
+      * Compare the elements of the changed pages with their known copy, and update the known copies
+      *
+      * @return the changes by ID
+      */
+    private Map<Long, ChangeEvent<T>> diff(Map<Long, T> before, Map<Long, T> after) {
+        Map<Long, ChangeEvent<T>> delta = new TreeMap<>();
+        after.forEach((id, item) -> {
+            T previous = known.put(id, item);
+            if (previous == null)
+                delta.put(id, new ChangeEvent<>(ChangeEvent.Type.ADDED, id, item));
+            else if (!previous.equals(item))
+                delta.put(id, new ChangeEvent<>(ChangeEvent.Type.CHANGED, id, item));
+        });
+        before.forEach((id, item) -> {
+            if (after.containsKey(id)) //moved to another page
+                return;
+            T removed = known.remove(id);
+            if (removed != null)
+                delta.put(id, new ChangeEvent<>(ChangeEvent.Type.REMOVED, id, removed));
+        });
+        return delta;
+    }
+
+    /**
+      * @return the first snapshot, made of the elements of every crawled page sorted by ID as a whole: nothing says that
+      *         upstream pages split the collection by ID, and {@link #merge} relies on the global order
+      */
+    private CrawlResult<T> baseline(List<Integer> missingPages) {
+        List<T> items = new ArrayList<>();
+        pages.values().forEach(items::addAll);
+        List<T> sorted = DemonSlayerApiUtils.sortById(items);
+        sorted.forEach(item -> known.put(item.id(), item));
+        return withEtag(new CrawlResult<>(sorted, missingPages));
+    }
+
+    private CrawlResult<T> withEtag(CrawlResult<T> result) {
+        return result.withEtag(DemonSlayerApiUtils.strongEtag(codec.encode(result)));
+    }
+
+    /**
+      * Merge the changes into a list sorted by ID, in a single pass
+      *
+      * @param items the current elements, sorted by ID
+      * @param delta the changes, sorted by ID
+      * @return the new elements, sorted by ID
+      */
+    static <T extends Identifiable> List<T> merge(List<T> items, Map<Long, ChangeEvent<T>> delta) {
+        List<T> merged = new ArrayList<>(items.size() + delta.size());
+        Iterator<ChangeEvent<T>> changes = delta.values().iterator();
+        ChangeEvent<T> next = changes.hasNext() ? changes.next() : null;
+        for (T item : items) {
+            while (next != null && next.id() < item.id()) { //new element
+                if (next.type() != ChangeEvent.Type.REMOVED)
+                    merged.add(next.item());
+                next = changes.hasNext() ? changes.next() : null;
+            }
+            if (next != null && next.id().equals(item.id())) { //changed or removed element
+                if (next.type() != ChangeEvent.Type.REMOVED)
+                    merged.add(next.item());
+                next = changes.hasNext() ? changes.next() : null;
+                continue;
+            }
+            merged.add(item);
+        }
+        for (; next != null; next = changes.hasNext() ? changes.next() : null)
+            if (next.type() != ChangeEvent.Type.REMOVED)
+                merged.add(next.item());
+        return merged;
+    }
+
+    private Counter pageCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("demonslayer.delta.pages")
+                .tag("collection", name)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
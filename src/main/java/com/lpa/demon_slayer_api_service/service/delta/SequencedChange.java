@@ -0,0 +1,26 @@
+package com.lpa.demon_slayer_api_service.service.delta;
+
+/**
+  * An entry of a {@link ChangeFeed}
+  *
+  * @param sequence the position of the entry in the feed, sent as SSE event ID and given back to resume the feed
+  * @param change   the change, null for a resync entry
+  * @param <T>      the type of the elements
+  */
+public record SequencedChange<T>(
+        long sequence,
+        ChangeEvent<T> change
+) {
+
+    /**
+      * @param sequence the last sequence published when the client subscribed
+      * @return an entry telling the client that changes were missed: it has to reload the whole collection
+      */
+    static <T> SequencedChange<T> resync(long sequence) {
+        return new SequencedChange<>(sequence, null);
+    }
+
+    public boolean isResync() {
+        return change == null;
+    }
+}
@@ -0,0 +1,142 @@
+package com.lpa.demon_slayer_api_service.service.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+  * {@link ExchangeFilterFunction} timing every request sent to the upstream API, from the request to the response status.
+  * Requests are tagged with the attributes set by the caller ({@link #page(String, int)}, {@link #lookup(String)}) rather than
+  * with their URI, so the number of time series stays bounded whatever the query parameters.
+  *
+  * <strong>Metrics</strong>
+  * <ul>
+  *     <li>demonslayer.upstream.requests{endpoint, kind, page, status, outcome}: latency of the upstream requests, with a percentile histogram.
+  *     kind is "page" or "lookup", outcome is success, redirection, client_error, server_error, error (no response) or cancelled
+  *     (timeout, hedged request that lost the race)</li>
+  *     <li>demonslayer.upstream.errors{endpoint, status}: the 4xx and 5xx answers of upstream</li>
+  * </ul>
+  * The SLO buckets of the timer are set with {@code management.metrics.distribution.slo.demonslayer.upstream.requests}.
+  */
+public class UpstreamMetrics implements ExchangeFilterFunction {
+
+    static final String ENDPOINT = UpstreamMetrics.class.getName() + ".endpoint";
+    static final String KIND = UpstreamMetrics.class.getName() + ".kind";
+    static final String PAGE = UpstreamMetrics.class.getName() + ".page";
+    private static final String NONE = "none";
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+      * @param meterRegistry the registry in which the upstream timers and counters are published
+      */
+    public UpstreamMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+      * @param endpoint   the Demon Slayer API endpoint
+      * @param pageNumber the requested page number
+      * @return the request attributes of a page request
+      */
+    public static Consumer<Map<String, Object>> page(String endpoint, int pageNumber) {
+        return attributes -> {
+            attributes.put(ENDPOINT, endpoint);
+            attributes.put(KIND, "page");
+            attributes.put(PAGE, pageNumber);
+        };
+    }
+
+    /**
+      * @param endpoint the Demon Slayer API endpoint
+      * @return the request attributes of a single character lookup
+      */
+    public static Consumer<Map<String, Object>> lookup(String endpoint) {
+        return attributes -> {
+            attributes.put(ENDPOINT, endpoint);
+            attributes.put(KIND, "lookup");
+        };
+    }
+
+    /**
+      * @param uri the URI of a request sent by Reactor Netty
+      * @return the URI without its query string, used as the "uri" tag of the Reactor Netty client metrics
+      */
+    public static String uriTag(String uri) {
+        int query = uri.indexOf('?');
+        return query < 0 ? uri : uri.substring(0, query);
+    }
+
+    /**
+      * Count an error answer of upstream
+      *
+      * @param endpoint the Demon Slayer API endpoint
+      * @param status   the 4xx or 5xx status code
+      */
+    public void recordError(String endpoint, HttpStatusCode status) {
+        meterRegistry.counter("demonslayer.upstream.errors", "endpoint", endpoint, "status", String.valueOf(status.value())).increment();
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        Tags tags = Tags.of(
+                "endpoint", attribute(request, ENDPOINT),
+                "kind", attribute(request, KIND),
+                "page", attribute(request, PAGE));
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            AtomicBoolean done = new AtomicBoolean(false); //exactly one measure per request
+            return next.exchange(request)
+                    .doOnSuccess(response -> {
+                        if (done.compareAndSet(false, true))
+                            record(sample, tags, response == null ? NONE : String.valueOf(response.statusCode().value()), outcome(response));
+                    })
+                    .doOnError(_ -> {
+                        if (done.compareAndSet(false, true))
+                            record(sample, tags, NONE, "error");
+                    })
+                    .doOnCancel(() -> {
+                        if (done.compareAndSet(false, true))
+                            record(sample, tags, NONE, "cancelled");
+                    });
+        });
+    }
+
+    private void record(Timer.Sample sample, Tags tags, String status, String outcome) {
+        sample.stop(Timer.builder("demonslayer.upstream.requests")
+                .tags(tags)
+                .tag("status", status)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    private static String outcome(ClientResponse response) {
+        if (response == null)
+            return "error";
+        HttpStatusCode status = response.statusCode();
+        if (status.is2xxSuccessful())
+            return "success";
+        if (status.is3xxRedirection())
+            return "redirection";
+        if (status.is4xxClientError())
+            return "client_error";
+        if (status.is5xxServerError())
+            return "server_error";
+        return "unknown";
+    }
+
+    private static String attribute(ClientRequest request, String name) {
+        return request.attribute(name).map(String::valueOf).orElse(NONE);
+    }
+}
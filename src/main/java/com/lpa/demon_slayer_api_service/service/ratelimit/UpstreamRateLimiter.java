@@ -0,0 +1,402 @@
+package com.lpa.demon_slayer_api_service.service.ratelimit;
+
+import com.lpa.demon_slayer_api_service.config.RateLimitProperties;
+import com.lpa.demon_slayer_api_service.exception.CallNotPermittedException;
+import com.lpa.demon_slayer_api_service.exception.UpstreamThrottledException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+  * {@link ExchangeFilterFunction} holding every request sent to the upstream API until a token of a bucket shared by
+  * single character lookups and crawls is available, so that a burst of crawls cannot exhaust the upstream quota.
+  * <ul>
+  *     <li>the bucket holds up to {@code burst} tokens and is refilled at {@code permitsPerSecond}</li>
+  *     <li>waiting requests are served by priority: {@link Priority#INTERACTIVE} first, and {@link Priority#BACKGROUND}
+  *     requests leave the last {@code interactiveReserve} tokens to the interactive ones</li>
+  *     <li>a 429 or 503 answer with a {@code Retry-After} header, or an exhausted quota ({@code RateLimit-Remaining: 0}
+  *     or {@code X-RateLimit-Remaining: 0} with the matching reset header), holds every request until the given time.
+  *     The remaining quota announced by upstream also caps the tokens of the bucket</li>
+  *     <li>a request answered with 429 is queued again, up to {@code throttleRetries} times, before the answer is propagated</li>
+  * </ul>
+  * The priority of a request is read from its attributes ({@link #priority(Priority)}), and is {@link Priority#BACKGROUND} by default.
+  * It is not read from the subscriber context, which does not survive the request coalescing.
+  * <p>A caller can also run its call with {@link #admit(Priority, Supplier)}, which takes the token before the bulkhead, circuit breaker,
+  * timeout or concurrency limit of the call, so that the wait does not count against them, and mark the request with {@link #admitted()}:
+  * it is then sent right away, and a 429 answer is returned to the call instead of being queued again within its limits. The call
+  * fails with an {@link UpstreamThrottledException}, which frees its limits, and {@link #admit(Priority, Supplier)} runs it again
+  * once a new token is available, behind the pause.</p>
+  * Waiting requests never hold a thread: they are released by a task of the given {@link Scheduler} once tokens are available.
+  *
+  * <strong>Metrics</strong>
+  * <ul>
+  *     <li>demonslayer.ratelimit.queue.depth{priority}: the requests waiting for a token</li>
+  *     <li>demonslayer.ratelimit.wait{priority}: the time spent waiting for a token, with a percentile histogram</li>
+  *     <li>demonslayer.ratelimit.tokens: the tokens available</li>
+  *     <li>demonslayer.ratelimit.rejected{priority}: the requests refused because the queue was full</li>
+  *     <li>demonslayer.ratelimit.throttled: the 429 answers of upstream</li>
+  *     <li>demonslayer.ratelimit.pauses: the times requests were held on a Retry-After or rate limit header</li>
+  * </ul>
+  */
+@Slf4j
+public class UpstreamRateLimiter implements ExchangeFilterFunction {
+
+    static final String PRIORITY = UpstreamRateLimiter.class.getName() + ".priority";
+    static final String ADMITTED = UpstreamRateLimiter.class.getName() + ".admitted";
+    private static final List<String> REMAINING_HEADERS = List.of("RateLimit-Remaining", "X-RateLimit-Remaining");
+    private static final List<String> RESET_HEADERS = List.of("RateLimit-Reset", "X-RateLimit-Reset");
+    private static final long EPOCH_SECONDS_THRESHOLD = 1_000_000_000L; //a larger reset value is a timestamp, not a delay
+    private static final long MIN_DRAIN_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+      * Priority of an upstream request
+      */
+    public enum Priority {
+        /** a request a client is waiting for: single character lookups */
+        INTERACTIVE,
+        /** a request nobody is directly waiting for: crawls, catalog refreshes */
+        BACKGROUND;
+
+        String tag() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private final RateLimitProperties properties;
+    private final Scheduler scheduler;
+    private final double nanosPerToken;
+    private final Object lock = new Object();
+    private final Map<Priority, ArrayDeque<Waiter>> queues = new EnumMap<>(Priority.class); //guarded by lock
+    private double tokens; //guarded by lock
+    private long refilledAt; //guarded by lock, can be in the future while requests are held
+    private long pausedUntil; //guarded by lock
+    private Disposable scheduledDrain; //guarded by lock
+    private long scheduledDrainAt; //guarded by lock
+    private final Map<Priority, Timer> waits = new EnumMap<>(Priority.class);
+    private final Map<Priority, Counter> rejected = new EnumMap<>(Priority.class);
+    private final Counter throttled;
+    private final Counter pauses;
+
+    /**
+      * @param properties    the bucket settings
+      * @param scheduler     the scheduler giving the time and releasing the waiting requests
+      * @param meterRegistry the registry in which the rate limiter metrics are published
+      */
+    public UpstreamRateLimiter(RateLimitProperties properties, Scheduler scheduler, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.scheduler = scheduler;
+        this.nanosPerToken = TimeUnit.SECONDS.toNanos(1) / properties.permitsPerSecond();
+        this.tokens = properties.burst();
+        this.refilledAt = now();
+        this.pausedUntil = refilledAt;
+        for (Priority priority : Priority.values()) {
+            queues.put(priority, new ArrayDeque<>());
+            waits.put(priority, Timer.builder("demonslayer.ratelimit.wait")
+                    .tag("priority", priority.tag())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+            rejected.put(priority, Counter.builder("demonslayer.ratelimit.rejected")
+                    .tag("priority", priority.tag())
+                    .register(meterRegistry));
+            Gauge.builder("demonslayer.ratelimit.queue.depth", this, limiter -> limiter.queueDepth(priority))
+                    .tag("priority", priority.tag())
+                    .register(meterRegistry);
+        }
+        Gauge.builder("demonslayer.ratelimit.tokens", this, UpstreamRateLimiter::availableTokens)
+                .register(meterRegistry);
+        this.throttled = Counter.builder("demonslayer.ratelimit.throttled").register(meterRegistry);
+        this.pauses = Counter.builder("demonslayer.ratelimit.pauses").register(meterRegistry);
+    }
+
+    /**
+      * @param priority the priority of the request
+      * @return the request attributes giving the priority of a request
+      */
+    public static Consumer<Map<String, Object>> priority(Priority priority) {
+        return attributes -> attributes.put(PRIORITY, priority);
+    }
+
+    /**
+      * @return the request attributes telling that the token of the request has already been taken by {@link #admit(Priority, Supplier)}
+      *         or {@link #acquire(Priority)}: the request is sent right away and a 429 answer is returned to the caller as is
+      */
+    public static Consumer<Map<String, Object>> admitted() {
+        return attributes -> attributes.put(ADMITTED, Boolean.TRUE);
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        if (!properties.enabled())
+            return next.exchange(request);
+        if (request.attribute(ADMITTED).isPresent()) //the token has been taken by the caller, which queues a 429 again itself
+            return next.exchange(request)
+                    .doOnNext(response -> onResponse(response.statusCode(), response.headers().asHttpHeaders()));
+        return exchange(request, next, priorityOf(request), 0);
+    }
+
+    /**
+      * Run a call once a token has been taken, outside of the limits of the call, and run it again, up to {@code throttleRetries} times,
+      * while it fails with an {@link UpstreamThrottledException}: the new attempt waits for a token behind the pause, without holding
+      * a bulkhead slot nor counting against a timeout. The requests of the call are expected to be marked {@link #admitted()}.
+      *
+      * @param priority the priority of the call
+      * @param call     supplies one attempt of the call, within its own limits (bulkhead, circuit breaker, timeout, concurrency limit)
+      * @return the result of the call, or its last {@link UpstreamThrottledException} once the attempts are exhausted
+      */
+    public <T> Mono<T> admit(Priority priority, Supplier<Mono<T>> call) {
+        if (!properties.enabled())
+            return Mono.defer(call);
+        return Mono.defer(() -> acquire(priority).then(Mono.defer(call)))
+                .retryWhen(Retry.max(properties.throttleRetries())
+                        .filter(UpstreamThrottledException.class::isInstance)
+                        .onRetryExhaustedThrow((_, signal) -> signal.failure()));
+    }
+
+    private Mono<ClientResponse> exchange(ClientRequest request, ExchangeFunction next, Priority priority, int attempt) {
+        return acquire(priority)
+                .then(Mono.defer(() -> next.exchange(request)))
+                .flatMap(response -> {
+                    onResponse(response.statusCode(), response.headers().asHttpHeaders());
+                    if (response.statusCode().value() == HttpStatus.TOO_MANY_REQUESTS.value() && attempt < properties.throttleRetries())
+                        return response.releaseBody().then(exchange(request, next, priority, attempt + 1)); //queued again, behind the pause
+                    return Mono.just(response);
+                });
+    }
+
+    /**
+      * @param priority the priority of the request
+      * @return a {@link Mono} completing once a token has been taken for the request (right away when the rate limit is disabled),
+      * or failing with a {@link CallNotPermittedException} if too many requests are already waiting. Cancelling it gives up the place in the queue.
+      */
+    public Mono<Void> acquire(Priority priority) {
+        if (!properties.enabled())
+            return Mono.empty();
+        return Mono.create(sink -> {
+            Waiter waiter = new Waiter(sink, priority, now());
+            boolean queued;
+            synchronized (lock) {
+                queued = queuedRequests() < properties.maxQueueSize();
+                if (queued)
+                    queues.get(priority).addLast(waiter);
+            }
+            if (!queued) {
+                rejected.get(priority).increment();
+                sink.error(new CallNotPermittedException("Too many requests waiting for the Demon Slayer API, please try again later."));
+                return;
+            }
+            sink.onCancel(() -> {
+                synchronized (lock) {
+                    queues.get(priority).remove(waiter);
+                }
+            });
+            drain();
+        });
+    }
+
+    /**
+      * Adjust the bucket to the rate limit state announced by upstream
+      *
+      * @param status  the status of the upstream answer
+      * @param headers the headers of the upstream answer
+      */
+    void onResponse(HttpStatusCode status, HttpHeaders headers) {
+        boolean throttledAnswer = status.value() == HttpStatus.TOO_MANY_REQUESTS.value();
+        Duration pause = null;
+        if (throttledAnswer || status.value() == HttpStatus.SERVICE_UNAVAILABLE.value())
+            pause = retryAfter(headers);
+        if (throttledAnswer && pause == null)
+            pause = properties.throttleBackoff();
+        Long remaining = longHeader(headers, REMAINING_HEADERS);
+        if (pause == null && remaining != null && remaining <= 0)
+            pause = reset(headers);
+        if (throttledAnswer)
+            throttled.increment();
+        if (pause == null && remaining == null)
+            return;
+        synchronized (lock) {
+            long now = now();
+            refill(now);
+            if (remaining != null)
+                tokens = Math.min(tokens, Math.max(0, remaining));
+            if (pause != null) {
+                Duration capped = pause.compareTo(properties.maxPause()) > 0 ? properties.maxPause() : pause;
+                pausedUntil = Math.max(pausedUntil, now + capped.toNanos());
+                refilledAt = Math.max(refilledAt, pausedUntil); //the bucket starts refilling once the pause is over
+                tokens = 0;
+            }
+        }
+        if (pause != null) {
+            pauses.increment();
+            log.debug("Upstream requests held for {} ({} answer)", pause, status.value());
+        }
+    }
+
+    /**
+      * Release the waiting requests for which tokens are available, by priority, and schedule the next release
+      */
+    void drain() {
+        List<Waiter> granted = new ArrayList<>();
+        long now = now();
+        synchronized (lock) {
+            refill(now);
+            Waiter waiter;
+            while (now >= pausedUntil && (waiter = nextGrantable()) != null) {
+                tokens -= 1;
+                granted.add(waiter);
+            }
+            scheduleDrain(now);
+        }
+        for (Waiter waiter : granted) { //outside the lock: the requests are sent by the subscribers
+            waits.get(waiter.priority()).record(now - waiter.queuedAt(), TimeUnit.NANOSECONDS);
+            waiter.sink().success();
+        }
+    }
+
+    private Waiter nextGrantable() {
+        ArrayDeque<Waiter> interactive = queues.get(Priority.INTERACTIVE);
+        ArrayDeque<Waiter> background = queues.get(Priority.BACKGROUND);
+        if (!interactive.isEmpty() && tokens >= 1)
+            return interactive.pollFirst();
+        if (!background.isEmpty() && tokens >= 1 + properties.interactiveReserve())
+            return background.pollFirst();
+        return null;
+    }
+
+    /**
+      * Schedule a release at the time the first waiting request can get its token, unless an earlier release is already scheduled
+      */
+    private void scheduleDrain(long now) {
+        double needed;
+        if (!queues.get(Priority.INTERACTIVE).isEmpty())
+            needed = 1;
+        else if (!queues.get(Priority.BACKGROUND).isEmpty())
+            needed = 1 + properties.interactiveReserve();
+        else
+            return;
+        long due = Math.max(pausedUntil, Math.max(now, refilledAt) + (long) Math.ceil(Math.max(0, needed - tokens) * nanosPerToken));
+        due = Math.max(due, now + MIN_DRAIN_DELAY_NANOS);
+        if (scheduledDrain != null && scheduledDrainAt > now) { //a release still to come, the one running now does not count
+            if (scheduledDrainAt <= due)
+                return;
+            scheduledDrain.dispose();
+        }
+        scheduledDrainAt = due;
+        scheduledDrain = scheduler.schedule(this::drain, due - now, TimeUnit.NANOSECONDS);
+    }
+
+    private void refill(long now) {
+        if (now <= refilledAt)
+            return;
+        tokens = Math.min(properties.burst(), tokens + (now - refilledAt) / nanosPerToken);
+        refilledAt = now;
+    }
+
+    /**
+      * @return the delay of the Retry-After header, given in seconds or as an HTTP date, or null without valid header
+      */
+    private Duration retryAfter(HttpHeaders headers) {
+        String value = headers.getFirst(HttpHeaders.RETRY_AFTER);
+        if (value == null || value.isBlank())
+            return null;
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(value.trim())));
+        } catch (NumberFormatException _) {
+            try {
+                long at = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+                return Duration.ofMillis(Math.max(0, at - scheduler.now(TimeUnit.MILLISECONDS)));
+            } catch (DateTimeParseException _) {
+                return null;
+            }
+        }
+    }
+
+    /**
+      * @return the delay until the quota is reset, given in seconds or as a timestamp in epoch seconds, or null without valid header
+      */
+    private Duration reset(HttpHeaders headers) {
+        Long reset = longHeader(headers, RESET_HEADERS);
+        if (reset == null)
+            return null;
+        if (reset >= EPOCH_SECONDS_THRESHOLD)
+            return Duration.ofMillis(Math.max(0, TimeUnit.SECONDS.toMillis(reset) - scheduler.now(TimeUnit.MILLISECONDS)));
+        return Duration.ofSeconds(Math.max(0, reset));
+    }
+
+    private static Long longHeader(HttpHeaders headers, List<String> names) {
+        for (String name : names) {
+            String value = headers.getFirst(name);
+            if (value == null)
+                continue;
+            try {
+                return Long.parseLong(value.trim());
+            } catch (NumberFormatException _) {
+                //ignored, the next header is tried
+            }
+        }
+        return null;
+    }
+
+    private static Priority priorityOf(ClientRequest request) {
+        return request.attribute(PRIORITY)
+                .map(Priority.class::cast)
+                .orElse(Priority.BACKGROUND);
+    }
+
+    private int queuedRequests() {
+        return queues.values().stream().mapToInt(ArrayDeque::size).sum();
+    }
+
+    private long now() {
+        return scheduler.now(TimeUnit.NANOSECONDS);
+    }
+
+    public int queueDepth(Priority priority) {
+        synchronized (lock) {
+            return queues.get(priority).size();
+        }
+    }
+
+    public double availableTokens() {
+        synchronized (lock) {
+            refill(now());
+            return tokens;
+        }
+    }
+
+    /**
+      * A request waiting for a token
+      *
+      * @param sink     completed once the token is taken
+      * @param priority the priority of the request
+      * @param queuedAt the time the request was queued, in nanoseconds
+      */
+    private record Waiter(MonoSink<Void> sink, Priority priority, long queuedAt) {}
+}
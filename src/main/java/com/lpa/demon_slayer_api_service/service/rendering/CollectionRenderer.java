@@ -0,0 +1,99 @@
+package com.lpa.demon_slayer_api_service.service.rendering;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lpa.demon_slayer_api_service.service.crawl.CrawlResult;
+import com.lpa.demon_slayer_api_service.utils.DemonSlayerApiUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+  * Renders each collection snapshot once: the JSON array is serialized with the application {@link ObjectMapper} (so the bytes are
+  * exactly what Spring WebFlux would have written) and gzip-compressed at the best compression level on the first response accepting gzip,
+  * since the cost is paid once per snapshot instead of once per response.
+  * The rendering of the latest snapshot of each collection is kept, a new snapshot (reload, refresh) is rendered on its first response.
+  * <p>A projection ({@code ?fields=}) is rendered the same way with an ETag of its own, keyed by its canonical field set
+  * (unknown paths dropped). The most recently used projections are kept, apart from the full renderings.</p>
+  */
+@Slf4j
+@Component
+public class CollectionRenderer {
+
+    private final ObjectMapper objectMapper;
+    private final FieldProjections projections;
+    private final Map<String, RenderedCollection> rendered = new ConcurrentHashMap<>(); //one entry per collection
+    private final LruCache<String, RenderedCollection> projected = new LruCache<>(FieldProjections.MAX_CACHED_PROJECTIONS);
+
+    public CollectionRenderer(ObjectMapper objectMapper, FieldProjections projections) {
+        this.objectMapper = objectMapper;
+        this.projections = projections;
+    }
+
+    /**
+      * @param name   the collection name
+      * @param result the current snapshot of the collection
+      * @return the rendering of that snapshot
+      */
+    public RenderedCollection render(String name, CrawlResult<?> result) {
+        return render(name, result, null);
+    }
+
+    /**
+      * @param name   the collection name
+      * @param result the current snapshot of the collection
+      * @param fields the requested properties, null for every property
+      * @return the rendering of that snapshot, restricted to the requested properties
+      */
+    public RenderedCollection render(String name, CrawlResult<?> result, FieldSet fields) {
+        if (fields == null) {
+            RenderedCollection current = rendered.get(name);
+            if (current != null && current.source() == result) //same snapshot instance, nothing changed
+                return current;
+            RenderedCollection fresh = render(result);
+            rendered.put(name, fresh); //two concurrent renderings of the same snapshot are equal, the last one wins
+            log.debug("Collection '{}' rendered: {} bytes", name, fresh.identity().length);
+            return fresh;
+        }
+        FieldSet canonical = projections.canonical(result.items(), fields);
+        String key = name + "?fields=" + canonical.key();
+        RenderedCollection current = projected.get(key);
+        if (current != null && current.source() == result)
+            return current;
+        RenderedCollection fresh = render(result, canonical);
+        projected.put(key, fresh);
+        log.debug("Collection '{}' rendered: {} bytes", key, fresh.identity().length);
+        return fresh;
+    }
+
+    private RenderedCollection render(CrawlResult<?> result) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(result.items());
+            return new RenderedCollection(result, result.etag(), json);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("The collection cannot be serialized", ex);
+        }
+    }
+
+    private RenderedCollection render(CrawlResult<?> result, FieldSet fields) {
+        byte[] json = projections.writeValueAsBytes(result.items(), fields);
+        return new RenderedCollection(result, DemonSlayerApiUtils.strongEtag(json), json);
+    }
+
+    static byte[] gzip(byte[] content) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(content.length / 4);
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes) {{ def.setLevel(Deflater.BEST_COMPRESSION); }}) {
+            out.write(content);
+        } catch (IOException ex) { //never thrown by an in-memory stream
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+}
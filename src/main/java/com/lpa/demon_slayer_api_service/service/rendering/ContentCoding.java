@@ -0,0 +1,63 @@
+package com.lpa.demon_slayer_api_service.service.rendering;
+
+import java.util.Locale;
+
+/**
+  * The content codings a pre-rendered collection is available in
+  */
+public enum ContentCoding {
+    IDENTITY("identity"),
+    GZIP("gzip");
+
+    private final String token;
+
+    ContentCoding(String token) {
+        this.token = token;
+    }
+
+    /**
+      * @return the name of the coding in the Content-Encoding and Accept-Encoding headers
+      */
+    public String token() {
+        return token;
+    }
+
+    /**
+      * Pick the response coding from an Accept-Encoding header: gzip when the client accepts it ("gzip", "gzip;q=0.5", "*"),
+      * identity otherwise. An explicit gzip entry takes precedence over "*", which only covers the codings that are not listed
+      * (RFC 9110): "gzip;q=0, *" refuses gzip. Codings we do not pre-render (br, zstd...) are ignored.
+      *
+      * @param acceptEncoding the Accept-Encoding request header, may be null
+      * @return the response coding
+      */
+    public static ContentCoding negotiate(String acceptEncoding) {
+        if (acceptEncoding == null)
+            return IDENTITY;
+        Double gzip = null;
+        Double wildcard = null;
+        for (String entry : acceptEncoding.split(",")) {
+            String[] parts = entry.split(";");
+            String coding = parts[0].strip().toLowerCase(Locale.ROOT);
+            if (coding.equals(GZIP.token))
+                gzip = quality(parts);
+            else if (coding.equals("*"))
+                wildcard = quality(parts);
+        }
+        Double accepted = gzip != null ? gzip : wildcard;
+        return accepted != null && accepted > 0 ? GZIP : IDENTITY;
+    }
+
+    private static double quality(String[] parameters) {
+        for (int i = 1; i < parameters.length; i++) {
+            String parameter = parameters[i].strip();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2));
+                } catch (NumberFormatException _) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,145 @@
+package com.lpa.demon_slayer_api_service.service.rendering;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.databind.util.ClassUtil;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+  * Serializes responses restricted to a {@link FieldSet}. A projection {@link ObjectWriter} is compiled once per distinct field set
+  * and cached, so a projected response costs a hash lookup per property on top of the regular serialization.
+  * The paths that are not JSON properties of the serialized type are dropped from the field set first ({@link #canonical(Object, FieldSet)}),
+  * so that "id,name,whatever" shares the projection of "id,name".
+  * The writers come from a copy of the application {@link ObjectMapper}, whose every bean goes through the field set filter:
+  * the application mapper itself is left untouched.
+  */
+@Component
+public class FieldProjections {
+
+    /**
+      * Bounds the caches against clients sending a different field set on every request, the least recently used projections are evicted
+      */
+    static final int MAX_CACHED_PROJECTIONS = 256;
+
+    private static final String FILTER_ID = "fieldSet";
+
+    private final ObjectMapper projectingMapper;
+    private final LruCache<FieldSet, ObjectWriter> writers = new LruCache<>(MAX_CACHED_PROJECTIONS);
+    private final Map<Class<?>, Set<String>> knownPaths = new ConcurrentHashMap<>(); //one entry per serialized DTO type
+
+    public FieldProjections(ObjectMapper objectMapper) {
+        this.projectingMapper = objectMapper.copy().addMixIn(Object.class, FilteredBean.class);
+    }
+
+    /**
+      * @param fields the requested properties
+      * @return the writer serializing only these properties
+      */
+    public ObjectWriter writer(FieldSet fields) {
+        ObjectWriter writer = writers.get(fields);
+        if (writer != null)
+            return writer;
+        writer = projectingMapper.writer(new SimpleFilterProvider().addFilter(FILTER_ID, new FieldSetFilter(fields)));
+        writers.put(fields, writer); //two concurrent compilations of the same field set are equivalent, the last one wins
+        return writer;
+    }
+
+    /**
+      * @param value  the object, or the collection of objects, about to be projected
+      * @param fields the requested properties
+      * @return the field set without the paths that are not JSON properties of the value, the same instance if they all are
+      */
+    public FieldSet canonical(Object value, FieldSet fields) {
+        Object sample = value;
+        if (value instanceof Iterable<?> elements) {
+            Iterator<?> iterator = elements.iterator();
+            sample = iterator.hasNext() ? iterator.next() : null;
+        }
+        if (sample == null) //nothing to project
+            return fields;
+        return fields.retain(knownPaths.computeIfAbsent(sample.getClass(), this::pathsOf));
+    }
+
+    /**
+      * @return every dotted path of JSON property names of the type, nested beans and bean collections included
+      */
+    private Set<String> pathsOf(Class<?> type) {
+        Set<String> paths = new HashSet<>();
+        collectPaths(projectingMapper.constructType(type), "", new HashSet<>(), paths);
+        return Set.copyOf(paths);
+    }
+
+    private void collectPaths(JavaType type, String prefix, Set<Class<?>> ancestors, Set<String> paths) {
+        JavaType bean = type;
+        while (bean.isArrayType() || bean.isCollectionLikeType()) //the paths apply to each element
+            bean = bean.getContentType();
+        Class<?> raw = bean.getRawClass();
+        if (bean.isMapLikeType() || bean.isEnumType() || raw.isPrimitive() || ClassUtil.isJDKClass(raw) || !ancestors.add(raw))
+            return; //a scalar, or a cycle
+        for (BeanPropertyDefinition property : projectingMapper.getSerializationConfig().introspect(bean).findProperties()) {
+            if (!property.couldSerialize())
+                continue;
+            String path = prefix + property.getName();
+            paths.add(path);
+            collectPaths(property.getPrimaryType(), path + ".", ancestors, paths);
+        }
+        ancestors.remove(raw);
+    }
+
+    /**
+      * @return the JSON of the value restricted to the requested properties
+      */
+    public byte[] writeValueAsBytes(Object value, FieldSet fields) {
+        try {
+            return writer(canonical(value, fields)).writeValueAsBytes(value);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("The response cannot be serialized", ex);
+        }
+    }
+
+    /**
+      * @return the JSON of the value restricted to the requested properties
+      */
+    public String writeValueAsString(Object value, FieldSet fields) {
+        try {
+            return writer(canonical(value, fields)).writeValueAsString(value);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("The response cannot be serialized", ex);
+        }
+    }
+
+    @JsonFilter(FILTER_ID)
+    private abstract static class FilteredBean {}
+
+    private static final class FieldSetFilter extends SimpleBeanPropertyFilter {
+
+        private final FieldSet fields;
+
+        private FieldSetFilter(FieldSet fields) {
+            this.fields = fields;
+        }
+
+        @Override
+        public void serializeAsField(Object pojo, JsonGenerator generator, SerializerProvider provider, PropertyWriter writer) throws Exception {
+            if (fields.includes(generator.getOutputContext(), writer.getName()))
+                writer.serializeAsField(pojo, generator, provider);
+            else if (!generator.canOmitFields())
+                writer.serializeAsOmittedField(pojo, generator, provider);
+        }
+    }
+}
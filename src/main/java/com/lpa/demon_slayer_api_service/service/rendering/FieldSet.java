@@ -0,0 +1,149 @@
+package com.lpa.demon_slayer_api_service.service.rendering;
+
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.lpa.demon_slayer_api_service.exception.DemonSlayerApiException;
+import org.springframework.http.HttpStatus;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+  * The properties a client asked for with {@code ?fields=id,name,affiliation.name}, compiled into a tree of JSON property names
+  * <ul>
+  *     <li>"affiliation" keeps the whole affiliation object</li>
+  *     <li>"affiliation.name" keeps the affiliation object with its name only</li>
+  *     <li>inside arrays, the paths apply to each element ("combat_style.name")</li>
+  * </ul>
+  * Unknown properties are ignored, and dropped by {@link FieldProjections#canonical(Object, FieldSet)} before projecting.
+  * Two field sets listing the same paths in any order are equal, so they share the same projection.
+  */
+public final class FieldSet {
+
+    private final String key;
+    private final Node root;
+
+    private FieldSet(String key, Node root) {
+        this.key = key;
+        this.root = root;
+    }
+
+    /**
+      * @param fields the {@code fields} query parameter, comma-separated dotted paths of JSON property names
+      * @return the field set, or null if fields is null or blank (every property is kept)
+      * @throws DemonSlayerApiException (400) if a path has an empty segment ("affiliation.", "a..b")
+      */
+    public static FieldSet parse(String fields) throws DemonSlayerApiException {
+        if (fields == null || fields.isBlank())
+            return null;
+        TreeSet<String> paths = new TreeSet<>();
+        for (String path : fields.split(",")) {
+            String trimmed = path.strip();
+            if (trimmed.isEmpty())
+                continue;
+            for (String segment : trimmed.split("\\.", -1))
+                if (segment.isBlank())
+                    throw new DemonSlayerApiException("Invalid field path: '" + trimmed + "'", HttpStatus.BAD_REQUEST);
+            paths.add(trimmed);
+        }
+        return paths.isEmpty() ? null : of(paths);
+    }
+
+    /**
+      * Apply this field set to the elements nested under a property of a wrapper object, e.g. the characters of a batch response
+      *
+      * @param property  the wrapper property holding the projected elements
+      * @param keptWhole the other wrapper properties, kept entirely
+      * @return the field set of the wrapper object
+      */
+    public FieldSet under(String property, String... keptWhole) {
+        TreeSet<String> paths = new TreeSet<>();
+        for (String path : key.split(","))
+            paths.add(property + "." + path);
+        paths.addAll(List.of(keptWhole));
+        return of(paths);
+    }
+
+    /**
+      * @param known every path that exists in the projected type
+      * @return this field set restricted to the known paths, the same instance if they are all known. Nothing may be left,
+      *         the projection then keeps no property at all.
+      */
+    FieldSet retain(Set<String> known) {
+        List<String> paths = key.isEmpty() ? List.of() : List.of(key.split(","));
+        List<String> kept = paths.stream()
+                .filter(known::contains)
+                .toList();
+        return kept.size() == paths.size() ? this : of(kept);
+    }
+
+    /**
+      * @param context the output context of the object being written
+      * @param name    the JSON name of the property about to be written
+      * @return true if the property is requested, directly or through one of its ancestors
+      */
+    boolean includes(JsonStreamContext context, String name) {
+        Node node = nodeOf(context);
+        return node != null && (node.all || node.children.containsKey(name));
+    }
+
+    /**
+      * The canonical form of the field set: its paths sorted and comma-separated
+      */
+    public String key() {
+        return key;
+    }
+
+    /**
+      * Walk up the output contexts, skipping arrays, down to the root object, then follow the property names back down the tree
+      */
+    private Node nodeOf(JsonStreamContext context) {
+        JsonStreamContext parent = context.getParent();
+        while (parent != null && parent.inArray())
+            parent = parent.getParent();
+        if (parent == null || parent.inRoot())
+            return root;
+        Node parentNode = nodeOf(parent);
+        if (parentNode == null || parentNode.all)
+            return parentNode;
+        return parentNode.children.get(parent.getCurrentName());
+    }
+
+    private static FieldSet of(Collection<String> sortedPaths) {
+        Node root = new Node();
+        for (String path : sortedPaths) {
+            Node node = root;
+            for (String segment : path.split("\\."))
+                node = node.children.computeIfAbsent(segment, _ -> new Node());
+            node.all = true; //"affiliation" wins over "affiliation.name"
+        }
+        return new FieldSet(sortedPaths.stream().collect(Collectors.joining(",")), root);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof FieldSet fieldSet && key.equals(fieldSet.key);
+    }
+
+    @Override
+    public int hashCode() {
+        return key.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return key;
+    }
+
+    /**
+      * A JSON property of the projection: either kept whole, or restricted to some of its children
+      */
+    private static final class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        private boolean all;
+    }
+}
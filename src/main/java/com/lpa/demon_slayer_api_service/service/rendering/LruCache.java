@@ -0,0 +1,37 @@
+package com.lpa.demon_slayer_api_service.service.rendering;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+  * A map bounded to its most recently used entries, for the caches keyed by what clients send: past the bound,
+  * the least recently used entry makes room for the new one instead of the cache refusing every new entry.
+  *
+  * @param <K> the type of the keys
+  * @param <V> the type of the values
+  */
+final class LruCache<K, V> {
+
+    private final Map<K, V> entries;
+
+    LruCache(int maxSize) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) { //access order
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    synchronized V get(K key) {
+        return entries.get(key);
+    }
+
+    synchronized void put(K key, V value) {
+        entries.put(key, value);
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,75 @@
+package com.lpa.demon_slayer_api_service.service.rendering;
+
+import com.lpa.demon_slayer_api_service.service.crawl.CrawlResult;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+
+import java.nio.ByteBuffer;
+
+/**
+  * The JSON array of a collection snapshot, serialized once and shared by every response.
+  * It is gzip-compressed on the first response that accepts gzip, then the compressed bytes are shared as well.
+  */
+public final class RenderedCollection {
+
+    private final CrawlResult<?> source;
+    private final String etag;
+    private final byte[] identity;
+    private volatile byte[] gzip;
+
+    /**
+      * @param source   the snapshot the bytes have been rendered from
+      * @param etag     the strong ETag of the JSON array, null if the snapshot has none
+      * @param identity the JSON array
+      */
+    RenderedCollection(CrawlResult<?> source, String etag, byte[] identity) {
+        this.source = source;
+        this.etag = etag;
+        this.identity = identity;
+    }
+
+    /**
+      * @return the snapshot the bytes have been rendered from
+      */
+    public CrawlResult<?> source() {
+        return source;
+    }
+
+    /**
+      * @return the JSON array
+      */
+    public byte[] identity() {
+        return identity;
+    }
+
+    /**
+      * @return the gzip-compressed JSON array, compressed on the first call
+      */
+    public byte[] gzip() {
+        byte[] compressed = gzip;
+        if (compressed == null) //two concurrent compressions give the same bytes, the last one wins
+            gzip = compressed = CollectionRenderer.gzip(identity);
+        return compressed;
+    }
+
+    /**
+      * @param encoding the content coding of the response
+      * @return a read-only {@link DataBuffer} wrapping the shared bytes of that coding, nothing is copied
+      */
+    public DataBuffer body(ContentCoding encoding) {
+        byte[] bytes = encoding == ContentCoding.GZIP ? gzip() : identity;
+        return DefaultDataBufferFactory.sharedInstance.wrap(ByteBuffer.wrap(bytes).asReadOnlyBuffer());
+    }
+
+    /**
+      * A strong ETag identifies one representation, so the compressed representation gets its own tag
+      *
+      * @param encoding the content coding of the response
+      * @return the ETag of that representation, null if the snapshot has no ETag
+      */
+    public String etag(ContentCoding encoding) {
+        if (etag == null || encoding == ContentCoding.IDENTITY)
+            return etag;
+        return etag.substring(0, etag.length() - 1) + "-" + encoding.token() + "\"";
+    }
+}
@@ -0,0 +1,61 @@
+package com.lpa.demon_slayer_api_service.service.resilience;
+
+import com.lpa.demon_slayer_api_service.exception.CallNotPermittedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+  * Bounds the number of upstream calls in flight of one pool (single lookups, crawls). A call above the bound is not queued,
+  * it fails fast with a {@link CallNotPermittedException}, so that a slow upstream cannot pile up waiting requests.
+  *
+  * <strong>Metrics</strong>
+  * <ul>
+  *     <li>demonslayer.bulkhead.in.flight{bulkhead}: the calls in flight</li>
+  *     <li>demonslayer.bulkhead.rejected{bulkhead}: the calls refused because the bulkhead was full</li>
+  * </ul>
+  */
+public class Bulkhead {
+
+    private final int maxConcurrent;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter rejected;
+
+    /**
+      * @param name          the bulkhead name, used as the "bulkhead" tag of the metrics
+      * @param maxConcurrent the maximum number of calls in flight
+      * @param meterRegistry the registry in which the bulkhead metrics are published
+      */
+    public Bulkhead(String name, int maxConcurrent, MeterRegistry meterRegistry) {
+        this.maxConcurrent = maxConcurrent;
+        this.rejected = Counter.builder("demonslayer.bulkhead.rejected")
+                .tag("bulkhead", name)
+                .register(meterRegistry);
+        Gauge.builder("demonslayer.bulkhead.in.flight", inFlight, AtomicInteger::get)
+                .tag("bulkhead", name)
+                .register(meterRegistry);
+    }
+
+    /**
+      * @param call supplies the upstream call, only invoked if the bulkhead is not full
+      * @return a {@link Mono} relaying the result of the call, or failing with a {@link CallNotPermittedException} if the bulkhead is full
+      */
+    public <T> Mono<T> run(Supplier<Mono<T>> call) {
+        return Mono.defer(() -> {
+            if (inFlight.incrementAndGet() > maxConcurrent) {
+                inFlight.decrementAndGet();
+                rejected.increment();
+                return Mono.error(new CallNotPermittedException("Too many requests in progress to the Demon Slayer API, please try again later."));
+            }
+            return Mono.defer(call).doFinally(_ -> inFlight.decrementAndGet()); //released on success, error and cancellation
+        });
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,195 @@
+package com.lpa.demon_slayer_api_service.service.resilience;
+
+import com.lpa.demon_slayer_api_service.config.ResilienceProperties;
+import com.lpa.demon_slayer_api_service.exception.CallNotPermittedException;
+import com.lpa.demon_slayer_api_service.exception.UpstreamThrottledException;
+import com.lpa.demon_slayer_api_service.utils.DemonSlayerApiUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+  * Count-based circuit breaker guarding the calls to the upstream API
+  * <ul>
+  *     <li>CLOSED: calls go through and the outcome of the last {@code sliding-window-size} calls is recorded. Once at least
+  *     {@code minimum-calls} outcomes are recorded and the failure rate reaches the threshold, the circuit opens</li>
+  *     <li>OPEN: calls fail fast with a {@link CallNotPermittedException}, without reaching upstream, for {@code open-duration}</li>
+  *     <li>HALF_OPEN: up to {@code half-open-calls} trial calls go through. The circuit closes once they all succeeded,
+  *     the first failure opens it again</li>
+  * </ul>
+  * Only transient errors ({@link DemonSlayerApiUtils#isTransientError(Throwable)}) are failures: a 404 proves that upstream is healthy.
+  * A throttled call ({@link UpstreamThrottledException}) is not recorded at all.
+  *
+  * <strong>Metrics</strong>
+  * <ul>
+  *     <li>demonslayer.circuit.state{breaker}: 0 closed, 1 open, 2 half-open</li>
+  *     <li>demonslayer.circuit.transitions{breaker, from, to}: the state transitions</li>
+  *     <li>demonslayer.circuit.rejected{breaker}: the calls refused while the circuit is open</li>
+  * </ul>
+  */
+@Slf4j
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String name;
+    private final ResilienceProperties.CircuitBreaker properties;
+    private final Clock clock;
+    private final MeterRegistry meterRegistry;
+    private final Counter rejected;
+
+    private final Object lock = new Object();
+    private final boolean[] failures; //ring of the recorded outcomes, guarded by lock
+    private int next; //guarded by lock
+    private int recorded; //guarded by lock
+    private int failed; //guarded by lock
+    private State state = State.CLOSED; //guarded by lock
+    private Instant openedAt; //guarded by lock
+    private int halfOpenPermits; //guarded by lock
+    private int halfOpenSuccesses; //guarded by lock
+
+    /**
+      * @param name          the breaker name, used as the "breaker" tag of the metrics
+      * @param properties    the thresholds and durations
+      * @param clock         the clock used to know when an open circuit lets trial calls through
+      * @param meterRegistry the registry in which the breaker metrics are published
+      */
+    public CircuitBreaker(String name, ResilienceProperties.CircuitBreaker properties, Clock clock, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.properties = properties;
+        this.clock = clock;
+        this.meterRegistry = meterRegistry;
+        this.failures = new boolean[properties.slidingWindowSize()];
+        this.rejected = Counter.builder("demonslayer.circuit.rejected")
+                .tag("breaker", name)
+                .register(meterRegistry);
+        Gauge.builder("demonslayer.circuit.state", this, breaker -> breaker.state().ordinal())
+                .tag("breaker", name)
+                .register(meterRegistry);
+    }
+
+    /**
+      * @param call supplies the upstream call, only invoked if the circuit lets it through
+      * @return a {@link Mono} relaying the result of the call, or failing with a {@link CallNotPermittedException} if the circuit is open
+      */
+    public <T> Mono<T> run(Supplier<Mono<T>> call) {
+        return Mono.defer(() -> {
+            State admittedIn = tryAcquire();
+            if (admittedIn == null) {
+                rejected.increment();
+                return Mono.error(new CallNotPermittedException("The Demon Slayer API is unavailable, please try again later."));
+            }
+            AtomicBoolean done = new AtomicBoolean(false); //exactly one outcome per call
+            return Mono.defer(call)
+                    .doOnSuccess(_ -> {
+                        if (done.compareAndSet(false, true))
+                            onOutcome(admittedIn, true);
+                    })
+                    .doOnError(error -> {
+                        if (!done.compareAndSet(false, true))
+                            return;
+                        if (error instanceof UpstreamThrottledException) //our quota, says nothing about the health of upstream
+                            onCancel(admittedIn);
+                        else
+                            onOutcome(admittedIn, !DemonSlayerApiUtils.isTransientError(error));
+                    })
+                    .doOnCancel(() -> {
+                        if (done.compareAndSet(false, true))
+                            onCancel(admittedIn);
+                    });
+        });
+    }
+
+    public State state() {
+        synchronized (lock) {
+            return state;
+        }
+    }
+
+    /**
+      * @return the state in which the call is admitted, or null if it is rejected
+      */
+    private State tryAcquire() {
+        synchronized (lock) {
+            if (state == State.OPEN && !clock.instant().isBefore(openedAt.plus(properties.openDuration())))
+                transition(State.HALF_OPEN);
+            return switch (state) {
+                case CLOSED -> State.CLOSED;
+                case OPEN -> null;
+                case HALF_OPEN -> {
+                    if (halfOpenPermits >= properties.halfOpenCalls())
+                        yield null;
+                    halfOpenPermits++;
+                    yield State.HALF_OPEN;
+                }
+            };
+        }
+    }
+
+    private void onOutcome(State admittedIn, boolean success) {
+        synchronized (lock) {
+            if (admittedIn != state) //a late outcome of a call started before the last transition
+                return;
+            if (state == State.CLOSED) {
+                record(success);
+                if (recorded >= properties.minimumCalls() && (double) failed / recorded >= properties.failureRateThreshold())
+                    transition(State.OPEN);
+            } else if (!success) {
+                transition(State.OPEN);
+            } else if (++halfOpenSuccesses >= properties.halfOpenCalls()) {
+                transition(State.CLOSED);
+            }
+        }
+    }
+
+    private void onCancel(State admittedIn) {
+        synchronized (lock) {
+            if (admittedIn == State.HALF_OPEN && state == State.HALF_OPEN)
+                halfOpenPermits--; //the trial call said nothing, give its permit back
+        }
+    }
+
+    private void record(boolean success) { //called under lock
+        if (recorded == failures.length) {
+            if (failures[next])
+                failed--;
+        } else {
+            recorded++;
+        }
+        failures[next] = !success;
+        if (!success)
+            failed++;
+        next = (next + 1) % failures.length;
+    }
+
+    private void transition(State to) { //called under lock
+        State from = state;
+        state = to;
+        switch (to) {
+            case OPEN -> openedAt = clock.instant();
+            case HALF_OPEN -> {
+                halfOpenPermits = 0;
+                halfOpenSuccesses = 0;
+            }
+            case CLOSED -> {
+                next = 0;
+                recorded = 0;
+                failed = 0;
+            }
+        }
+        meterRegistry.counter("demonslayer.circuit.transitions",
+                "breaker", name, "from", from.name().toLowerCase(Locale.ROOT), "to", to.name().toLowerCase(Locale.ROOT)).increment();
+        if (to == State.OPEN)
+            log.warn("Circuit '{}' opened ({} -> {}), upstream calls are rejected for {}", name, from, to, properties.openDuration());
+        else
+            log.info("Circuit '{}' {} -> {}", name, from, to);
+    }
+}
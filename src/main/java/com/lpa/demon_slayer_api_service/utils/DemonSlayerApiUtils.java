@@ -1,11 +1,21 @@
 package com.lpa.demon_slayer_api_service.utils;
 
 
+import com.lpa.demon_slayer_api_service.exception.CallNotPermittedException;
+import com.lpa.demon_slayer_api_service.exception.DemonSlayerApiException;
+import com.lpa.demon_slayer_api_service.exception.UpstreamThrottledException;
 import com.lpa.demon_slayer_api_service.model.Identifiable;
 import com.lpa.demon_slayer_api_service.model.dto.character.CharacterSummaryDto;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
 
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Comparator;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeoutException;
 
 
 public class DemonSlayerApiUtils {
@@ -28,6 +38,18 @@ public class DemonSlayerApiUtils {
                 .toList();
     }
 
+    /** Tell whether a list is sorted by ID
+      *
+      * @param list       a list
+      * @return     true if each ID is greater than or equal to the previous one
+      */
+    public static <T extends Identifiable> boolean isSortedById(List<T> list) {
+        for (int i = 1; i < list.size(); i++)
+            if (list.get(i - 1).id() > list.get(i).id())
+                return false;
+        return true;
+    }
+
     /** Sort a list of {@link CharacterSummaryDto} by name
       *
       * @param characters       an unsorted list of characters
@@ -41,4 +63,59 @@ public class DemonSlayerApiUtils {
                 .sorted(Comparator.comparing(CharacterSummaryDto::name, String.CASE_INSENSITIVE_ORDER))
                 .toList();
     }
+
+    /** Normalize a character name so that "  Tanjiro   KAMADO " and "tanjiro kamado" are considered the same name
+      *
+      * @param name       the name to normalize
+      * @return     the trimmed, lower-cased name with whitespace runs collapsed, or null if the name is null
+      */
+    public static String normalizeName(String name) {
+        if (name == null)
+            return null;
+
+        return name.strip()
+                .replaceAll("\\s+", " ")
+                .toLowerCase(Locale.ROOT);
+    }
+
+    /** Tell whether an upstream error is transient, i.e. worth a retry and a sign of a degraded upstream API
+      *
+      * @param error       the error of an upstream call
+      * @return     true for timeouts, connection errors and 5xx responses, false for client errors, for calls refused locally and for
+      *             throttled calls ({@link UpstreamThrottledException}), which are queued again by the rate limiter
+      */
+    public static boolean isTransientError(Throwable error) {
+        if (error instanceof CallNotPermittedException || error instanceof UpstreamThrottledException)
+            return false;
+        if (error instanceof DemonSlayerApiException dsEx)
+            return dsEx.getStatus() == HttpStatus.TOO_MANY_REQUESTS || dsEx.getStatus().is5xxServerError();
+        return error instanceof TimeoutException || error instanceof WebClientRequestException;
+    }
+
+    /** Compute a strong entity tag from the bytes of a representation, equal contents always give equal tags
+      *
+      * @param content       the deterministic encoding of the content
+      * @return     the quoted entity tag, e.g. "5d41402abc4b2a76b9719d911017c592"
+      */
+    public static String strongEtag(byte[] content) {
+        return "\"" + HexFormat.of().formatHex(sha256(content), 0, 16) + "\""; //128 bits are plenty to tell versions apart
+    }
+
+    /** Compute a collision resistant hash of the raw bytes of an upstream answer, to tell whether it changed since the previous copy:
+      * equal hashes skip the decoding, so a collision would silently serve stale content
+      *
+      * @param content       the raw bytes
+      * @return     the hexadecimal SHA-256 of the bytes
+      */
+    public static String contentHash(byte[] content) {
+        return HexFormat.of().formatHex(sha256(content));
+    }
+
+    private static byte[] sha256(byte[] content) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(content);
+        } catch (NoSuchAlgorithmException ex) { //SHA-256 is required on every Java platform
+            throw new IllegalStateException(ex);
+        }
+    }
 }
@@ -0,0 +1,37 @@
+package com.lpa.demon_slayer_api_service.config;
+
+import com.lpa.demon_slayer_api_service.model.dto.AffiliationDto;
+import com.lpa.demon_slayer_api_service.model.dto.character.CharacterSummaryDto;
+import com.lpa.demon_slayer_api_service.model.dto.pagination.PageResponseCharacterSummaryDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonRuntimeHintsTest {
+
+    private RuntimeHints hints;
+
+    @BeforeEach
+    void initialize() {
+        hints = new RuntimeHints();
+        new JsonRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    void registerHints_upstreamPageRecordsAreBindable() {
+        assertTrue(RuntimeHintsPredicates.reflection().onType(PageResponseCharacterSummaryDto.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(CharacterSummaryDto.class, "name").test(hints)); //record accessor
+        assertTrue(RuntimeHintsPredicates.reflection().onType(AffiliationDto.class).test(hints)); //nested in the character DTO
+    }
+
+    @Test
+    void registerHints_fieldProjectionMixinIsRegistered() {
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onType(TypeReference.of("com.lpa.demon_slayer_api_service.service.rendering.FieldProjections$FilteredBean"))
+                .test(hints));
+    }
+}
@@ -2,30 +2,58 @@ package com.lpa.demon_slayer_api_service.controller;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lpa.demon_slayer_api_service.config.ChangeFeedProperties;
+import com.lpa.demon_slayer_api_service.config.PaginationProperties;
 import com.lpa.demon_slayer_api_service.exception.DemonSlayerApiException;
 import com.lpa.demon_slayer_api_service.model.dto.CombatStyleDto;
+import com.lpa.demon_slayer_api_service.model.dto.character.CharacterBatchRequestDto;
+import com.lpa.demon_slayer_api_service.model.dto.character.CharacterBatchResponseDto;
 import com.lpa.demon_slayer_api_service.model.dto.character.CharacterDto;
+import com.lpa.demon_slayer_api_service.model.dto.character.CharacterLookupErrorDto;
 import com.lpa.demon_slayer_api_service.model.dto.character.CharacterResponseDto;
+import com.lpa.demon_slayer_api_service.model.dto.character.CharacterSearchHitDto;
 import com.lpa.demon_slayer_api_service.model.dto.pagination.PageResponseCharacterSummaryDto;
 import com.lpa.demon_slayer_api_service.model.dto.pagination.PageResponseCombatStyleDto;
 import com.lpa.demon_slayer_api_service.service.DemonSlayerApiService;
+import com.lpa.demon_slayer_api_service.service.catalog.CharacterCatalog;
+import com.lpa.demon_slayer_api_service.service.catalog.CharacterListQueries;
+import com.lpa.demon_slayer_api_service.service.crawl.CrawlResult;
+import com.lpa.demon_slayer_api_service.service.delta.ChangeEvent;
+import com.lpa.demon_slayer_api_service.service.delta.ChangeFeed;
+import com.lpa.demon_slayer_api_service.service.delta.ChangeFeeds;
+import com.lpa.demon_slayer_api_service.service.rendering.CollectionRenderer;
+import com.lpa.demon_slayer_api_service.service.rendering.FieldProjections;
 import com.lpa.demon_slayer_api_service.model.dto.character.CharacterSummaryDto;
 import com.lpa.demon_slayer_api_service.utils.TestUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.Duration;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.when;
 
 @WebFluxTest(DemonSlayerApiController.class)
+@Import({CollectionRenderer.class, FieldProjections.class, CharacterListQueries.class})
+@EnableConfigurationProperties({PaginationProperties.class, ChangeFeedProperties.class})
 class DemonSlayerApiControllerTest {
 
     @Autowired
@@ -34,6 +62,12 @@ class DemonSlayerApiControllerTest {
     @MockitoBean
     private DemonSlayerApiService demonSlayerApiService;
 
+    @MockitoBean
+    private CharacterCatalog characterCatalog;
+
+    @MockitoBean
+    private ChangeFeeds changeFeeds;
+
     @Test
     void getAllCharacters_returnsListOfCharacterDtoSortedById() throws Exception {
         String charactersJsonMock = TestUtils.loadJson("characters-mock.json");
@@ -41,12 +75,13 @@ class DemonSlayerApiControllerTest {
         PageResponseCharacterSummaryDto pageResponseCharacterSummary = mapper.readValue(charactersJsonMock, PageResponseCharacterSummaryDto.class);
         assertNotNull(pageResponseCharacterSummary);
         List<CharacterSummaryDto> charactersDto = pageResponseCharacterSummary.content();
-        when(demonSlayerApiService.getAllCharacters())
-                .thenReturn(Flux.fromIterable(charactersDto));
+        when(demonSlayerApiService.getCharactersSnapshot())
+                .thenReturn(Mono.just(new CrawlResult<>(charactersDto, List.of())));
         webTestClient.get()
                 .uri("/api/characters")
                 .exchange() //sends the simulated HTTP request to our controller
                 .expectStatus().isOk()
+                .expectHeader().doesNotExist(DemonSlayerApiController.PARTIAL_PAGES_HEADER)
                 .expectBodyList(CharacterSummaryDto.class)
                 .hasSize(charactersDto.size())
                 .consumeWith(response -> { //allows you to obtain the body of the response and make assertions on it
@@ -55,13 +90,191 @@ class DemonSlayerApiControllerTest {
                 });
     }
 
+    @Test
+    void getAllCharacters_matchingIfNoneMatch_returnsNotModified() throws Exception {
+        String charactersJsonMock = TestUtils.loadJson("characters-mock.json");
+        ObjectMapper mapper = new ObjectMapper();
+        List<CharacterSummaryDto> charactersDto = mapper.readValue(charactersJsonMock, PageResponseCharacterSummaryDto.class).content();
+        when(demonSlayerApiService.getCharactersSnapshot())
+                .thenReturn(Mono.just(new CrawlResult<>(charactersDto, List.of(), "\"v1\"")));
+        webTestClient.get()
+                .uri("/api/characters")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"v1\"");
+        webTestClient.get()
+                .uri("/api/characters")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"v1\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    void getAllCharacters_acceptGzip_returnsPreCompressedBody() throws Exception {
+        String charactersJsonMock = TestUtils.loadJson("characters-mock.json");
+        ObjectMapper mapper = new ObjectMapper();
+        List<CharacterSummaryDto> charactersDto = mapper.readValue(charactersJsonMock, PageResponseCharacterSummaryDto.class).content();
+        when(demonSlayerApiService.getCharactersSnapshot())
+                .thenReturn(Mono.just(new CrawlResult<>(charactersDto, List.of(), "\"v1\"")));
+        byte[] gzipped = webTestClient.get()
+                .uri("/api/characters")
+                .header(HttpHeaders.ACCEPT_ENCODING, "br, gzip;q=0.8")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .expectHeader().valueEquals(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"v1-gzip\"") //each representation has its own strong ETag
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+                .expectBody(byte[].class)
+                .returnResult()
+                .getResponseBody();
+        assertNotNull(gzipped);
+        List<CharacterSummaryDto> decoded = List.of(mapper.readValue(gunzip(gzipped), CharacterSummaryDto[].class));
+        assertEquals(charactersDto, decoded);
+        webTestClient.get()
+                .uri("/api/characters")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0") //refused coding
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist(HttpHeaders.CONTENT_ENCODING)
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"v1\"")
+                .expectBodyList(CharacterSummaryDto.class)
+                .hasSize(charactersDto.size());
+    }
+
+    @Test
+    void getCharacterById_matchingIfNoneMatch_returnsNotModified() throws Exception {
+        String characterJsonMock = TestUtils.loadJson("character-mock.json");
+        ObjectMapper mapper = new ObjectMapper();
+        CharacterDto characterDto = mapper.readValue(characterJsonMock, CharacterResponseDto.class).content().getFirst();
+        when(characterCatalog.findCharacter(1L, null))
+                .thenReturn(Mono.just(characterDto));
+        when(characterCatalog.etagOf(characterDto))
+                .thenReturn("\"c1\"");
+        String etag = webTestClient.get()
+                .uri("/api/characters/1")
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(CharacterDto.class)
+                .getResponseHeaders()
+                .getETag();
+        assertEquals("\"c1\"", etag);
+        webTestClient.get()
+                .uri("/api/characters/1")
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .exchange()
+                .expectStatus().isNotModified();
+    }
+
+    @Test
+    void getAllCharacters_partialCrawl_listsMissingPages() throws Exception {
+        String charactersJsonMock = TestUtils.loadJson("characters-mock.json");
+        ObjectMapper mapper = new ObjectMapper();
+        List<CharacterSummaryDto> charactersDto = mapper.readValue(charactersJsonMock, PageResponseCharacterSummaryDto.class).content();
+        when(demonSlayerApiService.getCharactersSnapshot())
+                .thenReturn(Mono.just(new CrawlResult<>(charactersDto, List.of(3, 7))));
+        webTestClient.get()
+                .uri("/api/characters")
+                .exchange()
+                .expectStatus().isOk() //the retrieved pages are still served
+                .expectHeader().valueEquals(DemonSlayerApiController.PARTIAL_PAGES_HEADER, "3,7")
+                .expectBodyList(CharacterSummaryDto.class)
+                .hasSize(charactersDto.size());
+    }
+
+    @Test
+    void getAllCharacters_pageFilteredAndSortedByName_returnsThatPage() throws Exception {
+        String charactersJsonMock = TestUtils.loadJson("characters-mock.json");
+        ObjectMapper mapper = new ObjectMapper();
+        List<CharacterSummaryDto> charactersDto = mapper.readValue(charactersJsonMock, PageResponseCharacterSummaryDto.class).content();
+        when(demonSlayerApiService.getCharactersSnapshot())
+                .thenReturn(Mono.just(new CrawlResult<>(charactersDto, List.of(), "\"v1\"")));
+        webTestClient.get()
+                .uri("/api/characters?race=human&gender=MALE&sort=name&page=1&size=2")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(DemonSlayerApiController.TOTAL_COUNT_HEADER, "4")
+                .expectHeader().exists(HttpHeaders.ETAG)
+                .expectBodyList(CharacterSummaryDto.class)
+                .consumeWith(response -> { //Giyu, Sabito | Sakonji, Tanjiro
+                    assertNotNull(response.getResponseBody());
+                    assertEquals(List.of("Sakonji Urokodaki", "Tanjiro Kamado"),
+                            response.getResponseBody().stream().map(CharacterSummaryDto::name).toList());
+                });
+    }
+
+    @Test
+    void getAllCharacters_pageSizeAboveMax_returnsBadRequest() {
+        webTestClient.get()
+                .uri("/api/characters?size=1000")
+                .exchange()
+                .expectStatus().isBadRequest();
+        webTestClient.get()
+                .uri("/api/characters?sort=age")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void getAllCharacters_ndjson_streamsCharacters() throws Exception {
+        String charactersJsonMock = TestUtils.loadJson("characters-mock.json");
+        ObjectMapper mapper = new ObjectMapper();
+        List<CharacterSummaryDto> charactersDto = mapper.readValue(charactersJsonMock, PageResponseCharacterSummaryDto.class).content();
+        when(demonSlayerApiService.streamAllCharacters(true))
+                .thenReturn(Flux.fromIterable(charactersDto));
+        List<CharacterSummaryDto> streamed = webTestClient.get()
+                .uri("/api/characters")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(CharacterSummaryDto.class)
+                .getResponseBody() //one character per line, decoded as they arrive
+                .collectList()
+                .block();
+        assertNotNull(streamed);
+        assertEquals(charactersDto.size(), streamed.size());
+        assertEquals(1, streamed.getFirst().id());
+    }
+
+    @Test
+    void getCharacterChanges_resumesAfterTheLastEventId() {
+        Sinks.Many<ChangeEvent<CharacterSummaryDto>> changes = Sinks.many().multicast().directBestEffort();
+        ChangeFeed<CharacterSummaryDto> feed = new ChangeFeed<>("characters", changes.asFlux(), 16, 1, new SimpleMeterRegistry());
+        when(changeFeeds.characters()).thenReturn(feed);
+        changes.tryEmitNext(new ChangeEvent<>(ChangeEvent.Type.ADDED, 1L,
+                new CharacterSummaryDto(1L, "Tanjiro", "Male", "Human", "", "")));
+        changes.tryEmitNext(new ChangeEvent<>(ChangeEvent.Type.CHANGED, 1L,
+                new CharacterSummaryDto(1L, "Tanjiro Kamado", "Male", "Human", "", "")));
+        List<ServerSentEvent<JsonNode>> events = webTestClient.get()
+                .uri("/api/characters/changes")
+                .header(DemonSlayerApiController.LAST_EVENT_ID_HEADER, "1") //the "added" event has already been received
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM)
+                .returnResult(new ParameterizedTypeReference<ServerSentEvent<JsonNode>>() {})
+                .getResponseBody()
+                .take(1) //the feed never ends
+                .collectList()
+                .block(Duration.ofSeconds(5));
+        assertNotNull(events);
+        ServerSentEvent<JsonNode> event = events.getFirst();
+        assertEquals("2", event.id());
+        assertEquals("changed", event.event());
+        assertNotNull(event.data());
+        assertEquals("changed", event.data().get("type").asText());
+        assertEquals("Tanjiro Kamado", event.data().get("item").get("name").asText());
+    }
+
     @Test
     void getCharacterById_returnsCharacterDto() throws Exception {
         String characterJsonMock = TestUtils.loadJson("character-mock.json");
         ObjectMapper mapper = new ObjectMapper();
         CharacterResponseDto characterResponseDto = mapper.readValue(characterJsonMock, CharacterResponseDto.class);
         CharacterDto characterDto = characterResponseDto.content().getFirst(); //we obtain the character contained in th response
-        when(demonSlayerApiService.fetchCharacter(1L, null))
+        when(characterCatalog.findCharacter(1L, null))
                 .thenReturn(Mono.just(characterDto));
         webTestClient.get()
                 .uri("/api/characters/1")
@@ -74,13 +287,125 @@ class DemonSlayerApiControllerTest {
                 });
     }
 
+    @Test
+    void getCharactersByIds_returnsCharactersAndPerIdErrors() throws Exception {
+        String characterJsonMock = TestUtils.loadJson("character-mock.json");
+        ObjectMapper mapper = new ObjectMapper();
+        CharacterDto characterDto = mapper.readValue(characterJsonMock, CharacterResponseDto.class).content().getFirst();
+        when(characterCatalog.findCharacters(List.of(1L, 999L, 1L)))
+                .thenReturn(Mono.just(new CharacterBatchResponseDto(
+                        List.of(characterDto),
+                        List.of(new CharacterLookupErrorDto(999L, 404, "Character not found"))
+                )));
+        webTestClient.get()
+                .uri("/api/characters/batch?ids=1,999,1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.characters.length()").isEqualTo(1)
+                .jsonPath("$.characters[0].id").isEqualTo(1)
+                .jsonPath("$.errors[0].id").isEqualTo(999)
+                .jsonPath("$.errors[0].status").isEqualTo(404);
+    }
+
+    @Test
+    void postCharactersByIds_returnsCharacters() throws Exception {
+        String characterJsonMock = TestUtils.loadJson("character-mock.json");
+        ObjectMapper mapper = new ObjectMapper();
+        CharacterDto characterDto = mapper.readValue(characterJsonMock, CharacterResponseDto.class).content().getFirst();
+        when(characterCatalog.findCharacters(List.of(1L)))
+                .thenReturn(Mono.just(new CharacterBatchResponseDto(List.of(characterDto), List.of())));
+        webTestClient.post()
+                .uri("/api/characters/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new CharacterBatchRequestDto(List.of(1L)))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(CharacterBatchResponseDto.class)
+                .consumeWith(response -> {
+                    assertNotNull(response.getResponseBody());
+                    assertEquals(1, response.getResponseBody().characters().size());
+                    assertTrue(response.getResponseBody().errors().isEmpty());
+                });
+    }
+
+    @Test
+    void getAllCharacters_withFields_returnsOnlyTheseProperties() throws Exception {
+        String charactersJsonMock = TestUtils.loadJson("characters-mock.json");
+        ObjectMapper mapper = new ObjectMapper();
+        List<CharacterSummaryDto> charactersDto = mapper.readValue(charactersJsonMock, PageResponseCharacterSummaryDto.class).content();
+        when(demonSlayerApiService.getCharactersSnapshot())
+                .thenReturn(Mono.just(new CrawlResult<>(charactersDto, List.of(), "\"v1\"")));
+        webTestClient.get()
+                .uri("/api/characters?fields=name,id")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().value(HttpHeaders.ETAG, etag -> assertNotEquals("\"v1\"", etag)) //another representation
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(charactersDto.size())
+                .jsonPath("$[0].id").isEqualTo(1)
+                .jsonPath("$[0].name").isEqualTo(charactersDto.getFirst().name())
+                .jsonPath("$[0].description").doesNotExist()
+                .jsonPath("$[0].img").doesNotExist();
+    }
+
+    @Test
+    void getCharacterById_withNestedFields_projectsNestedObjects() throws Exception {
+        String characterJsonMock = TestUtils.loadJson("character-mock.json");
+        ObjectMapper mapper = new ObjectMapper();
+        CharacterDto characterDto = mapper.readValue(characterJsonMock, CharacterResponseDto.class).content().getFirst();
+        when(characterCatalog.findCharacter(1L, null))
+                .thenReturn(Mono.just(characterDto));
+        webTestClient.get()
+                .uri("/api/characters/1?fields=id,affiliation.name,combat_style.name")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists(HttpHeaders.ETAG)
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(1)
+                .jsonPath("$.name").doesNotExist()
+                .jsonPath("$.affiliation.name").isEqualTo(characterDto.affiliation().name())
+                .jsonPath("$.affiliation.description").doesNotExist()
+                .jsonPath("$.combat_style[0].name").exists()
+                .jsonPath("$.combat_style[0].description").doesNotExist();
+    }
+
+    @Test
+    void getCharactersByIds_withFields_projectsEachCharacter() throws Exception {
+        String characterJsonMock = TestUtils.loadJson("character-mock.json");
+        ObjectMapper mapper = new ObjectMapper();
+        CharacterDto characterDto = mapper.readValue(characterJsonMock, CharacterResponseDto.class).content().getFirst();
+        when(characterCatalog.findCharacters(List.of(1L, 999L)))
+                .thenReturn(Mono.just(new CharacterBatchResponseDto(
+                        List.of(characterDto),
+                        List.of(new CharacterLookupErrorDto(999L, 404, "Character not found"))
+                )));
+        webTestClient.get()
+                .uri("/api/characters/batch?ids=1,999&fields=id,img")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.characters[0].id").isEqualTo(1)
+                .jsonPath("$.characters[0].img").isEqualTo(characterDto.img())
+                .jsonPath("$.characters[0].name").doesNotExist()
+                .jsonPath("$.errors[0].message").isEqualTo("Character not found"); //errors are never projected
+    }
+
+    @Test
+    void getCharacterById_invalidFields_returnsBadRequest() {
+        webTestClient.get()
+                .uri("/api/characters/1?fields=affiliation.")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
     @Test
     void getCharacterByName_returnsCharacterDto() throws Exception {
         String characterJsonMock = TestUtils.loadJson("character-mock.json");
         ObjectMapper mapper = new ObjectMapper();
         CharacterResponseDto characterResponseDto = mapper.readValue(characterJsonMock, CharacterResponseDto.class);
         CharacterDto characterDto = characterResponseDto.content().getFirst(); //we obtain the character contained in th response
-        when(demonSlayerApiService.fetchCharacter(null, "Tanjiro Kamado"))
+        when(characterCatalog.findCharacter(null, "Tanjiro Kamado"))
                 .thenReturn(Mono.just(characterDto));
         webTestClient.get()
                 .uri("/api/characters/search?name=Tanjiro Kamado")
@@ -93,6 +418,45 @@ class DemonSlayerApiControllerTest {
                 });
     }
 
+    @Test
+    void searchCharacters_returnsRankedHitsFromTheCatalog() {
+        when(characterCatalog.search("tanj", 5))
+                .thenReturn(List.of(new CharacterSearchHitDto(1L, "Tanjiro Kamado", "1.webp", 4.8)));
+        webTestClient.get()
+                .uri("/api/characters/search?q=tanj&limit=5")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].id").isEqualTo(1)
+                .jsonPath("$[0].name").isEqualTo("Tanjiro Kamado");
+        webTestClient.get()
+                .uri("/api/characters/search?q=tanj&limit=0")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void getCharactersByCombatStyle_returnsCharactersFromTheCatalog() throws Exception {
+        String characterJsonMock = TestUtils.loadJson("character-mock.json");
+        ObjectMapper mapper = new ObjectMapper();
+        CharacterDto characterDto = mapper.readValue(characterJsonMock, CharacterResponseDto.class).content().getFirst();
+        when(characterCatalog.findCharactersByCombatStyle(1L)).thenReturn(List.of(characterDto));
+        when(characterCatalog.findCharactersByAffiliation("Demon Slayer")).thenReturn(List.of(characterDto));
+        webTestClient.get()
+                .uri("/api/combat-styles/1/characters?fields=id,name")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].id").isEqualTo(1)
+                .jsonPath("$[0].description").doesNotExist();
+        webTestClient.get()
+                .uri("/api/affiliations/Demon Slayer/characters")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(CharacterDto.class)
+                .hasSize(1);
+    }
+
     @Test
     void getCombatStyles_returnsListOfCombatStyleDtoSortedById() throws Exception {
         String combatStylesJsonMock = TestUtils.loadJson("combat-styles-mock.json");
@@ -100,8 +464,8 @@ class DemonSlayerApiControllerTest {
         PageResponseCombatStyleDto pageResponseCombatStyleDto = mapper.readValue(combatStylesJsonMock, PageResponseCombatStyleDto.class);
         assertNotNull(pageResponseCombatStyleDto);
         List<CombatStyleDto> combatStylesDto = pageResponseCombatStyleDto.content();
-        when(demonSlayerApiService.getAllCombatStyles())
-                .thenReturn(Flux.fromIterable(combatStylesDto));
+        when(demonSlayerApiService.getCombatStylesSnapshot())
+                .thenReturn(Mono.just(new CrawlResult<>(combatStylesDto, List.of())));
         webTestClient.get()
                 .uri("/api/combat-styles")
                 .exchange() //sends the simulated HTTP request to our controller
@@ -125,7 +489,7 @@ class DemonSlayerApiControllerTest {
                 errorMessage,
                 HttpStatus.NOT_FOUND
         );
-        when(demonSlayerApiService.fetchCharacter(999L, null))
+        when(characterCatalog.findCharacter(999L, null))
                 .thenThrow(dsException);
         webTestClient.get()
                 .uri("/api/characters/999")
@@ -136,4 +500,10 @@ class DemonSlayerApiControllerTest {
                 .isEqualTo(dsException.getMessage());
 
     }
+
+    private static byte[] gunzip(byte[] gzipped) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            return in.readAllBytes();
+        }
+    }
 }
@@ -2,11 +2,25 @@ package com.lpa.demon_slayer_api_service.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.lpa.demon_slayer_api_service.config.CacheProperties;
+import com.lpa.demon_slayer_api_service.config.CatalogProperties;
+import com.lpa.demon_slayer_api_service.config.CrawlProperties;
+import com.lpa.demon_slayer_api_service.config.RateLimitProperties;
+import com.lpa.demon_slayer_api_service.config.ResilienceProperties;
+import com.lpa.demon_slayer_api_service.config.SnapshotProperties;
+import com.lpa.demon_slayer_api_service.config.UpstreamClientProperties;
+import com.lpa.demon_slayer_api_service.exception.CallNotPermittedException;
 import com.lpa.demon_slayer_api_service.exception.DemonSlayerApiException;
 import com.lpa.demon_slayer_api_service.model.dto.CombatStyleDto;
 import com.lpa.demon_slayer_api_service.model.dto.character.CharacterDto;
 import com.lpa.demon_slayer_api_service.model.dto.character.CharacterSummaryDto;
+import com.lpa.demon_slayer_api_service.service.cache.SnapshotStore;
+import com.lpa.demon_slayer_api_service.service.catalog.CharacterCatalog;
+import com.lpa.demon_slayer_api_service.service.delta.ChangeEvent;
 import com.lpa.demon_slayer_api_service.utils.TestUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
@@ -17,10 +31,16 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.UriUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -48,12 +68,24 @@ class DemonSlayerApiServiceTest {
 
     @BeforeEach
     void initialize() {
+        this.demonSlayerApiService = newService(Map.of(), Map.of(), new SimpleMeterRegistry());
+    }
+
+    private DemonSlayerApiService newService(Map<String, String> cacheOverrides, Map<String, String> resilienceOverrides,
+                                             MeterRegistry meterRegistry) {
         String mockBaseUrl = String.format("http://localhost:%s", mockWebServer.getPort());
-        this.demonSlayerApiService = new DemonSlayerApiService(WebClient.builder(), mockBaseUrl,
+        log.info("MockWebServer running on {}", mockBaseUrl);
+        return new DemonSlayerApiService(WebClient.builder(), mockBaseUrl,
                 "/characters",
-                "/combat-styles"
+                "/combat-styles",
+                TestUtils.bindProperties("api.demonslayer.cache", CacheProperties.class, cacheOverrides),
+                TestUtils.bindProperties("api.demonslayer.crawl", CrawlProperties.class),
+                TestUtils.bindProperties("api.demonslayer.resilience", ResilienceProperties.class, resilienceOverrides),
+                TestUtils.bindProperties("api.demonslayer.upstream-client", UpstreamClientProperties.class),
+                TestUtils.bindProperties("api.demonslayer.rate-limit", RateLimitProperties.class),
+                new SnapshotStore(TestUtils.bindProperties("api.demonslayer.snapshot", SnapshotProperties.class, Map.of("enabled", "false")), meterRegistry),
+                meterRegistry
                 );
-        log.info("MockWebServer running on {}", mockBaseUrl);
     }
 
     @Test
@@ -70,6 +102,96 @@ class DemonSlayerApiServiceTest {
         assertEquals(1, firstCharacterDto.id());
     }
 
+    @Test
+    void getAllCharacters_secondCallIsServedFromSnapshotCache() throws IOException, InterruptedException {
+        String charactersJsonMock = TestUtils.loadJson("characters-mock.json");
+        enqueueMockServer(charactersJsonMock, MediaType.APPLICATION_JSON, HttpStatus.OK);
+        int requestCountBefore = mockWebServer.getRequestCount();
+        List<CharacterSummaryDto> firstCall = demonSlayerApiService.getAllCharacters().collectList().block();
+        List<CharacterSummaryDto> secondCall = demonSlayerApiService.getAllCharacters().collectList().block();
+        checkRequest(HttpMethod.GET, "/characters?page=1&limit=10");
+        assertEquals(1, mockWebServer.getRequestCount() - requestCountBefore); //the second call never reached the upstream API
+        assertNotNull(firstCall);
+        assertEquals(firstCall, secondCall);
+    }
+
+    @Test
+    void getAllCharacters_unchangedPage_isRevalidatedWithItsETag() throws IOException, InterruptedException {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        DemonSlayerApiService service = newService(Map.of("ttl", "0s", "max-staleness", "0s"), Map.of(), meterRegistry); //every read crawls
+        String charactersJsonMock = TestUtils.loadJson("characters-mock.json");
+        mockWebServer.enqueue(new MockResponse()
+                .setResponseCode(HttpStatus.OK.value())
+                .setBody(charactersJsonMock)
+                .addHeader("Content-Type", MediaType.APPLICATION_JSON)
+                .addHeader("ETag", "\"page-1-v1\"")
+        );
+        mockWebServer.enqueue(new MockResponse().setResponseCode(HttpStatus.NOT_MODIFIED.value()));
+        var firstCrawl = service.getCharactersSnapshot().block();
+        var secondCrawl = service.getCharactersSnapshot().block();
+        checkRequest(HttpMethod.GET, "/characters?page=1&limit=10");
+        RecordedRequest conditionalRequest = mockWebServer.takeRequest();
+        assertEquals("\"page-1-v1\"", conditionalRequest.getHeader("If-None-Match"));
+        assertNotNull(firstCrawl);
+        assertNotNull(secondCrawl);
+        assertEquals(firstCrawl.items(), secondCrawl.items()); //the previous copy of the page has been reused
+        assertNotNull(firstCrawl.etag());
+        assertEquals(firstCrawl.etag(), secondCrawl.etag()); //same content, same strong ETag
+        assertEquals(1, meterRegistry.find("demonslayer.crawl.pages.not.modified").counter().count());
+    }
+
+    @Test
+    void getAllCombatStyles_pageNoLongerCrawled_isNotRevalidatedAnymore() throws IOException, InterruptedException {
+        DemonSlayerApiService service = newService(Map.of("ttl", "0s", "max-staleness", "0s"), Map.of(), new SimpleMeterRegistry()); //every read crawls
+        ObjectMapper mapper = new ObjectMapper();
+        ObjectNode onePage = (ObjectNode) mapper.readTree(TestUtils.loadJson("combat-styles-mock.json"));
+        ObjectNode twoPages = onePage.deepCopy();
+        ((ObjectNode) twoPages.get("pagination")).put("totalPages", 2);
+        ObjectNode secondPage = twoPages.deepCopy();
+        ((ObjectNode) secondPage.get("pagination")).put("currentPage", 2);
+        secondPage.get("content").forEach(combatStyle -> ((ObjectNode) combatStyle).put("id", combatStyle.get("id").asLong() + 100));
+        enqueueWithETag(mapper.writeValueAsString(twoPages), "\"page-1-v1\"");
+        enqueueWithETag(mapper.writeValueAsString(secondPage), "\"page-2-v1\"");
+        enqueueWithETag(mapper.writeValueAsString(onePage), "\"page-1-v2\""); //the collection shrank to one page
+        enqueueWithETag(mapper.writeValueAsString(twoPages), "\"page-1-v3\""); //and grew back
+        enqueueWithETag(mapper.writeValueAsString(secondPage), "\"page-2-v1\"");
+        for (int i = 0; i < 3; i++)
+            service.getCombatStylesSnapshot().block();
+        checkRequest(HttpMethod.GET, "/combat-styles?page=1&limit=10");
+        checkRequest(HttpMethod.GET, "/combat-styles?page=2&limit=10");
+        assertEquals("\"page-1-v1\"", mockWebServer.takeRequest().getHeader("If-None-Match"));
+        assertEquals("\"page-1-v2\"", mockWebServer.takeRequest().getHeader("If-None-Match"));
+        RecordedRequest secondPageAgain = mockWebServer.takeRequest();
+        assertEquals("/combat-styles?page=2&limit=10", secondPageAgain.getPath());
+        assertNull(secondPageAgain.getHeader("If-None-Match")); //dropped by the crawl that did not request it
+    }
+
+    @Test
+    void getAllCharacters_sameContent_keepsTheSnapshotAndChangesAreEmitted() throws IOException, InterruptedException {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        DemonSlayerApiService service = newService(Map.of("ttl", "0s", "max-staleness", "0s"), Map.of(), meterRegistry); //every read crawls
+        List<ChangeEvent<CharacterSummaryDto>> events = new ArrayList<>();
+        service.characterChanges().subscribe(events::add);
+        String charactersJsonMock = TestUtils.loadJson("characters-mock.json");
+        enqueueMockServer(charactersJsonMock, MediaType.APPLICATION_JSON, HttpStatus.OK);
+        enqueueMockServer(charactersJsonMock, MediaType.APPLICATION_JSON, HttpStatus.OK); //no validator, same bytes
+        enqueueMockServer(charactersJsonMock.replace("Tanjiro Kamado", "Tanjiro"), MediaType.APPLICATION_JSON, HttpStatus.OK);
+        var firstCrawl = service.getCharactersSnapshot().block();
+        var secondCrawl = service.getCharactersSnapshot().block();
+        var thirdCrawl = service.getCharactersSnapshot().block();
+        for (int i = 0; i < 3; i++)
+            checkRequest(HttpMethod.GET, "/characters?page=1&limit=10");
+        assertNotNull(firstCrawl);
+        assertNotNull(thirdCrawl);
+        assertSame(firstCrawl, secondCrawl); //the page was not decoded again, the snapshot is kept as is
+        assertEquals(1, meterRegistry.find("demonslayer.crawl.pages.unchanged").counter().count());
+        assertNotEquals(firstCrawl.etag(), thirdCrawl.etag());
+        assertEquals(firstCrawl.size(), thirdCrawl.size());
+        assertEquals(1, events.size());
+        assertEquals(ChangeEvent.Type.CHANGED, events.getFirst().type());
+        assertEquals("Tanjiro", events.getFirst().item().name());
+    }
+
     @Test
     void getCharacterById_returnsCharacterDto() throws InterruptedException, IOException {
         String characterJsonMock = TestUtils.loadJson("character-mock.json");
@@ -81,6 +203,206 @@ class DemonSlayerApiServiceTest {
         assertEquals(1, characterDto.id());
     }
 
+    @Test
+    void fetchCharacter_concurrentLookupsShareOneUpstreamCall() throws IOException, InterruptedException {
+        String characterJsonMock = TestUtils.loadJson("character-mock.json");
+        mockWebServer.enqueue(new MockResponse()
+                .setResponseCode(HttpStatus.OK.value())
+                .setBody(characterJsonMock)
+                .addHeader("Content-Type", MediaType.APPLICATION_JSON)
+                .setHeadersDelay(300, TimeUnit.MILLISECONDS) //keeps the first call in flight while the others arrive
+        );
+        int requestCountBefore = mockWebServer.getRequestCount();
+        List<CharacterDto> charactersDto = Flux.range(0, 20)
+                .flatMap(_ -> demonSlayerApiService.fetchCharacter(1L, null))
+                .collectList()
+                .block();
+        checkRequest(HttpMethod.GET, "/characters?id=1");
+        assertEquals(1, mockWebServer.getRequestCount() - requestCountBefore);
+        assertNotNull(charactersDto);
+        assertEquals(20, charactersDto.size());
+    }
+
+    @Test
+    void fetchCharacter_sameNameSharesOneUpstreamCall() throws IOException, InterruptedException {
+        String characterJsonMock = TestUtils.loadJson("character-mock.json");
+        mockWebServer.enqueue(new MockResponse()
+                .setResponseCode(HttpStatus.OK.value())
+                .setBody(characterJsonMock)
+                .addHeader("Content-Type", MediaType.APPLICATION_JSON)
+                .setHeadersDelay(300, TimeUnit.MILLISECONDS)
+        );
+        int requestCountBefore = mockWebServer.getRequestCount();
+        List<CharacterDto> charactersDto = Flux.just("Tanjiro Kamado", "Tanjiro Kamado", "Tanjiro Kamado")
+                .flatMap(name -> demonSlayerApiService.fetchCharacter(null, name))
+                .collectList()
+                .block();
+        mockWebServer.takeRequest();
+        assertEquals(1, mockWebServer.getRequestCount() - requestCountBefore);
+        assertNotNull(charactersDto);
+        assertEquals(3, charactersDto.size());
+    }
+
+    @Test
+    void fetchCharacter_otherSpellingsAreSentAsIs() throws IOException, InterruptedException {
+        String characterJsonMock = TestUtils.loadJson("character-mock.json");
+        String errorJson = "{\"error\":{\"status\":500,\"message\":\"Internal server error\"}}";
+        enqueueMockServer(characterJsonMock, MediaType.APPLICATION_JSON, HttpStatus.OK);
+        enqueueMockServer(errorJson, MediaType.APPLICATION_JSON, HttpStatus.INTERNAL_SERVER_ERROR);
+        assertNotNull(demonSlayerApiService.fetchCharacter(null, "Tanjiro Kamado").block());
+        //another spelling is its own upstream call, and does not fall back on the copy of the first one
+        assertThrows(Throwable.class, () -> demonSlayerApiService.fetchCharacter(null, "tanjiro  KAMADO").block());
+        checkRequest(HttpMethod.GET, "/characters?name=" + UriUtils.encodeQueryParam("Tanjiro Kamado", StandardCharsets.UTF_8));
+        checkRequest(HttpMethod.GET, "/characters?name=" + UriUtils.encodeQueryParam("tanjiro  KAMADO", StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void fetchCharacter_unknownName_notFoundMessageNamesIt() throws InterruptedException {
+        enqueueMockServer("{\"content\":[]}", MediaType.APPLICATION_JSON, HttpStatus.OK);
+        Throwable thrown = assertThrows(Throwable.class, () -> demonSlayerApiService.fetchCharacter(null, "Zenitsu").block());
+        DemonSlayerApiException dsEx = assertInstanceOf(DemonSlayerApiException.class, thrown.getCause());
+        assertEquals(HttpStatus.NOT_FOUND, dsEx.getStatus());
+        assertEquals("Character with name Zenitsu not found.", dsEx.getMessage());
+        checkRequest(HttpMethod.GET, "/characters?name=Zenitsu");
+    }
+
+    @Test
+    void fetchCharacter_upstreamKeepsFailing_opensCircuitAndServesLastKnownGood() throws IOException, InterruptedException {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        DemonSlayerApiService service = newService(Map.of(), Map.of(
+                "circuit-breaker.sliding-window-size", "2",
+                "circuit-breaker.minimum-calls", "2",
+                "circuit-breaker.open-duration", "1m"
+        ), meterRegistry);
+        String characterJsonMock = TestUtils.loadJson("character-mock.json");
+        String errorJson = "{\"error\":{\"status\":500,\"message\":\"Internal server error\"}}";
+        enqueueMockServer(characterJsonMock, MediaType.APPLICATION_JSON, HttpStatus.OK);
+        enqueueMockServer(errorJson, MediaType.APPLICATION_JSON, HttpStatus.INTERNAL_SERVER_ERROR);
+        enqueueMockServer(errorJson, MediaType.APPLICATION_JSON, HttpStatus.INTERNAL_SERVER_ERROR);
+
+        assertNotNull(service.fetchCharacter(1L, null).block()); //remembered as the last known good response
+        assertThrows(Throwable.class, () -> service.fetchCharacter(2L, null).block());
+        assertThrows(Throwable.class, () -> service.fetchCharacter(3L, null).block()); //2 failures out of 2 calls: the circuit opens
+        checkRequest(HttpMethod.GET, "/characters?id=1");
+        checkRequest(HttpMethod.GET, "/characters?id=2");
+        checkRequest(HttpMethod.GET, "/characters?id=3");
+        int requestCountBefore = mockWebServer.getRequestCount();
+
+        Throwable rejected = assertThrows(Throwable.class, () -> service.fetchCharacter(4L, null).block()); //fails fast
+        assertInstanceOf(CallNotPermittedException.class, rejected.getCause());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, ((CallNotPermittedException) rejected.getCause()).getStatus());
+        CharacterDto fallback = service.fetchCharacter(1L, null).block(); //served from the last successful response
+        assertNotNull(fallback);
+        assertEquals(1, fallback.id());
+        assertEquals(requestCountBefore, mockWebServer.getRequestCount()); //upstream has not been called while the circuit is open
+        assertEquals(2, meterRegistry.find("demonslayer.circuit.rejected").tag("breaker", "lookup").counter().count());
+        assertEquals(1, meterRegistry.find("demonslayer.upstream.fallbacks").tag("pool", "lookup").counter().count());
+        assertEquals(1, meterRegistry.find("demonslayer.circuit.transitions").tag("breaker", "lookup").tag("to", "open").counter().count());
+    }
+
+    @Test
+    void fetchCharacter_throttledByUpstream_isQueuedAgainAfterRetryAfter() throws IOException, InterruptedException {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        DemonSlayerApiService service = newService(Map.of(), Map.of(), meterRegistry);
+        String characterJsonMock = TestUtils.loadJson("character-mock.json");
+        mockWebServer.enqueue(new MockResponse()
+                .setResponseCode(HttpStatus.TOO_MANY_REQUESTS.value())
+                .addHeader("Retry-After", "1")
+        );
+        enqueueMockServer(characterJsonMock, MediaType.APPLICATION_JSON, HttpStatus.OK);
+        long start = System.nanoTime();
+        CharacterDto characterDto = service.fetchCharacter(1L, null).block();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        checkRequest(HttpMethod.GET, "/characters?id=1");
+        checkRequest(HttpMethod.GET, "/characters?id=1");
+        assertNotNull(characterDto); //the 429 has not reached the caller
+        assertTrue(elapsedMillis >= 1000, "the second attempt waited for Retry-After, took " + elapsedMillis + " ms");
+        assertEquals(1, meterRegistry.find("demonslayer.ratelimit.throttled").counter().count());
+        assertEquals(1, meterRegistry.find("demonslayer.ratelimit.pauses").counter().count());
+        assertEquals(2, meterRegistry.find("demonslayer.ratelimit.wait").tag("priority", "interactive").timer().count());
+    }
+
+    @Test
+    void fetchCharacter_retryAfterLongerThanTheTimeout_doesNotOpenTheCircuit() throws IOException, InterruptedException {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        DemonSlayerApiService service = newService(Map.of(), Map.of(
+                "lookup-timeout", "500ms",
+                "circuit-breaker.sliding-window-size", "1",
+                "circuit-breaker.minimum-calls", "1" //a single failure would open the circuit
+        ), meterRegistry);
+        mockWebServer.enqueue(new MockResponse()
+                .setResponseCode(HttpStatus.TOO_MANY_REQUESTS.value())
+                .addHeader("Retry-After", "1")
+        );
+        enqueueMockServer(TestUtils.loadJson("character-mock.json"), MediaType.APPLICATION_JSON, HttpStatus.OK);
+        CharacterDto characterDto = service.fetchCharacter(1L, null).block();
+        checkRequest(HttpMethod.GET, "/characters?id=1");
+        checkRequest(HttpMethod.GET, "/characters?id=1");
+        assertNotNull(characterDto); //the wait behind the pause did not count against the lookup timeout
+        assertEquals(0, meterRegistry.find("demonslayer.circuit.state").tag("breaker", "lookup").gauge().value()); //still closed
+        assertNull(meterRegistry.find("demonslayer.circuit.transitions").tag("breaker", "lookup").counter());
+        assertEquals(0, meterRegistry.find("demonslayer.bulkhead.in.flight").tag("bulkhead", "lookup").gauge().value());
+    }
+
+    @Test
+    void fetchCharacter_upstreamKeepsThrottling_returns503() throws IOException, InterruptedException {
+        for (int i = 0; i < 3; i++) //the first attempt and the 2 attempts queued again
+            mockWebServer.enqueue(new MockResponse()
+                    .setResponseCode(HttpStatus.TOO_MANY_REQUESTS.value())
+                    .addHeader("Retry-After", "0")
+            );
+        Throwable thrown = assertThrows(Throwable.class, () -> demonSlayerApiService.fetchCharacter(1L, null).block());
+        for (int i = 0; i < 3; i++)
+            checkRequest(HttpMethod.GET, "/characters?id=1");
+        assertInstanceOf(DemonSlayerApiException.class, thrown.getCause());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, ((DemonSlayerApiException) thrown.getCause()).getStatus()); //our quota, not the client's
+    }
+
+    @Test
+    void catalogRefresh_lookupsWaitForTheRateLimiterAsBackground() throws IOException, InterruptedException {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        DemonSlayerApiService service = newService(Map.of(), Map.of(), meterRegistry);
+        CharacterCatalog catalog = new CharacterCatalog(service, new CatalogProperties(true, 4, 4, 100),
+                TestUtils.bindProperties("api.demonslayer.resilience", ResilienceProperties.class), meterRegistry);
+        enqueueMockServer(TestUtils.loadJson("characters-mock.json"), MediaType.APPLICATION_JSON, HttpStatus.OK);
+        String characterJsonMock = TestUtils.loadJson("character-mock.json");
+        for (int i = 0; i < 5; i++) //one lookup per character of the page
+            enqueueMockServer(characterJsonMock, MediaType.APPLICATION_JSON, HttpStatus.OK);
+        catalog.refresh().block();
+        for (int i = 0; i < 6; i++)
+            mockWebServer.takeRequest();
+        assertEquals(6, meterRegistry.find("demonslayer.ratelimit.wait").tag("priority", "background").timer().count()); //the page and the lookups
+        assertEquals(0, meterRegistry.find("demonslayer.ratelimit.wait").tag("priority", "interactive").timer().count());
+    }
+
+    @Test
+    void catalogRefreshAndBatch_atTheSameTime_doNotShareTheLookupBulkhead() throws IOException, InterruptedException {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        Map<String, String> bulkheads = Map.of("bulkhead.lookup-max-concurrent", "5", "bulkhead.refresh-max-concurrent", "4");
+        DemonSlayerApiService service = newService(Map.of(), bulkheads, meterRegistry);
+        CharacterCatalog catalog = new CharacterCatalog(service, new CatalogProperties(true, 4, 2, 100),
+                TestUtils.bindProperties("api.demonslayer.resilience", ResilienceProperties.class, bulkheads), meterRegistry);
+        enqueueMockServer(TestUtils.loadJson("characters-mock.json"), MediaType.APPLICATION_JSON, HttpStatus.OK);
+        String characterJsonMock = TestUtils.loadJson("character-mock.json");
+        for (int i = 0; i < 7; i++) //5 refresh lookups and 2 batch lookups
+            mockWebServer.enqueue(new MockResponse()
+                    .setResponseCode(HttpStatus.OK.value())
+                    .setBody(characterJsonMock)
+                    .addHeader("Content-Type", MediaType.APPLICATION_JSON)
+                    .setHeadersDelay(1, TimeUnit.SECONDS) //keeps the refresh lookups in flight while the batch arrives
+            );
+        var results = Mono.zip(catalog.refresh(),
+                        Mono.delay(Duration.ofMillis(300)).then(catalog.findCharacters(List.of(101L, 102L))))
+                .block();
+        for (int i = 0; i < 8; i++)
+            mockWebServer.takeRequest();
+        assertNotNull(results);
+        assertTrue(results.getT2().errors().isEmpty()); //6 lookups in flight, one more than the lookup bulkhead
+        assertEquals(2, results.getT2().characters().size());
+        assertEquals(0, meterRegistry.find("demonslayer.bulkhead.rejected").tag("bulkhead", "lookup").counter().count());
+        assertEquals(0, meterRegistry.find("demonslayer.bulkhead.rejected").tag("bulkhead", "refresh").counter().count());
+    }
+
     @Test
     void getCharacterByName_returnsCharacterDto() throws InterruptedException, IOException {
         String characterJsonMock = TestUtils.loadJson("character-mock.json");
@@ -107,6 +429,58 @@ class DemonSlayerApiServiceTest {
         assertEquals(1, firstCombatStyle.id());
     }
 
+    @Test
+    void getAllCombatStyles_nextPagesAreRequestedFromTheCombatStylesEndpoint() throws IOException, InterruptedException {
+        ObjectMapper mapper = new ObjectMapper();
+        ObjectNode firstPage = (ObjectNode) mapper.readTree(TestUtils.loadJson("combat-styles-mock.json"));
+        ((ObjectNode) firstPage.get("pagination")).put("totalPages", 2);
+        ObjectNode secondPage = firstPage.deepCopy();
+        ((ObjectNode) secondPage.get("pagination")).put("currentPage", 2);
+        secondPage.get("content").forEach(combatStyle -> ((ObjectNode) combatStyle).put("id", combatStyle.get("id").asLong() + 100));
+        enqueueMockServer(mapper.writeValueAsString(firstPage), MediaType.APPLICATION_JSON, HttpStatus.OK);
+        enqueueMockServer(mapper.writeValueAsString(secondPage), MediaType.APPLICATION_JSON, HttpStatus.OK);
+        List<CombatStyleDto> combatStylesDto = demonSlayerApiService.getAllCombatStyles().collectList().block();
+        checkRequest(HttpMethod.GET, "/combat-styles?page=1&limit=10");
+        checkRequest(HttpMethod.GET, "/combat-styles?page=2&limit=10"); //not the characters endpoint
+        assertNotNull(combatStylesDto);
+        assertEquals(firstPage.get("content").size() * 2, combatStylesDto.size());
+        assertEquals(101L, combatStylesDto.get(firstPage.get("content").size()).id());
+    }
+
+    @Test
+    void getAllCombatStyles_transientUpstreamErrorIsRetried()throws IOException, InterruptedException {
+        String combatStylesJsonMock = TestUtils.loadJson("combat-styles-mock.json");
+        enqueueMockServer("{\"error\":{\"status\":503,\"message\":\"Service unavailable\"}}", MediaType.APPLICATION_JSON, HttpStatus.SERVICE_UNAVAILABLE);
+        enqueueMockServer(combatStylesJsonMock, MediaType.APPLICATION_JSON, HttpStatus.OK);
+        List<CombatStyleDto> combatStylesDto = demonSlayerApiService.getAllCombatStyles()
+                .collectList()
+                .block();
+        checkRequest(HttpMethod.GET, "/combat-styles?page=1&limit=10"); //the failed attempt
+        checkRequest(HttpMethod.GET, "/combat-styles?page=1&limit=10"); //the retry
+        assertNotNull(combatStylesDto);
+        assertEquals(1, combatStylesDto.getFirst().id());
+    }
+
+    @Test
+    void getAllCombatStyles_upstreamRequestsAndErrorsAreMeasured() throws IOException, InterruptedException {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        DemonSlayerApiService service = newService(Map.of(), Map.of(), meterRegistry);
+        String combatStylesJsonMock = TestUtils.loadJson("combat-styles-mock.json");
+        enqueueMockServer("{\"error\":{\"status\":503,\"message\":\"Service unavailable\"}}", MediaType.APPLICATION_JSON, HttpStatus.SERVICE_UNAVAILABLE);
+        enqueueMockServer(combatStylesJsonMock, MediaType.APPLICATION_JSON, HttpStatus.OK);
+        service.getAllCombatStyles().collectList().block();
+        checkRequest(HttpMethod.GET, "/combat-styles?page=1&limit=10");
+        checkRequest(HttpMethod.GET, "/combat-styles?page=1&limit=10");
+        assertEquals(1, meterRegistry.find("demonslayer.upstream.errors")
+                .tag("endpoint", "/combat-styles").tag("status", "503").counter().count());
+        assertEquals(1, meterRegistry.find("demonslayer.upstream.requests")
+                .tag("endpoint", "/combat-styles").tag("kind", "page").tag("page", "1").tag("outcome", "server_error")
+                .timer().count());
+        assertEquals(1, meterRegistry.find("demonslayer.upstream.requests")
+                .tag("endpoint", "/combat-styles").tag("kind", "page").tag("page", "1").tag("status", "200")
+                .timer().count());
+    }
+
     @Test
     void getCharacterById_404_shouldReturnDemonSlayerException() throws DemonSlayerApiException, InterruptedException, IOException {
         String errorJsonMock = TestUtils.loadJson("character-not-found-mock.json");
@@ -142,6 +516,15 @@ class DemonSlayerApiServiceTest {
         assertEquals(url, request.getPath()); //we check the URL called
     }
 
+    private void enqueueWithETag(String body, String etag) {
+        mockWebServer.enqueue(new MockResponse()
+                .setResponseCode(HttpStatus.OK.value())
+                .setBody(body)
+                .addHeader("Content-Type", MediaType.APPLICATION_JSON)
+                .addHeader("ETag", etag)
+        );
+    }
+
     /**
       * Method used to queue a response from the MockWebServer
       *
@@ -0,0 +1,142 @@
+package com.lpa.demon_slayer_api_service.service.cache;
+
+import com.lpa.demon_slayer_api_service.config.CacheProperties;
+import com.lpa.demon_slayer_api_service.utils.MutableClock;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotCacheTest {
+
+    private static final CacheProperties PROPERTIES = new CacheProperties(
+            Duration.ofMinutes(5),
+            Duration.ofHours(1),
+            Duration.ofHours(6),
+            true
+    );
+
+    private MutableClock clock;
+    private SimpleMeterRegistry meterRegistry;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void initialize() {
+        clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+        meterRegistry = new SimpleMeterRegistry();
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void get_withinTtl_isServedWithoutLoading() {
+        SnapshotCache<List<Long>> cache = cache(() -> Mono.just(List.of(loads.incrementAndGet() * 1L)));
+        assertEquals(List.of(1L), cache.get().block());
+        clock.advance(Duration.ofMinutes(4));
+        assertEquals(List.of(1L), cache.get().block());
+        assertEquals(1, loads.get());
+        assertEquals(1, counter("demonslayer.cache.requests", "hit"));
+        assertEquals(1, counter("demonslayer.cache.requests", "miss"));
+    }
+
+    @Test
+    void get_afterTtl_servesStaleSnapshotAndRefreshesInBackground() {
+        SnapshotCache<List<Long>> cache = cache(() -> Mono.just(List.of(loads.incrementAndGet() * 1L)));
+        cache.get().block();
+        clock.advance(Duration.ofMinutes(10));
+        assertEquals(List.of(1L), cache.get().block()); //the stale snapshot is served
+        assertEquals(2, loads.get()); //while a background refresh has been started
+        assertEquals(List.of(2L), cache.get().block());
+        assertEquals(1, counter("demonslayer.cache.requests", "stale"));
+    }
+
+    @Test
+    void get_afterMaxStaleness_waitsForReload() {
+        SnapshotCache<List<Long>> cache = cache(() -> Mono.just(List.of(loads.incrementAndGet() * 1L)));
+        cache.get().block();
+        clock.advance(Duration.ofHours(2));
+        assertEquals(List.of(2L), cache.get().block());
+        assertEquals(2, counter("demonslayer.cache.requests", "miss"));
+    }
+
+    @Test
+    void get_afterMaxStaleness_reloadFails_servesLastKnownGoodSnapshot() {
+        SnapshotCache<List<Long>> cache = cache(() -> loads.incrementAndGet() == 1
+                ? Mono.just(List.of(1L))
+                : Mono.error(new IllegalStateException("upstream down")));
+        cache.get().block();
+        clock.advance(Duration.ofHours(2));
+        assertEquals(List.of(1L), cache.get().block()); //better an old snapshot than an error
+        assertEquals(2, loads.get());
+        assertEquals(1, meterRegistry.find("demonslayer.cache.fallbacks").tag("cache", "test").counter().count());
+    }
+
+    @Test
+    void get_noSnapshotAndLoadFails_propagatesTheError() {
+        SnapshotCache<List<Long>> cache = cache(() -> Mono.error(new IllegalStateException("upstream down")));
+        assertThrows(IllegalStateException.class, () -> cache.get().block());
+    }
+
+    @Test
+    void get_restoredSnapshot_isServedWhateverItsAgeAndRefreshed() {
+        SnapshotCache<List<Long>> cache = cache(() -> Mono.just(List.of(loads.incrementAndGet() * 1L)));
+        cache.restore(List.of(0L), clock.instant().minus(Duration.ofDays(3))); //saved by a previous run, far older than the max staleness
+        assertEquals(List.of(0L), cache.get().block()); //served right away
+        assertEquals(1, loads.get()); //while a background refresh has been started
+        assertEquals(List.of(1L), cache.get().block());
+    }
+
+    @Test
+    void restore_neverReplacesALoadedSnapshot() {
+        SnapshotCache<List<Long>> cache = cache(() -> Mono.just(List.of(loads.incrementAndGet() * 1L)));
+        cache.get().block();
+        cache.restore(List.of(0L), clock.instant());
+        assertEquals(List.of(1L), cache.get().block());
+    }
+
+    @Test
+    void get_concurrentMisses_shareASingleLoad() {
+        Sinks.One<List<Long>> upstream = Sinks.one();
+        SnapshotCache<List<Long>> cache = cache(() -> {
+            loads.incrementAndGet();
+            return upstream.asMono();
+        });
+        Mono<List<Long>> first = cache.get();
+        Mono<List<Long>> second = cache.get();
+        first.subscribe();
+        second.subscribe().dispose(); //cancelling one caller must not cancel the load of the others
+        upstream.tryEmitValue(List.of(42L));
+        assertEquals(List.of(42L), first.block());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void evictIfIdle_dropsSnapshotNotReadForTooLong() {
+        SnapshotCache<List<Long>> cache = cache(() -> Mono.just(List.of(loads.incrementAndGet() * 1L)));
+        cache.get().block();
+        clock.advance(Duration.ofHours(1));
+        assertFalse(cache.evictIfIdle());
+        clock.advance(Duration.ofHours(6));
+        assertTrue(cache.evictIfIdle());
+        assertEquals(1, counter("demonslayer.cache.evictions", null));
+    }
+
+    private SnapshotCache<List<Long>> cache(Supplier<Mono<List<Long>>> loader) {
+        return new SnapshotCache<>("test", loader, PROPERTIES, clock, List::size, meterRegistry);
+    }
+
+    private double counter(String name, String result) {
+        var search = meterRegistry.find(name).tag("cache", "test");
+        if (result != null)
+            search = search.tag("result", result);
+        return search.counter().count();
+    }
+}
@@ -0,0 +1,74 @@
+package com.lpa.demon_slayer_api_service.service.cache;
+
+import com.lpa.demon_slayer_api_service.config.SnapshotProperties;
+import com.lpa.demon_slayer_api_service.model.dto.CombatStyleDto;
+import com.lpa.demon_slayer_api_service.model.dto.character.CharacterSummaryDto;
+import com.lpa.demon_slayer_api_service.service.crawl.CrawlResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotStoreTest {
+
+    private static final Instant LOADED_AT = Instant.parse("2025-01-01T00:00:00Z");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void restore_returnsTheSavedSnapshot() throws IOException {
+        SnapshotStore store = store(true);
+        CrawlResult<CharacterSummaryDto> saved = new CrawlResult<>(List.of(
+                new CharacterSummaryDto(1L, "Tanjiro Kamado", "Male", "Human", "A kind boy", "https://img/1.webp"),
+                new CharacterSummaryDto(2L, "Nezuko Kamado", "Female", "Demon", null, null)
+        ), List.of(4));
+        store.save("characters", saved, LOADED_AT, SnapshotCodec.CHARACTER_SUMMARIES);
+        Optional<SnapshotStore.Restored<CharacterSummaryDto>> restored = store.restore("characters", SnapshotCodec.CHARACTER_SUMMARIES);
+        assertTrue(restored.isPresent());
+        assertEquals(saved, restored.get().result());
+        assertEquals(LOADED_AT, restored.get().loadedAt());
+    }
+
+    @Test
+    void restore_corruptedFile_isIgnored() throws IOException {
+        SnapshotStore store = store(true);
+        Path file = store.save("combat-styles", new CrawlResult<>(List.of(new CombatStyleDto(1L, "Water Breathing", "Flowing")), List.of()),
+                LOADED_AT, SnapshotCodec.COMBAT_STYLES);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 1] ^= 0x01; //flip a bit of the payload
+        Files.write(file, bytes);
+        assertTrue(store.restore("combat-styles", SnapshotCodec.COMBAT_STYLES).isEmpty());
+    }
+
+    @Test
+    void restore_otherFormatVersion_isIgnored() throws IOException {
+        SnapshotStore store = store(true);
+        Path file = store.save("combat-styles", new CrawlResult<>(List.of(new CombatStyleDto(1L, "Water Breathing", "Flowing")), List.of()),
+                LOADED_AT, SnapshotCodec.COMBAT_STYLES);
+        byte[] bytes = Files.readAllBytes(file);
+        ByteBuffer.wrap(bytes).putShort(Integer.BYTES, (short) (SnapshotStore.FORMAT_VERSION + 1));
+        Files.write(file, bytes);
+        assertTrue(store.restore("combat-styles", SnapshotCodec.COMBAT_STYLES).isEmpty());
+    }
+
+    @Test
+    void restore_noFileOrDisabled_returnsEmpty() throws IOException {
+        assertTrue(store(true).restore("characters", SnapshotCodec.CHARACTER_SUMMARIES).isEmpty());
+        store(true).save("characters", new CrawlResult<>(List.of(), List.of()), LOADED_AT, SnapshotCodec.CHARACTER_SUMMARIES);
+        assertTrue(store(false).restore("characters", SnapshotCodec.CHARACTER_SUMMARIES).isEmpty());
+    }
+
+    private SnapshotStore store(boolean enabled) {
+        return new SnapshotStore(new SnapshotProperties(enabled, directory), new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,162 @@
+package com.lpa.demon_slayer_api_service.service.catalog;
+
+import com.lpa.demon_slayer_api_service.config.CatalogProperties;
+import com.lpa.demon_slayer_api_service.config.ResilienceProperties;
+import com.lpa.demon_slayer_api_service.exception.DemonSlayerApiException;
+import com.lpa.demon_slayer_api_service.model.dto.AffiliationDto;
+import com.lpa.demon_slayer_api_service.model.dto.CombatStyleDto;
+import com.lpa.demon_slayer_api_service.model.dto.character.CharacterBatchResponseDto;
+import com.lpa.demon_slayer_api_service.model.dto.character.CharacterDto;
+import com.lpa.demon_slayer_api_service.model.dto.character.CharacterLookupErrorDto;
+import com.lpa.demon_slayer_api_service.model.dto.character.CharacterSearchHitDto;
+import com.lpa.demon_slayer_api_service.model.dto.character.CharacterSummaryDto;
+import com.lpa.demon_slayer_api_service.service.DemonSlayerApiService;
+import com.lpa.demon_slayer_api_service.service.ratelimit.UpstreamRateLimiter.Priority;
+import com.lpa.demon_slayer_api_service.utils.TestUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CharacterCatalogTest {
+
+    private static final CharacterDto TANJIRO = CharacterDto.builder().id(1L).name("Tanjiro Kamado").build();
+    private static final CharacterDto NEZUKO = CharacterDto.builder().id(2L).name("Nezuko Kamado").build();
+
+    private DemonSlayerApiService demonSlayerApiService;
+    private CharacterCatalog characterCatalog;
+
+    @BeforeEach
+    void initialize() {
+        demonSlayerApiService = mock(DemonSlayerApiService.class);
+        characterCatalog = new CharacterCatalog(demonSlayerApiService, new CatalogProperties(true, 4, 4, 100),
+                TestUtils.bindProperties("api.demonslayer.resilience", ResilienceProperties.class), new SimpleMeterRegistry());
+        when(demonSlayerApiService.getAllCharacters()).thenReturn(Flux.just(summary(TANJIRO), summary(NEZUKO)));
+        when(demonSlayerApiService.fetchCharacter(1L, null)).thenReturn(Mono.just(TANJIRO));
+        when(demonSlayerApiService.fetchCharacter(2L, null)).thenReturn(Mono.just(NEZUKO));
+        when(demonSlayerApiService.fetchCharacter(1L, null, Priority.BACKGROUND)).thenReturn(Mono.just(TANJIRO));
+        when(demonSlayerApiService.fetchCharacter(2L, null, Priority.BACKGROUND)).thenReturn(Mono.just(NEZUKO));
+    }
+
+    @Test
+    void findCharacter_afterRefresh_isServedFromMemory() {
+        assertEquals(2, characterCatalog.refresh().block());
+        verify(demonSlayerApiService).fetchCharacter(1L, null, Priority.BACKGROUND); //nobody is waiting for the refresh lookups
+        clearInvocations(demonSlayerApiService);
+        assertEquals(TANJIRO, characterCatalog.findCharacter(1L, null).block());
+        assertEquals(NEZUKO, characterCatalog.findCharacter(null, "  nezuko KAMADO").block());
+        verify(demonSlayerApiService, never()).fetchCharacter(any(), any());
+    }
+
+    @Test
+    void search_afterRefresh_isServedFromMemory() {
+        assertTrue(characterCatalog.search("nezu", 10).isEmpty()); //nothing is searchable before the first load
+        characterCatalog.refresh().block();
+        clearInvocations(demonSlayerApiService);
+        assertEquals(List.of(2L), characterCatalog.search("nezu", 10).stream().map(CharacterSearchHitDto::id).toList());
+        assertEquals(2, characterCatalog.search("kamado", 10).size());
+        verifyNoInteractions(demonSlayerApiService);
+    }
+
+    @Test
+    void findCharactersByCombatStyle_afterRefresh_isServedFromMemory() {
+        CombatStyleDto waterBreathing = new CombatStyleDto(1L, "Water Breathing", null);
+        CharacterDto tanjiro = CharacterDto.builder()
+                .id(1L)
+                .name("Tanjiro Kamado")
+                .affiliation(new AffiliationDto("Demon Slayer Corps", null))
+                .combatStyles(Set.of(waterBreathing))
+                .build();
+        when(demonSlayerApiService.fetchCharacter(1L, null, Priority.BACKGROUND)).thenReturn(Mono.just(tanjiro));
+        assertTrue(characterCatalog.findCharactersByCombatStyle(1L).isEmpty()); //nothing is indexed before the first load
+        characterCatalog.refresh().block();
+        clearInvocations(demonSlayerApiService);
+        assertEquals(List.of(tanjiro), characterCatalog.findCharactersByCombatStyle(1L));
+        assertEquals(List.of(tanjiro), characterCatalog.findCharactersByAffiliation("demon slayer CORPS"));
+        assertTrue(characterCatalog.findCharactersByCombatStyle(2L).isEmpty());
+        verifyNoInteractions(demonSlayerApiService);
+    }
+
+    @Test
+    void etagOf_isComputedOncePerLoadAndFollowsTheContent() {
+        CharacterDto upstreamTanjiro = CharacterDto.builder().id(1L).name("Tanjiro Kamado").build();
+        String beforeLoad = characterCatalog.etagOf(upstreamTanjiro); //not in the catalog yet, hashed on the spot
+        characterCatalog.refresh().block();
+        CharacterDto tanjiro = characterCatalog.findCharacter(1L, null).block();
+        assertNotNull(tanjiro);
+        assertEquals(beforeLoad, characterCatalog.etagOf(tanjiro));
+        assertNotEquals(characterCatalog.etagOf(tanjiro), characterCatalog.etagOf(NEZUKO));
+        CharacterDto renamed = CharacterDto.builder().id(1L).name("Tanjiro").build();
+        when(demonSlayerApiService.fetchCharacter(1L, null, Priority.BACKGROUND)).thenReturn(Mono.just(renamed));
+        characterCatalog.refresh().block();
+        assertNotEquals(beforeLoad, characterCatalog.etagOf(characterCatalog.findCharacter(1L, null).block()));
+    }
+
+    @Test
+    void findCharacter_unknownCharacter_fallsBackToUpstream() {
+        CharacterDto giyu = CharacterDto.builder().id(3L).name("Giyu Tomioka").build();
+        when(demonSlayerApiService.fetchCharacter(3L, null)).thenReturn(Mono.just(giyu));
+        characterCatalog.refresh().block();
+        assertEquals(giyu, characterCatalog.findCharacter(3L, null).block());
+        verify(demonSlayerApiService).fetchCharacter(3L, null);
+    }
+
+    @Test
+    void refresh_failingUpstream_keepsThePreviousCopy() {
+        characterCatalog.refresh().block();
+        when(demonSlayerApiService.fetchCharacter(1L, null, Priority.BACKGROUND))
+                .thenReturn(Mono.error(new DemonSlayerApiException("Upstream down", HttpStatus.SERVICE_UNAVAILABLE)));
+        when(demonSlayerApiService.getAllCharacters()).thenReturn(Flux.just(summary(TANJIRO), summary(NEZUKO)));
+        characterCatalog.refresh().block();
+        assertEquals(TANJIRO, characterCatalog.findCharacter(1L, null).block());
+        assertEquals(2, characterCatalog.characters().size());
+    }
+
+    @Test
+    void findCharacters_dedupesIdsAndReportsPerIdErrors() {
+        when(demonSlayerApiService.fetchCharacter(999L, null))
+                .thenReturn(Mono.error(new DemonSlayerApiException("Character not found", HttpStatus.NOT_FOUND)));
+        CharacterBatchResponseDto response = characterCatalog.findCharacters(List.of(2L, 1L, 999L, 2L)).block();
+        assertNotNull(response);
+        assertEquals(List.of(NEZUKO, TANJIRO), response.characters()); //first occurrence order
+        assertEquals(List.of(new CharacterLookupErrorDto(999L, 404, "Character not found")), response.errors());
+        verify(demonSlayerApiService, times(1)).fetchCharacter(2L, null); //the duplicate ID is resolved once
+    }
+
+    @Test
+    void findCharacters_emptyOrTooLargeBatch_isRejected() {
+        assertThrows(Exception.class, () -> characterCatalog.findCharacters(List.of()).block());
+        List<Long> tooMany = LongStream.rangeClosed(1, 101).boxed().toList();
+        assertThrows(Exception.class, () -> characterCatalog.findCharacters(tooMany).block());
+    }
+
+    @Test
+    void constructor_loadConcurrencyAboveTheRefreshBulkhead_isRejected() {
+        ResilienceProperties resilienceProperties = TestUtils.bindProperties("api.demonslayer.resilience", ResilienceProperties.class,
+                Map.of("bulkhead.refresh-max-concurrent", "2"));
+        assertThrows(IllegalArgumentException.class, () -> new CharacterCatalog(demonSlayerApiService,
+                new CatalogProperties(true, 4, 4, 100), resilienceProperties, new SimpleMeterRegistry()));
+    }
+
+    @Test
+    void constructor_batchConcurrencyFillingTheLookupBulkhead_isRejected() {
+        ResilienceProperties resilienceProperties = TestUtils.bindProperties("api.demonslayer.resilience", ResilienceProperties.class);
+        assertThrows(IllegalArgumentException.class, () -> new CharacterCatalog(demonSlayerApiService,
+                new CatalogProperties(true, 4, 5, 100), resilienceProperties, new SimpleMeterRegistry())); //two batches take the 10 slots
+    }
+
+    private static CharacterSummaryDto summary(CharacterDto character) {
+        return new CharacterSummaryDto(character.id(), character.name(), character.gender(), character.race(),
+                character.description(), character.img());
+    }
+}
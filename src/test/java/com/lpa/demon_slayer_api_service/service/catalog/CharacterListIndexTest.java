@@ -0,0 +1,72 @@
+package com.lpa.demon_slayer_api_service.service.catalog;
+
+import com.lpa.demon_slayer_api_service.model.dto.character.CharacterSummaryDto;
+import com.lpa.demon_slayer_api_service.service.crawl.CrawlResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CharacterListIndexTest {
+
+    @Test
+    void page_filtersAcrossSeveralBitsetWords() {
+        List<CharacterSummaryDto> characters = new ArrayList<>();
+        for (long id = 1; id <= 200; id++) //every third character is a demon, every other one is female
+            characters.add(character(id, "Character " + id, id % 3 == 0 ? "Demon" : "Human", id % 2 == 0 ? "Female" : "Male"));
+        CharacterListIndex index = CharacterListIndex.of(new CrawlResult<>(characters, List.of()));
+
+        List<Long> expected = characters.stream()
+                .filter(c -> c.race().equals("Demon") && c.gender().equals("Female"))
+                .map(CharacterSummaryDto::id)
+                .toList();
+        CharacterListIndex.Page page = index.page(new CharacterListQuery(2, 10, "demon", "female", CharacterListQuery.Sort.ID));
+        assertEquals(expected.size(), page.total());
+        assertEquals(expected.subList(20, 30), page.items().stream().map(CharacterSummaryDto::id).toList());
+
+        CharacterListIndex.Page last = index.page(new CharacterListQuery(3, 10, "demon", "female", CharacterListQuery.Sort.ID));
+        assertEquals(expected.subList(30, expected.size()), last.items().stream().map(CharacterSummaryDto::id).toList());
+        assertTrue(index.page(new CharacterListQuery(4, 10, "demon", "female", CharacterListQuery.Sort.ID)).items().isEmpty());
+    }
+
+    @Test
+    void page_sortsByNameIgnoringCase() {
+        List<CharacterSummaryDto> characters = List.of(
+                character(1L, "tanjiro Kamado", "Human", "Male"),
+                character(2L, "Nezuko Kamado", "Demon", "Female"),
+                character(3L, "Giyu Tomioka", "Human", "Male"),
+                character(4L, "Akaza", "Demon", "Male")
+        );
+        CharacterListIndex index = CharacterListIndex.of(new CrawlResult<>(characters, List.of()));
+        CharacterListIndex.Page page = index.page(new CharacterListQuery(0, 10, null, null, CharacterListQuery.Sort.NAME));
+        assertEquals(characters.stream().map(CharacterSummaryDto::name).sorted(String.CASE_INSENSITIVE_ORDER).toList(),
+                page.items().stream().map(CharacterSummaryDto::name).toList());
+        assertEquals(4, page.total());
+    }
+
+    @Test
+    void page_unknownFilterValue_isEmpty() {
+        CharacterListIndex index = CharacterListIndex.of(new CrawlResult<>(List.of(character(1L, "Tanjiro Kamado", "Human", "Male")), List.of()));
+        CharacterListIndex.Page page = index.page(new CharacterListQuery(0, 10, "Hashira", null, CharacterListQuery.Sort.ID));
+        assertEquals(0, page.total());
+        assertTrue(page.items().isEmpty());
+    }
+
+    @Test
+    void page_withoutFilter_isASliceOfTheIdOrder() {
+        List<CharacterSummaryDto> characters = new ArrayList<>();
+        for (long id = 100; id >= 1; id--) //upstream order is not trusted
+            characters.add(character(id, "Character " + id, "Human", "Male"));
+        CharacterListIndex index = CharacterListIndex.of(new CrawlResult<>(characters, List.of()));
+        CharacterListIndex.Page page = index.page(new CharacterListQuery(1, 20, null, null, CharacterListQuery.Sort.ID));
+        assertEquals(characters.stream().sorted(Comparator.comparing(CharacterSummaryDto::id)).toList().subList(20, 40), page.items());
+        assertEquals(100, page.total());
+    }
+
+    private static CharacterSummaryDto character(Long id, String name, String race, String gender) {
+        return new CharacterSummaryDto(id, name, gender, race, null, null);
+    }
+}
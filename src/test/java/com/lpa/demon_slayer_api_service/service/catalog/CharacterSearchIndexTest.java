@@ -0,0 +1,73 @@
+package com.lpa.demon_slayer_api_service.service.catalog;
+
+import com.lpa.demon_slayer_api_service.model.dto.AffiliationDto;
+import com.lpa.demon_slayer_api_service.model.dto.CombatStyleDto;
+import com.lpa.demon_slayer_api_service.model.dto.character.CharacterDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CharacterSearchIndexTest {
+
+    private static final CharacterDto TANJIRO = CharacterDto.builder()
+            .id(1L)
+            .name("Tanjiro Kamado")
+            .description("A kind boy who became a demon slayer to save his sister.")
+            .affiliation(new AffiliationDto("Demon Slayer Corps", null))
+            .combatStyles(Set.of(new CombatStyleDto(1L, "Water Breathing", null), new CombatStyleDto(2L, "Sun Breathing", null)))
+            .build();
+    private static final CharacterDto NEZUKO = CharacterDto.builder()
+            .id(2L)
+            .name("Nezuko Kamado")
+            .description("Tanjiro's younger sister, turned into a demon.")
+            .build();
+    private static final CharacterDto GIYU = CharacterDto.builder()
+            .id(3L)
+            .name("Giyū Tomioka")
+            .description("The Water Hashira.")
+            .combatStyles(Set.of(new CombatStyleDto(1L, "Water Breathing", null)))
+            .build();
+
+    private final CharacterSearchIndex index = CharacterSearchIndex.of(List.of(TANJIRO, NEZUKO, GIYU), null);
+
+    @Test
+    void search_prefix_nameMatchesRankFirst() {
+        List<CharacterSearchIndex.Hit> hits = index.search("tanj", 10);
+        assertEquals(List.of(TANJIRO, NEZUKO), hits.stream().map(CharacterSearchIndex.Hit::character).toList()); //name > description
+        assertTrue(hits.get(0).score() > hits.get(1).score());
+    }
+
+    @Test
+    void search_typoAndAccents_stillMatch() {
+        assertEquals(NEZUKO, index.search("nezuco", 10).getFirst().character());
+        assertEquals(GIYU, index.search("giyu tomioca", 10).getFirst().character());
+    }
+
+    @Test
+    void search_everyTermMustMatch() {
+        assertEquals(List.of(TANJIRO, GIYU), index.search("water breathing", 10).stream().map(CharacterSearchIndex.Hit::character).toList());
+        assertEquals(List.of(TANJIRO), index.search("sun breathing", 10).stream().map(CharacterSearchIndex.Hit::character).toList());
+        assertTrue(index.search("the", 10).isEmpty());
+        assertTrue(index.search("kamado akaza", 10).isEmpty());
+        assertEquals(1, index.search("kamado", 1).size());
+    }
+
+    @Test
+    void of_reusesTheAnalysisOfUnchangedCharacters() {
+        CharacterDto renamed = CharacterDto.builder().id(2L).name("Nezuko").build();
+        CharacterSearchIndex rebuilt = CharacterSearchIndex.of(List.of(TANJIRO, renamed, GIYU), index);
+        assertSame(index.document(1L), rebuilt.document(1L));
+        assertNotSame(index.document(2L), rebuilt.document(2L));
+        assertTrue(rebuilt.search("nezuko kamado", 10).isEmpty());
+    }
+
+    @Test
+    void boundedDistance_stopsPastTheBound() {
+        assertEquals(1, CharacterSearchIndex.boundedDistance("nezuco", "nezuko", 2));
+        assertEquals(2, CharacterSearchIndex.boundedDistance("tomoika", "tomioka", 2));
+        assertEquals(3, CharacterSearchIndex.boundedDistance("tanjiro", "rengoku", 2));
+    }
+}
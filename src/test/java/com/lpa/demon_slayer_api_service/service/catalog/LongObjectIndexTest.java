@@ -0,0 +1,29 @@
+package com.lpa.demon_slayer_api_service.service.catalog;
+
+import com.lpa.demon_slayer_api_service.model.dto.character.CharacterDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongObjectIndexTest {
+
+    @Test
+    void of_duplicateKeys_lastOneWinsEverywhere() {
+        CharacterDto tanjiro = CharacterDto.builder().id(1L).name("Tanjiro").build();
+        CharacterDto nezuko = CharacterDto.builder().id(2L).name("Nezuko").build();
+        CharacterDto renamedTanjiro = CharacterDto.builder().id(1L).name("Tanjiro Kamado").build();
+        LongObjectIndex<CharacterDto> index = LongObjectIndex.of(List.of(tanjiro, nezuko, renamedTanjiro), CharacterDto::id);
+        assertEquals(renamedTanjiro, index.get(1L));
+        assertEquals(List.of(renamedTanjiro, nezuko), index.values()); //in the place of the first one
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void get_unknownKey_returnsNull() {
+        LongObjectIndex<CharacterDto> index = LongObjectIndex.of(List.of(CharacterDto.builder().id(1L).build()), CharacterDto::id);
+        assertNull(index.get(2L));
+        assertNull(LongObjectIndex.<CharacterDto>of(List.of(), CharacterDto::id).get(1L));
+    }
+}
@@ -0,0 +1,54 @@
+package com.lpa.demon_slayer_api_service.service.catalog;
+
+import com.lpa.demon_slayer_api_service.model.dto.AffiliationDto;
+import com.lpa.demon_slayer_api_service.model.dto.character.CharacterDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReverseIndexTest {
+
+    private static final CharacterDto TANJIRO = character(1L, "Demon Slayer Corps");
+    private static final CharacterDto NEZUKO = character(2L, "Kamado Family");
+    private static final CharacterDto GIYU = character(3L, "Demon Slayer Corps");
+
+    private final ReverseIndex<String> empty = ReverseIndex.empty(character -> Set.of(character.affiliation().name()));
+
+    @Test
+    void update_indexesNewCharactersById() {
+        ReverseIndex<String> index = empty.update(Map.of(), Map.of(3L, GIYU, 1L, TANJIRO, 2L, NEZUKO));
+        assertEquals(List.of(TANJIRO, GIYU), index.get("Demon Slayer Corps"));
+        assertEquals(List.of(NEZUKO), index.get("Kamado Family"));
+        assertTrue(index.get("Upper Moons").isEmpty());
+    }
+
+    @Test
+    void update_onlyTouchesTheKeysOfChangedCharacters() {
+        Map<Long, CharacterDto> before = Map.of(1L, TANJIRO, 2L, NEZUKO, 3L, GIYU);
+        ReverseIndex<String> index = empty.update(Map.of(), before);
+        CharacterDto demonNezuko = character(2L, "Demons");
+        Map<Long, CharacterDto> after = Map.of(1L, TANJIRO, 2L, demonNezuko, 3L, GIYU);
+        ReverseIndex<String> updated = index.update(before, after);
+
+        assertSame(index.get("Demon Slayer Corps"), updated.get("Demon Slayer Corps")); //shared, not rebuilt
+        assertTrue(updated.get("Kamado Family").isEmpty());
+        assertEquals(List.of(demonNezuko), updated.get("Demons"));
+        assertEquals(2, updated.keyCount());
+        assertSame(updated, updated.update(after, after)); //nothing changed
+    }
+
+    @Test
+    void update_removedCharacterLeavesItsKeys() {
+        ReverseIndex<String> index = empty.update(Map.of(), Map.of(1L, TANJIRO, 3L, GIYU));
+        ReverseIndex<String> updated = index.update(Map.of(1L, TANJIRO, 3L, GIYU), Map.of(1L, TANJIRO));
+        assertEquals(List.of(TANJIRO), updated.get("Demon Slayer Corps"));
+    }
+
+    private static CharacterDto character(Long id, String affiliation) {
+        return CharacterDto.builder().id(id).affiliation(new AffiliationDto(affiliation, null)).build();
+    }
+}
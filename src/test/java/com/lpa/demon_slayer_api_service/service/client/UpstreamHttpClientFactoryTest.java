@@ -0,0 +1,43 @@
+package com.lpa.demon_slayer_api_service.service.client;
+
+import com.lpa.demon_slayer_api_service.config.UpstreamClientProperties;
+import com.lpa.demon_slayer_api_service.utils.TestUtils;
+import io.netty.channel.ChannelOption;
+import org.junit.jupiter.api.Test;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UpstreamHttpClientFactoryTest {
+
+    @Test
+    void create_appliesThePoolAndConnectionSettings() {
+        HttpClient client = UpstreamHttpClientFactory.create(properties(Map.of(
+                "connect-timeout", "750ms",
+                "pool.max-connections", "12")));
+        assertEquals(750, client.configuration().options().get(ChannelOption.CONNECT_TIMEOUT_MILLIS));
+        assertEquals(12, client.configuration().connectionProvider().maxConnections());
+        assertTrue(client.configuration().isPreferNative());
+        assertArrayEquals(new HttpProtocol[]{HttpProtocol.HTTP11, HttpProtocol.H2}, client.configuration().protocols());
+    }
+
+    @Test
+    void create_http2Disabled_staysOnHttp11() {
+        HttpClient client = UpstreamHttpClientFactory.create(properties(Map.of("http2", "false", "prefer-native", "false")));
+        assertArrayEquals(new HttpProtocol[]{HttpProtocol.HTTP11}, client.configuration().protocols());
+        assertFalse(client.configuration().isPreferNative());
+    }
+
+    @Test
+    void properties_rejectAnEmptyPool() {
+        assertThrows(Exception.class, () -> properties(Map.of("pool.max-connections", "0")));
+        assertThrows(Exception.class, () -> properties(Map.of("pool.pending-acquire-max-count", "0")));
+    }
+
+    private static UpstreamClientProperties properties(Map<String, String> overrides) {
+        return TestUtils.bindProperties("api.demonslayer.upstream-client", UpstreamClientProperties.class, overrides);
+    }
+}
@@ -0,0 +1,79 @@
+package com.lpa.demon_slayer_api_service.service.coalescing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestCoalescerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RequestCoalescer coalescer;
+
+    @BeforeEach
+    void initialize() {
+        meterRegistry = new SimpleMeterRegistry();
+        coalescer = new RequestCoalescer("test", meterRegistry);
+    }
+
+    @Test
+    void execute_sameKey_sharesOneInFlightCall() {
+        Sinks.One<String> upstream = Sinks.one();
+        AtomicInteger calls = new AtomicInteger();
+        AtomicReference<String> first = new AtomicReference<>();
+        AtomicReference<String> second = new AtomicReference<>();
+        coalescer.execute("key", () -> {
+            calls.incrementAndGet();
+            return upstream.asMono();
+        }).subscribe(first::set);
+        coalescer.execute("key", () -> {
+            calls.incrementAndGet();
+            return upstream.asMono();
+        }).subscribe(second::set);
+        assertEquals(1, coalescer.inFlightCount());
+        upstream.tryEmitValue("Tanjiro");
+        assertEquals(1, calls.get());
+        assertEquals("Tanjiro", first.get());
+        assertEquals("Tanjiro", second.get());
+        assertEquals(0, coalescer.inFlightCount()); //the key is released once the call terminates
+        assertEquals(1, meterRegistry.find("demonslayer.coalescing.requests").tag("result", "joined").counter().count());
+    }
+
+    @Test
+    void execute_cancellingOneCaller_doesNotCancelTheOthers() {
+        Sinks.One<String> upstream = Sinks.one();
+        AtomicReference<String> survivor = new AtomicReference<>();
+        Disposable cancelled = coalescer.execute("key", upstream::asMono).subscribe();
+        coalescer.execute("key", upstream::asMono).subscribe(survivor::set);
+        cancelled.dispose(); //the leader gives up
+        upstream.tryEmitValue("Nezuko");
+        assertEquals("Nezuko", survivor.get());
+    }
+
+    @Test
+    void execute_afterCompletion_startsANewCall() {
+        AtomicInteger calls = new AtomicInteger();
+        coalescer.execute("key", () -> Mono.just(calls.incrementAndGet())).block();
+        coalescer.execute("key", () -> Mono.just(calls.incrementAndGet())).block();
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void execute_error_isPropagatedToEveryCaller() {
+        Sinks.One<String> upstream = Sinks.one();
+        AtomicReference<Throwable> first = new AtomicReference<>();
+        AtomicReference<Throwable> second = new AtomicReference<>();
+        coalescer.execute("key", upstream::asMono).subscribe(_ -> {}, first::set);
+        coalescer.execute("key", upstream::asMono).subscribe(_ -> {}, second::set);
+        upstream.tryEmitError(new IllegalStateException("upstream down"));
+        assertInstanceOf(IllegalStateException.class, first.get());
+        assertInstanceOf(IllegalStateException.class, second.get());
+    }
+}
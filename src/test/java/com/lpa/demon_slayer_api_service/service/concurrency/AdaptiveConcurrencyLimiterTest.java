@@ -0,0 +1,120 @@
+package com.lpa.demon_slayer_api_service.service.concurrency;
+
+import com.lpa.demon_slayer_api_service.config.CrawlProperties;
+import com.lpa.demon_slayer_api_service.exception.CallNotPermittedException;
+import com.lpa.demon_slayer_api_service.exception.DemonSlayerApiException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import reactor.core.Disposable;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final CrawlProperties.Concurrency PROPERTIES =
+            new CrawlProperties.Concurrency(2, 1, 4, Duration.ofSeconds(1), 0.5);
+
+    private SimpleMeterRegistry meterRegistry;
+    private AdaptiveConcurrencyLimiter limiter;
+
+    @BeforeEach
+    void initialize() {
+        meterRegistry = new SimpleMeterRegistry();
+        limiter = new AdaptiveConcurrencyLimiter("test", PROPERTIES, meterRegistry);
+    }
+
+    @Test
+    void run_aboveTheLimit_queuesUntilASlotIsReleased() {
+        List<Sinks.One<String>> upstreams = new ArrayList<>();
+        AtomicInteger started = new AtomicInteger();
+        for (int i = 0; i < 3; i++) {
+            Sinks.One<String> upstream = Sinks.one();
+            upstreams.add(upstream);
+            limiter.run(() -> {
+                started.incrementAndGet();
+                return upstream.asMono();
+            }).subscribe();
+        }
+        assertEquals(2, started.get()); //the initial limit is 2
+        assertEquals(1, limiter.queued());
+        upstreams.getFirst().tryEmitValue("page 1");
+        assertEquals(3, started.get()); //the completed call started the queued one
+        assertEquals(0, limiter.queued());
+    }
+
+    @Test
+    void run_failures_decreaseTheLimitDownToTheMinimum() {
+        for (int i = 0; i < 5; i++)
+            limiter.run(() -> Mono.error(new TimeoutException("upstream down"))).onErrorResume(_ -> Mono.empty()).block();
+        assertEquals(1, limiter.currentLimit());
+        assertTrue(meterRegistry.find("demonslayer.upstream.concurrency.limit.changes")
+                .tag("direction", "decrease").counter().count() > 0);
+    }
+
+    @Test
+    void run_nonTransientErrors_leaveTheLimitAsIs() {
+        List<Throwable> errors = List.of(
+                new CallNotPermittedException("lookup"),
+                new DemonSlayerApiException("Character not found", HttpStatus.NOT_FOUND),
+                new DemonSlayerApiException("Invalid limit", HttpStatus.BAD_REQUEST));
+        for (Throwable error : errors)
+            limiter.run(() -> Mono.error(error)).onErrorResume(_ -> Mono.empty()).block();
+        assertEquals(2, limiter.currentLimit());
+        assertEquals(0, limiter.inFlight());
+    }
+
+    @Test
+    void run_cancelledWhileStarting_theCallIsCancelled() {
+        AtomicBoolean upstreamCancelled = new AtomicBoolean(false);
+        BaseSubscriber<String> subscriber = new BaseSubscriber<>() {};
+        limiter.run(() -> {
+            subscriber.dispose(); //cancelled between the start of the task and the assignment of its subscription
+            return Mono.<String>never().doOnCancel(() -> upstreamCancelled.set(true));
+        }).subscribe(subscriber);
+        assertTrue(upstreamCancelled.get());
+        assertEquals(0, limiter.inFlight());
+    }
+
+    @Test
+    void run_fastSuccessesUnderLoad_increaseTheLimitUpToTheMaximum() {
+        for (int round = 0; round < 50; round++) {
+            List<Sinks.One<String>> upstreams = new ArrayList<>();
+            int limit = limiter.currentLimit();
+            for (int i = 0; i < limit; i++) { //keep the limit fully used
+                Sinks.One<String> upstream = Sinks.one();
+                upstreams.add(upstream);
+                limiter.run(upstream::asMono).subscribe();
+            }
+            upstreams.forEach(upstream -> upstream.tryEmitValue("page"));
+        }
+        assertEquals(4, limiter.currentLimit());
+    }
+
+    @Test
+    void run_cancelledWhileQueued_neverStarts() {
+        Sinks.One<String> running = Sinks.one();
+        AtomicInteger started = new AtomicInteger();
+        limiter.run(running::asMono).subscribe();
+        limiter.run(running::asMono).subscribe();
+        Disposable queued = limiter.run(() -> {
+            started.incrementAndGet();
+            return Mono.just("never");
+        }).subscribe();
+        queued.dispose();
+        running.tryEmitValue("done");
+        assertEquals(0, started.get());
+        assertEquals(0, limiter.inFlight());
+    }
+}
@@ -0,0 +1,57 @@
+package com.lpa.demon_slayer_api_service.service.crawl;
+
+import com.lpa.demon_slayer_api_service.config.CrawlProperties;
+import com.lpa.demon_slayer_api_service.model.dto.pagination.PaginationDto;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageSizeNegotiatorTest {
+
+    private static final String ENDPOINT = "/characters";
+
+    @Test
+    void pageSizeFor_probingDisabled_returnsConfiguredSize() {
+        PageSizeNegotiator negotiator = new PageSizeNegotiator(pageSize(false));
+        negotiator.record(ENDPOINT, 10, new PaginationDto(1, 5, 45, 10), Duration.ofMillis(50));
+        assertEquals(10, negotiator.pageSizeFor(ENDPOINT, 5));
+    }
+
+    @Test
+    void pageSizeFor_probingEnabled_fetchesTheWholeDatasetInOneRequest() {
+        PageSizeNegotiator negotiator = new PageSizeNegotiator(pageSize(true));
+        assertEquals(100, negotiator.pageSizeFor(ENDPOINT, 5)); //the first crawl probes the largest page size
+        negotiator.record(ENDPOINT, 100, new PaginationDto(1, 1, 45, 45), Duration.ofMillis(50));
+        assertEquals(45, negotiator.pageSizeFor(ENDPOINT, 5)); //the smallest page size holding the 45 elements in one round
+    }
+
+    @Test
+    void pageSizeFor_upstreamCapsThePageSize_neverRequestsMoreThanAccepted() {
+        PageSizeNegotiator negotiator = new PageSizeNegotiator(pageSize(true));
+        negotiator.record(ENDPOINT, 100, new PaginationDto(1, 2, 40, 20), Duration.ofMillis(50)); //upstream returned 20 elements out of 100
+        assertEquals(20, negotiator.pageSizeFor(ENDPOINT, 1));
+    }
+
+    @Test
+    void pageSizeFor_afterRejection_returnsConfiguredSize() {
+        PageSizeNegotiator negotiator = new PageSizeNegotiator(pageSize(true));
+        negotiator.reject(ENDPOINT);
+        assertEquals(10, negotiator.pageSizeFor(ENDPOINT, 5));
+    }
+
+    @Test
+    void plan_fewerRoundsWinOverSmallerPages() {
+        PageSizeNegotiator negotiator = new PageSizeNegotiator(pageSize(true));
+        PageSizeNegotiator.CrawlPlan plan = negotiator.plan(
+                new PageSizeNegotiator.EndpointState(100, 450, Duration.ofMillis(50).toNanos()), 5);
+        assertEquals(2, plan.rounds()); //the first page alone, then the remaining pages in a single concurrent round
+        assertEquals(6, plan.requests());
+        assertEquals(75, plan.pageSize());
+    }
+
+    private static CrawlProperties.PageSize pageSize(boolean probe) {
+        return new CrawlProperties.PageSize(10, probe, 100, Duration.ofNanos(200_000));
+    }
+}
@@ -0,0 +1,156 @@
+package com.lpa.demon_slayer_api_service.service.crawl;
+
+import com.lpa.demon_slayer_api_service.config.CrawlProperties;
+import com.lpa.demon_slayer_api_service.exception.DemonSlayerApiException;
+import com.lpa.demon_slayer_api_service.model.dto.CombatStyleDto;
+import com.lpa.demon_slayer_api_service.model.dto.pagination.PageResponseCombatStyleDto;
+import com.lpa.demon_slayer_api_service.model.dto.pagination.PaginationDto;
+import com.lpa.demon_slayer_api_service.service.concurrency.AdaptiveConcurrencyLimiter;
+import com.lpa.demon_slayer_api_service.utils.TestUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaginatedResourceFetcherTest {
+
+    private static final String ENDPOINT = "/combat-styles";
+
+    private final List<Integer> requestedPages = Collections.synchronizedList(new ArrayList<>());
+    private final Set<Integer> failingPages = ConcurrentHashMap.newKeySet();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void fetch_everyStrategy_returnsEveryPageInOrder() {
+        for (CrawlProperties.Strategy strategy : CrawlProperties.Strategy.values()) {
+            requestedPages.clear();
+            List<CrawledPage<CombatStyleDto>> pages = newFetcher(5, Map.of()).fetch(strategy, true, new HashSet<>())
+                    .collectList()
+                    .block();
+            assertNotNull(pages);
+            assertEquals(List.of(1, 2, 3, 4, 5), pages.stream().map(CrawledPage::number).toList(), strategy.name());
+            assertEquals(11L, pages.get(1).content().getFirst().id(), strategy.name());
+            assertEquals(5, requestedPages.size(), strategy.name()); //each page requested once
+        }
+    }
+
+    @Test
+    void fetch_sequential_requestsEachPageOnceThePreviousOneArrived() {
+        newFetcher(4, Map.of("combat-styles.strategy", "SEQUENTIAL")).fetch(true, new HashSet<>()).blockLast();
+        assertEquals(List.of(1, 2, 3, 4), requestedPages);
+    }
+
+    @Test
+    void fetch_droppedPage_isReportedAndTheCrawlGoesOn() {
+        failingPages.add(3);
+        for (CrawlProperties.Strategy strategy : CrawlProperties.Strategy.values()) {
+            Set<Integer> missingPages = new HashSet<>();
+            List<CrawledPage<CombatStyleDto>> pages = newFetcher(5, Map.of()).fetch(strategy, true, missingPages)
+                    .collectList()
+                    .block();
+            assertNotNull(pages);
+            assertEquals(List.of(1, 2, 4, 5), pages.stream().map(CrawledPage::number).toList(), strategy.name());
+            assertEquals(Set.of(3), missingPages, strategy.name());
+        }
+        assertEquals(3, meterRegistry.find("demonslayer.crawl.pages.dropped").counter().count());
+    }
+
+    @Test
+    void fetch_maxPages_limitsTheCrawl() {
+        List<CrawledPage<CombatStyleDto>> pages = newFetcher(10, Map.of("combat-styles.max-pages", "3")).fetch(true, new HashSet<>())
+                .collectList()
+                .block();
+        assertNotNull(pages);
+        assertEquals(3, pages.size());
+        assertEquals(3, requestedPages.size());
+    }
+
+    @Test
+    void fetch_prefetch_neverRequestsMorePagesThanThePrefetchAheadOfTheConsumer() {
+        PaginatedResourceFetcher<CombatStyleDto, PageResponseCombatStyleDto> fetcher = newFetcher(10,
+                Map.of("combat-styles.strategy", "PREFETCH", "combat-styles.prefetch", "2"));
+        StepVerifier.create(fetcher.fetch(true, new HashSet<>()), 1)
+                .expectNextCount(1) //the first page
+                .then(() -> assertEquals(List.of(1, 2, 3), requestedPages)) //2 pages ahead
+                .thenRequest(2)
+                .expectNextCount(2)
+                .then(() -> assertEquals(List.of(1, 2, 3, 4, 5), requestedPages))
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void fetch_emptyFirstPage_isNotFound() {
+        PaginatedResourceFetcher<CombatStyleDto, PageResponseCombatStyleDto> fetcher = newFetcher(
+                (_, _) -> Mono.empty(), Map.of());
+        StepVerifier.create(fetcher.fetch(true, new HashSet<>()))
+                .expectErrorSatisfies(error -> {
+                    DemonSlayerApiException dsEx = assertInstanceOf(DemonSlayerApiException.class, error);
+                    assertEquals(HttpStatus.NOT_FOUND, dsEx.getStatus());
+                })
+                .verify();
+    }
+
+    @Test
+    void fetch_admissionWait_doesNotCountAgainstThePageTimeout() {
+        PaginatedResourceFetcher.PageSource<PageResponseCombatStyleDto> pages = pageSource(2);
+        PaginatedResourceFetcher<CombatStyleDto, PageResponseCombatStyleDto> fetcher = newFetcher(
+                new PaginatedResourceFetcher.PageSource<>() {
+                    @Override
+                    public Mono<PageResponseCombatStyleDto> fetch(int pageNumber, int pageSize) {
+                        return pages.fetch(pageNumber, pageSize);
+                    }
+
+                    @Override
+                    public <V> Mono<V> admit(Supplier<Mono<V>> attempt) { //e.g. waiting for a rate limiter token
+                        return Mono.delay(Duration.ofMillis(100)).then(Mono.defer(attempt));
+                    }
+                }, Map.of("page-timeout", "50ms"));
+        Set<Integer> missingPages = new HashSet<>();
+        List<CrawledPage<CombatStyleDto>> crawled = fetcher.fetch(true, missingPages).collectList().block();
+        assertNotNull(crawled);
+        assertEquals(2, crawled.size());
+        assertTrue(missingPages.isEmpty());
+    }
+
+    private PaginatedResourceFetcher<CombatStyleDto, PageResponseCombatStyleDto> newFetcher(int totalPages, Map<String, String> overrides) {
+        return newFetcher(pageSource(totalPages), overrides);
+    }
+
+    private PaginatedResourceFetcher.PageSource<PageResponseCombatStyleDto> pageSource(int totalPages) {
+        return (pageNumber, pageSize) -> Mono.fromCallable(() -> {
+            requestedPages.add(pageNumber);
+            if (failingPages.contains(pageNumber))
+                throw new IllegalStateException("Page " + pageNumber + " is unavailable");
+            List<CombatStyleDto> content = LongStream.rangeClosed(1, pageSize)
+                    .mapToObj(i -> CombatStyleDto.builder().id((pageNumber - 1L) * pageSize + i).name("Style " + i).build())
+                    .toList();
+            return new PageResponseCombatStyleDto(new PaginationDto(pageNumber, totalPages, (long) totalPages * pageSize, pageSize), content);
+        });
+    }
+
+    private PaginatedResourceFetcher<CombatStyleDto, PageResponseCombatStyleDto> newFetcher(
+            PaginatedResourceFetcher.PageSource<PageResponseCombatStyleDto> pageSource, Map<String, String> overrides) {
+        CrawlProperties crawlProperties = TestUtils.bindProperties("api.demonslayer.crawl", CrawlProperties.class, overrides);
+        return new PaginatedResourceFetcher<>(ENDPOINT, "No combat styles found", pageSource,
+                crawlProperties, crawlProperties.combatStyles(),
+                new AdaptiveConcurrencyLimiter("page", crawlProperties.concurrency(), meterRegistry),
+                new PageSizeNegotiator(crawlProperties.pageSize()),
+                new RetryBudget(0.1, 1), Retry.max(0), meterRegistry);
+    }
+}
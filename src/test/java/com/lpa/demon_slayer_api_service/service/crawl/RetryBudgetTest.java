@@ -0,0 +1,35 @@
+package com.lpa.demon_slayer_api_service.service.crawl;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetryBudgetTest {
+
+    @Test
+    void tryWithdraw_startsFullThenRunsOut() {
+        RetryBudget budget = new RetryBudget(0.1, 2);
+        assertTrue(budget.tryWithdraw());
+        assertTrue(budget.tryWithdraw());
+        assertFalse(budget.tryWithdraw()); //no retry storm once the saved up retries are spent
+    }
+
+    @Test
+    void deposit_tenRequestsEarnOneRetry() {
+        RetryBudget budget = new RetryBudget(0.1, 1);
+        assertTrue(budget.tryWithdraw());
+        for (int i = 0; i < 9; i++)
+            budget.deposit();
+        assertFalse(budget.tryWithdraw());
+        budget.deposit();
+        assertTrue(budget.tryWithdraw());
+    }
+
+    @Test
+    void deposit_neverExceedsMaxTokens() {
+        RetryBudget budget = new RetryBudget(0.5, 3);
+        for (int i = 0; i < 100; i++)
+            budget.deposit();
+        assertEquals(3, budget.available());
+    }
+}
@@ -0,0 +1,155 @@
+package com.lpa.demon_slayer_api_service.service.delta;
+
+import com.lpa.demon_slayer_api_service.model.dto.CombatStyleDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChangeFeedTest {
+
+    private static final long FIRST_SEQUENCE = 100;
+
+    private Sinks.Many<ChangeEvent<CombatStyleDto>> changes;
+    private SimpleMeterRegistry meterRegistry;
+    private ChangeFeed<CombatStyleDto> feed;
+
+    @BeforeEach
+    void initialize() {
+        changes = Sinks.many().multicast().directBestEffort();
+        meterRegistry = new SimpleMeterRegistry();
+        feed = new ChangeFeed<>("combat-styles", changes.asFlux(), 3, FIRST_SEQUENCE, meterRegistry);
+    }
+
+    @Test
+    void subscribe_withoutLastEventId_receivesTheNextChanges() {
+        publish(1);
+        Recorder recorder = subscribe(null, Long.MAX_VALUE);
+        publish(2);
+        publish(3);
+        assertEquals(List.of(101L, 102L), recorder.sequences());
+        assertEquals(List.of(2L, 3L), recorder.ids());
+        assertEquals(1, meterRegistry.find("demonslayer.changefeed.subscribers").gauge().value());
+        recorder.dispose();
+        assertEquals(0, meterRegistry.find("demonslayer.changefeed.subscribers").gauge().value());
+    }
+
+    @Test
+    void subscribe_withLastEventId_replaysTheMissedChanges() {
+        publish(1);
+        publish(2);
+        publish(3);
+        Recorder recorder = subscribe("100", Long.MAX_VALUE);
+        publish(4);
+        assertEquals(List.of(101L, 102L, 103L), recorder.sequences());
+        assertEquals(List.of(2L, 3L, 4L), recorder.ids());
+    }
+
+    @Test
+    void subscribe_lastEventIdNoLongerBuffered_startsWithResync() {
+        for (int i = 1; i <= 5; i++)
+            publish(i); //sequences 100 to 104, 102 to 104 are buffered
+        Recorder recorder = subscribe("100", Long.MAX_VALUE);
+        publish(6);
+        assertTrue(recorder.received.getFirst().isResync());
+        assertEquals(104L, recorder.received.getFirst().sequence()); //resuming from the resync entry gives the next changes
+        assertEquals(List.of(6L), recorder.ids());
+        assertEquals(1, meterRegistry.find("demonslayer.changefeed.resyncs").counter().count());
+    }
+
+    @Test
+    void subscribe_unknownLastEventId_startsWithResync() {
+        publish(1);
+        Recorder previousRun = subscribe("42", Long.MAX_VALUE);
+        Recorder future = subscribe("1000", Long.MAX_VALUE);
+        Recorder invalid = subscribe("abc", Long.MAX_VALUE);
+        for (Recorder recorder : List.of(previousRun, future, invalid)) {
+            assertEquals(1, recorder.received.size());
+            assertTrue(recorder.received.getFirst().isResync());
+        }
+        assertEquals(3, meterRegistry.find("demonslayer.changefeed.resyncs").counter().count());
+    }
+
+    @Test
+    void subscribe_slowSubscriber_isDisconnectedWhenTheBufferWrapsAround() {
+        Recorder slow = subscribe(null, 1);
+        Recorder fast = subscribe(null, Long.MAX_VALUE);
+        for (int i = 1; i <= 4; i++)
+            publish(i);
+        assertFalse(slow.completed.get()); //1 received, 3 buffered: the next ones are still there
+        publish(5);
+        assertTrue(slow.completed.get());
+        assertEquals(List.of(1L), slow.ids());
+        assertFalse(fast.completed.get());
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), fast.ids());
+        assertEquals(1, meterRegistry.find("demonslayer.changefeed.dropped").counter().count());
+        assertEquals(1, meterRegistry.find("demonslayer.changefeed.subscribers").gauge().value());
+    }
+
+    @Test
+    void subscribe_demandResumed_receivesTheBufferedChanges() {
+        Recorder recorder = subscribe(null, 0);
+        publish(1);
+        publish(2);
+        assertTrue(recorder.received.isEmpty());
+        recorder.request(2);
+        assertEquals(List.of(1L, 2L), recorder.ids());
+        publish(3);
+        assertEquals(List.of(1L, 2L), recorder.ids());
+        recorder.request(1);
+        assertEquals(List.of(1L, 2L, 3L), recorder.ids());
+    }
+
+    private void publish(long id) {
+        changes.tryEmitNext(new ChangeEvent<>(ChangeEvent.Type.CHANGED, id, CombatStyleDto.builder().id(id).name("Style " + id).build()));
+    }
+
+    private Recorder subscribe(String lastEventId, long initialRequest) {
+        Recorder recorder = new Recorder(initialRequest);
+        feed.subscribe(lastEventId).subscribe(recorder);
+        return recorder;
+    }
+
+    private static class Recorder extends BaseSubscriber<SequencedChange<CombatStyleDto>> {
+
+        private final long initialRequest;
+        private final List<SequencedChange<CombatStyleDto>> received = new ArrayList<>();
+        private final AtomicBoolean completed = new AtomicBoolean(false);
+
+        private Recorder(long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        @Override
+        protected void hookOnSubscribe(Subscription subscription) {
+            if (initialRequest > 0)
+                request(initialRequest);
+        }
+
+        @Override
+        protected void hookOnNext(SequencedChange<CombatStyleDto> value) {
+            received.add(value);
+        }
+
+        @Override
+        protected void hookOnComplete() {
+            completed.set(true);
+        }
+
+        private List<Long> sequences() {
+            return received.stream().map(SequencedChange::sequence).toList();
+        }
+
+        private List<Long> ids() {
+            return received.stream().filter(entry -> !entry.isResync()).map(entry -> entry.change().id()).toList();
+        }
+    }
+}
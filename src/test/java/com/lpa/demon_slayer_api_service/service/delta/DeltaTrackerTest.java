@@ -0,0 +1,164 @@
+package com.lpa.demon_slayer_api_service.service.delta;
+
+import com.lpa.demon_slayer_api_service.model.dto.CombatStyleDto;
+import com.lpa.demon_slayer_api_service.service.cache.SnapshotCodec;
+import com.lpa.demon_slayer_api_service.service.crawl.CrawlResult;
+import com.lpa.demon_slayer_api_service.service.crawl.CrawledPage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeltaTrackerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private DeltaTracker<CombatStyleDto> tracker;
+    private List<ChangeEvent<CombatStyleDto>> events;
+
+    @BeforeEach
+    void initialize() {
+        meterRegistry = new SimpleMeterRegistry();
+        tracker = new DeltaTracker<>("combat-styles", SnapshotCodec.COMBAT_STYLES, meterRegistry);
+        events = new ArrayList<>();
+        tracker.changes().subscribe(events::add);
+    }
+
+    @Test
+    void apply_firstCrawl_isTheBaselineWithoutEvents() {
+        CrawlResult<CombatStyleDto> result = tracker.apply(List.of(
+                new CrawledPage<>(2, List.of(style(4, "Moon"), style(3, "Flame"))),
+                new CrawledPage<>(1, List.of(style(2, "Water"), style(1, "Sun")))), List.of());
+        assertEquals(List.of(1L, 2L, 3L, 4L), ids(result));
+        assertNotNull(result.etag());
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    void apply_interleavedPages_snapshotIsSortedAsAWhole() {
+        List<CombatStyleDto> page1 = List.of(style(4, "Moon"), style(1, "Sun"));
+        CrawlResult<CombatStyleDto> first = tracker.apply(List.of(
+                new CrawledPage<>(1, page1),
+                new CrawledPage<>(2, List.of(style(3, "Flame"), style(2, "Water")))), List.of()); //upstream pages are not ID ranges
+        assertEquals(List.of(1L, 2L, 3L, 4L), ids(first));
+        CrawlResult<CombatStyleDto> second = tracker.apply(List.of(
+                new CrawledPage<>(1, page1),
+                new CrawledPage<>(2, List.of(style(3, "Flame"), style(2, "Water"), style(0, "Breath")))), List.of());
+        assertEquals(List.of(0L, 1L, 2L, 3L, 4L), ids(second)); //merged in place
+    }
+
+    @Test
+    void apply_samePageInstances_keepsTheSnapshotInstance() {
+        List<CombatStyleDto> page1 = List.of(style(1, "Sun"), style(2, "Water"));
+        List<CombatStyleDto> page2 = List.of(style(3, "Flame"));
+        CrawlResult<CombatStyleDto> first = tracker.apply(List.of(new CrawledPage<>(1, page1), new CrawledPage<>(2, page2)), List.of());
+        CrawlResult<CombatStyleDto> second = tracker.apply(List.of(new CrawledPage<>(1, page1), new CrawledPage<>(2, page2)), List.of());
+        assertSame(first, second); //nothing downstream is rebuilt
+        assertTrue(events.isEmpty());
+        assertEquals(2, meterRegistry.find("demonslayer.delta.pages").tag("result", "unchanged").counter().count());
+    }
+
+    @Test
+    void apply_changedPage_onlyItsChangedElementsAreApplied() {
+        List<CombatStyleDto> page1 = List.of(style(1, "Sun"), style(2, "Water"));
+        CrawlResult<CombatStyleDto> first = tracker.apply(List.of(
+                new CrawledPage<>(1, page1),
+                new CrawledPage<>(2, List.of(style(3, "Flame"), style(4, "Moon")))), List.of());
+        CrawlResult<CombatStyleDto> second = tracker.apply(List.of(
+                new CrawledPage<>(1, page1),
+                new CrawledPage<>(2, List.of(style(3, "Flame"), style(4, "Upper Moon"), style(5, "Thunder")))), List.of()); //decoded again, same Flame
+        assertNotSame(first, second);
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), ids(second));
+        assertSame(first.items().getFirst(), second.items().getFirst()); //the elements of the unchanged pages are kept as is
+        assertNotEquals(first.etag(), second.etag());
+        assertEquals(List.of(
+                new ChangeEvent<>(ChangeEvent.Type.CHANGED, 4L, style(4, "Upper Moon")),
+                new ChangeEvent<>(ChangeEvent.Type.ADDED, 5L, style(5, "Thunder"))), events);
+    }
+
+    @Test
+    void apply_changes_areEmittedOutsideTheMonitor() {
+        List<Boolean> heldLock = new ArrayList<>();
+        tracker.changes().subscribe(_ -> heldLock.add(Thread.holdsLock(tracker)));
+        tracker.apply(List.of(new CrawledPage<>(1, List.of(style(1, "Sun")))), List.of());
+        tracker.apply(List.of(new CrawledPage<>(1, List.of(style(1, "Sun"), style(2, "Water")))), List.of());
+        assertEquals(List.of(false), heldLock);
+    }
+
+    @Test
+    void apply_pageDisappeared_itsElementsAreRemoved() {
+        tracker.apply(List.of(
+                new CrawledPage<>(1, List.of(style(1, "Sun"))),
+                new CrawledPage<>(2, List.of(style(2, "Water")))), List.of());
+        CrawlResult<CombatStyleDto> result = tracker.apply(List.of(new CrawledPage<>(1, List.of(style(1, "Sun")))), List.of());
+        assertEquals(List.of(1L), ids(result));
+        assertEquals(List.of(new ChangeEvent<>(ChangeEvent.Type.REMOVED, 2L, style(2, "Water"))), events);
+        assertEquals(1, meterRegistry.find("demonslayer.delta.changes").tag("type", "removed").counter().count());
+    }
+
+    @Test
+    void apply_missingPage_keepsItsPreviousElements() {
+        List<CombatStyleDto> page1 = List.of(style(1, "Sun"));
+        tracker.apply(List.of(new CrawledPage<>(1, page1), new CrawledPage<>(2, List.of(style(2, "Water")))), List.of());
+        CrawlResult<CombatStyleDto> result = tracker.apply(List.of(new CrawledPage<>(1, page1)), List.of(2));
+        assertEquals(List.of(1L, 2L), ids(result));
+        assertEquals(List.of(2), result.missingPages());
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    void apply_afterSeed_comparesWithTheRestoredSnapshot() {
+        CrawlResult<CombatStyleDto> restored = new CrawlResult<>(List.of(style(1, "Sun"), style(2, "Water"), style(3, "Flame")), List.of(), "\"restored\"");
+        tracker.seed(restored);
+        CrawlResult<CombatStyleDto> result = tracker.apply(List.of(
+                new CrawledPage<>(1, List.of(style(1, "Sun"), style(2, "Mist")))), List.of());
+        assertEquals(List.of(1L, 2L), ids(result));
+        assertEquals(List.of(
+                new ChangeEvent<>(ChangeEvent.Type.CHANGED, 2L, style(2, "Mist")),
+                new ChangeEvent<>(ChangeEvent.Type.REMOVED, 3L, style(3, "Flame"))), events);
+    }
+
+    @Test
+    void apply_afterSeed_partialCrawl_reconcilesOnTheNextCompleteCrawl() {
+        CrawlResult<CombatStyleDto> restored = new CrawlResult<>(List.of(style(1, "Sun"), style(2, "Water"), style(3, "Flame")), List.of(), "\"restored\"");
+        tracker.seed(restored);
+        List<CombatStyleDto> page1 = List.of(style(1, "Sun"));
+        CrawlResult<CombatStyleDto> partial = tracker.apply(List.of(new CrawledPage<>(1, page1)), List.of(2));
+        assertEquals(List.of(1L, 2L, 3L), ids(partial)); //the elements of the missing page cannot be told apart from the deleted ones
+        assertTrue(events.isEmpty());
+        CrawlResult<CombatStyleDto> complete = tracker.apply(List.of(
+                new CrawledPage<>(1, page1), //unchanged since the partial crawl
+                new CrawledPage<>(2, List.of(style(2, "Water")))), List.of()); //Flame has been deleted upstream
+        assertEquals(List.of(1L, 2L), ids(complete));
+        assertEquals(List.of(new ChangeEvent<>(ChangeEvent.Type.REMOVED, 3L, style(3, "Flame"))), events);
+    }
+
+    @Test
+    void merge_appliesChangesInIdOrder() {
+        List<CombatStyleDto> merged = DeltaTracker.merge(
+                List.of(style(2, "Water"), style(4, "Moon"), style(6, "Wind")),
+                new TreeMap<>(Map.of(
+                        1L, new ChangeEvent<>(ChangeEvent.Type.ADDED, 1L, style(1, "Sun")),
+                        4L, new ChangeEvent<>(ChangeEvent.Type.REMOVED, 4L, style(4, "Moon")),
+                        6L, new ChangeEvent<>(ChangeEvent.Type.CHANGED, 6L, style(6, "Storm")),
+                        7L, new ChangeEvent<>(ChangeEvent.Type.ADDED, 7L, style(7, "Stone")))));
+        assertEquals(List.of(style(1, "Sun"), style(2, "Water"), style(6, "Storm"), style(7, "Stone")), merged);
+    }
+
+    private static CombatStyleDto style(long id, String name) {
+        return CombatStyleDto.builder()
+                .id(id)
+                .name(name)
+                .description(name + " breathing")
+                .build();
+    }
+
+    private static List<Long> ids(CrawlResult<CombatStyleDto> result) {
+        return result.items().stream().map(CombatStyleDto::id).toList();
+    }
+}
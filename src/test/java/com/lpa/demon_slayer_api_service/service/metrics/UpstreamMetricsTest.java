@@ -0,0 +1,85 @@
+package com.lpa.demon_slayer_api_service.service.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UpstreamMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private UpstreamMetrics upstreamMetrics;
+
+    @BeforeEach
+    void initialize() {
+        meterRegistry = new SimpleMeterRegistry();
+        upstreamMetrics = new UpstreamMetrics(meterRegistry);
+    }
+
+    @Test
+    void filter_pageRequest_isTimedWithItsEndpointPageAndStatus() {
+        ClientRequest request = ClientRequest.create(HttpMethod.GET, URI.create("http://upstream/characters?page=3&limit=10"))
+                .attributes(UpstreamMetrics.page("/characters", 3))
+                .build();
+        upstreamMetrics.filter(request, _ -> Mono.just(ClientResponse.create(HttpStatus.NOT_MODIFIED).build())).block();
+        var timer = meterRegistry.find("demonslayer.upstream.requests")
+                .tag("endpoint", "/characters")
+                .tag("kind", "page")
+                .tag("page", "3")
+                .tag("status", "304")
+                .tag("outcome", "redirection")
+                .timer();
+        assertNotNull(timer);
+        assertEquals(1, timer.count());
+    }
+
+    @Test
+    void filter_cancelledLookup_isTimedOnceAsCancelled() {
+        ClientRequest request = ClientRequest.create(HttpMethod.GET, URI.create("http://upstream/characters?id=1"))
+                .attributes(UpstreamMetrics.lookup("/characters"))
+                .build();
+        upstreamMetrics.filter(request, _ -> Mono.never()).subscribe().dispose(); //e.g. a timeout or a hedged request that lost the race
+        var timer = meterRegistry.find("demonslayer.upstream.requests")
+                .tag("kind", "lookup")
+                .tag("page", "none")
+                .tag("outcome", "cancelled")
+                .timer();
+        assertNotNull(timer);
+        assertEquals(1, timer.count());
+        assertEquals(1, meterRegistry.find("demonslayer.upstream.requests").timers().size());
+    }
+
+    @Test
+    void filter_requestWithoutAttributes_isTaggedNone() {
+        ClientRequest request = ClientRequest.create(HttpMethod.GET, URI.create("http://upstream/other")).build();
+        assertThrows(IllegalStateException.class, () -> upstreamMetrics.filter(request, _ -> Mono.error(new IllegalStateException("connection refused"))).block());
+        assertNotNull(meterRegistry.find("demonslayer.upstream.requests")
+                .tag("endpoint", "none")
+                .tag("status", "none")
+                .tag("outcome", "error")
+                .timer());
+    }
+
+    @Test
+    void recordError_countsPerEndpointAndStatus() {
+        upstreamMetrics.recordError("/characters", HttpStatus.SERVICE_UNAVAILABLE);
+        upstreamMetrics.recordError("/characters", HttpStatus.SERVICE_UNAVAILABLE);
+        upstreamMetrics.recordError("/characters", HttpStatus.NOT_FOUND);
+        assertEquals(2, meterRegistry.find("demonslayer.upstream.errors").tag("status", "503").counter().count());
+        assertEquals(1, meterRegistry.find("demonslayer.upstream.errors").tag("status", "404").counter().count());
+    }
+
+    @Test
+    void uriTag_dropsTheQueryString() {
+        assertEquals("/api/v1/characters", UpstreamMetrics.uriTag("/api/v1/characters?page=2&limit=10"));
+        assertEquals("/api/v1/combat-styles", UpstreamMetrics.uriTag("/api/v1/combat-styles"));
+    }
+}
@@ -0,0 +1,242 @@
+package com.lpa.demon_slayer_api_service.service.ratelimit;
+
+import com.lpa.demon_slayer_api_service.config.RateLimitProperties;
+import com.lpa.demon_slayer_api_service.exception.CallNotPermittedException;
+import com.lpa.demon_slayer_api_service.exception.UpstreamThrottledException;
+import com.lpa.demon_slayer_api_service.service.ratelimit.UpstreamRateLimiter.Priority;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UpstreamRateLimiterTest {
+
+    private static final RateLimitProperties PROPERTIES = new RateLimitProperties(
+            true,
+            10, //one token every 100 ms
+            3,
+            1,
+            2,
+            2,
+            Duration.ofSeconds(1),
+            Duration.ofMinutes(1)
+    );
+
+    private VirtualTimeScheduler scheduler;
+    private SimpleMeterRegistry meterRegistry;
+    private UpstreamRateLimiter limiter;
+
+    @BeforeEach
+    void initialize() {
+        scheduler = VirtualTimeScheduler.create();
+        meterRegistry = new SimpleMeterRegistry();
+        limiter = new UpstreamRateLimiter(PROPERTIES, scheduler, meterRegistry);
+    }
+
+    @Test
+    void acquire_bucketEmpty_waitsForTheRefill() {
+        for (int i = 0; i < 3; i++)
+            assertTrue(acquire(Priority.INTERACTIVE).get()); //the burst
+        AtomicBoolean fourth = acquire(Priority.INTERACTIVE);
+        assertFalse(fourth.get());
+        assertEquals(1, limiter.queueDepth(Priority.INTERACTIVE));
+        scheduler.advanceTimeBy(Duration.ofMillis(99));
+        assertFalse(fourth.get());
+        scheduler.advanceTimeBy(Duration.ofMillis(1));
+        assertTrue(fourth.get());
+        assertEquals(0, meterRegistry.find("demonslayer.ratelimit.queue.depth").tag("priority", "interactive").gauge().value());
+        assertEquals(4, meterRegistry.find("demonslayer.ratelimit.wait").tag("priority", "interactive").timer().count());
+        assertEquals(100, meterRegistry.find("demonslayer.ratelimit.wait").tag("priority", "interactive").timer()
+                .max(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void acquire_backgroundLeavesTheReserveToInteractive() {
+        assertTrue(acquire(Priority.BACKGROUND).get());
+        assertTrue(acquire(Priority.BACKGROUND).get());
+        AtomicBoolean background = acquire(Priority.BACKGROUND); //the last token is reserved
+        assertFalse(background.get());
+        assertTrue(acquire(Priority.INTERACTIVE).get());
+        assertEquals(1, limiter.queueDepth(Priority.BACKGROUND));
+        scheduler.advanceTimeBy(Duration.ofMillis(100));
+        assertFalse(background.get()); //1 token, 2 required
+        scheduler.advanceTimeBy(Duration.ofMillis(100));
+        assertTrue(background.get());
+    }
+
+    @Test
+    void acquire_interactiveIsServedBeforeQueuedBackground() {
+        for (int i = 0; i < 3; i++)
+            acquire(Priority.INTERACTIVE);
+        AtomicBoolean background = acquire(Priority.BACKGROUND);
+        AtomicBoolean interactive = acquire(Priority.INTERACTIVE);
+        scheduler.advanceTimeBy(Duration.ofMillis(100));
+        assertTrue(interactive.get()); //queued last, served first
+        assertFalse(background.get());
+        scheduler.advanceTimeBy(Duration.ofMillis(200));
+        assertTrue(background.get());
+    }
+
+    @Test
+    void onResponse_retryAfter_holdsEveryRequest() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "2");
+        limiter.onResponse(HttpStatus.TOO_MANY_REQUESTS, headers);
+        AtomicBoolean interactive = acquire(Priority.INTERACTIVE);
+        scheduler.advanceTimeBy(Duration.ofSeconds(2));
+        assertFalse(interactive.get()); //the bucket starts refilling once the pause is over
+        scheduler.advanceTimeBy(Duration.ofMillis(100));
+        assertTrue(interactive.get());
+        assertEquals(1, meterRegistry.find("demonslayer.ratelimit.throttled").counter().count());
+        assertEquals(1, meterRegistry.find("demonslayer.ratelimit.pauses").counter().count());
+    }
+
+    @Test
+    void onResponse_quotaExhausted_holdsUntilReset() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-RateLimit-Remaining", "0");
+        headers.set("X-RateLimit-Reset", "5");
+        limiter.onResponse(HttpStatus.OK, headers);
+        AtomicBoolean interactive = acquire(Priority.INTERACTIVE);
+        scheduler.advanceTimeBy(Duration.ofSeconds(5));
+        assertFalse(interactive.get());
+        scheduler.advanceTimeBy(Duration.ofMillis(100));
+        assertTrue(interactive.get());
+        assertEquals(0, meterRegistry.find("demonslayer.ratelimit.throttled").counter().count());
+    }
+
+    @Test
+    void onResponse_remainingQuota_capsTheTokens() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("RateLimit-Remaining", "1");
+        limiter.onResponse(HttpStatus.OK, headers);
+        assertEquals(1, limiter.availableTokens());
+        assertTrue(acquire(Priority.INTERACTIVE).get());
+        assertFalse(acquire(Priority.INTERACTIVE).get());
+    }
+
+    @Test
+    void acquire_queueFull_failsFast() {
+        for (int i = 0; i < 3; i++)
+            acquire(Priority.INTERACTIVE);
+        acquire(Priority.BACKGROUND);
+        acquire(Priority.INTERACTIVE);
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        limiter.acquire(Priority.INTERACTIVE).subscribe(null, error::set);
+        assertInstanceOf(CallNotPermittedException.class, error.get());
+        assertEquals(1, meterRegistry.find("demonslayer.ratelimit.rejected").tag("priority", "interactive").counter().count());
+    }
+
+    @Test
+    void acquire_cancelled_leavesTheQueue() {
+        for (int i = 0; i < 3; i++)
+            acquire(Priority.INTERACTIVE);
+        Disposable waiting = limiter.acquire(Priority.BACKGROUND).subscribe();
+        assertEquals(1, limiter.queueDepth(Priority.BACKGROUND));
+        waiting.dispose();
+        assertEquals(0, limiter.queueDepth(Priority.BACKGROUND));
+    }
+
+    @Test
+    void filter_admittedRequest_isSentWithoutAnotherToken() {
+        for (int i = 0; i < 3; i++)
+            acquire(Priority.INTERACTIVE); //the caller took the tokens ahead, e.g. before its bulkhead
+        ExchangeFunction upstream = _ -> Mono.just(ClientResponse.create(HttpStatus.OK).build());
+        AtomicBoolean admitted = new AtomicBoolean(false);
+        limiter.filter(ClientRequest.create(HttpMethod.GET, URI.create("http://localhost/characters"))
+                        .attributes(UpstreamRateLimiter.admitted())
+                        .build(), upstream)
+                .subscribe(_ -> admitted.set(true));
+        assertTrue(admitted.get());
+        AtomicBoolean notAdmitted = new AtomicBoolean(false);
+        limiter.filter(ClientRequest.create(HttpMethod.GET, URI.create("http://localhost/characters")).build(), upstream)
+                .subscribe(_ -> notAdmitted.set(true));
+        assertFalse(notAdmitted.get()); //waits for the refill
+        scheduler.advanceTimeBy(Duration.ofMillis(300)); //background: the reserve is left to interactive requests
+        assertTrue(notAdmitted.get());
+    }
+
+    @Test
+    void filter_admittedRequestThrottled_returnsTheAnswerToTheCaller() {
+        AtomicInteger exchanges = new AtomicInteger();
+        ExchangeFunction upstream = _ -> {
+            exchanges.incrementAndGet();
+            return Mono.just(ClientResponse.create(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "1").build());
+        };
+        AtomicReference<ClientResponse> response = new AtomicReference<>();
+        limiter.filter(ClientRequest.create(HttpMethod.GET, URI.create("http://localhost/characters"))
+                        .attributes(UpstreamRateLimiter.admitted())
+                        .build(), upstream)
+                .subscribe(response::set);
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.get().statusCode()); //not queued again within the limits of the caller
+        assertEquals(1, exchanges.get());
+        assertEquals(1, meterRegistry.find("demonslayer.ratelimit.pauses").counter().count());
+    }
+
+    @Test
+    void admit_throttledCall_isRunAgainOnceATokenIsTaken() {
+        AtomicInteger attempts = new AtomicInteger();
+        AtomicReference<String> result = new AtomicReference<>();
+        limiter.admit(Priority.INTERACTIVE, () -> {
+                    if (attempts.incrementAndGet() > 1)
+                        return Mono.just("character");
+                    HttpHeaders headers = new HttpHeaders();
+                    headers.set(HttpHeaders.RETRY_AFTER, "1");
+                    limiter.onResponse(HttpStatus.TOO_MANY_REQUESTS, headers);
+                    return Mono.error(new UpstreamThrottledException("throttled"));
+                })
+                .subscribe(result::set);
+        assertEquals(1, attempts.get());
+        scheduler.advanceTimeBy(Duration.ofSeconds(1));
+        assertEquals(1, attempts.get()); //the bucket starts refilling once the pause is over
+        scheduler.advanceTimeBy(Duration.ofMillis(100));
+        assertEquals(2, attempts.get());
+        assertEquals("character", result.get());
+        assertEquals(2, meterRegistry.find("demonslayer.ratelimit.wait").tag("priority", "interactive").timer().count());
+    }
+
+    @Test
+    void admit_keepsBeingThrottled_failsOnceTheRetriesAreExhausted() {
+        AtomicInteger attempts = new AtomicInteger();
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        limiter.admit(Priority.INTERACTIVE, () -> {
+                    attempts.incrementAndGet();
+                    return Mono.error(new UpstreamThrottledException("throttled"));
+                })
+                .subscribe(null, error::set);
+        scheduler.advanceTimeBy(Duration.ofSeconds(1));
+        assertEquals(3, attempts.get()); //the first attempt and the 2 attempts queued again
+        assertInstanceOf(UpstreamThrottledException.class, error.get());
+    }
+
+    @Test
+    void acquire_disabled_completesRightAway() {
+        UpstreamRateLimiter disabled = new UpstreamRateLimiter(new RateLimitProperties(false, 10, 3, 1, 2, 2,
+                Duration.ofSeconds(1), Duration.ofMinutes(1)), scheduler, meterRegistry);
+        for (int i = 0; i < 10; i++)
+            assertNull(disabled.acquire(Priority.BACKGROUND).block(Duration.ZERO));
+    }
+
+    private AtomicBoolean acquire(Priority priority) {
+        AtomicBoolean acquired = new AtomicBoolean(false);
+        limiter.acquire(priority).subscribe(null, null, () -> acquired.set(true));
+        return acquired;
+    }
+}
@@ -0,0 +1,66 @@
+package com.lpa.demon_slayer_api_service.service.rendering;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lpa.demon_slayer_api_service.model.dto.character.CharacterSummaryDto;
+import com.lpa.demon_slayer_api_service.model.dto.pagination.PageResponseCharacterSummaryDto;
+import com.lpa.demon_slayer_api_service.service.crawl.CrawlResult;
+import com.lpa.demon_slayer_api_service.utils.TestUtils;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CollectionRendererTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final CollectionRenderer renderer = new CollectionRenderer(mapper, new FieldProjections(mapper));
+
+    @Test
+    void render_sameSnapshot_isRenderedOnce() throws Exception {
+        CrawlResult<CharacterSummaryDto> snapshot = new CrawlResult<>(characters(), List.of(), "\"v1\"");
+        RenderedCollection first = renderer.render("characters", snapshot);
+        assertSame(first, renderer.render("characters", snapshot));
+        assertArrayEquals(mapper.writeValueAsBytes(snapshot.items()), first.identity());
+
+        CrawlResult<CharacterSummaryDto> reloaded = new CrawlResult<>(characters(), List.of(), "\"v2\"");
+        RenderedCollection second = renderer.render("characters", reloaded);
+        assertNotSame(first, second); //a new snapshot is rendered again
+        assertEquals("\"v2-gzip\"", second.etag(ContentCoding.GZIP));
+    }
+
+    @Test
+    void render_unknownFields_shareTheProjectionOfTheKnownOnes() throws Exception {
+        CrawlResult<CharacterSummaryDto> snapshot = new CrawlResult<>(characters(), List.of(), "\"v1\"");
+        RenderedCollection projection = renderer.render("characters", snapshot, FieldSet.parse("id,name"));
+        assertSame(projection, renderer.render("characters", snapshot, FieldSet.parse("name,whatever,id,name.first")));
+        assertNotSame(projection, renderer.render("characters", snapshot)); //the full rendering is kept apart
+    }
+
+    @Test
+    void body_wrapsTheSharedBytes() throws Exception {
+        RenderedCollection rendered = renderer.render("characters", new CrawlResult<>(characters(), List.of()));
+        DataBuffer body = rendered.body(ContentCoding.GZIP);
+        assertEquals(rendered.gzip().length, body.readableByteCount());
+        assertTrue(rendered.gzip().length < rendered.identity().length);
+        assertNull(rendered.etag(ContentCoding.IDENTITY)); //no ETag without a snapshot ETag
+    }
+
+    @Test
+    void negotiate_followsAcceptEncoding() {
+        assertEquals(ContentCoding.IDENTITY, ContentCoding.negotiate(null));
+        assertEquals(ContentCoding.IDENTITY, ContentCoding.negotiate("br"));
+        assertEquals(ContentCoding.IDENTITY, ContentCoding.negotiate("gzip;q=0, br"));
+        assertEquals(ContentCoding.GZIP, ContentCoding.negotiate("gzip, deflate, br"));
+        assertEquals(ContentCoding.GZIP, ContentCoding.negotiate("br;q=1.0, GZIP;q=0.5"));
+        assertEquals(ContentCoding.GZIP, ContentCoding.negotiate("*"));
+        assertEquals(ContentCoding.IDENTITY, ContentCoding.negotiate("gzip;q=0, *")); //the explicit gzip entry overrides "*"
+        assertEquals(ContentCoding.IDENTITY, ContentCoding.negotiate("*, gzip;q=0"));
+        assertEquals(ContentCoding.GZIP, ContentCoding.negotiate("br;q=0, *;q=0.5"));
+    }
+
+    private List<CharacterSummaryDto> characters() throws Exception {
+        return mapper.readValue(TestUtils.loadJson("characters-mock.json"), PageResponseCharacterSummaryDto.class).content();
+    }
+}
@@ -0,0 +1,70 @@
+package com.lpa.demon_slayer_api_service.service.rendering;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lpa.demon_slayer_api_service.exception.DemonSlayerApiException;
+import com.lpa.demon_slayer_api_service.model.dto.AffiliationDto;
+import com.lpa.demon_slayer_api_service.model.dto.character.CharacterDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FieldProjectionsTest {
+
+    private static final CharacterDto TANJIRO = CharacterDto.builder()
+            .id(1L)
+            .name("Tanjiro Kamado")
+            .description("The main protagonist")
+            .affiliation(new AffiliationDto("Demon Slayer", "The Demon Slayer Corps"))
+            .build();
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final FieldProjections projections = new FieldProjections(mapper);
+
+    @Test
+    void parse_sameFieldsInAnyOrder_shareTheSameWriter() throws Exception {
+        FieldSet fields = FieldSet.parse(" name , id,");
+        assertEquals("id,name", fields.key());
+        assertEquals(fields, FieldSet.parse("id,name"));
+        assertSame(projections.writer(fields), projections.writer(FieldSet.parse("id,name")));
+        assertNull(FieldSet.parse(" "));
+        assertThrows(DemonSlayerApiException.class, () -> FieldSet.parse("id,affiliation..name"));
+    }
+
+    @Test
+    void canonical_dropsThePathsThatAreNotProperties() throws Exception {
+        FieldSet fields = FieldSet.parse("name,affiliation.name,unknown,name.first,combat_style.name");
+        assertEquals("affiliation.name,combat_style.name,name", projections.canonical(TANJIRO, fields).key());
+        assertEquals("name", projections.canonical(List.of(TANJIRO), FieldSet.parse("name,nickname")).key()); //collections use their elements
+        FieldSet known = FieldSet.parse("id,name");
+        assertSame(known, projections.canonical(TANJIRO, known));
+        assertSame(projections.writer(projections.canonical(TANJIRO, FieldSet.parse("id,name,junk"))), projections.writer(known));
+    }
+
+    @Test
+    void writeValueAsBytes_keepsRequestedPathsOnly() throws Exception {
+        JsonNode json = mapper.readTree(projections.writeValueAsBytes(TANJIRO, FieldSet.parse("name,affiliation.name,unknown")));
+        List<String> properties = new ArrayList<>();
+        json.fieldNames().forEachRemaining(properties::add);
+        assertEquals(List.of("name", "affiliation"), properties);
+        assertEquals("Demon Slayer", json.path("affiliation").path("name").asText());
+        assertTrue(json.path("affiliation").path("description").isMissingNode());
+    }
+
+    @Test
+    void writeValueAsBytes_wholeObjectWinsOverNestedPath() throws Exception {
+        JsonNode json = mapper.readTree(projections.writeValueAsBytes(TANJIRO, FieldSet.parse("affiliation.name,affiliation")));
+        assertEquals("The Demon Slayer Corps", json.path("affiliation").path("description").asText());
+        assertTrue(json.path("id").isMissingNode());
+    }
+
+    @Test
+    void writeValueAsBytes_doesNotAlterTheApplicationMapper() throws Exception {
+        projections.writeValueAsBytes(TANJIRO, FieldSet.parse("id"));
+        JsonNode json = mapper.readTree(mapper.writeValueAsBytes(TANJIRO));
+        assertEquals("The main protagonist", json.path("description").asText());
+    }
+}
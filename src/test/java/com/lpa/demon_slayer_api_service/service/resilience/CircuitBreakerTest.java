@@ -0,0 +1,121 @@
+package com.lpa.demon_slayer_api_service.service.resilience;
+
+import com.lpa.demon_slayer_api_service.config.ResilienceProperties;
+import com.lpa.demon_slayer_api_service.exception.CallNotPermittedException;
+import com.lpa.demon_slayer_api_service.exception.DemonSlayerApiException;
+import com.lpa.demon_slayer_api_service.utils.MutableClock;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    private static final ResilienceProperties.CircuitBreaker PROPERTIES = new ResilienceProperties.CircuitBreaker(
+            0.5,
+            4,
+            4,
+            Duration.ofSeconds(30),
+            2
+    );
+
+    private MutableClock clock;
+    private SimpleMeterRegistry meterRegistry;
+    private CircuitBreaker breaker;
+    private AtomicInteger calls;
+
+    @BeforeEach
+    void initialize() {
+        clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+        meterRegistry = new SimpleMeterRegistry();
+        breaker = new CircuitBreaker("test", PROPERTIES, clock, meterRegistry);
+        calls = new AtomicInteger();
+    }
+
+    @Test
+    void run_failureRateReachesThreshold_opensAndFailsFast() {
+        succeed();
+        succeed();
+        fail();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state()); //only 3 calls recorded out of the 4 required
+        fail();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        Mono<String> rejected = breaker.run(this::upstreamSuccess);
+        assertThrows(Exception.class, rejected::block);
+        assertEquals(4, calls.get()); //the rejected call never reached upstream
+        assertEquals(1, meterRegistry.find("demonslayer.circuit.rejected").counter().count());
+        assertEquals(1, meterRegistry.find("demonslayer.circuit.state").gauge().value());
+    }
+
+    @Test
+    void run_clientErrors_doNotOpenTheCircuit() {
+        for (int i = 0; i < 10; i++)
+            assertThrows(Exception.class, () -> breaker.run(() -> Mono.error(
+                    new DemonSlayerApiException("Not found", HttpStatus.NOT_FOUND))).block());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    @Test
+    void run_afterOpenDuration_closesOnceTrialCallsSucceed() {
+        open();
+        clock.advance(Duration.ofSeconds(31));
+        succeed();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+        succeed();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    @Test
+    void run_trialCallFails_opensAgain() {
+        open();
+        clock.advance(Duration.ofSeconds(31));
+        fail();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertEquals(2, meterRegistry.find("demonslayer.circuit.transitions").tag("to", "open").counter().count());
+    }
+
+    @Test
+    void run_halfOpen_limitsTheNumberOfTrialCalls() {
+        open();
+        clock.advance(Duration.ofSeconds(31));
+        Sinks.One<String> first = Sinks.one();
+        Sinks.One<String> second = Sinks.one();
+        breaker.run(first::asMono).subscribe();
+        breaker.run(second::asMono).subscribe();
+        Exception thrown = assertThrows(Exception.class, () -> breaker.run(this::upstreamSuccess).block()); //both permits are taken
+        assertInstanceOf(CallNotPermittedException.class, thrown.getCause());
+        first.tryEmitValue("ok");
+        second.tryEmitValue("ok");
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    private void open() {
+        for (int i = 0; i < 4; i++)
+            fail();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+    }
+
+    private void succeed() {
+        assertEquals("ok", breaker.run(this::upstreamSuccess).block());
+    }
+
+    private void fail() {
+        assertThrows(Exception.class, () -> breaker.run(() -> {
+            calls.incrementAndGet();
+            return Mono.<String>error(new DemonSlayerApiException("Internal server error", HttpStatus.INTERNAL_SERVER_ERROR));
+        }).block());
+    }
+
+    private Mono<String> upstreamSuccess() {
+        calls.incrementAndGet();
+        return Mono.just("ok");
+    }
+}
@@ -1,10 +1,13 @@
 package com.lpa.demon_slayer_api_service.utils;
 
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
 import org.springframework.util.ResourceUtils;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.Map;
 
 public class TestUtils {
 
@@ -13,5 +16,22 @@ public class TestUtils {
                 Paths.get(ResourceUtils.getFile("classpath:" + path).toURI())
         ));
     }
-}
 
+    /**
+      * Bind a {@code @ConfigurationProperties} record the same way Spring Boot does, so that tests get the declared defaults
+      *
+      * @param prefix     the properties prefix (api.demonslayer.cache...)
+      * @param type       the properties record class
+      * @param overrides  the properties to override, relative to the prefix (ttl=1s...)
+      * @return the bound properties
+      */
+    public static <T> T bindProperties(String prefix, Class<T> type, Map<String, String> overrides) {
+        MapConfigurationPropertySource source = new MapConfigurationPropertySource();
+        overrides.forEach((key, value) -> source.put(prefix + "." + key, value));
+        return new Binder(source).bindOrCreate(prefix, type);
+    }
+
+    public static <T> T bindProperties(String prefix, Class<T> type) {
+        return bindProperties(prefix, type, Map.of());
+    }
+}